@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2016 IBM Corporation and others.
+ * Copyright (c) 2006, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,10 @@
 
 package org.eclipse.core.databinding.observable;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.ListenerList;
 
@@ -31,6 +35,8 @@ import org.eclipse.core.runtime.ListenerList;
 
 	ListenerList<IObservablesListener>[] listenerLists = null;
 	Object listenerTypes[] = null;
+	// the number of IDependencyListeners in each of the listenerLists
+	private int[] dependencyListenerCounts = null;
 	private final Realm realm;
 
 	/**
@@ -55,19 +61,27 @@ import org.eclipse.core.runtime.ListenerList;
 				length = 0;
 				listenerTypes = new Object[1];
 				listenerLists = new ListenerList[1];
+				dependencyListenerCounts = new int[1];
 			} else {
 				length = listenerTypes.length;
 				System.arraycopy(listenerTypes, 0,
 						listenerTypes = new Object[length + 1], 0, length);
 				System.arraycopy(listenerLists, 0,
 						listenerLists = new ListenerList[length + 1], 0, length);
+				System.arraycopy(dependencyListenerCounts, 0,
+						dependencyListenerCounts = new int[length + 1], 0, length);
 			}
 			listenerTypes[length] = listenerType;
 			listenerLists[length] = new ListenerList<>();
 			listenerTypeIndex = length;
 		}
 		boolean hadListeners = hasListeners();
-		listenerLists[listenerTypeIndex].add(listener);
+		ListenerList<IObservablesListener> listeners = listenerLists[listenerTypeIndex];
+		int size = listeners.size();
+		listeners.add(listener);
+		if (listener instanceof IDependencyListener && listeners.size() > size) {
+			dependencyListenerCounts[listenerTypeIndex]++;
+		}
 		if (!hadListeners && hasListeners()) {
 			firstListenerAdded();
 		}
@@ -82,8 +96,13 @@ import org.eclipse.core.runtime.ListenerList;
 		int listenerTypeIndex = findListenerTypeIndex(listenerType);
 		if (listenerTypeIndex != -1) {
 			boolean hadListeners = hasListeners();
-			listenerLists[listenerTypeIndex].remove(listener);
-			if (listenerLists[listenerTypeIndex].isEmpty()) {
+			ListenerList<IObservablesListener> listeners = listenerLists[listenerTypeIndex];
+			int size = listeners.size();
+			listeners.remove(listener);
+			if (listener instanceof IDependencyListener && listeners.size() < size) {
+				dependencyListenerCounts[listenerTypeIndex]--;
+			}
+			if (listeners.isEmpty()) {
 				if (hadListeners && !hasListeners()) {
 					this.lastListenerRemoved();
 				}
@@ -112,12 +131,64 @@ import org.eclipse.core.runtime.ListenerList;
 	}
 
 	protected void fireEvent(ObservableEvent event) {
+		ObservableEventBatch batch = realm.batch;
+		if (batch != null && batch.defer(this, event)) {
+			return;
+		}
+		dispatchEvent(event);
+	}
+
+	/**
+	 * Notifies the listeners registered for the type of the given event,
+	 * bypassing any batch in progress.
+	 *
+	 * @param event the event to dispatch
+	 */
+	/* package */void dispatchEvent(ObservableEvent event) {
 		Object listenerType = event.getListenerType();
 		int listenerTypeIndex = findListenerTypeIndex(listenerType);
-		if (listenerTypeIndex != -1) {
-			for (IObservablesListener listener : listenerLists[listenerTypeIndex]) {
+		if (listenerTypeIndex == -1) {
+			return;
+		}
+		ListenerList<IObservablesListener> listeners = listenerLists[listenerTypeIndex];
+		List<Runnable> pendingNotifications = realm.pendingNotifications;
+		if (pendingNotifications != null) {
+			// An invalidation is propagating through the dependency graph:
+			// invalidate the dependents now, notify everyone else once the
+			// whole graph has been invalidated.
+			for (IObservablesListener listener : listeners) {
+				if (listener instanceof IDependencyListener) {
+					event.dispatch(listener);
+				} else {
+					pendingNotifications.add(() -> event.dispatch(listener));
+				}
+			}
+			return;
+		}
+		if (dependencyListenerCounts[listenerTypeIndex] == 0) {
+			for (IObservablesListener listener : listeners) {
 				event.dispatch(listener);
 			}
+			return;
+		}
+		pendingNotifications = new ArrayList<>();
+		realm.pendingNotifications = pendingNotifications;
+		try {
+			for (IObservablesListener listener : listeners) {
+				if (listener instanceof IDependencyListener) {
+					event.dispatch(listener);
+				}
+			}
+		} finally {
+			realm.pendingNotifications = null;
+		}
+		for (IObservablesListener listener : listeners) {
+			if (!(listener instanceof IDependencyListener)) {
+				event.dispatch(listener);
+			}
+		}
+		for (Runnable notification : pendingNotifications) {
+			notification.run();
 		}
 	}
 
@@ -139,6 +210,7 @@ import org.eclipse.core.runtime.ListenerList;
 	public void dispose() {
 		listenerLists = null;
 		listenerTypes = null;
+		dependencyListenerCounts = null;
 	}
 
 	/**
@@ -153,6 +225,7 @@ import org.eclipse.core.runtime.ListenerList;
 		ChangeManager duplicate = (ChangeManager) super.clone();
 		duplicate.listenerLists = null;
 		duplicate.listenerTypes = null;
+		duplicate.dependencyListenerCounts = null;
 		return duplicate;
 	}
 }
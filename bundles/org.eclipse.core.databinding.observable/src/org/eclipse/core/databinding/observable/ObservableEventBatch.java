@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.core.databinding.observable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.core.databinding.observable.list.ListChangeEvent;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+import org.eclipse.core.databinding.observable.map.MapChangeEvent;
+import org.eclipse.core.databinding.observable.map.MapDiff;
+import org.eclipse.core.databinding.observable.set.SetChangeEvent;
+import org.eclipse.core.databinding.observable.value.ValueChangeEvent;
+import org.eclipse.core.databinding.observable.value.ValueDiff;
+
+/**
+ * Collects the value, list, set and map change events fired while
+ * {@link Realm#runBatched(Runnable)} is running, merging all events of the
+ * same type fired by one observable into a single event.
+ */
+/* package */final class ObservableEventBatch {
+
+	private final Map<ChangeManager, Map<Object, PendingEvents>> pendingEvents = new IdentityHashMap<>();
+
+	// the deferred events in the order in which the first event of each type
+	// was fired by each observable
+	private final List<PendingEvents> order = new ArrayList<>();
+
+	/**
+	 * Defers the given event until the batch completes, if it is of a type
+	 * that can be merged.
+	 *
+	 * @param manager
+	 *            the manager firing the event
+	 * @param event
+	 *            the event
+	 * @return <code>true</code> if the event has been deferred,
+	 *         <code>false</code> if it must be dispatched immediately
+	 */
+	boolean defer(ChangeManager manager, ObservableEvent event) {
+		if (!isMergeable(event)) {
+			return false;
+		}
+		Map<Object, PendingEvents> byType = pendingEvents.computeIfAbsent(manager, m -> new HashMap<>(2));
+		PendingEvents events = byType.get(event.getListenerType());
+		if (events == null) {
+			events = new PendingEvents(manager);
+			byType.put(event.getListenerType(), events);
+			order.add(events);
+		}
+		events.events.add(event);
+		return true;
+	}
+
+	/**
+	 * @return <code>true</code> if no events have been deferred
+	 */
+	boolean isEmpty() {
+		return order.isEmpty();
+	}
+
+	/**
+	 * Dispatches the merged events, in the order in which their first event
+	 * was fired during the batch.
+	 */
+	void flush() {
+		for (PendingEvents pending : order) {
+			List<ObservableEvent> events = pending.events;
+			ObservableEvent event = events.size() == 1 ? events.get(0) : merge(events);
+			if (event != null) {
+				pending.manager.dispatchEvent(event);
+			}
+		}
+	}
+
+	/**
+	 * Generic change events are not merged: dependent observables such as
+	 * computed values must be invalidated right away, so that they are up to
+	 * date when read within the batch.
+	 */
+	private static boolean isMergeable(ObservableEvent event) {
+		return event instanceof ValueChangeEvent || event instanceof ListChangeEvent
+				|| event instanceof SetChangeEvent || event instanceof MapChangeEvent;
+	}
+
+	/**
+	 * Merges events of the same type fired by the same observable. The diffs
+	 * are only accessed here, as they may be computed lazily.
+	 *
+	 * @return the merged event, or <code>null</code> if the changes cancel
+	 *         each other out
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static ObservableEvent merge(List<ObservableEvent> events) {
+		ObservableEvent first = events.get(0);
+		if (first instanceof ValueChangeEvent) {
+			return mergeValueChanges((List) events);
+		} else if (first instanceof ListChangeEvent) {
+			return mergeListChanges((List) events);
+		} else if (first instanceof SetChangeEvent) {
+			return mergeSetChanges((List) events);
+		} else if (first instanceof MapChangeEvent) {
+			return mergeMapChanges((List) events);
+		}
+		return first;
+	}
+
+	private static <T> ObservableEvent mergeValueChanges(List<ValueChangeEvent<T>> events) {
+		T oldValue = events.get(0).diff.getOldValue();
+		T newValue = events.get(events.size() - 1).diff.getNewValue();
+		if (Objects.equals(oldValue, newValue)) {
+			return null;
+		}
+		return new ValueChangeEvent<>(events.get(0).getObservableValue(), Diffs.createValueDiff(oldValue, newValue));
+	}
+
+	private static <E> ObservableEvent mergeListChanges(List<ListChangeEvent<E>> events) {
+		List<ListDiffEntry<E>> entries = new ArrayList<>();
+		for (ListChangeEvent<E> event : events) {
+			Collections.addAll(entries, event.diff.getDifferences());
+		}
+		if (entries.isEmpty()) {
+			return null;
+		}
+		return new ListChangeEvent<>(events.get(0).getObservableList(), Diffs.createListDiff(entries));
+	}
+
+	private static <E> ObservableEvent mergeSetChanges(List<SetChangeEvent<E>> events) {
+		Set<E> additions = new HashSet<>();
+		Set<E> removals = new HashSet<>();
+		for (SetChangeEvent<E> event : events) {
+			for (E element : event.diff.getRemovals()) {
+				if (!additions.remove(element)) {
+					removals.add(element);
+				}
+			}
+			for (E element : event.diff.getAdditions()) {
+				if (!removals.remove(element)) {
+					additions.add(element);
+				}
+			}
+		}
+		if (additions.isEmpty() && removals.isEmpty()) {
+			return null;
+		}
+		return new SetChangeEvent<>(events.get(0).getObservableSet(), Diffs.createSetDiff(additions, removals));
+	}
+
+	private static <K, V> ObservableEvent mergeMapChanges(List<MapChangeEvent<K, V>> events) {
+		// old value of every changed key, and whether the key was contained in
+		// the map before the batch
+		final Map<K, V> oldValues = new LinkedHashMap<>();
+		Set<K> initiallyAbsent = new HashSet<>();
+		final Map<K, V> newValues = new HashMap<>();
+		Set<K> finallyAbsent = new HashSet<>();
+		for (MapChangeEvent<K, V> event : events) {
+			MapDiff<K, V> diff = event.diff;
+			for (K key : diff.getRemovedKeys()) {
+				if (!oldValues.containsKey(key)) {
+					oldValues.put(key, diff.getOldValue(key));
+				}
+				newValues.remove(key);
+				finallyAbsent.add(key);
+			}
+			for (K key : diff.getChangedKeys()) {
+				if (!oldValues.containsKey(key)) {
+					oldValues.put(key, diff.getOldValue(key));
+				}
+				newValues.put(key, diff.getNewValue(key));
+				finallyAbsent.remove(key);
+			}
+			for (K key : diff.getAddedKeys()) {
+				if (!oldValues.containsKey(key)) {
+					oldValues.put(key, null);
+					initiallyAbsent.add(key);
+				}
+				newValues.put(key, diff.getNewValue(key));
+				finallyAbsent.remove(key);
+			}
+		}
+
+		final Set<K> addedKeys = new HashSet<>();
+		final Set<K> removedKeys = new HashSet<>();
+		final Set<K> changedKeys = new HashSet<>();
+		for (Map.Entry<K, V> entry : oldValues.entrySet()) {
+			K key = entry.getKey();
+			boolean wasAbsent = initiallyAbsent.contains(key);
+			boolean isAbsent = finallyAbsent.contains(key);
+			if (wasAbsent && !isAbsent) {
+				addedKeys.add(key);
+			} else if (!wasAbsent && isAbsent) {
+				removedKeys.add(key);
+			} else if (!wasAbsent && !Objects.equals(entry.getValue(), newValues.get(key))) {
+				changedKeys.add(key);
+			}
+		}
+		if (addedKeys.isEmpty() && removedKeys.isEmpty() && changedKeys.isEmpty()) {
+			return null;
+		}
+		return new MapChangeEvent<>(events.get(0).getObservableMap(), new MapDiff<K, V>() {
+			@Override
+			public Set<K> getAddedKeys() {
+				return addedKeys;
+			}
+
+			@Override
+			public Set<K> getRemovedKeys() {
+				return removedKeys;
+			}
+
+			@Override
+			public Set<K> getChangedKeys() {
+				return changedKeys;
+			}
+
+			@Override
+			public V getOldValue(Object key) {
+				return oldValues.get(key);
+			}
+
+			@Override
+			public V getNewValue(Object key) {
+				return newValues.get(key);
+			}
+		});
+	}
+
+	private static final class PendingEvents {
+		final ChangeManager manager;
+		final List<ObservableEvent> events = new ArrayList<>(1);
+
+		PendingEvents(ChangeManager manager) {
+			this.manager = manager;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,11 +17,14 @@
 
 package org.eclipse.core.databinding.observable;
 
+import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
 
+import org.eclipse.core.databinding.observable.value.ComputedValue;
 import org.eclipse.core.databinding.util.Policy;
 import org.eclipse.core.internal.databinding.observable.Queue;
+import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.SafeRunner;
@@ -124,6 +127,19 @@ public abstract class Realm {
 
 	Queue workQueue = new Queue();
 
+	/**
+	 * The batch collecting change events while {@link #runBatched(Runnable)}
+	 * is running, or <code>null</code>.
+	 */
+	ObservableEventBatch batch;
+
+	/**
+	 * The notifications of non-dependency listeners which are deferred while
+	 * an invalidation propagates through the dependency graph, or
+	 * <code>null</code>.
+	 */
+	List<Runnable> pendingNotifications;
+
 	/**
 	 * Runs the given runnable. If an exception occurs within the runnable, it is
 	 * logged and not re-thrown. If the runnable implements {@link ISafeRunnable},
@@ -323,6 +339,61 @@ public abstract class Realm {
 		}
 	}
 
+	/**
+	 * Runs the given runnable within this realm, deferring the value, list,
+	 * set and map change events fired by observables of this realm until the
+	 * runnable has completed.
+	 * <p>
+	 * While the runnable is running, value change, list change, set change and
+	 * map change events are collected rather than dispatched. When the
+	 * runnable completes, each observable which fired such events notifies its
+	 * listeners once per event type, with a single diff describing the net
+	 * effect of all changes made during the batch. The merged events are
+	 * dispatched in the order in which their first event was fired. Events
+	 * fired by listeners while the merged events are dispatched are merged in
+	 * the same way and dispatched once all merged events of the previous round
+	 * have been dispatched.
+	 * </p>
+	 * <p>
+	 * Generic change events, stale events, dispose events and other events are
+	 * dispatched immediately. Observables which are computed from the changed
+	 * observables (such as {@link ComputedValue}s) therefore become dirty right
+	 * away and return up to date values when read within the batch, while
+	 * their value change listeners are notified once, when the batch
+	 * completes. Nested calls join the outermost batch.
+	 * </p>
+	 *
+	 * @param runnable
+	 *            the runnable to run; must be called from within this realm
+	 * @since 1.9
+	 */
+	public void runBatched(Runnable runnable) {
+		Assert.isTrue(isCurrent(), "This operation must be run within the realm"); //$NON-NLS-1$
+		if (batch != null) {
+			runnable.run();
+			return;
+		}
+		ObservableEventBatch currentBatch = new ObservableEventBatch();
+		batch = currentBatch;
+		try {
+			runnable.run();
+		} finally {
+			try {
+				// events fired by listeners of the flushed events are collected
+				// in a new batch, so that derived observables are notified
+				// only after all of their dependencies have been
+				while (!currentBatch.isEmpty()) {
+					ObservableEventBatch completedBatch = currentBatch;
+					currentBatch = new ObservableEventBatch();
+					batch = currentBatch;
+					completedBatch.flush();
+				}
+			} finally {
+				batch = null;
+			}
+		}
+	}
+
 	/**
 	 * Sets the provided <code>realm</code> as the default for the duration of
 	 * {@link Runnable#run()} and resets the previous realm after completion.
@@ -1,5 +1,5 @@
 /************************************************************************************************************
- * Copyright (c) 2007, 2017 Matthew Hall and others.
+ * Copyright (c) 2007, 2020 Matthew Hall and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -30,6 +30,8 @@ import org.eclipse.core.databinding.observable.ObservableTracker;
 import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.StaleEvent;
 import org.eclipse.core.databinding.observable.value.IObservableValue;
+import org.eclipse.core.internal.databinding.observable.Dependencies;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 
 /**
  * A lazily calculated list that automatically computes and registers listeners
@@ -146,17 +148,14 @@ public abstract class ComputedList<E> extends AbstractObservableList<E> {
 	 * </p>
 	 *
 	 * <p>
-	 * The IChangeListener stores each observable in the dependencies list. This
-	 * is registered as the listener when calling ObservableTracker, to detect
-	 * every observable that is used by computeValue.
-	 * </p>
-	 *
-	 * <p>
-	 * The IChangeListener is attached to every dependency.
+	 * The IDependencyListener is attached to every dependency detected by
+	 * ObservableTracker while calculating. It only marks this observable as
+	 * dirty, so that all dependents of a changed observable are invalidated
+	 * before any other listener is notified.
 	 * </p>
 	 *
 	 */
-	private class PrivateInterface implements Runnable, IChangeListener,
+	private class PrivateInterface implements Runnable, IDependencyListener,
 			IStaleListener {
 		@Override
 		public void run() {
@@ -204,7 +203,11 @@ public abstract class ComputedList<E> extends AbstractObservableList<E> {
 			// - While doing so, add any observable that is touched to the
 			// dependencies list
 			IObservable[] newDependencies = ObservableTracker.runAndMonitor(
-					privateInterface, privateInterface, null);
+					privateInterface, null, null);
+
+			// Only register with the dependencies we were not already
+			// listening to
+			Dependencies.update(dependencies, newDependencies, privateInterface);
 
 			// If any dependencies are stale, a stale event will be fired here
 			// even if we were already stale before recomputing. This is in case
@@ -251,7 +254,13 @@ public abstract class ComputedList<E> extends AbstractObservableList<E> {
 
 			makeStale();
 
-			stopListening();
+			if (hasListeners()) {
+				// Keep listening for changes, so the dependencies which are
+				// still used after recomputing need not be registered again
+				stopListeningForStaleness();
+			} else {
+				stopListening();
+			}
 
 			// copy the old list
 			final List<E> oldList = new ArrayList<>(cachedList);
@@ -281,6 +290,14 @@ public abstract class ComputedList<E> extends AbstractObservableList<E> {
 		}
 	}
 
+	private void stopListeningForStaleness() {
+		if (dependencies != null) {
+			for (IObservable observable : dependencies) {
+				observable.removeStaleListener(privateInterface);
+			}
+		}
+	}
+
 	private void makeStale() {
 		if (!stale) {
 			stale = true;
@@ -326,8 +343,9 @@ public abstract class ComputedList<E> extends AbstractObservableList<E> {
 		// been executed. It is their job to figure out what to do with those
 		// notifications.
 		getRealm().exec(() -> {
-			if (dependencies == null) {
-				// We are not currently listening.
+			if (dependencies == null || dirty) {
+				// We are not currently listening, or we have been invalidated
+				// and will not report further changes until recomputed.
 				// But someone is listening for changes. Call getValue()
 				// to make sure we start listening to the observables we
 				// depend on.
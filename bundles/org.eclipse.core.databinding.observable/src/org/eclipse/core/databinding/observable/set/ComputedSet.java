@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 Matthew Hall and others.
+ * Copyright (c) 2008, 2020 Matthew Hall and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -29,6 +29,8 @@ import org.eclipse.core.databinding.observable.ObservableTracker;
 import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.StaleEvent;
 import org.eclipse.core.databinding.observable.value.IObservableValue;
+import org.eclipse.core.internal.databinding.observable.Dependencies;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 
 /**
  * A lazily calculated set that automatically computes and registers listeners
@@ -142,17 +144,14 @@ public abstract class ComputedSet<E> extends AbstractObservableSet<E> {
 	 * </p>
 	 *
 	 * <p>
-	 * The IChangeListener stores each observable in the dependencies list. This
-	 * is registered as the listener when calling ObservableTracker, to detect
-	 * every observable that is used by computeValue.
-	 * </p>
-	 *
-	 * <p>
-	 * The IChangeListener is attached to every dependency.
+	 * The IDependencyListener is attached to every dependency detected by
+	 * ObservableTracker while calculating. It only marks this observable as
+	 * dirty, so that all dependents of a changed observable are invalidated
+	 * before any other listener is notified.
 	 * </p>
 	 *
 	 */
-	private class PrivateInterface implements Runnable, IChangeListener,
+	private class PrivateInterface implements Runnable, IDependencyListener,
 			IStaleListener {
 		@Override
 		public void run() {
@@ -198,7 +197,11 @@ public abstract class ComputedSet<E> extends AbstractObservableSet<E> {
 			// - While doing so, add any observable that is touched to the
 			// dependencies list
 			IObservable[] newDependencies = ObservableTracker.runAndMonitor(
-privateInterface, privateInterface, null);
+privateInterface, null, null);
+
+			// Only register with the dependencies we were not already
+			// listening to
+			Dependencies.update(dependencies, newDependencies, privateInterface);
 
 			// If any dependencies are stale, a stale event will be fired here
 			// even if we were already stale before recomputing. This is in case
@@ -246,7 +249,13 @@ privateInterface, privateInterface, null);
 			final Set<E> oldSet = new HashSet<>(cachedSet);
 			makeStale();
 
-			stopListening();
+			if (hasListeners()) {
+				// Keep listening for changes, so the dependencies which are
+				// still used after recomputing need not be registered again
+				stopListeningForStaleness();
+			} else {
+				stopListening();
+			}
 
 			// Fire the "dirty" event. This implementation recomputes the new
 			// set lazily.
@@ -282,6 +291,14 @@ privateInterface, privateInterface, null);
 		}
 	}
 
+	private void stopListeningForStaleness() {
+		if (dependencies != null) {
+			for (IObservable observable : dependencies) {
+				observable.removeStaleListener(privateInterface);
+			}
+		}
+	}
+
 	private void makeStale() {
 		if (!stale) {
 			stale = true;
@@ -328,8 +345,9 @@ privateInterface, privateInterface, null);
 		// been executed. It is their job to figure out what to do with those
 		// notifications.
 		getRealm().exec(() -> {
-			if (dependencies == null) {
-				// We are not currently listening.
+			if (dependencies == null || dirty) {
+				// We are not currently listening, or we have been invalidated
+				// and will not report further changes until recomputed.
 				// But someone is listening for changes. Call getValue()
 				// to make sure we start listening to the observables we
 				// depend on.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2017 IBM Corporation and others.
+ * Copyright (c) 2005, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,6 +27,8 @@ import org.eclipse.core.databinding.observable.ObservableTracker;
 import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.StaleEvent;
 import org.eclipse.core.databinding.observable.list.IObservableList;
+import org.eclipse.core.internal.databinding.observable.Dependencies;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 
 /**
  * A Lazily calculated value that automatically computes and registers listeners
@@ -153,17 +155,14 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 	 * </p>
 	 *
 	 * <p>
-	 * The IChangeListener stores each observable in the dependencies list. This
-	 * is registered as the listener when calling ObservableTracker, to detect
-	 * every observable that is used by computeValue.
-	 * </p>
-	 *
-	 * <p>
-	 * The IChangeListener is attached to every dependency.
+	 * The IDependencyListener is attached to every dependency detected by
+	 * ObservableTracker while calculating. It only marks this observable as
+	 * dirty, so that all dependents of a changed observable are invalidated
+	 * before any other listener is notified.
 	 * </p>
 	 *
 	 */
-	private class PrivateInterface implements Runnable, IChangeListener,
+	private class PrivateInterface implements Runnable, IDependencyListener,
 			IStaleListener {
 		@Override
 		public void run() {
@@ -196,7 +195,11 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 			// - While doing so, add any observable that is touched to the
 			// dependencies list
 			IObservable[] newDependencies = ObservableTracker.runAndMonitor(
-					privateInterface, privateInterface, null);
+					privateInterface, null, null);
+
+			// Only register with the dependencies we were not already
+			// listening to
+			Dependencies.update(dependencies, newDependencies, privateInterface);
 
 			stale = false;
 			for (IObservable observable : newDependencies) {
@@ -230,7 +233,13 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 		if (!dirty) {
 			dirty = true;
 
-			stopListening();
+			if (hasListeners()) {
+				// Keep listening for changes, so the dependencies which are
+				// still used after recomputing need not be registered again
+				stopListeningForStaleness();
+			} else {
+				stopListening();
+			}
 
 			// copy the old value
 			final T oldValue = cachedValue;
@@ -265,6 +274,14 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 		}
 	}
 
+	private void stopListeningForStaleness() {
+		if (dependencies != null) {
+			for (IObservable observable : dependencies) {
+				observable.removeStaleListener(privateInterface);
+			}
+		}
+	}
+
 	@Override
 	public boolean isStale() {
 		// we need to recompute, otherwise staleness wouldn't mean anything
@@ -305,8 +322,9 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 	 */
 	private void computeValueForListeners() {
 		getRealm().exec(() -> {
-			if (dependencies == null) {
-				// We are not currently listening.
+			if (dependencies == null || dirty) {
+				// We are not currently listening, or we have been invalidated
+				// and will not report further changes until recomputed.
 				if (hasListeners()) {
 					// But someone is listening for changes. Call getValue()
 					// to make sure we start listening to the observables we
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.core.internal.databinding.observable;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import org.eclipse.core.databinding.observable.IChangeListener;
+import org.eclipse.core.databinding.observable.IObservable;
+import org.eclipse.core.internal.databinding.identity.IdentitySet;
+
+/**
+ * Utility methods for computed observables and side effects which keep a
+ * change listener registered on the observables they depend on.
+ */
+public class Dependencies {
+
+	/**
+	 * Moves the given change listener from the old to the new dependencies,
+	 * touching only the observables which are not contained in both.
+	 *
+	 * @param oldDependencies
+	 *            the observables the listener is currently registered on, or
+	 *            <code>null</code> if it is not registered
+	 * @param newDependencies
+	 *            the observables the listener is to be registered on
+	 * @param listener
+	 *            the listener
+	 * @return newDependencies
+	 */
+	public static IObservable[] update(IObservable[] oldDependencies, IObservable[] newDependencies,
+			IChangeListener listener) {
+		if (oldDependencies == null || oldDependencies.length == 0) {
+			for (IObservable observable : newDependencies) {
+				observable.addChangeListener(listener);
+			}
+			return newDependencies;
+		}
+		Set<IObservable> removed = new IdentitySet<>(Arrays.asList(oldDependencies));
+		for (IObservable observable : newDependencies) {
+			if (!removed.remove(observable)) {
+				observable.addChangeListener(listener);
+			}
+		}
+		for (IObservable observable : removed) {
+			observable.removeChangeListener(listener);
+		}
+		return newDependencies;
+	}
+}
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.core.internal.databinding.observable;
+
+import org.eclipse.core.databinding.observable.IChangeListener;
+
+/**
+ * A change listener which a computed observable or side effect registers on
+ * its dependencies. Such listeners must only mark their owner as dirty (and
+ * notify the owner's own listeners), and must not access any observable.
+ * <p>
+ * When an observable with dependency listeners changes, all of its direct and
+ * indirect dependents are invalidated before any other listener is notified.
+ * The other listeners of the changed observable and of all invalidated
+ * dependents are notified afterwards, so that whatever they read is computed
+ * from a consistent state, and every dependent is recomputed at most once.
+ */
+public interface IDependencyListener extends IChangeListener {
+}
@@ -0,0 +1,403 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.observable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+
+/**
+ * Computes the {@link ListDiffEntry} sequence which transforms one list state
+ * into another.
+ * <p>
+ * Two algorithms are available. The linear scan algorithm (adapted from EMF's
+ * ListDifferenceAnalyzer) searches the remaining old elements for every new
+ * element and is quadratic in the size of the lists, but produces compact
+ * diffs for the small lists which make up the vast majority of changes. The
+ * indexed algorithm matches equal elements through a hash index, keeps the
+ * longest increasing subsequence of matched elements in place and reports
+ * every other matched element as a move, which takes O((N+D) log N) time.
+ * Both algorithms produce diffs which, when applied in order, transform the
+ * old list into the new list, and report moves as adjacent remove/add
+ * entries.
+ */
+public class ListDifferenceAnalyzer {
+
+	/**
+	 * Lists with no more elements than this are diffed with the linear scan
+	 * algorithm.
+	 */
+	static final int LINEAR_SCAN_THRESHOLD = 32;
+
+	/**
+	 * Returns the differences between the given list states, using the
+	 * algorithm best suited to the size of the lists.
+	 *
+	 * @param <E>
+	 *            the list element type
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @return the differences between oldList and newList, in the order they
+	 *         are to be processed
+	 */
+	public static <E> List<ListDiffEntry<E>> computeDifferences(List<? extends E> oldList,
+			List<? extends E> newList) {
+		if (oldList.size() <= LINEAR_SCAN_THRESHOLD && newList.size() <= LINEAR_SCAN_THRESHOLD) {
+			return computeLinearScanDifferences(oldList, newList);
+		}
+		return computeIndexedDifferences(oldList, newList);
+	}
+
+	/**
+	 * Returns the differences between the given list states computed by
+	 * searching the remaining old elements for each new element.
+	 *
+	 * @param <E>
+	 *            the list element type
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @return the differences between oldList and newList, in the order they
+	 *         are to be processed
+	 */
+	public static <E> List<ListDiffEntry<E>> computeLinearScanDifferences(List<? extends E> oldList,
+			List<? extends E> newList) {
+		List<ListDiffEntry<E>> listDiffs = new ArrayList<>();
+		List<E> workingList = new ArrayList<>(oldList);
+		int index = 0;
+		for (E newValue : newList) {
+			if (workingList.size() <= index) {
+				// append newValue to newList
+				listDiffs.add(Diffs.createListDiffEntry(index, true, newValue));
+			} else {
+				boolean done;
+				do {
+					done = true;
+					E oldValue = workingList.get(index);
+					if (oldValue == null ? newValue != null : !oldValue.equals(newValue)) {
+						int oldIndexOfNewValue = listIndexOf(workingList, newValue, index);
+						if (oldIndexOfNewValue != -1) {
+							int newIndexOfOldValue = listIndexOf(newList, oldValue, index);
+							if (newIndexOfOldValue == -1) {
+								// removing oldValue from list[index]
+								listDiffs.add(Diffs.createListDiffEntry(index, false, oldValue));
+								workingList.remove(index);
+								done = false;
+							} else if (newIndexOfOldValue > oldIndexOfNewValue) {
+								// moving oldValue from list[index] to
+								// [newIndexOfOldValue]
+								if (workingList.size() <= newIndexOfOldValue) {
+									// The element cannot be moved to the
+									// correct index now, however later
+									// iterations will insert elements in front
+									// of it, eventually moving it into the
+									// correct spot.
+									newIndexOfOldValue = workingList.size() - 1;
+								}
+								listDiffs.add(Diffs.createListDiffEntry(index, false, oldValue));
+								workingList.remove(index);
+								listDiffs.add(Diffs.createListDiffEntry(newIndexOfOldValue, true, oldValue));
+								workingList.add(newIndexOfOldValue, oldValue);
+								done = false;
+							} else {
+								// move newValue from list[oldIndexOfNewValue]
+								// to [index]
+								listDiffs.add(Diffs.createListDiffEntry(oldIndexOfNewValue, false, newValue));
+								workingList.remove(oldIndexOfNewValue);
+								listDiffs.add(Diffs.createListDiffEntry(index, true, newValue));
+								workingList.add(index, newValue);
+							}
+						} else {
+							// add newValue at list[index]
+							workingList.add(index, newValue);
+							listDiffs.add(Diffs.createListDiffEntry(index, true, newValue));
+						}
+					}
+				} while (!done);
+			}
+			++index;
+		}
+		for (int i = workingList.size(); i > index;) {
+			// remove excess trailing elements not present in newList
+			listDiffs.add(Diffs.createListDiffEntry(--i, false, workingList.get(i)));
+		}
+		return listDiffs;
+	}
+
+	/**
+	 * @param list
+	 * @param object
+	 * @param index
+	 * @return the index, or -1 if not found
+	 */
+	private static int listIndexOf(List<?> list, Object object, int index) {
+		int size = list.size();
+		for (int i = index; i < size; i++) {
+			Object candidate = list.get(i);
+			if (candidate == null ? object == null : candidate.equals(object)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the differences between the given list states computed from a
+	 * hash index of the old elements.
+	 * <p>
+	 * Every new element is matched with the first unmatched equal old element.
+	 * Matched elements which are part of the longest increasing subsequence of
+	 * old positions (taken in new order) stay where they are, all other matched
+	 * elements are moved into place first. Unmatched old elements are then
+	 * removed and unmatched new elements added in a single forward sweep, so
+	 * that an element replaced in place is reported as an adjacent remove/add
+	 * pair.
+	 *
+	 * @param <E>
+	 *            the list element type
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @return the differences between oldList and newList, in the order they
+	 *         are to be processed
+	 */
+	public static <E> List<ListDiffEntry<E>> computeIndexedDifferences(List<? extends E> oldList,
+			List<? extends E> newList) {
+		Object[] oldElements = oldList.toArray();
+		Object[] newElements = newList.toArray();
+		int oldSize = oldElements.length;
+		int newSize = newElements.length;
+
+		int[] newToOld = new int[newSize];
+		int[] oldToNew = new int[oldSize];
+		matchElements(oldElements, newElements, oldToNew, newToOld);
+
+		boolean[] stays = new boolean[newSize];
+		markLongestIncreasingSubsequence(newToOld, stays);
+
+		// Every old element occupies one slot. Moved elements get a new slot in
+		// front of the slot of the next staying element (in new order), so that
+		// sorting all present slots yields the list state after all moves.
+		int[] anchors = new int[newSize];
+		int[] parkedCounts = new int[oldSize + 1];
+		int nextStay = oldSize;
+		for (int k = newSize - 1; k >= 0; k--) {
+			int oldIndex = newToOld[k];
+			if (oldIndex == -1) {
+				continue;
+			}
+			if (stays[k]) {
+				nextStay = oldIndex;
+			} else {
+				anchors[k] = nextStay;
+				parkedCounts[nextStay]++;
+			}
+		}
+
+		int[] parkedBase = new int[oldSize + 1];
+		int[] oldSlots = new int[oldSize];
+		int slotCount = 0;
+		for (int i = 0; i <= oldSize; i++) {
+			parkedBase[i] = slotCount;
+			slotCount += parkedCounts[i];
+			if (i < oldSize) {
+				oldSlots[i] = slotCount++;
+			}
+		}
+
+		// slot contents after all moves: old index, or -(new index + 1) for
+		// moved elements
+		int[] slotContents = new int[slotCount];
+		boolean[] present = new boolean[slotCount];
+		SlotCounter counter = new SlotCounter(slotCount);
+		for (int i = 0; i < oldSize; i++) {
+			slotContents[oldSlots[i]] = i;
+			present[oldSlots[i]] = true;
+			counter.add(oldSlots[i], 1);
+		}
+
+		List<ListDiffEntry<E>> listDiffs = new ArrayList<>();
+		for (int k = 0; k < newSize; k++) {
+			int oldIndex = newToOld[k];
+			if (oldIndex == -1 || stays[k]) {
+				continue;
+			}
+			int anchor = anchors[k];
+			int targetSlot = parkedBase[anchor]++;
+			int sourceSlot = oldSlots[oldIndex];
+
+			int from = counter.countBefore(sourceSlot);
+			counter.add(sourceSlot, -1);
+			present[sourceSlot] = false;
+			int to = counter.countBefore(targetSlot);
+			counter.add(targetSlot, 1);
+			present[targetSlot] = true;
+			slotContents[targetSlot] = -(k + 1);
+
+			if (from != to) {
+				listDiffs.add(Diffs.createListDiffEntry(from, false, element(oldElements, oldIndex)));
+				listDiffs.add(Diffs.createListDiffEntry(to, true, element(newElements, k)));
+			}
+		}
+
+		// The matched elements are now in new order, interleaved with the
+		// unmatched old elements.
+		int position = 0;
+		int slot = nextPresentSlot(present, 0);
+		int k = nextUnmatched(newToOld, 0);
+		while (slot < slotCount || k < newSize) {
+			int content = slot < slotCount ? slotContents[slot] : 0;
+			boolean removal = slot < slotCount && content >= 0 && oldToNew[content] == -1;
+			if (removal) {
+				listDiffs.add(Diffs.createListDiffEntry(position, false, element(oldElements, content)));
+				slot = nextPresentSlot(present, slot + 1);
+				if (k < newSize && (slot >= slotCount || newIndexOf(slotContents[slot], oldToNew) > k)) {
+					listDiffs.add(Diffs.createListDiffEntry(position++, true, element(newElements, k)));
+					k = nextUnmatched(newToOld, k + 1);
+				}
+			} else if (k < newSize && (slot >= slotCount || newIndexOf(content, oldToNew) > k)) {
+				listDiffs.add(Diffs.createListDiffEntry(position++, true, element(newElements, k)));
+				k = nextUnmatched(newToOld, k + 1);
+			} else {
+				position++;
+				slot = nextPresentSlot(present, slot + 1);
+			}
+		}
+		return listDiffs;
+	}
+
+	/**
+	 * Returns the new index of the element in the slot with the given
+	 * contents, or -1 if the slot holds an element which is to be removed.
+	 */
+	private static int newIndexOf(int content, int[] oldToNew) {
+		return content < 0 ? -content - 1 : oldToNew[content];
+	}
+
+	private static int nextPresentSlot(boolean[] present, int slot) {
+		while (slot < present.length && !present[slot]) {
+			slot++;
+		}
+		return slot;
+	}
+
+	private static int nextUnmatched(int[] newToOld, int k) {
+		while (k < newToOld.length && newToOld[k] != -1) {
+			k++;
+		}
+		return k;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <E> E element(Object[] elements, int index) {
+		return (E) elements[index];
+	}
+
+	/**
+	 * Pairs every new element with the first unmatched equal old element.
+	 * Unmatched positions are set to -1 in both index arrays.
+	 */
+	private static void matchElements(Object[] oldElements, Object[] newElements, int[] oldToNew,
+			int[] newToOld) {
+		// chains the old positions of equal elements, first unmatched position
+		// is kept in the map
+		int[] nextOccurrence = new int[oldElements.length];
+		Map<Object, Integer> firstOccurrence = new HashMap<>();
+		for (int i = oldElements.length - 1; i >= 0; i--) {
+			Integer next = firstOccurrence.put(oldElements[i], i);
+			nextOccurrence[i] = next == null ? -1 : next.intValue();
+		}
+		Arrays.fill(oldToNew, -1);
+		for (int k = 0; k < newElements.length; k++) {
+			Integer first = firstOccurrence.get(newElements[k]);
+			if (first == null || first.intValue() == -1) {
+				newToOld[k] = -1;
+			} else {
+				int oldIndex = first.intValue();
+				newToOld[k] = oldIndex;
+				oldToNew[oldIndex] = k;
+				firstOccurrence.put(newElements[k], nextOccurrence[oldIndex]);
+			}
+		}
+	}
+
+	/**
+	 * Marks the new positions whose old positions form a longest increasing
+	 * subsequence, using patience sorting.
+	 */
+	private static void markLongestIncreasingSubsequence(int[] newToOld, boolean[] marks) {
+		int[] tails = new int[newToOld.length];
+		int[] predecessors = new int[newToOld.length];
+		int length = 0;
+		for (int k = 0; k < newToOld.length; k++) {
+			int oldIndex = newToOld[k];
+			if (oldIndex == -1) {
+				continue;
+			}
+			int low = 0;
+			int high = length;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (newToOld[tails[middle]] < oldIndex) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			predecessors[k] = low > 0 ? tails[low - 1] : -1;
+			tails[low] = k;
+			if (low == length) {
+				length++;
+			}
+		}
+		for (int k = length > 0 ? tails[length - 1] : -1; k != -1; k = predecessors[k]) {
+			marks[k] = true;
+		}
+	}
+
+	/**
+	 * Fenwick tree counting the occupied slots in front of a given slot.
+	 */
+	private static final class SlotCounter {
+		private final int[] tree;
+
+		SlotCounter(int size) {
+			tree = new int[size + 1];
+		}
+
+		void add(int slot, int delta) {
+			for (int i = slot + 1; i < tree.length; i += i & -i) {
+				tree[i] += delta;
+			}
+		}
+
+		int countBefore(int slot) {
+			int count = 0;
+			for (int i = slot; i > 0; i -= i & -i) {
+				count += tree[i];
+			}
+			return count;
+		}
+	}
+}
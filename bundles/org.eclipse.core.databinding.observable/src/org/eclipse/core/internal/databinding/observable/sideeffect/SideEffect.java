@@ -19,11 +19,12 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import org.eclipse.core.databinding.observable.ChangeEvent;
-import org.eclipse.core.databinding.observable.IChangeListener;
 import org.eclipse.core.databinding.observable.IObservable;
 import org.eclipse.core.databinding.observable.ObservableTracker;
 import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.sideeffect.ISideEffect;
+import org.eclipse.core.internal.databinding.observable.Dependencies;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 import org.eclipse.core.runtime.Assert;
 
 /**
@@ -88,6 +89,10 @@ public final class SideEffect implements ISideEffect {
 	 * realm.asyncExec
 	 */
 	private boolean asyncScheduled;
+	/**
+	 * True while the runnable is being executed.
+	 */
+	private boolean running;
 	private int pauseDepth;
 	private Runnable runnable;
 	/**
@@ -189,14 +194,20 @@ public final class SideEffect implements ISideEffect {
 			// event that a dependency is lazily created, this prevents it from
 			// being destroyed and immediately recreated.
 
-			// Stop listening for dependency changes.
-			stopListening();
-
-			// This line will do the following:
-			// - Run the calculate method
-			// - While doing so, add any observable that is touched to the
-			// dependencies list
-			IObservable[] newDependencies = ObservableTracker.runAndMonitor(runnable, null, null);
+			// Ignore dependency changes made by the side-effect itself, but
+			// keep the listeners so that the dependencies which are still used
+			// afterwards need not be registered again.
+			IObservable[] newDependencies;
+			running = true;
+			try {
+				// This line will do the following:
+				// - Run the calculate method
+				// - While doing so, add any observable that is touched to the
+				// dependencies list
+				newDependencies = ObservableTracker.runAndMonitor(runnable, null, null);
+			} finally {
+				running = false;
+			}
 
 			// If the side-effect disposed itself, exit without attaching any
 			// listeners.
@@ -204,11 +215,7 @@ public final class SideEffect implements ISideEffect {
 				return;
 			}
 
-			for (IObservable next : newDependencies) {
-				next.addChangeListener(privateInterface);
-			}
-
-			dependencies = newDependencies;
+			dependencies = Dependencies.update(dependencies, newDependencies, privateInterface);
 		}
 	}
 
@@ -334,10 +341,12 @@ public final class SideEffect implements ISideEffect {
 		};
 	}
 
-	private class PrivateInterface implements IChangeListener, Runnable {
+	private class PrivateInterface implements IDependencyListener, Runnable {
 		@Override
 		public void handleChange(ChangeEvent event) {
-			markDirtyInternal();
+			if (!running) {
+				markDirtyInternal();
+			}
 		}
 
 		@Override
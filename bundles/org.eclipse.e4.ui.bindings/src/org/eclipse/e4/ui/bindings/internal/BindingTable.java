@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2014 IBM Corporation and others.
+ * Copyright (c) 2010, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -127,7 +127,7 @@ public class BindingTable {
 	private ArrayList<Binding> bindings = new ArrayList<>();
 	private Map<TriggerSequence, Binding> bindingsByTrigger = new HashMap<>();
 	private Map<ParameterizedCommand, ArrayList<Binding>> bindingsByCommand = new HashMap<>();
-	private Map<TriggerSequence, ArrayList<Binding>> bindingsByPrefix = new HashMap<>();
+	private PrefixNode bindingsByPrefix = new PrefixNode(null, null);
 	private Map<TriggerSequence, ArrayList<Binding>> conflicts = new HashMap<>();
 	private Map<TriggerSequence, ArrayList<Binding>> orderedBindingsByTrigger = new HashMap<>();
 
@@ -204,14 +204,12 @@ public class BindingTable {
 		sequences.add(binding);
 		sequences.sort(BEST_SEQUENCE);
 
-		TriggerSequence[] prefs = binding.getTriggerSequence().getPrefixes();
-		for (int i = 1; i < prefs.length; i++) {
-			ArrayList<Binding> bindings = bindingsByPrefix.get(prefs[i]);
-			if (bindings == null) {
-				bindings = new ArrayList<>();
-				bindingsByPrefix.put(prefs[i], bindings);
-			}
-			bindings.add(binding);
+		// register the binding with the node of every proper prefix
+		Trigger[] triggers = binding.getTriggerSequence().getTriggers();
+		PrefixNode node = bindingsByPrefix;
+		for (int i = 0; i < triggers.length - 1; i++) {
+			node = node.getChild(triggers[i], true);
+			node.bindings.add(binding);
 		}
 	}
 
@@ -223,13 +221,19 @@ public class BindingTable {
 		if (sequences != null) {
 			sequences.remove(binding);
 		}
-		TriggerSequence[] prefs = binding.getTriggerSequence().getPrefixes();
-		for (int i = 1; i < prefs.length; i++) {
-			ArrayList<Binding> bindings = bindingsByPrefix.get(prefs[i]);
-			if (bindings != null) {
-				bindings.remove(binding);
+		Trigger[] triggers = binding.getTriggerSequence().getTriggers();
+		PrefixNode node = bindingsByPrefix;
+		for (int i = 0; i < triggers.length - 1 && node != null; i++) {
+			node = node.getChild(triggers[i], false);
+			if (node != null) {
+				node.bindings.remove(binding);
 			}
 		}
+		// prune the nodes no longer leading to a binding
+		while (node != null && node != bindingsByPrefix && node.bindings.isEmpty()) {
+			node.parent.children.remove(node.trigger);
+			node = node.parent;
+		}
 	}
 
 	public void removeBinding(Binding binding) {
@@ -333,16 +337,55 @@ public class BindingTable {
 	}
 
 	public Collection<Binding> getPartialMatches(TriggerSequence sequence) {
-		return bindingsByPrefix.get(sequence);
+		PrefixNode node = getPrefixNode(sequence);
+		return node == null ? null : node.bindings;
 	}
 
 	public boolean isPartialMatch(TriggerSequence seq) {
-		ArrayList<Binding> values = bindingsByPrefix.get(seq);
-		return values != null && !values.isEmpty();
+		PrefixNode node = getPrefixNode(seq);
+		return node != null && !node.bindings.isEmpty();
+	}
+
+	private PrefixNode getPrefixNode(TriggerSequence sequence) {
+		Trigger[] triggers = sequence.getTriggers();
+		if (triggers.length == 0) {
+			return null;
+		}
+		PrefixNode node = bindingsByPrefix;
+		for (int i = 0; i < triggers.length && node != null; i++) {
+			node = node.getChild(triggers[i], false);
+		}
+		return node;
 	}
 
 	public Collection<Binding> getBindings() {
 		return Collections.unmodifiableCollection(bindings);
 	}
 
+	/**
+	 * A node of the trie holding the bindings by the prefixes of their trigger
+	 * sequences. The node reached through the triggers of a sequence holds the
+	 * bindings for which the sequence is a proper prefix.
+	 */
+	private static class PrefixNode {
+		private final PrefixNode parent;
+		private final Trigger trigger;
+		private final Map<Trigger, PrefixNode> children = new HashMap<>(4);
+		private final ArrayList<Binding> bindings = new ArrayList<>(2);
+
+		PrefixNode(PrefixNode parent, Trigger trigger) {
+			this.parent = parent;
+			this.trigger = trigger;
+		}
+
+		PrefixNode getChild(Trigger childTrigger, boolean create) {
+			PrefixNode child = children.get(childTrigger);
+			if (child == null && create) {
+				child = new PrefixNode(this, childTrigger);
+				children.put(childTrigger, child);
+			}
+			return child;
+		}
+	}
+
 }
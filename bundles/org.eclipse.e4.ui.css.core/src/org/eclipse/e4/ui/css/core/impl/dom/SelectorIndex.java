@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.dom;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
+import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
+import org.eclipse.e4.ui.css.core.impl.sac.AbstractDescendantSelector;
+import org.eclipse.e4.ui.css.core.impl.sac.AbstractSiblingSelector;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSAndConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSClassConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSConditionalSelectorImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSElementSelectorImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSIdConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.ExtendedSelector;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.dom.Element;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSStyleRule;
+
+/**
+ * Index of the selectors of a list of CSS rules, bucketed by the id, class or
+ * element type required by the rightmost simple selector. Selectors which do
+ * not require any of them are kept in a universal bucket.
+ * <p>
+ * The candidates returned for an element are a superset of the matching
+ * selectors, in the order of the rules, so that the caller only has to match
+ * the candidates instead of all selectors.
+ * </p>
+ */
+final class SelectorIndex {
+
+	/**
+	 * A selector of a style rule, together with its position in the rules.
+	 */
+	static final class IndexedSelector {
+
+		final int ordinal;
+
+		final CSSStyleRule rule;
+
+		final ExtendedSelector selector;
+
+		IndexedSelector(int ordinal, CSSStyleRule rule, ExtendedSelector selector) {
+			this.ordinal = ordinal;
+			this.rule = rule;
+			this.selector = selector;
+		}
+	}
+
+	private final Map<String, List<IndexedSelector>> byId = new HashMap<>();
+
+	private final Map<String, List<IndexedSelector>> byClass = new HashMap<>();
+
+	private final Map<String, List<IndexedSelector>> byType = new HashMap<>();
+
+	private final List<IndexedSelector> universal = new ArrayList<>();
+
+	private final List<IndexedSelector> all = new ArrayList<>();
+
+	/**
+	 * Creates the index of the selectors of the given rules.
+	 *
+	 * @param rules the rules of all style sheets, in cascade order
+	 */
+	SelectorIndex(List<CSSRule> rules) {
+		for (CSSRule rule : rules) {
+			if (rule.getType() != CSSRule.STYLE_RULE || (!(rule instanceof ExtendedCSSRule))) {
+				continue; // we only handle the CSSRule.STYLE_RULE and ExtendedCSSRule case
+			}
+			SelectorList selectorList = ((ExtendedCSSRule) rule).getSelectorList();
+			int l = selectorList.getLength();
+			for (int j = 0; j < l; j++) {
+				Selector selector = selectorList.item(j);
+				if (selector instanceof ExtendedSelector) {
+					IndexedSelector indexed = new IndexedSelector(all.size(), (CSSStyleRule) rule,
+							(ExtendedSelector) selector);
+					all.add(indexed);
+					add(indexed);
+				}
+			}
+		}
+	}
+
+	private void add(IndexedSelector indexed) {
+		Selector subject = getSubject(indexed.selector);
+		String key = getConditionKey(subject, true);
+		if (key != null) {
+			byId.computeIfAbsent(key, k -> new ArrayList<>()).add(indexed);
+			return;
+		}
+		key = getConditionKey(subject, false);
+		if (key != null) {
+			byClass.computeIfAbsent(key, k -> new ArrayList<>()).add(indexed);
+			return;
+		}
+		key = getTypeKey(subject);
+		if (key != null) {
+			byType.computeIfAbsent(key, k -> new ArrayList<>()).add(indexed);
+			return;
+		}
+		universal.add(indexed);
+	}
+
+	/**
+	 * Returns the simple selector which has to match the element itself, i.e.
+	 * the rightmost simple selector of the given selector.
+	 */
+	private static Selector getSubject(Selector selector) {
+		Selector subject = selector;
+		while (true) {
+			if (subject instanceof AbstractDescendantSelector) {
+				subject = ((AbstractDescendantSelector) subject).getSimpleSelector();
+			} else if (subject instanceof AbstractSiblingSelector) {
+				subject = ((AbstractSiblingSelector) subject).getSiblingSelector();
+			} else {
+				return subject;
+			}
+		}
+	}
+
+	/**
+	 * Returns the id (or class) required by the given simple selector, or
+	 * <code>null</code> if it does not require one.
+	 */
+	private static String getConditionKey(Selector subject, boolean id) {
+		for (Selector s = subject; s instanceof CSSConditionalSelectorImpl;) {
+			CSSConditionalSelectorImpl conditional = (CSSConditionalSelectorImpl) s;
+			String key = getConditionKey(conditional.getCondition(), id);
+			if (key != null) {
+				return key;
+			}
+			s = conditional.getSimpleSelector();
+		}
+		return null;
+	}
+
+	private static String getConditionKey(Condition condition, boolean id) {
+		// the exact classes are checked, as other attribute conditions
+		// extend the class condition's super class
+		if (id && condition.getClass() == CSSIdConditionImpl.class) {
+			return ((CSSIdConditionImpl) condition).getValue();
+		}
+		if (!id && condition.getClass() == CSSClassConditionImpl.class) {
+			return ((CSSClassConditionImpl) condition).getValue();
+		}
+		if (condition.getClass() == CSSAndConditionImpl.class) {
+			CSSAndConditionImpl and = (CSSAndConditionImpl) condition;
+			String key = getConditionKey(and.getFirstCondition(), id);
+			return key != null ? key : getConditionKey(and.getSecondCondition(), id);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the element name required by the given simple selector, or
+	 * <code>null</code> if it matches any element name.
+	 */
+	private static String getTypeKey(Selector subject) {
+		Selector s = subject;
+		while (s instanceof CSSConditionalSelectorImpl) {
+			s = ((CSSConditionalSelectorImpl) s).getSimpleSelector();
+		}
+		if (s != null && s.getClass() == CSSElementSelectorImpl.class) {
+			return ((CSSElementSelectorImpl) s).getLocalName();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the selectors which may match the given element, in the order of
+	 * the rules.
+	 *
+	 * @param elt the element
+	 * @return the candidate selectors
+	 */
+	List<IndexedSelector> getCandidates(Element elt) {
+		List<IndexedSelector> candidates = new ArrayList<>(universal);
+		String id;
+		String classes;
+		if (elt instanceof CSSStylableElement) {
+			id = ((CSSStylableElement) elt).getCSSId();
+			classes = ((CSSStylableElement) elt).getCSSClass();
+		} else {
+			id = elt.getAttribute("id");
+			classes = elt.getAttribute("class");
+		}
+		if (id != null) {
+			addAll(candidates, byId.get(id));
+		}
+		addAll(candidates, byType.get(elt.getPrefix() == null ? elt.getNodeName() : elt.getLocalName()));
+		if (classes != null && !classes.isEmpty() && !byClass.isEmpty()) {
+			Set<String> seen = null;
+			int length = classes.length();
+			int start = 0;
+			while (start < length) {
+				while (start < length && Character.isSpaceChar(classes.charAt(start))) {
+					start++;
+				}
+				int end = start;
+				while (end < length && !Character.isSpaceChar(classes.charAt(end))) {
+					end++;
+				}
+				if (end > start) {
+					String token = classes.substring(start, end);
+					List<IndexedSelector> bucket = byClass.get(token);
+					if (bucket != null) {
+						if (seen == null) {
+							seen = new HashSet<>();
+						}
+						if (seen.add(token)) {
+							candidates.addAll(bucket);
+						}
+					}
+				}
+				start = end;
+			}
+		}
+		if (candidates.size() > 1) {
+			candidates.sort((s1, s2) -> Integer.compare(s1.ordinal, s2.ordinal));
+		}
+		return candidates;
+	}
+
+	private static void addAll(List<IndexedSelector> candidates, List<IndexedSelector> bucket) {
+		if (bucket != null) {
+			candidates.addAll(bucket);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SelectorIndex [selectors=" + all.size() + ", ids=" + byId.size() + ", classes=" + byClass.size()
+				+ ", types=" + byType.size() + ", universal=" + universal.size() + "]";
+	}
+}
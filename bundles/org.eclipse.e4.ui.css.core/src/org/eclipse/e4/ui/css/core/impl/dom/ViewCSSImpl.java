@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2018 Angelo Zerr and others.
+ * Copyright (c) 2008, 2020 Angelo Zerr and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,17 +19,13 @@ package org.eclipse.e4.ui.css.core.impl.dom;
 
 import java.util.ArrayList;
 import java.util.List;
-import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
 import org.eclipse.e4.ui.css.core.dom.ExtendedDocumentCSS;
 import org.eclipse.e4.ui.css.core.impl.sac.ExtendedSelector;
-import org.w3c.css.sac.Selector;
-import org.w3c.css.sac.SelectorList;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.css.CSSRule;
 import org.w3c.dom.css.CSSRuleList;
 import org.w3c.dom.css.CSSStyleDeclaration;
-import org.w3c.dom.css.CSSStyleRule;
 import org.w3c.dom.css.CSSStyleSheet;
 import org.w3c.dom.css.DocumentCSS;
 import org.w3c.dom.css.ViewCSS;
@@ -47,6 +43,8 @@ public class ViewCSSImpl implements ViewCSS, ExtendedDocumentCSS.StyleSheetChang
 	private boolean ruleCachingEnabled;
 	/** Cached state of combined CSS rules for the current stylesheets */
 	private List<CSSRule> currentCombinedRules;
+	/** Cached index of the selectors of the combined CSS rules */
+	private SelectorIndex currentSelectorIndex;
 
 	/**
 	 * Creates a new ViewCSS.
@@ -73,7 +71,24 @@ public class ViewCSSImpl implements ViewCSS, ExtendedDocumentCSS.StyleSheetChang
 	 */
 	@Override
 	public CSSStyleDeclaration getComputedStyle(Element elt, String pseudoElt) {
-		return getComputedStyle(getCombinedRules(), elt, pseudoElt);
+		return getComputedStyle(getSelectorIndex(), elt, pseudoElt);
+	}
+
+	/**
+	 * Retrieves the index of the selectors of the combined CSS rules, which is
+	 * cached like the combined rules.
+	 *
+	 * @return the selector index for all style sheets
+	 */
+	private SelectorIndex getSelectorIndex() {
+		if (this.ruleCachingEnabled && this.currentSelectorIndex != null) {
+			return this.currentSelectorIndex;
+		}
+		SelectorIndex index = new SelectorIndex(getCombinedRules());
+		if (this.ruleCachingEnabled) {
+			this.currentSelectorIndex = index;
+		}
+		return index;
 	}
 
 	/**
@@ -111,7 +126,14 @@ public class ViewCSSImpl implements ViewCSS, ExtendedDocumentCSS.StyleSheetChang
 		return cssRules;
 	}
 
-	private CSSStyleDeclaration getComputedStyle(List<CSSRule> ruleList, Element elt, String pseudoElt) {
+	private CSSStyleDeclaration getComputedStyle(SelectorIndex index, Element elt, String pseudoElt) {
+		// only the selectors whose rightmost id, class or element name fits
+		// the element have to be matched
+		List<SelectorIndex.IndexedSelector> candidates = index.getCandidates(elt);
+		if (candidates.isEmpty()) {
+			return null;
+		}
+
 		Node parent = elt.getParentNode();
 
 		Node[] hierarchy = null;
@@ -126,35 +148,22 @@ public class ViewCSSImpl implements ViewCSS, ExtendedDocumentCSS.StyleSheetChang
 		List<StyleWrapper> styleDeclarations = null;
 		StyleWrapper firstStyleDeclaration = null;
 		int position = 0;
-		for (CSSRule rule : ruleList) {
-			if (rule.getType() != CSSRule.STYLE_RULE || (!(rule instanceof ExtendedCSSRule)) ) {
-				continue; // we only handle the CSSRule.STYLE_RULE and ExtendedCSSRule case
-			}
-			CSSStyleRule styleRule = (CSSStyleRule) rule;
-			ExtendedCSSRule r = (ExtendedCSSRule) rule;
-			SelectorList selectorList = r.getSelectorList();
-			// Loop for SelectorList
-			int l = selectorList.getLength();
-			for (int j = 0; j < l; j++) {
-				Selector selector = selectorList.item(j);
-				if (selector instanceof ExtendedSelector) {
-					ExtendedSelector extendedSelector = (ExtendedSelector) selector;
-					if (extendedSelector.match(elt, hierarchy, 0, pseudoElt)) {
-						CSSStyleDeclaration style = styleRule.getStyle();
-						int specificity = extendedSelector.getSpecificity();
-						StyleWrapper wrapper = new StyleWrapper(style, specificity, position++);
-						if (firstStyleDeclaration == null) {
-							firstStyleDeclaration = wrapper;
-						} else {
-							// There is several Style Declarations which
-							// match the current element
-							if (styleDeclarations == null) {
-								styleDeclarations = new ArrayList<>();
-								styleDeclarations.add(firstStyleDeclaration);
-							}
-							styleDeclarations.add(wrapper);
-						}
+		for (SelectorIndex.IndexedSelector candidate : candidates) {
+			ExtendedSelector extendedSelector = candidate.selector;
+			if (extendedSelector.match(elt, hierarchy, 0, pseudoElt)) {
+				CSSStyleDeclaration style = candidate.rule.getStyle();
+				int specificity = extendedSelector.getSpecificity();
+				StyleWrapper wrapper = new StyleWrapper(style, specificity, position++);
+				if (firstStyleDeclaration == null) {
+					firstStyleDeclaration = wrapper;
+				} else {
+					// There is several Style Declarations which
+					// match the current element
+					if (styleDeclarations == null) {
+						styleDeclarations = new ArrayList<>();
+						styleDeclarations.add(firstStyleDeclaration);
 					}
+					styleDeclarations.add(wrapper);
 				}
 			}
 		}
@@ -172,10 +181,12 @@ public class ViewCSSImpl implements ViewCSS, ExtendedDocumentCSS.StyleSheetChang
 	@Override
 	public void styleSheetAdded(StyleSheet styleSheet) {
 		currentCombinedRules = null;
+		currentSelectorIndex = null;
 	}
 
 	@Override
 	public void styleSheetRemoved(StyleSheet styleSheet) {
 		currentCombinedRules = null;
+		currentSelectorIndex = null;
 	}
 }
@@ -122,6 +122,11 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 	 */
 	private ViewCSS viewCSS;
 
+	/**
+	 * Computed styles shared between elements with the same signature.
+	 */
+	private StyleSharingCache styleSharingCache;
+
 	/**
 	 * {@link IElementProvider} used to retrieve w3c Element linked to the
 	 * widget.
@@ -165,6 +170,7 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 	public AbstractCSSEngine(ExtendedDocumentCSS documentCSS) {
 		this.documentCSS = documentCSS;
 		this.viewCSS = new ViewCSSImpl(documentCSS);
+		this.styleSharingCache = new StyleSharingCache(documentCSS, viewCSS);
 		keyFactory = new ResourceRegistryKeyFactory();
 	}
 
@@ -380,11 +386,28 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 		if (elt == null || !isVisible(elt)) {
 			return;
 		}
+		applyStyles(element, elt, applyStylesToChildNodes, computeDefaultStyle);
+	}
+
+	/**
+	 * Apply styles to a child node while styling its parent. The child nodes are
+	 * taken from the visible child nodes of the parent, so their visibility
+	 * need not be checked again.
+	 */
+	private void applyStylesToChildNode(Node node, boolean applyStylesToChildNodes) {
+		Element elt = getElement(node);
+		if (elt != null) {
+			applyStyles(node, elt, applyStylesToChildNodes, computeDefaultStyle);
+		}
+	}
+
+	private void applyStyles(Object element, Element elt, boolean applyStylesToChildNodes,
+			boolean computeDefaultStyle) {
 
 		/*
 		 * Compute new Style to apply.
 		 */
-		CSSStyleDeclaration style = viewCSS.getComputedStyle(elt, null);
+		CSSStyleDeclaration style = styleSharingCache.getComputedStyle(elt, null);
 		if (computeDefaultStyle) {
 			if (applyStylesToChildNodes) {
 				this.computeDefaultStyle = computeDefaultStyle;
@@ -403,7 +426,7 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 			// there are static pseudo instances defined, loop for it and
 			// apply styles for each pseudo instance.
 			for (String pseudoInstance : pseudoInstances) {
-				CSSStyleDeclaration styleWithPseudoInstance = viewCSS.getComputedStyle(elt, pseudoInstance);
+				CSSStyleDeclaration styleWithPseudoInstance = styleSharingCache.getComputedStyle(elt, pseudoInstance);
 				if (computeDefaultStyle) {
 					/*
 					 * Apply default style for the current pseudo instance.
@@ -440,7 +463,7 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 					? ((ChildVisibilityAwareElement) elt).getVisibleChildNodes()
 							: elt.getChildNodes();
 					if (nodes != null) {
-						processNodeList(nodes, this::applyStyles, applyStylesToChildNodes);
+						processNodeList(nodes, this::applyStylesToChildNode, applyStylesToChildNodes);
 						onStylesAppliedToChildNodes(elt, nodes);
 					}
 		}
@@ -1010,6 +1033,16 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 		return viewCSS;
 	}
 
+	/**
+	 * Returns the cache sharing the computed styles between elements, which
+	 * also counts how often a style could be shared.
+	 *
+	 * @return the style sharing cache
+	 */
+	public StyleSharingCache getStyleSharingCache() {
+		return styleSharingCache;
+	}
+
 	@Override
 	public void dispose() {
 		reset();
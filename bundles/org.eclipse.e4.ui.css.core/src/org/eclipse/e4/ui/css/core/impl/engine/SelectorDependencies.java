@@ -0,0 +1,440 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
+import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
+import org.eclipse.e4.ui.css.core.dom.ExtendedDocumentCSS;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSClassConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSIdConditionImpl;
+import org.w3c.css.sac.AttributeCondition;
+import org.w3c.css.sac.CombinatorCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionalSelector;
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.ElementSelector;
+import org.w3c.css.sac.NegativeCondition;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.css.sac.SiblingSelector;
+import org.w3c.dom.Element;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleDeclaration;
+import org.w3c.dom.css.CSSStyleRule;
+import org.w3c.dom.css.CSSStyleSheet;
+import org.w3c.dom.css.CSSValue;
+import org.w3c.dom.stylesheets.StyleSheet;
+import org.w3c.dom.stylesheets.StyleSheetList;
+
+/**
+ * Tells which other elements may have to be restyled when the CSS class or id
+ * of an element changes.
+ * <p>
+ * A change is described by the tokens which were added to or removed from the
+ * element: <code>.name</code> for a class and <code>#name</code> for an id.
+ * The element itself always has to be restyled. Its descendants and following
+ * siblings only have to be restyled if one of the tokens is tested by a
+ * selector for an ancestor or a sibling of the element the selector applies
+ * to, and then only if they may be the subject of such a selector.
+ * </p>
+ * <p>
+ * The dependencies are computed from the style sheets of a document when
+ * needed, and dropped when a style sheet is added or removed.
+ * </p>
+ */
+public final class SelectorDependencies implements ExtendedDocumentCSS.StyleSheetChangeListener {
+
+	/** The token matching any class or id */
+	private static final String ANY_TOKEN = "";
+
+	/**
+	 * The elements which may have to be restyled after a change of an element.
+	 */
+	public static final class Dependents {
+
+		static final Dependents NONE = new Dependents();
+
+		boolean descendants;
+
+		boolean siblings;
+
+		boolean any;
+
+		final Set<String> types = new HashSet<>();
+
+		final Set<String> classes = new HashSet<>();
+
+		final Set<String> ids = new HashSet<>();
+
+		/**
+		 * @return whether some descendants of the changed element may have to be
+		 *         restyled
+		 */
+		public boolean hasDescendants() {
+			return descendants;
+		}
+
+		/**
+		 * @return whether some following siblings of the changed element, or
+		 *         their descendants, may have to be restyled
+		 */
+		public boolean hasSiblings() {
+			return siblings;
+		}
+
+		/**
+		 * Returns whether the given descendant or sibling of the changed element
+		 * may have to be restyled.
+		 *
+		 * @param elt the descendant or sibling
+		 * @return <code>true</code> if the element may be affected by the change
+		 */
+		public boolean affects(Element elt) {
+			if (any) {
+				return true;
+			}
+			if (!(descendants || siblings)) {
+				return false;
+			}
+			if (types.contains(elt.getPrefix() == null ? elt.getNodeName() : elt.getLocalName())) {
+				return true;
+			}
+			String id;
+			String classes;
+			if (elt instanceof CSSStylableElement) {
+				id = ((CSSStylableElement) elt).getCSSId();
+				classes = ((CSSStylableElement) elt).getCSSClass();
+			} else {
+				id = elt.getAttribute("id");
+				classes = elt.getAttribute("class");
+			}
+			if (id != null && ids.contains(id)) {
+				return true;
+			}
+			if (classes != null && !this.classes.isEmpty()) {
+				for (String token : getTokens(classes)) {
+					if (this.classes.contains(token)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		void add(Dependency dependency) {
+			descendants |= dependency.descendants;
+			siblings |= dependency.siblings;
+			if (dependency.type != null) {
+				types.add(dependency.type);
+			} else if (dependency.className != null) {
+				classes.add(dependency.className);
+			} else if (dependency.id != null) {
+				ids.add(dependency.id);
+			} else {
+				any = true;
+			}
+		}
+	}
+
+	/**
+	 * A selector testing a class or id of an ancestor or a sibling of its
+	 * subject, together with what the subject requires.
+	 */
+	private static final class Dependency {
+
+		boolean descendants;
+
+		boolean siblings;
+
+		String type;
+
+		String className;
+
+		String id;
+	}
+
+	private final ExtendedDocumentCSS documentCSS;
+
+	/** The dependencies by token, <code>null</code> if unknown */
+	private Map<String, List<Dependency>> dependencies;
+
+	/** Whether a declaration inherits a value from the parent element */
+	private boolean inherits;
+
+	/**
+	 * Create the dependencies of the style sheets of the given document.
+	 *
+	 * @param documentCSS the document holding the style sheets
+	 */
+	public SelectorDependencies(ExtendedDocumentCSS documentCSS) {
+		this.documentCSS = documentCSS;
+		documentCSS.addStyleSheetChangeListener(this);
+	}
+
+	/**
+	 * Returns the tokens describing the change of the CSS class and id of an
+	 * element.
+	 *
+	 * @param oldClass the previous CSS class, or <code>null</code>
+	 * @param newClass the current CSS class, or <code>null</code>
+	 * @param oldId    the previous CSS id, or <code>null</code>
+	 * @param newId    the current CSS id, or <code>null</code>
+	 * @return the classes and ids added or removed
+	 */
+	public static Set<String> getChangedTokens(String oldClass, String newClass, String oldId, String newId) {
+		Set<String> tokens = new HashSet<>();
+		Set<String> oldClasses = new HashSet<>(getTokens(oldClass));
+		Set<String> newClasses = new HashSet<>(getTokens(newClass));
+		for (String className : oldClasses) {
+			if (!newClasses.contains(className)) {
+				tokens.add('.' + className);
+			}
+		}
+		for (String className : newClasses) {
+			if (!oldClasses.contains(className)) {
+				tokens.add('.' + className);
+			}
+		}
+		if (oldId == null ? newId != null : !oldId.equals(newId)) {
+			if (oldId != null) {
+				tokens.add('#' + oldId);
+			}
+			if (newId != null) {
+				tokens.add('#' + newId);
+			}
+		}
+		return tokens;
+	}
+
+	private static Collection<String> getTokens(String classes) {
+		if (classes == null || classes.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<String> tokens = new ArrayList<>();
+		int length = classes.length();
+		int start = 0;
+		while (start < length) {
+			while (start < length && Character.isSpaceChar(classes.charAt(start))) {
+				start++;
+			}
+			int end = start;
+			while (end < length && !Character.isSpaceChar(classes.charAt(end))) {
+				end++;
+			}
+			if (end > start) {
+				tokens.add(classes.substring(start, end));
+			}
+			start = end;
+		}
+		return tokens;
+	}
+
+	/**
+	 * Returns the elements which may have to be restyled, besides the element
+	 * itself, when the given classes or ids of an element change.
+	 *
+	 * @param tokens the changed classes and ids, see
+	 *               {@link #getChangedTokens(String, String, String, String)}
+	 * @return the dependent elements
+	 */
+	public Dependents getDependents(Set<String> tokens) {
+		if (tokens.isEmpty()) {
+			return Dependents.NONE;
+		}
+		if (dependencies == null) {
+			computeDependencies();
+		}
+		Dependents dependents = new Dependents();
+		if (inherits) {
+			// the properties of any descendant may be inherited from the element
+			dependents.descendants = true;
+			dependents.any = true;
+		}
+		addAll(dependents, dependencies.get(ANY_TOKEN));
+		for (String token : tokens) {
+			addAll(dependents, dependencies.get(token));
+		}
+		return dependents;
+	}
+
+	private static void addAll(Dependents dependents, List<Dependency> list) {
+		if (list != null) {
+			for (Dependency dependency : list) {
+				dependents.add(dependency);
+			}
+		}
+	}
+
+	private void computeDependencies() {
+		dependencies = new HashMap<>();
+		inherits = false;
+		StyleSheetList styleSheetList = documentCSS.getStyleSheets();
+		int l = styleSheetList.getLength();
+		for (int i = 0; i < l; i++) {
+			CSSRuleList rules = ((CSSStyleSheet) styleSheetList.item(i)).getCssRules();
+			int length = rules.getLength();
+			for (int j = 0; j < length; j++) {
+				CSSRule rule = rules.item(j);
+				if (rule.getType() != CSSRule.STYLE_RULE || (!(rule instanceof ExtendedCSSRule))) {
+					continue;
+				}
+				SelectorList selectorList = ((ExtendedCSSRule) rule).getSelectorList();
+				for (int k = 0; k < selectorList.getLength(); k++) {
+					addSelector(selectorList.item(k));
+				}
+				inherits |= hasInheritedValue(((CSSStyleRule) rule).getStyle());
+			}
+		}
+	}
+
+	private static boolean hasInheritedValue(CSSStyleDeclaration style) {
+		for (int i = 0; i < style.getLength(); i++) {
+			CSSValue value = style.getPropertyCSSValue(style.item(i));
+			if (value != null && "inherit".equals(value.getCssText())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void addSelector(Selector selector) {
+		Set<String> ancestorTokens = new HashSet<>();
+		Set<String> siblingTokens = new HashSet<>();
+		Selector subject = selector;
+		while (true) {
+			if (subject instanceof DescendantSelector) {
+				collectTokens(((DescendantSelector) subject).getAncestorSelector(), ancestorTokens, ancestorTokens,
+						siblingTokens);
+				subject = ((DescendantSelector) subject).getSimpleSelector();
+			} else if (subject instanceof SiblingSelector) {
+				collectTokens(((SiblingSelector) subject).getSelector(), siblingTokens, ancestorTokens,
+						siblingTokens);
+				subject = ((SiblingSelector) subject).getSiblingSelector();
+			} else {
+				break;
+			}
+		}
+		if (ancestorTokens.isEmpty() && siblingTokens.isEmpty()) {
+			return;
+		}
+		for (String token : ancestorTokens) {
+			Dependency dependency = createDependency(subject);
+			dependency.descendants = true;
+			dependency.siblings = siblingTokens.contains(token);
+			dependencies.computeIfAbsent(token, t -> new ArrayList<>()).add(dependency);
+		}
+		for (String token : siblingTokens) {
+			if (!ancestorTokens.contains(token)) {
+				Dependency dependency = createDependency(subject);
+				dependency.siblings = true;
+				dependencies.computeIfAbsent(token, t -> new ArrayList<>()).add(dependency);
+			}
+		}
+	}
+
+	/**
+	 * Collects the classes and ids tested by the given selector, which is the
+	 * part of a selector preceding a combinator.
+	 * <p>
+	 * Whether the subject of the whole selector is a descendant of an element
+	 * tested by a part, or of a following sibling of it, only depends on the
+	 * combinator right after that part. The tokens of the rightmost compound
+	 * selector go to the given set, those of the nested parts to the ancestor
+	 * or sibling tokens depending on the combinator following them.
+	 * </p>
+	 */
+	private static void collectTokens(Selector selector, Set<String> tokens, Set<String> ancestorTokens,
+			Set<String> siblingTokens) {
+		if (selector instanceof ConditionalSelector) {
+			collectTokens(((ConditionalSelector) selector).getSimpleSelector(), tokens, ancestorTokens,
+					siblingTokens);
+			collectTokens(((ConditionalSelector) selector).getCondition(), tokens);
+		} else if (selector instanceof DescendantSelector) {
+			collectTokens(((DescendantSelector) selector).getAncestorSelector(), ancestorTokens, ancestorTokens,
+					siblingTokens);
+			collectTokens(((DescendantSelector) selector).getSimpleSelector(), tokens, ancestorTokens,
+					siblingTokens);
+		} else if (selector instanceof SiblingSelector) {
+			collectTokens(((SiblingSelector) selector).getSelector(), siblingTokens, ancestorTokens, siblingTokens);
+			collectTokens(((SiblingSelector) selector).getSiblingSelector(), tokens, ancestorTokens,
+					siblingTokens);
+		} else if (!(selector instanceof ElementSelector)) {
+			tokens.add(ANY_TOKEN);
+		}
+	}
+
+	private static void collectTokens(Condition condition, Set<String> tokens) {
+		// the exact classes are checked, as other attribute conditions
+		// extend the class condition's super class
+		if (condition.getClass() == CSSClassConditionImpl.class) {
+			tokens.add('.' + ((AttributeCondition) condition).getValue());
+		} else if (condition.getClass() == CSSIdConditionImpl.class) {
+			tokens.add('#' + ((AttributeCondition) condition).getValue());
+		} else if (condition instanceof CombinatorCondition) {
+			collectTokens(((CombinatorCondition) condition).getFirstCondition(), tokens);
+			collectTokens(((CombinatorCondition) condition).getSecondCondition(), tokens);
+		} else if (condition instanceof NegativeCondition) {
+			tokens.add(ANY_TOKEN);
+		} else if (condition instanceof AttributeCondition) {
+			String name = ((AttributeCondition) condition).getLocalName();
+			if ("class".equals(name) || "id".equals(name)) {
+				tokens.add(ANY_TOKEN);
+			}
+		}
+	}
+
+	/**
+	 * Creates a dependency on what the given subject requires, the element
+	 * name, a class or an id, if any.
+	 */
+	private static Dependency createDependency(Selector subject) {
+		Dependency dependency = new Dependency();
+		Selector s = subject;
+		while (s instanceof ConditionalSelector) {
+			Condition condition = ((ConditionalSelector) s).getCondition();
+			if (condition.getClass() == CSSIdConditionImpl.class) {
+				dependency.id = ((AttributeCondition) condition).getValue();
+				return dependency;
+			}
+			if (condition.getClass() == CSSClassConditionImpl.class) {
+				dependency.className = ((AttributeCondition) condition).getValue();
+				return dependency;
+			}
+			s = ((ConditionalSelector) s).getSimpleSelector();
+		}
+		if (s instanceof ElementSelector && s.getSelectorType() == Selector.SAC_ELEMENT_NODE_SELECTOR) {
+			dependency.type = ((ElementSelector) s).getLocalName();
+		}
+		return dependency;
+	}
+
+	@Override
+	public void styleSheetAdded(StyleSheet styleSheet) {
+		dependencies = null;
+	}
+
+	@Override
+	public void styleSheetRemoved(StyleSheet styleSheet) {
+		dependencies = null;
+	}
+}
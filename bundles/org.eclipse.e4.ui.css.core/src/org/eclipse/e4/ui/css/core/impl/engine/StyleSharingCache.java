@@ -0,0 +1,312 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.engine;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
+import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
+import org.eclipse.e4.ui.css.core.dom.ExtendedDocumentCSS;
+import org.w3c.css.sac.AttributeCondition;
+import org.w3c.css.sac.CombinatorCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionalSelector;
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.ElementSelector;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleDeclaration;
+import org.w3c.dom.css.CSSStyleSheet;
+import org.w3c.dom.css.ViewCSS;
+import org.w3c.dom.stylesheets.StyleSheet;
+import org.w3c.dom.stylesheets.StyleSheetList;
+
+/**
+ * Cache sharing the computed style between elements which cannot be told
+ * apart by the selectors of the current style sheets.
+ * <p>
+ * The signature of an element consists of its name, id, class and pseudo
+ * element, the values of all attributes and the states of all pseudo classes
+ * tested by any selector, and the signatures of its ancestors if any selector
+ * has a descendant or child combinator. Elements with the same signature are
+ * matched by the same rules, so their computed style is only computed once.
+ * As the signature holds the current attribute values, an element whose
+ * attributes change gets another signature. The cache is cleared whenever a
+ * style sheet is added or removed.
+ * </p>
+ * <p>
+ * Style sheets with sibling combinators or conditions which are not supported
+ * here bypass the cache. It may be turned off with the system property
+ * {@value #DISABLED_PROPERTY}.
+ * </p>
+ */
+public final class StyleSharingCache implements ExtendedDocumentCSS.StyleSheetChangeListener {
+
+	/**
+	 * The system property turning off the style sharing when set to
+	 * <code>true</code>.
+	 */
+	public static final String DISABLED_PROPERTY = "org.eclipse.e4.ui.css.core.disableStyleSharing";
+
+	private static final int MAX_ENTRIES = 4096;
+
+	/** The value cached for elements without style */
+	private static final Object NO_STYLE = new Object();
+
+	private final ExtendedDocumentCSS documentCSS;
+
+	private final ViewCSS viewCSS;
+
+	private final boolean enabled;
+
+	private final Map<List<Object>, Object> styles = new LinkedHashMap<List<Object>, Object>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<List<Object>, Object> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	/** What the selectors of the style sheets test, <code>null</code> if unknown */
+	private SelectorUsage usage;
+
+	private long hits;
+
+	private long misses;
+
+	private long bypasses;
+
+	/**
+	 * Create a new cache computing the styles with the given view and clearing
+	 * them when the style sheets of the given document change.
+	 *
+	 * @param documentCSS the document holding the style sheets
+	 * @param viewCSS     the view computing the styles
+	 */
+	public StyleSharingCache(ExtendedDocumentCSS documentCSS, ViewCSS viewCSS) {
+		this.documentCSS = documentCSS;
+		this.viewCSS = viewCSS;
+		this.enabled = !Boolean.getBoolean(DISABLED_PROPERTY);
+		documentCSS.addStyleSheetChangeListener(this);
+	}
+
+	/**
+	 * Returns the computed style of the given element, shared with the elements
+	 * having the same signature.
+	 *
+	 * @param elt    the element
+	 * @param pseudo the pseudo element, or <code>null</code>
+	 * @return the computed style, or <code>null</code> if no rule matches
+	 */
+	public CSSStyleDeclaration getComputedStyle(Element elt, String pseudo) {
+		List<Object> key = enabled && elt instanceof CSSStylableElement ? getKey(elt, pseudo) : null;
+		if (key == null) {
+			bypasses++;
+			return viewCSS.getComputedStyle(elt, pseudo);
+		}
+		Object style = styles.get(key);
+		if (style != null) {
+			hits++;
+			return style == NO_STYLE ? null : (CSSStyleDeclaration) style;
+		}
+		misses++;
+		CSSStyleDeclaration computed = viewCSS.getComputedStyle(elt, pseudo);
+		styles.put(key, computed == null ? NO_STYLE : computed);
+		return computed;
+	}
+
+	private List<Object> getKey(Element elt, String pseudo) {
+		if (usage == null) {
+			usage = new SelectorUsage(documentCSS.getStyleSheets());
+		}
+		if (!usage.cacheable) {
+			return null;
+		}
+		List<Object> key = new ArrayList<>();
+		key.add(pseudo);
+		addSignature(key, elt);
+		if (usage.ancestors) {
+			for (Node n = elt.getParentNode(); n != null; n = n.getParentNode()) {
+				if (n instanceof Element) {
+					addSignature(key, (Element) n);
+				} else {
+					key.add(Short.valueOf(n.getNodeType()));
+				}
+			}
+		}
+		return key;
+	}
+
+	private void addSignature(List<Object> key, Element elt) {
+		key.add(elt.getPrefix() == null ? elt.getNodeName() : elt.getLocalName());
+		key.add(elt.getNamespaceURI());
+		if (elt instanceof CSSStylableElement) {
+			CSSStylableElement stylable = (CSSStylableElement) elt;
+			key.add(stylable.getCSSId());
+			key.add(stylable.getCSSClass());
+			if (!usage.pseudoClasses.isEmpty()) {
+				StringBuilder states = new StringBuilder(usage.pseudoClasses.size() * 2);
+				for (String pseudoClass : usage.pseudoClasses) {
+					states.append(stylable.isPseudoInstanceOf(pseudoClass) ? '1' : '0');
+					states.append(stylable.isStaticPseudoInstance(pseudoClass) ? '1' : '0');
+				}
+				key.add(states.toString());
+			}
+		} else {
+			key.add(elt.getAttribute("id"));
+			key.add(elt.getAttribute("class"));
+		}
+		for (String attribute : usage.attributes) {
+			key.add(elt.hasAttribute(attribute) ? elt.getAttribute(attribute) : null);
+		}
+	}
+
+	/**
+	 * Remove all shared styles.
+	 */
+	public void clear() {
+		styles.clear();
+		usage = null;
+	}
+
+	@Override
+	public void styleSheetAdded(StyleSheet styleSheet) {
+		clear();
+	}
+
+	@Override
+	public void styleSheetRemoved(StyleSheet styleSheet) {
+		clear();
+	}
+
+	/**
+	 * @return the number of styles taken from the cache
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of styles computed and added to the cache
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return the number of styles computed without the cache, as the element
+	 *         or the style sheets are not supported
+	 */
+	public long getBypasses() {
+		return bypasses;
+	}
+
+	/**
+	 * @return the number of shared styles currently held
+	 */
+	public int size() {
+		return styles.size();
+	}
+
+	@Override
+	public String toString() {
+		long lookups = hits + misses;
+		return "StyleSharingCache [styles=" + styles.size() + ", hits=" + hits + ", misses=" + misses
+				+ ", bypasses=" + bypasses + ", hitRate=" + (lookups == 0 ? 0 : hits * 100 / lookups) + "%]";
+	}
+
+	/**
+	 * The attributes and pseudo classes tested by the selectors of a list of
+	 * style sheets.
+	 */
+	private static final class SelectorUsage {
+
+		final Set<String> attributes = new LinkedHashSet<>();
+
+		final Set<String> pseudoClasses = new LinkedHashSet<>();
+
+		boolean ancestors;
+
+		boolean cacheable = true;
+
+		SelectorUsage(StyleSheetList styleSheetList) {
+			int l = styleSheetList.getLength();
+			for (int i = 0; i < l && cacheable; i++) {
+				CSSRuleList rules = ((CSSStyleSheet) styleSheetList.item(i)).getCssRules();
+				int length = rules.getLength();
+				for (int j = 0; j < length && cacheable; j++) {
+					CSSRule rule = rules.item(j);
+					if (rule.getType() != CSSRule.STYLE_RULE || (!(rule instanceof ExtendedCSSRule))) {
+						continue;
+					}
+					SelectorList selectorList = ((ExtendedCSSRule) rule).getSelectorList();
+					for (int k = 0; k < selectorList.getLength(); k++) {
+						addSelector(selectorList.item(k));
+					}
+				}
+			}
+		}
+
+		private void addSelector(Selector selector) {
+			if (selector instanceof ConditionalSelector) {
+				addSelector(((ConditionalSelector) selector).getSimpleSelector());
+				addCondition(((ConditionalSelector) selector).getCondition());
+			} else if (selector instanceof DescendantSelector) {
+				// descendant and child combinators
+				ancestors = true;
+				addSelector(((DescendantSelector) selector).getAncestorSelector());
+				addSelector(((DescendantSelector) selector).getSimpleSelector());
+			} else if (!(selector instanceof ElementSelector)) {
+				// sibling combinators depend on the other children
+				cacheable = false;
+			}
+		}
+
+		private void addCondition(Condition condition) {
+			switch (condition.getConditionType()) {
+			case Condition.SAC_AND_CONDITION:
+			case Condition.SAC_OR_CONDITION:
+				addCondition(((CombinatorCondition) condition).getFirstCondition());
+				addCondition(((CombinatorCondition) condition).getSecondCondition());
+				break;
+			case Condition.SAC_ID_CONDITION:
+			case Condition.SAC_CLASS_CONDITION:
+				// part of every signature
+				break;
+			case Condition.SAC_PSEUDO_CLASS_CONDITION:
+				pseudoClasses.add(((AttributeCondition) condition).getValue());
+				break;
+			case Condition.SAC_ATTRIBUTE_CONDITION:
+			case Condition.SAC_ONE_OF_ATTRIBUTE_CONDITION:
+			case Condition.SAC_BEGIN_HYPHEN_ATTRIBUTE_CONDITION:
+				attributes.add(((AttributeCondition) condition).getLocalName());
+				break;
+			case Condition.SAC_LANG_CONDITION:
+				attributes.add("lang");
+				break;
+			default:
+				cacheable = false;
+			}
+		}
+	}
+}
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.swt.internal.theme;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.w3c.dom.stylesheets.StyleSheet;
+
+/**
+ * Cache of the parsed theme style sheets, so that a style sheet is only parsed
+ * once for all CSS engines of a theme engine and is not parsed again when
+ * switching back to a theme.
+ * <p>
+ * An entry is keyed by the resolved URL of the style sheet and is only used as
+ * long as the content of the style sheet is unchanged. The style sheets it
+ * imports are not read when the entry is added, so that the first application
+ * of a theme does not cost more than without the cache. Instead, the digest of
+ * the imported style sheets is recorded when the entry is used for the first
+ * time, and the entry is only used again as long as that digest is unchanged.
+ * The imports are resolved like the CSS engine does; a style sheet with an
+ * import that cannot be read this way is not reused.
+ * </p>
+ */
+public class StyleSheetCache {
+
+	private static final String DIGEST_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+
+	/** The start of an import rule and the location it imports */
+	private static final Pattern IMPORT = Pattern.compile("@import\\s+(?:url\\(\\s*)?[\"']?([^\"')\\s;]+)"); //$NON-NLS-1$
+
+	private static class Entry {
+
+		final byte[] content;
+
+		final StyleSheet styleSheet;
+
+		/** The digest when the entry was first used, <code>null</code> before */
+		byte[] digest;
+
+		Entry(byte[] content, StyleSheet styleSheet) {
+			this.content = content;
+			this.styleSheet = styleSheet;
+		}
+	}
+
+	private final Map<String, Entry> entries = new HashMap<>();
+
+	private int hits;
+
+	private int misses;
+
+	/**
+	 * Read the content of a style sheet.
+	 *
+	 * @param url the resolved URL of the style sheet
+	 * @return the content
+	 * @throws IOException if the style sheet cannot be read
+	 */
+	public static byte[] read(URL url) throws IOException {
+		try (InputStream stream = url.openStream()) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int n;
+			while ((n = stream.read(buffer)) != -1) {
+				out.write(buffer, 0, n);
+			}
+			return out.toByteArray();
+		}
+	}
+
+	/**
+	 * Computes the digest of the given content of a style sheet and of the
+	 * content of the style sheets it imports, directly or indirectly.
+	 *
+	 * @param url     the resolved URL of the style sheet
+	 * @param content the content of the style sheet
+	 * @return the digest, or <code>null</code> if an imported style sheet
+	 *         cannot be read, in which case the style sheet is not reused
+	 */
+	public static byte[] digest(URL url, byte[] content) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform has to support SHA-256
+			throw new IllegalStateException(e);
+		}
+		return update(digest, url, content, new HashSet<>()) ? digest.digest() : null;
+	}
+
+	private static boolean update(MessageDigest digest, URL url, byte[] content, Set<String> visited) {
+		digest.update(content);
+		if (!visited.add(url.toString())) {
+			return true;
+		}
+		Matcher matcher = IMPORT.matcher(new String(content, StandardCharsets.ISO_8859_1));
+		while (matcher.find()) {
+			String href = matcher.group(1);
+			digest.update(href.getBytes(StandardCharsets.UTF_8));
+			try {
+				URL imported = resolveImport(url, href);
+				if (!update(digest, imported, read(imported), visited)) {
+					return false;
+				}
+			} catch (IOException e) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Resolves an imported style sheet like the CSS engine does, without the
+	 * fallback to its resource locators.
+	 */
+	private static URL resolveImport(URL url, String href) throws IOException {
+		if (href.startsWith("platform")) { //$NON-NLS-1$
+			return FileLocator.resolve(new URL(href));
+		}
+		IPath parent = new Path(url.toString()).removeLastSegments(1);
+		return FileLocator.resolve(new URL(parent.addTrailingSeparator().toString() + href));
+	}
+
+	/**
+	 * Returns the cached style sheet, if it has been parsed from the given
+	 * content and the style sheets it imports are unchanged.
+	 *
+	 * @param url     the resolved URL of the style sheet
+	 * @param content the current content of the style sheet
+	 * @return the parsed style sheet, or <code>null</code> if it has to be
+	 *         parsed
+	 */
+	public synchronized StyleSheet get(URL url, byte[] content) {
+		String key = url.toString();
+		Entry entry = entries.get(key);
+		if (entry != null && Arrays.equals(entry.content, content)) {
+			byte[] digest = digest(url, content);
+			if (digest != null && (entry.digest == null || Arrays.equals(entry.digest, digest))) {
+				entry.digest = digest;
+				hits++;
+				return entry.styleSheet;
+			}
+			entries.remove(key);
+		}
+		misses++;
+		return null;
+	}
+
+	/**
+	 * Cache the style sheet parsed from the given content.
+	 *
+	 * @param url        the resolved URL of the style sheet
+	 * @param content    the content the style sheet has been parsed from
+	 * @param styleSheet the parsed style sheet
+	 */
+	public synchronized void put(URL url, byte[] content, StyleSheet styleSheet) {
+		entries.put(url.toString(), new Entry(content, styleSheet));
+	}
+
+	/**
+	 * @return the number of style sheets found in the cache
+	 */
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of style sheets which had to be parsed
+	 */
+	public synchronized int getMisses() {
+		return misses;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "StyleSheetCache [styleSheets=" + entries.size() + ", hits=" + hits + ", misses=" + misses + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2018 Tom Schindl and others.
+ * Copyright (c) 2010, 2020 Tom Schindl and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,11 +18,11 @@
 package org.eclipse.e4.ui.css.swt.internal.theme;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -43,6 +43,7 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.RegistryFactory;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.e4.ui.css.core.dom.ExtendedDocumentCSS;
 import org.eclipse.e4.ui.css.core.engine.CSSElementContext;
 import org.eclipse.e4.ui.css.core.engine.CSSEngine;
 import org.eclipse.e4.ui.css.core.util.impl.resources.FileResourcesLocatorImpl;
@@ -63,6 +64,7 @@ import org.osgi.service.prefs.BackingStoreException;
 import org.w3c.css.sac.InputSource;
 import org.w3c.dom.Element;
 import org.w3c.dom.css.CSSStyleDeclaration;
+import org.w3c.dom.stylesheets.StyleSheet;
 
 public class ThemeEngine implements IThemeEngine {
 	private List<Theme> themes = new ArrayList<>();
@@ -80,6 +82,8 @@ public class ThemeEngine implements IThemeEngine {
 	private HashMap<String, List<String>> modifiedStylesheets = new HashMap<>();
 	private HashMap<String, List<IResourceLocator>> sourceLocators = new HashMap<>();
 
+	private StyleSheetCache styleSheetCache = new StyleSheetCache();
+
 	private static final String THEMEID_KEY = "themeid";
 
 	public static final String THEME_PLUGIN_ID = "org.eclipse.e4.ui.css.swt.theme";
@@ -432,27 +436,23 @@ public class ThemeEngine implements IThemeEngine {
 					}
 				}
 				for (String stylesheet : getAllStyles(theme.getId())) {
-					URL url;
-					InputStream stream = null;
 					try {
-						url = FileLocator.resolve(new URL(stylesheet));
+						URL url = FileLocator.resolve(new URL(stylesheet));
+						byte[] content = StyleSheetCache.read(url);
+						StyleSheet styleSheet = styleSheetCache.get(url, content);
 						for (CSSEngine engine : cssEngines) {
+							if (styleSheet != null && engine.getDocumentCSS() instanceof ExtendedDocumentCSS) {
+								((ExtendedDocumentCSS) engine.getDocumentCSS()).addStyleSheet(styleSheet);
+								continue;
+							}
 							try {
-								stream = url.openStream();
 								InputSource source = new InputSource();
-								source.setByteStream(stream);
+								source.setByteStream(new ByteArrayInputStream(content));
 								source.setURI(url.toString());
-								engine.parseStyleSheet(source);
+								styleSheet = engine.parseStyleSheet(source);
+								styleSheetCache.put(url, content, styleSheet);
 							} catch (IOException e) {
 								ThemeEngineManager.logError(e.getMessage(), e);
-							} finally {
-								if (stream != null) {
-									try {
-										stream.close();
-									} catch (IOException e) {
-										ThemeEngineManager.logError(e.getMessage(), e);
-									}
-								}
 							}
 						}
 					} catch (IOException e) {
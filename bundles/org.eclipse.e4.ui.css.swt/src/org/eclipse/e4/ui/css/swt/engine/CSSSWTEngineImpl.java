@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2019 Angelo Zerr and others.
+ * Copyright (c) 2008, 2020 Angelo Zerr and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -33,6 +33,8 @@ public class CSSSWTEngineImpl extends AbstractCSSSWTEngineImpl {
 
 	private DisposeListener disposeListener;
 
+	private CSSSWTRestyler restyler;
+
 	public CSSSWTEngineImpl(Display display) {
 		super(display);
 		init();
@@ -45,6 +47,17 @@ public class CSSSWTEngineImpl extends AbstractCSSSWTEngineImpl {
 
 	private void init() {
 		disposeListener = e -> handleWidgetDisposed(e.widget);
+		restyler = new CSSSWTRestyler(this);
+	}
+
+	/**
+	 * Returns the restyler restyling the elements affected by a change of the
+	 * CSS class or id of a widget.
+	 *
+	 * @return the restyler
+	 */
+	public CSSSWTRestyler getRestyler() {
+		return restyler;
 	}
 
 	@Override
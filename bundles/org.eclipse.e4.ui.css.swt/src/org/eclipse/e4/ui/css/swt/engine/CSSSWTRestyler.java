@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.swt.engine;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import org.eclipse.e4.ui.css.core.dom.ChildVisibilityAwareElement;
+import org.eclipse.e4.ui.css.core.dom.ExtendedDocumentCSS;
+import org.eclipse.e4.ui.css.core.engine.CSSEngine;
+import org.eclipse.e4.ui.css.core.impl.engine.SelectorDependencies;
+import org.eclipse.e4.ui.css.core.impl.engine.SelectorDependencies.Dependents;
+import org.eclipse.e4.ui.css.swt.dom.WidgetElement;
+import org.eclipse.swt.custom.CTabFolder;
+import org.eclipse.swt.widgets.Widget;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Restyles only the elements affected by a change of the CSS class or id of a
+ * widget, instead of the whole subtree of the widget.
+ * <p>
+ * The changed widget is restyled right away, together with those of its
+ * descendants and following siblings which may be matched by a selector
+ * testing one of the changed classes or ids of an ancestor or a sibling, as
+ * told by {@link SelectorDependencies}. So the new styles can be read from the
+ * widgets as soon as {@link #restyle(Widget, String, String)} returns.
+ * </p>
+ * <p>
+ * Changes of pseudo classes, like the selection of a {@link CTabFolder}, and
+ * of other attributes are not handled here; they still restyle the whole
+ * subtree of the widget.
+ * </p>
+ */
+public class CSSSWTRestyler {
+
+	private final CSSEngine engine;
+
+	private final SelectorDependencies dependencies;
+
+	private long restyledElements;
+
+	/**
+	 * Create a new restyler using the given engine.
+	 *
+	 * @param engine the engine
+	 */
+	public CSSSWTRestyler(CSSEngine engine) {
+		this.engine = engine;
+		this.dependencies = new SelectorDependencies((ExtendedDocumentCSS) engine.getDocumentCSS());
+	}
+
+	/**
+	 * Restyle the elements affected by a change of the CSS class or id of the
+	 * given widget. The widget must already hold its new class and id.
+	 * <p>
+	 * Nothing is restyled if the widget had neither a class nor an id before, as
+	 * it is styled for the first time; the caller has to apply the styles to the
+	 * whole subtree then.
+	 * </p>
+	 *
+	 * @param widget   the changed widget
+	 * @param oldClass the previous CSS class of the widget
+	 * @param oldId    the previous CSS id of the widget
+	 * @return <code>true</code> if the affected elements were restyled,
+	 *         <code>false</code> if the caller has to apply the styles itself
+	 */
+	public boolean restyle(Widget widget, String oldClass, String oldId) {
+		if (oldClass == null && oldId == null) {
+			return false;
+		}
+		Element elt = engine.getElement(widget);
+		if (elt == null) {
+			return false;
+		}
+		Set<String> tokens = SelectorDependencies.getChangedTokens(oldClass, WidgetElement.getCSSClass(widget),
+				oldId, WidgetElement.getID(widget));
+		restyle(elt, dependencies.getDependents(tokens), Collections.newSetFromMap(new IdentityHashMap<>()));
+		return true;
+	}
+
+	private void restyle(Element elt, Dependents dependents, Set<Element> restyled) {
+		restyle(elt, restyled);
+		if (dependents.hasDescendants()) {
+			restyleDescendants(elt, dependents, restyled);
+		}
+		if (dependents.hasSiblings() && elt.getParentNode() instanceof Element) {
+			restyleFollowingSiblings(elt, (Element) elt.getParentNode(), dependents, restyled);
+		}
+	}
+
+	private void restyleFollowingSiblings(Element elt, Element parent, Dependents dependents, Set<Element> restyled) {
+		NodeList nodes = getChildNodes(parent);
+		if (nodes == null) {
+			return;
+		}
+		boolean following = false;
+		int length = nodes.getLength();
+		for (int i = 0; i < length; i++) {
+			Node node = nodes.item(i);
+			if (following && node instanceof Element) {
+				if (dependents.affects((Element) node)) {
+					restyle((Element) node, restyled);
+				}
+				restyleDescendants((Element) node, dependents, restyled);
+			} else if (node == elt) {
+				following = true;
+			}
+		}
+	}
+
+	private void restyleDescendants(Element elt, Dependents dependents, Set<Element> restyled) {
+		NodeList nodes = getChildNodes(elt);
+		if (nodes == null) {
+			return;
+		}
+		int length = nodes.getLength();
+		for (int i = 0; i < length; i++) {
+			Node node = nodes.item(i);
+			if (node instanceof Element) {
+				if (dependents.affects((Element) node)) {
+					restyle((Element) node, restyled);
+				}
+				restyleDescendants((Element) node, dependents, restyled);
+			}
+		}
+	}
+
+	private static NodeList getChildNodes(Element elt) {
+		return elt instanceof ChildVisibilityAwareElement ? ((ChildVisibilityAwareElement) elt).getVisibleChildNodes()
+				: elt.getChildNodes();
+	}
+
+	private void restyle(Element elt, Set<Element> restyled) {
+		if (restyled.add(elt)) {
+			restyledElements++;
+			engine.applyStyles(elt, false);
+		}
+	}
+
+	/**
+	 * @return the number of elements restyled since the restyler was created
+	 */
+	public long getRestyledElements() {
+		return restyledElements;
+	}
+}
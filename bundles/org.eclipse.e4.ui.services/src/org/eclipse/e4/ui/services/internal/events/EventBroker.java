@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2016 IBM Corporation and others.
+ * Copyright (c) 2009, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -28,8 +28,9 @@ import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.di.UISynchronize;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.Filter;
 import org.osgi.framework.FrameworkUtil;
-import org.osgi.framework.ServiceRegistration;
+import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventAdmin;
 import org.osgi.service.event.EventConstants;
@@ -38,7 +39,7 @@ import org.osgi.service.event.EventHandler;
 public class EventBroker implements IEventBroker {
 
 	// TBD synchronization
-	private Map<EventHandler, Collection<ServiceRegistration<?>>> registrations = new HashMap<>();
+	private Map<EventHandler, Collection<Runnable>> registrations = new HashMap<>();
 
 	@Inject
 	@Optional
@@ -119,16 +120,22 @@ public class EventBroker implements IEventBroker {
 
 	@Override
 	public boolean subscribe(String topic, String filter, EventHandler eventHandler, boolean headless) {
-		String[] topics = new String[] {topic};
-		Dictionary<String, Object> d = new Hashtable<>();
-		d.put(EventConstants.EVENT_TOPIC, topics);
-		if (filter != null) {
-			d.put(EventConstants.EVENT_FILTER, filter);
-		}
 		EventHandler wrappedHandler = new UIEventHandler(eventHandler, headless ? null : uiSync);
-		ServiceRegistration<?> registration = bundleContext.registerService(EventHandler.class.getName(),
-				wrappedHandler, d);
-		Collection<ServiceRegistration<?>> handled = registrations.get(eventHandler);
+		Runnable registration = null;
+		if (UIEventDispatcher.isDispatched(topic)) {
+			registration = subscribeDispatched(topic, filter, wrappedHandler);
+		}
+		if (registration == null) {
+			String[] topics = new String[] { topic };
+			Dictionary<String, Object> d = new Hashtable<>();
+			d.put(EventConstants.EVENT_TOPIC, topics);
+			if (filter != null) {
+				d.put(EventConstants.EVENT_FILTER, filter);
+			}
+			registration = bundleContext.registerService(EventHandler.class.getName(), wrappedHandler,
+					d)::unregister;
+		}
+		Collection<Runnable> handled = registrations.get(eventHandler);
 		if (handled == null) {
 			registrations.put(eventHandler, handled = new ArrayList<>());
 		}
@@ -138,22 +145,42 @@ public class EventBroker implements IEventBroker {
 
 	@Override
 	public boolean unsubscribe(EventHandler eventHandler) {
-		Collection<ServiceRegistration<?>> handled = registrations.remove(eventHandler);
+		Collection<Runnable> handled = registrations.remove(eventHandler);
 		if (handled == null || handled.isEmpty())
 			return false;
-		for (ServiceRegistration<?> r : handled) {
-			r.unregister();
+		for (Runnable r : handled) {
+			r.run();
 		}
 		return true;
 	}
 
+	/**
+	 * Subscribes the handler with the {@link UIEventDispatcher} rather than
+	 * with the EventAdmin.
+	 *
+	 * @return a runnable removing the subscription, or <code>null</code> if
+	 *         the filter is not valid
+	 */
+	private Runnable subscribeDispatched(String topic, String filter, EventHandler wrappedHandler) {
+		Filter eventFilter = null;
+		if (filter != null) {
+			try {
+				eventFilter = FrameworkUtil.createFilter(filter);
+			} catch (InvalidSyntaxException e) {
+				// leave it to the EventAdmin to report the invalid filter
+				return null;
+			}
+		}
+		return UIEventDispatcher.getInstance(bundleContext).subscribe(topic, eventFilter, wrappedHandler);
+	}
+
 	@PreDestroy
 	void dispose() {
-		Collection<Collection<ServiceRegistration<?>>> values = new ArrayList<>(registrations.values());
+		Collection<Collection<Runnable>> values = new ArrayList<>(registrations.values());
 		registrations.clear();
-		for (Collection<ServiceRegistration<?>> handled : values) {
-			for (ServiceRegistration<?> registration : handled) {
-				registration.unregister();
+		for (Collection<Runnable> handled : values) {
+			for (Runnable registration : handled) {
+				registration.run();
 			}
 		}
 	}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.services.internal.events;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores values by event topic, following the EventAdmin rules for topic
+ * subscriptions: a topic either is matched exactly, or, if it ends with
+ * <code>/*</code>, matches all topics below it. A topic of <code>*</code>
+ * matches all topics.
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @param <T>
+ *            the type of the values
+ */
+final class TopicTrie<T> {
+
+	private static final String WILDCARD = "*"; //$NON-NLS-1$
+
+	private static final String WILDCARD_SUFFIX = "/*"; //$NON-NLS-1$
+
+	private final Node<T> root = new Node<>(null, null);
+
+	/**
+	 * Adds a value for the given topic subscription.
+	 *
+	 * @param topic
+	 *            the topic, possibly ending with a wildcard
+	 * @param value
+	 *            the value
+	 */
+	void add(String topic, T value) {
+		if (WILDCARD.equals(topic)) {
+			root.wildcardValues.add(value);
+		} else if (topic.endsWith(WILDCARD_SUFFIX)) {
+			getNode(topic.substring(0, topic.length() - WILDCARD_SUFFIX.length()), true).wildcardValues.add(value);
+		} else {
+			getNode(topic, true).values.add(value);
+		}
+	}
+
+	/**
+	 * Removes a value added for the given topic subscription.
+	 *
+	 * @param topic
+	 *            the topic, possibly ending with a wildcard
+	 * @param value
+	 *            the value
+	 */
+	void remove(String topic, T value) {
+		Node<T> node;
+		if (WILDCARD.equals(topic)) {
+			node = root;
+			node.wildcardValues.remove(value);
+		} else if (topic.endsWith(WILDCARD_SUFFIX)) {
+			node = getNode(topic.substring(0, topic.length() - WILDCARD_SUFFIX.length()), false);
+			if (node != null) {
+				node.wildcardValues.remove(value);
+			}
+		} else {
+			node = getNode(topic, false);
+			if (node != null) {
+				node.values.remove(value);
+			}
+		}
+		// prune the branches which are no longer used
+		while (node != null && node != root && node.isEmpty()) {
+			node.parent.children.remove(node.token);
+			node = node.parent;
+		}
+	}
+
+	/**
+	 * Collects the values of all subscriptions matching the given topic of an
+	 * event.
+	 *
+	 * @param topic
+	 *            the topic, which must not contain wildcards
+	 * @param result
+	 *            the list to which the values are added
+	 */
+	void collect(String topic, List<T> result) {
+		Node<T> node = root;
+		int start = 0;
+		while (node != null) {
+			// wildcard subscriptions match all topics below their node
+			result.addAll(node.wildcardValues);
+			int end = topic.indexOf('/', start);
+			if (end < 0) {
+				Node<T> leaf = node.children.get(topic.substring(start));
+				if (leaf != null) {
+					result.addAll(leaf.values);
+				}
+				return;
+			}
+			node = node.children.get(topic.substring(start, end));
+			start = end + 1;
+		}
+	}
+
+	private Node<T> getNode(String topic, boolean create) {
+		Node<T> node = root;
+		int start = 0;
+		while (true) {
+			int end = topic.indexOf('/', start);
+			String token = end < 0 ? topic.substring(start) : topic.substring(start, end);
+			Node<T> child = node.children.get(token);
+			if (child == null) {
+				if (!create) {
+					return null;
+				}
+				child = new Node<>(node, token);
+				node.children.put(token, child);
+			}
+			node = child;
+			if (end < 0) {
+				return node;
+			}
+			start = end + 1;
+		}
+	}
+
+	private static final class Node<T> {
+		final Node<T> parent;
+		final String token;
+		final Map<String, Node<T>> children = new HashMap<>(4);
+		final List<T> values = new ArrayList<>(1);
+		final List<T> wildcardValues = new ArrayList<>(1);
+
+		Node(Node<T> parent, String token) {
+			this.parent = parent;
+			this.token = token;
+		}
+
+		boolean isEmpty() {
+			return children.isEmpty() && values.isEmpty() && wildcardValues.isEmpty();
+		}
+	}
+}
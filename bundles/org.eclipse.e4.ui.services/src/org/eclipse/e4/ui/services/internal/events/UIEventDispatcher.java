@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.services.internal.events;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Filter;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
+import org.osgi.service.log.LogService;
+import org.osgi.util.tracker.ServiceTracker;
+
+/**
+ * Dispatches the events of the UI topics to the handlers subscribed through an
+ * {@link EventBroker}.
+ * <p>
+ * The model notifications produce a large number of events, for which the
+ * EventAdmin would have to match the topic against every handler registered
+ * as a service. Instead, a single handler is registered for all UI topics,
+ * and looks up the subscribed handlers in a {@link TopicTrie}. The handlers
+ * matching a topic are cached, so dispatching an event does not allocate.
+ * Since the events are still delivered by the EventAdmin, events sent and
+ * posted by any client reach the subscribed handlers.
+ * </p>
+ * <p>
+ * The handler is only registered while there are subscriptions.
+ * </p>
+ */
+final class UIEventDispatcher implements EventHandler {
+
+	/** The prefix of the topics dispatched by this class */
+	private static final String TOPIC_BASE = "org/eclipse/e4/ui/"; //$NON-NLS-1$
+
+	/** The number of topics for which the matching handlers are cached */
+	private static final int MAX_CACHED_TOPICS = 1024;
+
+	private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
+	private static UIEventDispatcher instance;
+
+	private final BundleContext bundleContext;
+
+	private ServiceRegistration<?> registration;
+
+	private ServiceTracker<LogService, LogService> logTracker;
+
+	private int subscriptionCount;
+
+	private boolean disposed;
+
+	private final TopicTrie<Subscription> subscriptions = new TopicTrie<>();
+
+	private final Map<String, Subscription[]> subscriptionsByTopic = new ConcurrentHashMap<>();
+
+	private long nextSequence;
+
+	private UIEventDispatcher(BundleContext bundleContext) {
+		this.bundleContext = bundleContext;
+	}
+
+	/**
+	 * @param bundleContext
+	 *            the context of this bundle
+	 * @return the dispatcher shared by all brokers
+	 */
+	static synchronized UIEventDispatcher getInstance(BundleContext bundleContext) {
+		if (instance == null || instance.bundleContext != bundleContext) {
+			if (instance != null) {
+				instance.dispose();
+			}
+			instance = new UIEventDispatcher(bundleContext);
+		}
+		return instance;
+	}
+
+	/**
+	 * @param topic
+	 *            a topic subscription
+	 * @return <code>true</code> if the events of the topic are dispatched by
+	 *         this class
+	 */
+	static boolean isDispatched(String topic) {
+		return topic.startsWith(TOPIC_BASE);
+	}
+
+	/**
+	 * Subscribes the handler to the given topic.
+	 *
+	 * @param topic
+	 *            the topic, for which {@link #isDispatched(String)} must be
+	 *            <code>true</code>
+	 * @param filter
+	 *            the filter the events must match, or <code>null</code>
+	 * @param eventHandler
+	 *            the handler
+	 * @return a runnable removing the subscription
+	 */
+	synchronized Runnable subscribe(final String topic, Filter filter, EventHandler eventHandler) {
+		if (registration == null) {
+			Dictionary<String, Object> d = new Hashtable<>();
+			d.put(EventConstants.EVENT_TOPIC, new String[] { TOPIC_BASE + '*' });
+			registration = bundleContext.registerService(EventHandler.class.getName(), this, d);
+		}
+		final Subscription subscription = new Subscription(eventHandler, filter, nextSequence++);
+		subscriptions.add(topic, subscription);
+		subscriptionCount++;
+		subscriptionsByTopic.clear();
+		return () -> unsubscribe(topic, subscription);
+	}
+
+	private synchronized void unsubscribe(String topic, Subscription subscription) {
+		if (disposed || subscription.removed) {
+			return;
+		}
+		subscription.removed = true;
+		subscriptions.remove(topic, subscription);
+		subscriptionsByTopic.clear();
+		if (--subscriptionCount == 0) {
+			unregister();
+		}
+	}
+
+	/**
+	 * Unregisters the handler, after which the remaining subscriptions are no
+	 * longer notified. Called when the dispatcher is replaced by one for
+	 * another bundle context.
+	 */
+	private synchronized void dispose() {
+		disposed = true;
+		subscriptionsByTopic.clear();
+		subscriptionCount = 0;
+		unregister();
+	}
+
+	private void unregister() {
+		if (registration != null) {
+			try {
+				registration.unregister();
+			} catch (IllegalStateException e) {
+				// already unregistered when this bundle was stopped
+			}
+			registration = null;
+		}
+		if (logTracker != null) {
+			logTracker.close();
+			logTracker = null;
+		}
+	}
+
+	@Override
+	public void handleEvent(Event event) {
+		String topic = event.getTopic();
+		Subscription[] matching = subscriptionsByTopic.get(topic);
+		if (matching == null) {
+			matching = getSubscriptions(topic);
+		}
+		for (Subscription subscription : matching) {
+			if (subscription.removed) {
+				// unsubscribed by a handler called earlier for this event
+				continue;
+			}
+			if (subscription.filter != null && !event.matches(subscription.filter)) {
+				continue;
+			}
+			try {
+				subscription.eventHandler.handleEvent(event);
+			} catch (RuntimeException e) {
+				// as the EventAdmin does, do not let one handler prevent the
+				// others from receiving the event
+				log(event, e);
+			}
+		}
+	}
+
+	private synchronized Subscription[] getSubscriptions(String topic) {
+		if (disposed) {
+			return NO_SUBSCRIPTIONS;
+		}
+		Subscription[] matching = subscriptionsByTopic.get(topic);
+		if (matching != null) {
+			return matching;
+		}
+		List<Subscription> result = new ArrayList<>();
+		subscriptions.collect(topic, result);
+		if (result.isEmpty()) {
+			matching = NO_SUBSCRIPTIONS;
+		} else {
+			// notify the handlers in the order in which they subscribed
+			result.sort(Comparator.comparingLong(s -> s.sequence));
+			matching = result.toArray(new Subscription[result.size()]);
+		}
+		if (subscriptionsByTopic.size() >= MAX_CACHED_TOPICS) {
+			subscriptionsByTopic.clear();
+		}
+		subscriptionsByTopic.put(topic, matching);
+		return matching;
+	}
+
+	private void log(Event event, RuntimeException e) {
+		try {
+			LogService logService = getLogService();
+			if (logService != null) {
+				logService.log(LogService.LOG_ERROR, "Exception while dispatching event " + event, e); //$NON-NLS-1$
+				return;
+			}
+		} catch (NoClassDefFoundError noLogService) {
+			// the log service package is an optional import
+		}
+		e.printStackTrace();
+	}
+
+	private synchronized LogService getLogService() {
+		if (logTracker == null) {
+			if (registration == null) {
+				return null;
+			}
+			logTracker = new ServiceTracker<>(bundleContext, LogService.class, null);
+			logTracker.open();
+		}
+		return logTracker.getService();
+	}
+
+	private static final class Subscription {
+		final EventHandler eventHandler;
+		final Filter filter;
+		final long sequence;
+		volatile boolean removed;
+
+		Subscription(EventHandler eventHandler, Filter filter, long sequence) {
+			this.eventHandler = eventHandler;
+			this.filter = filter;
+			this.sequence = sequence;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2016 IBM Corporation and others.
+ * Copyright (c) 2009, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -227,6 +227,12 @@ public class ContributedPartRenderer extends SWTPartRenderer {
 
 	}
 
+	@Override
+	public boolean supportsDeferredCreation(MUIElement element) {
+		// shared parts are created through their placeholders
+		return element instanceof MPart && element.getCurSharedRef() == null;
+	}
+
 	@Override
 	public Object getUIContainer(MUIElement element) {
 		if (element instanceof MToolBar) {
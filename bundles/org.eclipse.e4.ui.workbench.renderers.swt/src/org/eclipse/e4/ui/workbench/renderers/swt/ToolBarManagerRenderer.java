@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2019 IBM Corporation and others.
+ * Copyright (c) 2009, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -65,12 +65,15 @@ import org.eclipse.e4.ui.model.application.ui.menu.MToolItem;
 import org.eclipse.e4.ui.services.IServiceConstants;
 import org.eclipse.e4.ui.services.IStylingEngine;
 import org.eclipse.e4.ui.workbench.IPresentationEngine;
+import org.eclipse.e4.ui.workbench.IResourceUtilities;
 import org.eclipse.e4.ui.workbench.Selector;
 import org.eclipse.e4.ui.workbench.UIEvents;
 import org.eclipse.e4.ui.workbench.UIEvents.ElementContainer;
 import org.eclipse.e4.ui.workbench.UIEvents.EventTags;
+import org.eclipse.e4.ui.workbench.swt.util.ISWTResourceUtilities;
 import org.eclipse.emf.common.util.ECollections;
 import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.URI;
 import org.eclipse.jface.action.AbstractGroupMarker;
 import org.eclipse.jface.action.ContributionItem;
 import org.eclipse.jface.action.GroupMarker;
@@ -80,6 +83,8 @@ import org.eclipse.jface.action.IToolBarManager;
 import org.eclipse.jface.action.MenuManager;
 import org.eclipse.jface.action.Separator;
 import org.eclipse.jface.action.ToolBarManager;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.jface.util.Throttler;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Composite;
@@ -624,6 +629,7 @@ public class ToolBarManagerRenderer extends SWTPartRenderer {
 		List<MUIElement> parts = container.getChildren();
 		if (parts != null) {
 			MUIElement[] plist = parts.toArray(new MUIElement[parts.size()]);
+			prefetchIcons(plist);
 			for (MUIElement childME : plist) {
 				modelProcessSwitch(parentManager, (MToolBarElement) childME);
 			}
@@ -632,6 +638,36 @@ public class ToolBarManagerRenderer extends SWTPartRenderer {
 		updateWidget(parentManager);
 	}
 
+	/**
+	 * Starts loading the icons of the given tool items in the background. Their
+	 * images are created right away when the tool bar is updated, which takes
+	 * over the icons not being loaded yet, so the background threads decode the
+	 * icons further down the tool bar meanwhile.
+	 */
+	private void prefetchIcons(MUIElement[] elements) {
+		Display display = Display.getCurrent();
+		Object utils = context.get(IResourceUtilities.class);
+		if (display == null || !(utils instanceof ISWTResourceUtilities)) {
+			return;
+		}
+		List<ImageDescriptor> descriptors = new ArrayList<>();
+		for (MUIElement element : elements) {
+			if (element instanceof MToolItem && element.isToBeRendered()) {
+				String iconURI = ((MToolItem) element).getIconURI();
+				if (iconURI != null && iconURI.length() > 0) {
+					ImageDescriptor descriptor = ((ISWTResourceUtilities) utils)
+							.imageDescriptorFromURI(URI.createURI(iconURI));
+					if (descriptor != null) {
+						descriptors.add(descriptor);
+					}
+				}
+			}
+		}
+		if (!descriptors.isEmpty()) {
+			JFaceResources.getResources(display).prefetchImages(descriptors);
+		}
+	}
+
 	private void updateWidget(ToolBarManager manager) {
 		manager.update(true);
 		ToolBar toolbar = manager.getControl();
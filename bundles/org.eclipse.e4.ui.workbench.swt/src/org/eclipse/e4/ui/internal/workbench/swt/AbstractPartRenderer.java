@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 IBM Corporation and others.
+ * Copyright (c) 2009, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -109,6 +109,19 @@ public abstract class AbstractPartRenderer {
 	public void removeGui(MUIElement element, Object widget) {
 	}
 
+	/**
+	 * Check if the widget of an element which is not visible may be created only
+	 * once the element is shown. Renderers should only return <code>true</code>
+	 * for elements whose widget is not needed as long as they are hidden.
+	 *
+	 * @param element
+	 *            the element which is not visible
+	 * @return true if the creation of the widget may be deferred
+	 */
+	public boolean supportsDeferredCreation(MUIElement element) {
+		return false;
+	}
+
 	public Object getUIContainer(MUIElement element) {
 		if (element.getParent() != null)
 			return element.getParent().getWidget();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2016 IBM Corporation and others.
+ * Copyright (c) 2009, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -373,6 +373,11 @@ public class E4Application implements IApplication {
 				.map(Boolean::parseBoolean).orElse(Boolean.FALSE);
 		eclipseContext.set(IWorkbench.CLEAR_PERSISTED_STATE, clearPersistedState);
 
+		// Binary model snapshot instead of XMI
+		Boolean binaryModelFormat = getArgValue(ResourceHandler.BINARY_MODEL_FORMAT, appContext, true)
+				.map(Boolean::parseBoolean).orElse(Boolean.FALSE);
+		eclipseContext.set(ResourceHandler.BINARY_MODEL_FORMAT, binaryModelFormat);
+
 		String resourceHandler = getArgValue(IWorkbench.MODEL_RESOURCE_HANDLER, appContext, false)
 				.orElse("bundleclass://org.eclipse.e4.ui.workbench/" + ResourceHandler.class.getName());
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2019 IBM Corporation and others.
+ * Copyright (c) 2008, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -54,6 +54,7 @@ import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.core.services.log.Logger;
 import org.eclipse.e4.core.services.statusreporter.StatusReporter;
 import org.eclipse.e4.ui.bindings.keys.KeyBindingDispatcher;
+import org.eclipse.e4.ui.css.core.engine.CSSEngine;
 import org.eclipse.e4.ui.css.core.util.impl.resources.OSGiResourceLocator;
 import org.eclipse.e4.ui.css.swt.dom.WidgetElement;
 import org.eclipse.e4.ui.css.swt.engine.CSSSWTEngineImpl;
@@ -115,6 +116,12 @@ public class PartRenderingEngine implements IPresentationEngine {
 
 	public static final String EARLY_STARTUP_HOOK = "runEarlyStartup";
 
+	/**
+	 * Transient data key marking the elements whose widget has not been created
+	 * yet because they were not visible when their parent was rendered.
+	 */
+	public static final String DEFERRED_CREATION = "deferredCreation";
+
 	public static final String engineURI = "bundleclass://org.eclipse.e4.ui.workbench.swt/"
 			+ "org.eclipse.e4.ui.internal.workbench.swt.PartRenderingEngine";
 
@@ -129,6 +136,13 @@ public class PartRenderingEngine implements IPresentationEngine {
 
 	private Map<String, AbstractPartRenderer> customRendererMap = new HashMap<>();
 
+	// true while creating elements whose creation may be deferred
+	private boolean deferInvisible;
+
+	// the number of elements marked with DEFERRED_CREATION, so that the transient
+	// data of the other elements is not looked up, which would allocate it
+	private int deferredCount;
+
 	org.eclipse.swt.widgets.Listener keyListener;
 
 	@Inject
@@ -158,7 +172,7 @@ public class PartRenderingEngine implements IPresentationEngine {
 			}
 
 			// Note that the 'createGui' protocol calls 'childAdded'
-			Object w = createGui(changedElement);
+			Object w = createGuiDeferringInvisible(changedElement);
 			if (w instanceof Control && !(w instanceof Shell)) {
 				fixZOrder(changedElement);
 			}
@@ -167,6 +181,10 @@ public class PartRenderingEngine implements IPresentationEngine {
 				WorkbenchSWTActivator.trace(Policy.DEBUG_RENDERER_FLAG, "visible -> false", null); //$NON-NLS-1$
 			}
 
+			// A hidden element which is no longer rendered is not created once
+			// shown
+			clearDeferredCreations(changedElement);
+
 			// Ensure that the element about to be removed is not the
 			// selected element
 			if (parent instanceof MElementContainer<?>) {
@@ -208,6 +226,16 @@ public class PartRenderingEngine implements IPresentationEngine {
 		// Re-parent the control based on the visible state
 		if (changedElement.isVisible()) {
 			if (changedElement.isToBeRendered()) {
+				if (changedElement.getWidget() == null && clearDeferredCreation(changedElement)) {
+					// Create the widget deferred while the element was hidden,
+					// note that the 'createGui' protocol calls 'childAdded'
+					Object w = createGui(changedElement);
+					if (w instanceof Control && !(w instanceof Shell)) {
+						fixZOrder(changedElement);
+					}
+					return;
+				}
+
 				if (changedElement.getWidget() instanceof Control) {
 					// Ensure that the control is under its 'real' parent if
 					// it's visible
@@ -307,7 +335,7 @@ public class PartRenderingEngine implements IPresentationEngine {
 				boolean renderIt = !isStack || hasWidget || isSelected;
 				if (renderIt) {
 					// NOTE: createGui will call 'childAdded' if successful
-					Object w = createGui(added);
+					Object w = createGuiDeferringInvisible(added);
 					if (w instanceof Control && !(w instanceof Shell)) {
 						final Control ctrl = (Control) w;
 						fixZOrder(added);
@@ -337,6 +365,8 @@ public class PartRenderingEngine implements IPresentationEngine {
 			}
 			for (Object o : UIEvents.asIterable(event, UIEvents.EventTags.OLD_VALUE)) {
 				MUIElement removed = (MUIElement) o;
+				clearDeferredCreations(removed);
+
 				// Removing invisible elements is a NO-OP as far as the
 				// renderer is concerned
 				if (!removed.isToBeRendered()) {
@@ -548,6 +578,35 @@ public class PartRenderingEngine implements IPresentationEngine {
 		return gui[0];
 	}
 
+	/**
+	 * Removes the {@link #DEFERRED_CREATION} mark of the given element.
+	 *
+	 * @return <code>true</code> if the element was marked
+	 */
+	private boolean clearDeferredCreation(MUIElement element) {
+		if (deferredCount == 0 || element.getTransientData().remove(DEFERRED_CREATION) == null) {
+			return false;
+		}
+		deferredCount--;
+		return true;
+	}
+
+	/**
+	 * Removes the {@link #DEFERRED_CREATION} marks of the given element and of
+	 * the elements it contains, which are no longer part of the rendered model.
+	 */
+	private void clearDeferredCreations(MUIElement element) {
+		if (deferredCount == 0) {
+			return;
+		}
+		clearDeferredCreation(element);
+		if (element instanceof MElementContainer<?>) {
+			for (MUIElement child : ((MElementContainer<?>) element).getChildren()) {
+				clearDeferredCreations(child);
+			}
+		}
+	}
+
 	public Object safeCreateGui(MUIElement element, Object parentWidget,
 			IEclipseContext parentContext) {
 		if (!element.isToBeRendered())
@@ -558,6 +617,29 @@ public class PartRenderingEngine implements IPresentationEngine {
 			return null;
 		}
 
+		// Hidden elements are only created once shown if their renderer allows it
+		if (deferInvisible && !element.isVisible() && element.getWidget() == null) {
+			AbstractPartRenderer renderer = getRenderer(element, parentWidget);
+			if (renderer != null && renderer.supportsDeferredCreation(element)) {
+				if (element.getTransientData().put(DEFERRED_CREATION, Boolean.TRUE) == null) {
+					deferredCount++;
+				}
+				return null;
+			}
+		}
+		clearDeferredCreation(element);
+
+		// Explicit creates while rendering the element are not deferred
+		boolean defer = deferInvisible;
+		deferInvisible = false;
+		try {
+			return safeCreateWidget(element, parentWidget, parentContext);
+		} finally {
+			deferInvisible = defer;
+		}
+	}
+
+	private Object safeCreateWidget(MUIElement element, Object parentWidget, IEclipseContext parentContext) {
 		Object currentWidget = element.getWidget();
 		if (currentWidget != null) {
 			if (currentWidget instanceof Control) {
@@ -671,7 +753,12 @@ public class PartRenderingEngine implements IPresentationEngine {
 			if (element instanceof MElementContainer) {
 				@SuppressWarnings("unchecked")
 				MElementContainer<MUIElement> container = (MElementContainer<MUIElement>) element;
-				renderer.processContents(container);
+				deferInvisible = true;
+				try {
+					renderer.processContents(container);
+				} finally {
+					deferInvisible = false;
+				}
 			}
 
 			// Allow a final chance to set up
@@ -700,6 +787,20 @@ public class PartRenderingEngine implements IPresentationEngine {
 		return newWidget;
 	}
 
+	/**
+	 * Creates the widget of an element shown by a model change. If the element is
+	 * not visible, its creation may be deferred until it is shown.
+	 */
+	private Object createGuiDeferringInvisible(MUIElement element) {
+		boolean defer = deferInvisible;
+		deferInvisible = true;
+		try {
+			return createGui(element);
+		} finally {
+			deferInvisible = defer;
+		}
+	}
+
 	private IEclipseContext getContext(MUIElement parent) {
 		if (parent instanceof MContext) {
 			return ((MContext) parent).getContext();
@@ -1296,14 +1397,20 @@ public class PartRenderingEngine implements IPresentationEngine {
 			appContext.set(IStylingEngine.class, new IStylingEngine() {
 				@Override
 				public void setClassname(Object widget, String classname) {
+					String oldClass = WidgetElement.getCSSClass((Widget) widget);
 					WidgetElement.setCSSClass((Widget) widget, classname);
-					themeEngine.applyStyles(widget, true);
+					if (!restyle((Widget) widget, oldClass, WidgetElement.getID((Widget) widget))) {
+						themeEngine.applyStyles(widget, true);
+					}
 				}
 
 				@Override
 				public void setId(Object widget, String id) {
+					String oldId = WidgetElement.getID((Widget) widget);
 					WidgetElement.setID((Widget) widget, id);
-					themeEngine.applyStyles(widget, true);
+					if (!restyle((Widget) widget, WidgetElement.getCSSClass((Widget) widget), oldId)) {
+						themeEngine.applyStyles(widget, true);
+					}
 				}
 
 				@Override
@@ -1318,9 +1425,13 @@ public class PartRenderingEngine implements IPresentationEngine {
 
 				@Override
 				public void setClassnameAndId(Object widget, String classname, String id) {
+					String oldClass = WidgetElement.getCSSClass((Widget) widget);
+					String oldId = WidgetElement.getID((Widget) widget);
 					WidgetElement.setCSSClass((Widget) widget, classname);
 					WidgetElement.setID((Widget) widget, id);
-					themeEngine.applyStyles(widget, true);
+					if (!restyle((Widget) widget, oldClass, oldId)) {
+						themeEngine.applyStyles(widget, true);
+					}
 				}
 			});
 
@@ -1339,14 +1450,20 @@ public class PartRenderingEngine implements IPresentationEngine {
 			appContext.set(IStylingEngine.class, new IStylingEngine() {
 				@Override
 				public void setClassname(Object widget, String classname) {
+					String oldClass = WidgetElement.getCSSClass((Widget) widget);
 					WidgetElement.setCSSClass((Widget) widget, classname);
-					cssEngine.applyStyles(widget, true);
+					if (!restyle((Widget) widget, oldClass, WidgetElement.getID((Widget) widget))) {
+						cssEngine.applyStyles(widget, true);
+					}
 				}
 
 				@Override
 				public void setId(Object widget, String id) {
+					String oldId = WidgetElement.getID((Widget) widget);
 					WidgetElement.setID((Widget) widget, id);
-					cssEngine.applyStyles(widget, true);
+					if (!restyle((Widget) widget, WidgetElement.getCSSClass((Widget) widget), oldId)) {
+						cssEngine.applyStyles(widget, true);
+					}
 				}
 
 				@Override
@@ -1365,9 +1482,13 @@ public class PartRenderingEngine implements IPresentationEngine {
 
 				@Override
 				public void setClassnameAndId(Object widget, String classname, String id) {
+					String oldClass = WidgetElement.getCSSClass((Widget) widget);
+					String oldId = WidgetElement.getID((Widget) widget);
 					WidgetElement.setCSSClass((Widget) widget, classname);
 					WidgetElement.setID((Widget) widget, id);
-					cssEngine.applyStyles(widget, true);
+					if (!restyle((Widget) widget, oldClass, oldId)) {
+						cssEngine.applyStyles(widget, true);
+					}
 				}
 			});
 
@@ -1399,6 +1520,19 @@ public class PartRenderingEngine implements IPresentationEngine {
 		appContext.set(CSSRenderingUtils.class, cssUtils);
 	}
 
+	/**
+	 * Restyles the elements affected by a change of the CSS class or id of the
+	 * given widget.
+	 *
+	 * @return <code>false</code> if the styles have to be applied to the whole
+	 *         subtree of the widget instead
+	 */
+	private static boolean restyle(Widget widget, String oldClass, String oldId) {
+		CSSEngine engine = WidgetElement.getEngine(widget);
+		return engine instanceof CSSSWTEngineImpl
+				&& ((CSSSWTEngineImpl) engine).getRestyler().restyle(widget, oldClass, oldId);
+	}
+
 	private static IThemeEngine createThemeEngine(Display display, IEclipseContext appContext) {
 		// Store the app context
 		IContributionFactory contribution = appContext.get(IContributionFactory.class);
@@ -0,0 +1,289 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import org.eclipse.e4.ui.model.application.MApplicationElement;
+import org.eclipse.e4.ui.model.application.ui.MUIElement;
+import org.eclipse.e4.ui.workbench.IWorkbench;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+
+/**
+ * Saves and loads the application model in a compact binary format instead of
+ * XMI, which is several times faster to write and to read for large models.
+ * <p>
+ * A snapshot holds the IDs of the model elements, as assigned by the
+ * {@link E4XMIResource}, followed by the model encoded by EMF's
+ * {@link BinaryResourceImpl}. Like {@link E4XMISave}, the elements which are
+ * not to be persisted may be left out, without changing the model itself.
+ * The contents of transient containments, like the transient data of the
+ * elements, are never written.
+ * </p>
+ */
+public final class BinaryModelSnapshot {
+
+	/**
+	 * The file extension of binary snapshots.
+	 */
+	public static final String FILE_EXTENSION = "e4bin"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x45344249; // "E4BI"
+
+	private static final int FORMAT_VERSION = 1;
+
+	private BinaryModelSnapshot() {
+		// prevents instantiation
+	}
+
+	/**
+	 * Writes a snapshot of the contents of the given resource.
+	 *
+	 * @param resource            the resource holding the model
+	 * @param out                 the stream to write to, which is not closed
+	 * @param filterPersistState  whether to leave out the elements which are not
+	 *                            to be persisted
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	public static void save(XMLResource resource, OutputStream out, boolean filterPersistState)
+			throws IOException {
+		save(resource, out, filterPersistState, resource::getID);
+	}
+
+	/**
+	 * Writes a snapshot of the contents of the given resource as it was loaded,
+	 * for example a model fragment. Only the IDs read with the resource are
+	 * written, no IDs are assigned to the elements which have none.
+	 *
+	 * @param resource the resource holding the model
+	 * @param out      the stream to write to, which is not closed
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	public static void saveAsLoaded(XMLResource resource, OutputStream out) throws IOException {
+		save(resource, out, false, resource.getEObjectToIDMap()::get);
+	}
+
+	private static void save(XMLResource resource, OutputStream out, boolean filterPersistState,
+			Function<EObject, String> idProvider) throws IOException {
+		EcoreUtil.Copier copier = new EcoreUtil.Copier() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void copyContainment(EReference eReference, EObject eObject, EObject copyEObject) {
+				// not written by the binary resource either
+				if (!eReference.isTransient()) {
+					super.copyContainment(eReference, eObject, copyEObject);
+				}
+			}
+		};
+		Collection<EObject> copies = copier.copyAll(resource.getContents());
+		copier.copyReferences();
+		if (filterPersistState) {
+			removeNonPersistedElements(resource, copier);
+		}
+
+		Map<EObject, EObject> originals = new IdentityHashMap<>();
+		for (Map.Entry<EObject, EObject> entry : copier.entrySet()) {
+			originals.put(entry.getValue(), entry.getKey());
+		}
+
+		BinaryResourceImpl binary = new BinaryResourceImpl(resource.getURI());
+		binary.getContents().addAll(copies);
+		List<String> ids = new ArrayList<>();
+		for (EObject copy : getPersistedContents(binary.getContents())) {
+			ids.add(idProvider.apply(originals.get(copy)));
+		}
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+		binary.save(encoded, null);
+
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(FORMAT_VERSION);
+		data.writeInt(ids.size());
+		for (String id : ids) {
+			data.writeBoolean(id != null);
+			if (id != null) {
+				data.writeUTF(id);
+			}
+		}
+		data.writeInt(encoded.size());
+		encoded.writeTo(data);
+		data.flush();
+	}
+
+	/**
+	 * Reads a snapshot into the given empty resource.
+	 *
+	 * @param resource the resource to add the model and the IDs to
+	 * @param in       the stream to read from, which is not closed
+	 * @throws IOException if the snapshot cannot be read
+	 */
+	public static void load(XMLResource resource, InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC || data.readInt() != FORMAT_VERSION) {
+			throw new IOException("Unknown model snapshot format"); //$NON-NLS-1$
+		}
+		String[] ids = new String[data.readInt()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = data.readBoolean() ? data.readUTF() : null;
+		}
+		byte[] encoded = new byte[data.readInt()];
+		data.readFully(encoded);
+
+		BinaryResourceImpl binary = new BinaryResourceImpl(resource.getURI());
+		ResourceSet resourceSet = resource.getResourceSet();
+		if (resourceSet != null) {
+			// look up the packages in the registry the resource is read with
+			ResourceSet binarySet = new ResourceSetImpl();
+			binarySet.setPackageRegistry(resourceSet.getPackageRegistry());
+			binarySet.getResources().add(binary);
+		}
+		binary.load(new ByteArrayInputStream(encoded), null);
+		resource.getContents().addAll(new ArrayList<>(binary.getContents()));
+
+		List<EObject> contents = getPersistedContents(resource.getContents());
+		if (contents.size() > ids.length) {
+			throw new IOException("Model snapshot has more elements than IDs"); //$NON-NLS-1$
+		}
+		if (contents.size() < ids.length) {
+			throw new IOException("Model snapshot has less elements than IDs"); //$NON-NLS-1$
+		}
+		for (int i = 0; i < ids.length; i++) {
+			if (ids[i] != null) {
+				resource.setID(contents.get(i), ids[i]);
+			}
+		}
+	}
+
+	/**
+	 * Returns the given elements and all their contents which are not held by a
+	 * transient containment, in the order of {@link EObject#eAllContents()}.
+	 */
+	private static List<EObject> getPersistedContents(List<EObject> roots) {
+		List<EObject> contents = new ArrayList<>();
+		for (EObject root : roots) {
+			addPersistedContents(root, contents);
+		}
+		return contents;
+	}
+
+	private static void addPersistedContents(EObject eObject, List<EObject> contents) {
+		contents.add(eObject);
+		for (EReference containment : eObject.eClass().getEAllContainments()) {
+			if (containment.isTransient() || !eObject.eIsSet(containment)) {
+				continue;
+			}
+			Object value = eObject.eGet(containment, false);
+			if (containment.isMany()) {
+				@SuppressWarnings("unchecked")
+				List<EObject> children = (List<EObject>) value;
+				for (EObject child : children) {
+					addPersistedContents(child, contents);
+				}
+			} else if (value != null) {
+				addPersistedContents((EObject) value, contents);
+			}
+		}
+	}
+
+	/**
+	 * Removes the copies of the elements which are not to be persisted, and the
+	 * references to them, like {@link E4XMISave} leaves them out.
+	 */
+	private static void removeNonPersistedElements(XMLResource resource, EcoreUtil.Copier copier) {
+		Set<EObject> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<EObject> removedRoots = new ArrayList<>();
+		for (TreeIterator<EObject> it = resource.getAllContents(); it.hasNext();) {
+			EObject original = it.next();
+			if (isPersisted(original)) {
+				continue;
+			}
+			it.prune();
+			EObject copy = copier.get(original);
+			if (copy == null) {
+				// held by a transient containment, not copied
+				continue;
+			}
+			removedRoots.add(copy);
+			removed.add(copy);
+			for (TreeIterator<EObject> children = copy.eAllContents(); children.hasNext();) {
+				removed.add(children.next());
+			}
+		}
+		if (removedRoots.isEmpty()) {
+			return;
+		}
+
+		for (EObject copy : copier.values()) {
+			if (removed.contains(copy)) {
+				continue;
+			}
+			for (EReference reference : copy.eClass().getEAllReferences()) {
+				if (reference.isContainment() || reference.isContainer() || reference.isDerived()
+						|| reference.isTransient() || !reference.isChangeable() || !copy.eIsSet(reference)) {
+					continue;
+				}
+				Object value = copy.eGet(reference, false);
+				if (reference.isMany()) {
+					@SuppressWarnings("unchecked")
+					EList<EObject> values = (EList<EObject>) value;
+					values.removeIf(removed::contains);
+				} else if (removed.contains(value)) {
+					copy.eUnset(reference);
+				}
+			}
+		}
+		for (EObject copy : removedRoots) {
+			EcoreUtil.remove(copy);
+		}
+	}
+
+	private static boolean isPersisted(EObject eObject) {
+		if (eObject instanceof MApplicationElement) {
+			String persists = ((MApplicationElement) eObject).getPersistedState().get(IWorkbench.PERSIST_STATE);
+			if (persists != null && !Boolean.parseBoolean(persists)) {
+				return false;
+			}
+		}
+		if (eObject instanceof MUIElement) {
+			MUIElement uiElement = (MUIElement) eObject;
+			if (OpaqueElementUtil.isOpaqueElement(uiElement) || RenderedElementUtil.isRenderedElement(uiElement)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
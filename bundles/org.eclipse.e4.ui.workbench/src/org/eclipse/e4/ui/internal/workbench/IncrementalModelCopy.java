@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.ECollections;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+/**
+ * A copy of a model which is kept up to date incrementally, so that saving the
+ * model does not require copying all of it in the UI thread.
+ * <p>
+ * The copy records which elements of the model change. {@link #update()}
+ * applies the changes of these elements to the copy, which can then be saved
+ * in the background as long as {@link #update()} is not called again. The
+ * transient features are neither copied nor tracked, as they are not saved.
+ * </p>
+ * <p>
+ * This class must be used in the thread changing the model, the UI thread for
+ * the application model.
+ * </p>
+ */
+public final class IncrementalModelCopy {
+
+	private final EObject source;
+
+	private final EObject copy;
+
+	/** The copies by element of the model */
+	private final Map<EObject, EObject> copies = new IdentityHashMap<>();
+
+	/** The elements of the model by copy */
+	private final Map<EObject, EObject> originals = new IdentityHashMap<>();
+
+	/** The elements changed since the last update */
+	private final Set<EObject> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	private final EContentAdapter recorder = new EContentAdapter() {
+		@Override
+		public void notifyChanged(Notification notification) {
+			super.notifyChanged(notification);
+			Object feature = notification.getFeature();
+			if (notification.isTouch() || !(notification.getNotifier() instanceof EObject)
+					|| (feature instanceof EStructuralFeature && !isCopied((EStructuralFeature) feature))) {
+				return;
+			}
+			changed.add((EObject) notification.getNotifier());
+		}
+	};
+
+	/**
+	 * Copies the given model, and starts recording its changes.
+	 *
+	 * @param source the root of the model
+	 */
+	public IncrementalModelCopy(EObject source) {
+		this.source = source;
+		List<EObject> created = new ArrayList<>();
+		copy = getOrCreateCopy(source, created, new ArrayList<>());
+		for (EObject eObject : created) {
+			updateReferences(eObject, copies.get(eObject));
+		}
+		source.eAdapters().add(recorder);
+	}
+
+	/**
+	 * @return whether the model has changed since the last update
+	 */
+	public boolean isChanged() {
+		return !changed.isEmpty();
+	}
+
+	/**
+	 * Applies the changes of the model since the last update to the copy.
+	 *
+	 * @return the root of the copy
+	 */
+	public EObject update() {
+		if (changed.isEmpty()) {
+			return copy;
+		}
+		List<EObject> dirty = new ArrayList<>(changed);
+		changed.clear();
+
+		List<EObject> updated = new ArrayList<>(dirty.size());
+		List<EObject> created = new ArrayList<>();
+		List<EObject> detached = new ArrayList<>();
+		for (EObject eObject : dirty) {
+			EObject eObjectCopy = copies.get(eObject);
+			// elements removed from the model are removed with their container
+			if (eObjectCopy != null && EcoreUtil.isAncestor(source, eObject)) {
+				updateAttributes(eObject, eObjectCopy);
+				updateContainments(eObject, eObjectCopy, created, detached);
+				updated.add(eObject);
+			}
+		}
+		updated.addAll(created);
+		for (EObject eObject : updated) {
+			updateReferences(eObject, copies.get(eObject));
+		}
+
+		for (EObject eObjectCopy : detached) {
+			if (eObjectCopy.eContainer() == null && eObjectCopy != copy) {
+				forget(eObjectCopy);
+				for (Iterator<EObject> it = eObjectCopy.eAllContents(); it.hasNext();) {
+					forget(it.next());
+				}
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Stops recording the changes of the model.
+	 */
+	public void dispose() {
+		source.eAdapters().remove(recorder);
+		changed.clear();
+	}
+
+	private void forget(EObject eObjectCopy) {
+		EObject original = originals.remove(eObjectCopy);
+		if (original != null && copies.get(original) == eObjectCopy) {
+			copies.remove(original);
+		}
+	}
+
+	private EObject getOrCreateCopy(EObject eObject, List<EObject> created, List<EObject> detached) {
+		EObject eObjectCopy = copies.get(eObject);
+		if (eObjectCopy == null) {
+			eObjectCopy = EcoreUtil.create(eObject.eClass());
+			copies.put(eObject, eObjectCopy);
+			originals.put(eObjectCopy, eObject);
+			created.add(eObject);
+			updateAttributes(eObject, eObjectCopy);
+			updateContainments(eObject, eObjectCopy, created, detached);
+		}
+		return eObjectCopy;
+	}
+
+	private static boolean isCopied(EStructuralFeature feature) {
+		return feature.isChangeable() && !feature.isDerived() && !feature.isTransient();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void updateAttributes(EObject eObject, EObject eObjectCopy) {
+		for (EAttribute attribute : eObject.eClass().getEAllAttributes()) {
+			if (!isCopied(attribute)) {
+				continue;
+			}
+			if (!eObject.eIsSet(attribute)) {
+				if (eObjectCopy.eIsSet(attribute)) {
+					eObjectCopy.eUnset(attribute);
+				}
+			} else if (attribute.isMany()) {
+				ECollections.setEList((EList<Object>) eObjectCopy.eGet(attribute),
+						new ArrayList<>((List<Object>) eObject.eGet(attribute)));
+			} else {
+				Object value = eObject.eGet(attribute);
+				if (!Objects.equals(value, eObjectCopy.eGet(attribute))) {
+					eObjectCopy.eSet(attribute, value);
+				}
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void updateContainments(EObject eObject, EObject eObjectCopy, List<EObject> created,
+			List<EObject> detached) {
+		for (EReference containment : eObject.eClass().getEAllContainments()) {
+			if (!isCopied(containment)) {
+				continue;
+			}
+			if (containment.isMany()) {
+				EList<EObject> copyChildren = (EList<EObject>) eObjectCopy.eGet(containment);
+				List<EObject> children = (List<EObject>) eObject.eGet(containment);
+				List<EObject> newCopyChildren = new ArrayList<>(children.size());
+				for (EObject child : children) {
+					newCopyChildren.add(getOrCreateCopy(child, created, detached));
+				}
+				detached.addAll(copyChildren);
+				ECollections.setEList(copyChildren, newCopyChildren);
+			} else {
+				EObject child = (EObject) eObject.eGet(containment);
+				EObject copyChild = (EObject) eObjectCopy.eGet(containment);
+				EObject newCopyChild = child == null ? null : getOrCreateCopy(child, created, detached);
+				if (copyChild != newCopyChild) {
+					if (copyChild != null) {
+						detached.add(copyChild);
+					}
+					if (newCopyChild == null) {
+						eObjectCopy.eUnset(containment);
+					} else {
+						eObjectCopy.eSet(containment, newCopyChild);
+					}
+				}
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void updateReferences(EObject eObject, EObject eObjectCopy) {
+		for (EReference reference : eObject.eClass().getEAllReferences()) {
+			if (reference.isContainment() || reference.isContainer() || !isCopied(reference)) {
+				continue;
+			}
+			if (!eObject.eIsSet(reference)) {
+				if (eObjectCopy.eIsSet(reference)) {
+					eObjectCopy.eUnset(reference);
+				}
+			} else if (reference.isMany()) {
+				List<EObject> targets = (List<EObject>) eObject.eGet(reference, false);
+				List<EObject> copyTargets = new ArrayList<>(targets.size());
+				for (EObject target : targets) {
+					copyTargets.add(getTargetCopy(target));
+				}
+				ECollections.setEList((EList<EObject>) eObjectCopy.eGet(reference, false), copyTargets);
+			} else {
+				EObject target = getTargetCopy((EObject) eObject.eGet(reference, false));
+				if (eObjectCopy.eGet(reference, false) != target) {
+					eObjectCopy.eSet(reference, target);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the copy of the given referenced element, or the element itself if
+	 * it is not part of the model, like {@link EcoreUtil#copy(EObject)} does.
+	 */
+	private EObject getTargetCopy(EObject target) {
+		EObject targetCopy = target == null ? null : copies.get(target);
+		return targetCopy != null ? targetCopy : target;
+	}
+}
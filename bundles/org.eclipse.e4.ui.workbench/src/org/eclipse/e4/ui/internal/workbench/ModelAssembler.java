@@ -19,6 +19,7 @@
 
 package org.eclipse.e4.ui.internal.workbench;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -30,9 +31,14 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import org.eclipse.core.runtime.IConfigurationElement;
-import org.eclipse.core.runtime.IContributor;
 import org.eclipse.core.runtime.IExtension;
 import org.eclipse.core.runtime.IExtensionPoint;
 import org.eclipse.core.runtime.IExtensionRegistry;
@@ -40,6 +46,7 @@ import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.EclipseContextFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.di.annotations.Execute;
+import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.core.services.contributions.IContributionFactory;
 import org.eclipse.e4.core.services.log.Logger;
 import org.eclipse.e4.ui.model.application.MApplication;
@@ -53,10 +60,15 @@ import org.eclipse.emf.common.util.Diagnostic;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.common.util.WrappedException;
+import org.eclipse.emf.ecore.EFactory;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
 import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.impl.EPackageRegistryImpl;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.util.Diagnostician;
 import org.eclipse.emf.ecore.util.EContentsEList;
 import org.eclipse.emf.ecore.util.EcoreUtil;
@@ -87,11 +99,28 @@ public class ModelAssembler {
 	@Inject
 	private IExtensionRegistry registry;
 
+	@Inject
+	@Optional
+	private ModelFragmentCache fragmentCache;
+
 	private static final String EXTENSION_POINT_ID = "org.eclipse.e4.workbench.model"; //$NON-NLS-1$
 
 	private static final String INITIAL = "initial"; //$NON-NLS-1$
 	private static final String NOTEXISTS = "notexists"; //$NON-NLS-1$
 
+	/**
+	 * Reads the fragment files. The reading blocks on I/O, so it does not run in
+	 * the common pool.
+	 */
+	private static final ExecutorService fragmentExecutor = createFragmentExecutor();
+
+	/**
+	 * The package registry the fragment files are read with. The global package
+	 * registry is not thread safe, as it replaces its descriptors by the packages
+	 * when they are first looked up.
+	 */
+	private static final EPackage.Registry fragmentPackageRegistry = new SynchronizedPackageRegistry();
+
 	/**
 	 * Processes the application model. This will run pre-processors, process the
 	 * fragments, resolve imports and run post-processors, in this order. <br>
@@ -117,30 +146,40 @@ public class ModelAssembler {
 	/**
 	 * Adds the {@link MApplicationElement model elements} contributed by the
 	 * {@link IExtension extensions} to the {@link MApplication application model}.
+	 * The fragment files are read concurrently, and merged in order.
 	 *
 	 * @param extensions the list of {@link IExtension} extension elements
 	 * @param initial    <code>true</code> if running from a non-persisted state
 	 *
 	 */
 	private void processFragments(IExtension[] extensions, boolean initial) {
-		List<ModelFragmentWrapper> wrappers = new ArrayList<>();
+		Map<IConfigurationElement, URI> fragmentURIs = new LinkedHashMap<>();
 		for (IExtension extension : extensions) {
 			IConfigurationElement[] ces = extension.getConfigurationElements();
 			for (IConfigurationElement ce : ces) {
 				if ("fragment".equals(ce.getName()) && (initial || !INITIAL.equals(ce.getAttribute("apply")))) { //$NON-NLS-1$ //$NON-NLS-2$
-					MModelFragments fragmentsContainer = getFragmentsContainer(ce);
-					if (fragmentsContainer == null) {
-						continue;
-					}
-					for (MModelFragment fragment : fragmentsContainer.getFragments()) {
-						boolean checkExist = !initial && NOTEXISTS.equals(ce.getAttribute("apply")); //$NON-NLS-1$
-						wrappers.add(new ModelFragmentWrapper(fragmentsContainer, fragment,
-								ce.getContributor().getName(), URIHelper.constructPlatformURI(ce.getContributor()),
-								checkExist)); // $NON-NLS-1$
+					URI uri = getFragmentURI(ce);
+					if (uri != null) {
+						fragmentURIs.put(ce, uri);
 					}
 				}
 			}
 		}
+		Map<URI, CompletableFuture<Resource>> loads = loadFragmentResources(fragmentURIs);
+
+		List<ModelFragmentWrapper> wrappers = new ArrayList<>();
+		for (Entry<IConfigurationElement, URI> entry : fragmentURIs.entrySet()) {
+			IConfigurationElement ce = entry.getKey();
+			MModelFragments fragmentsContainer = getFragmentsContainer(ce, entry.getValue(), loads);
+			if (fragmentsContainer == null) {
+				continue;
+			}
+			for (MModelFragment fragment : fragmentsContainer.getFragments()) {
+				boolean checkExist = !initial && NOTEXISTS.equals(ce.getAttribute("apply")); //$NON-NLS-1$
+				wrappers.add(new ModelFragmentWrapper(fragmentsContainer, fragment, ce.getContributor().getName(),
+						URIHelper.constructPlatformURI(ce.getContributor()), checkExist)); // $NON-NLS-1$
+			}
+		}
 
 		processFragmentWrappers(wrappers);
 	}
@@ -265,34 +304,104 @@ public class ModelAssembler {
 		}
 	}
 
-	private MModelFragments getFragmentsContainer(IConfigurationElement ce) {
-		E4XMIResource applicationResource = (E4XMIResource) ((EObject) application).eResource();
-		ResourceSet resourceSet = applicationResource.getResourceSet();
-		IContributor contributor = ce.getContributor();
+	private URI getFragmentURI(IConfigurationElement ce) {
 		String attrURI = ce.getAttribute("uri"); //$NON-NLS-1$
-		String bundleName = contributor.getName();
+		String bundleName = ce.getContributor().getName();
 		if (attrURI == null) {
 			logger.warn("Unable to find location for the model extension \"{0}\"", bundleName); //$NON-NLS-1$
 			return null;
 		}
 
-		URI uri;
 		try {
 			// check if the attrURI is already a platform URI
 			if (URIHelper.isPlatformURI(attrURI)) {
-				uri = URI.createURI(attrURI);
-			} else {
-				String path = bundleName + '/' + attrURI;
-				uri = URI.createPlatformPluginURI(path, false);
+				return URI.createURI(attrURI);
 			}
+			String path = bundleName + '/' + attrURI;
+			return URI.createPlatformPluginURI(path, false);
 		} catch (RuntimeException e) {
 			logger.warn(e, "Invalid location \"" + attrURI + "\" of model extension \"" + bundleName + "\""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 			return null;
 		}
+	}
+
+	/**
+	 * Starts reading the fragment files which are not read yet on a worker pool.
+	 * The resources are added to the resource set of the application model when
+	 * their fragments are merged, in the model thread. Until then, each resource
+	 * is in a resource set of its own, which looks up the packages in the
+	 * synchronized {@link #fragmentPackageRegistry}.
+	 *
+	 * @param fragmentURIs the URIs of the fragment files by configuration element
+	 * @return the loading resources by URI
+	 */
+	private Map<URI, CompletableFuture<Resource>> loadFragmentResources(
+			Map<IConfigurationElement, URI> fragmentURIs) {
+		ResourceSet resourceSet = ((EObject) application).eResource().getResourceSet();
+		Map<Object, Object> options = resourceSet.getLoadOptions();
+		Map<URI, CompletableFuture<Resource>> loads = new HashMap<>();
+		for (Entry<IConfigurationElement, URI> entry : fragmentURIs.entrySet()) {
+			URI uri = entry.getValue();
+			if (loads.containsKey(uri) || resourceSet.getResource(uri, false) != null) {
+				continue;
+			}
+			Resource.Factory factory = resourceSet.getResourceFactoryRegistry().getFactory(uri);
+			if (factory == null) {
+				// reported when the resource is read in the model thread
+				continue;
+			}
+			Resource resource = factory.createResource(uri);
+			String bundleName = entry.getKey().getContributor().getName();
+			loads.put(uri, CompletableFuture.supplyAsync(() -> {
+				ResourceSet loadSet = new ResourceSetImpl();
+				loadSet.setPackageRegistry(fragmentPackageRegistry);
+				loadSet.getResources().add(resource);
+				try {
+					loadFragmentResource(resource, bundleName, options);
+				} finally {
+					loadSet.getResources().remove(resource);
+				}
+				return resource;
+			}, fragmentExecutor));
+		}
+		return loads;
+	}
+
+	/**
+	 * Loads the given resource of a fragment file, which is not in a resource
+	 * set. May be called in any thread.
+	 */
+	private void loadFragmentResource(Resource resource, String bundleName, Map<Object, Object> options) {
+		try {
+			if (fragmentCache != null) {
+				fragmentCache.load(resource, bundleName, options);
+			} else {
+				resource.load(options);
+			}
+		} catch (IOException e) {
+			throw new WrappedException(e);
+		}
+	}
+
+	private MModelFragments getFragmentsContainer(IConfigurationElement ce, URI uri,
+			Map<URI, CompletableFuture<Resource>> loads) {
+		E4XMIResource applicationResource = (E4XMIResource) ((EObject) application).eResource();
+		ResourceSet resourceSet = applicationResource.getResourceSet();
+		String bundleName = ce.getContributor().getName();
 
 		Resource resource;
 		try {
-			resource = resourceSet.getResource(uri, true);
+			CompletableFuture<Resource> load = loads.remove(uri);
+			if (load != null) {
+				try {
+					resource = load.join();
+				} catch (CompletionException e) {
+					throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+				}
+				resourceSet.getResources().add(resource);
+			} else {
+				resource = resourceSet.getResource(uri, true);
+			}
 		} catch (RuntimeException e) {
 			logger.warn(e, "Unable to read model extension from \"" + uri + "\" of \"" + bundleName + "\""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 			return null;
@@ -496,4 +605,38 @@ public class ModelAssembler {
 			cmd.run();
 		}
 	}
+
+	private static ExecutorService createFragmentExecutor() {
+		int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 5, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, "Model Fragment Reader"); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * A package registry delegating to the global one, which serializes the look
+	 * ups of the threads reading fragment files.
+	 */
+	private static final class SynchronizedPackageRegistry extends EPackageRegistryImpl {
+		private static final long serialVersionUID = 1L;
+
+		SynchronizedPackageRegistry() {
+			super(EPackage.Registry.INSTANCE);
+		}
+
+		@Override
+		public synchronized EPackage getEPackage(String nsURI) {
+			return super.getEPackage(nsURI);
+		}
+
+		@Override
+		public synchronized EFactory getEFactory(String nsURI) {
+			return super.getEFactory(nsURI);
+		}
+	}
 }
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.e4.core.services.log.Logger;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Caches the model fragments contributed to the
+ * <strong>org.eclipse.e4.workbench.model</strong> extension point as
+ * {@link BinaryModelSnapshot binary snapshots}, so that the fragments of the
+ * installed bundles are not parsed from XMI on every start.
+ * <p>
+ * There is one entry per fragment file, stamped with the version of the
+ * contributing bundle, the version of the application model and the
+ * modification time and size of the file or jar the fragment is read from. An
+ * entry whose stamp does not match is read from XMI again and replaced, so
+ * installing or updating a bundle invalidates the entries of its fragments
+ * only. Only fragments read from local files or jars are cached.
+ * </p>
+ * <p>
+ * The fragments are still merged into the application model and the
+ * processors are still run on every start, as they depend on the model being
+ * restored.
+ * </p>
+ */
+public final class ModelFragmentCache {
+
+	private static final String DIGEST_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x45344643; // "E4FC"
+
+	private static final int FORMAT_VERSION = 1;
+
+	private final File directory;
+
+	private final Logger logger;
+
+	/**
+	 * Creates a cache storing its entries in the given directory.
+	 *
+	 * @param directory the directory of the cache
+	 * @param logger    the logger to report entries which cannot be written, or
+	 *                  <code>null</code>
+	 */
+	public ModelFragmentCache(File directory, Logger logger) {
+		this.directory = directory;
+		this.logger = logger;
+	}
+
+	/**
+	 * Loads the given resource of a fragment file from the cache if possible, and
+	 * caches it otherwise. May be called concurrently for different resources
+	 * which are not in a resource set.
+	 *
+	 * @param resource   the resource of the fragment file, which is left as it is
+	 *                   if already loaded
+	 * @param bundleName the symbolic name of the contributing bundle
+	 * @param options    the options to load the fragment file from XMI
+	 * @throws IOException if the fragment file cannot be read
+	 */
+	public void load(Resource resource, String bundleName, Map<?, ?> options) throws IOException {
+		if (resource.isLoaded()) {
+			// already read, and possibly merged since
+			return;
+		}
+		URI uri = resource.getURI();
+		String stamp = getStamp(uri, bundleName);
+		File file = stamp == null ? null : getFile(uri);
+		if (file != null && file.isFile() && load(resource, file, stamp)) {
+			return;
+		}
+		resource.load(options);
+		if (file != null && resource instanceof XMLResource && resource.getErrors().isEmpty()) {
+			store((XMLResource) resource, file, stamp);
+		}
+	}
+
+	private boolean load(Resource resource, File file, String stamp) {
+		if (!(resource instanceof XMLResource)) {
+			return false;
+		}
+		try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+			DataInputStream data = new DataInputStream(in);
+			if (data.readInt() != MAGIC || data.readInt() != FORMAT_VERSION || !stamp.equals(data.readUTF())) {
+				// replaced when the fragment is read again
+				return false;
+			}
+			BinaryModelSnapshot.load((XMLResource) resource, data);
+			return true;
+		} catch (IOException | RuntimeException e) {
+			// a corrupt entry is read from XMI again
+			resource.unload();
+			file.delete();
+			return false;
+		}
+	}
+
+	private void store(XMLResource resource, File file, String stamp) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream data = new DataOutputStream(bytes);
+			data.writeInt(MAGIC);
+			data.writeInt(FORMAT_VERSION);
+			data.writeUTF(stamp);
+			BinaryModelSnapshot.saveAsLoaded(resource, data);
+			data.flush();
+
+			directory.mkdirs();
+			File temp = File.createTempFile(file.getName(), ".tmp", directory); //$NON-NLS-1$
+			try {
+				Files.write(temp.toPath(), bytes.toByteArray());
+				try {
+					Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+							StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+			} finally {
+				temp.delete();
+			}
+		} catch (IOException | RuntimeException e) {
+			if (logger != null) {
+				logger.debug(e, "Unable to cache model fragment " + resource.getURI()); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private File getFile(URI uri) {
+		try {
+			byte[] digest = MessageDigest.getInstance(DIGEST_ALGORITHM)
+					.digest(uri.toString().getBytes(StandardCharsets.UTF_8));
+			StringBuilder name = new StringBuilder(digest.length * 2 + 1 + BinaryModelSnapshot.FILE_EXTENSION.length());
+			for (byte b : digest) {
+				name.append(Character.forDigit((b >> 4) & 0xF, 16));
+				name.append(Character.forDigit(b & 0xF, 16));
+			}
+			name.append('.').append(BinaryModelSnapshot.FILE_EXTENSION);
+			return new File(directory, name.toString());
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform has to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Returns the stamp of the given fragment file, or <code>null</code> if it is
+	 * not read from a local file or jar.
+	 */
+	private static String getStamp(URI uri, String bundleName) {
+		Bundle bundle = Platform.getBundle(bundleName);
+		Bundle modelBundle = FrameworkUtil.getBundle(MApplication.class);
+		if (bundle == null || modelBundle == null) {
+			return null;
+		}
+		try {
+			URL resolved = FileLocator.resolve(new URL(uri.toString()));
+			File file;
+			if ("jar".equalsIgnoreCase(resolved.getProtocol())) { //$NON-NLS-1$
+				String path = resolved.getPath();
+				int separator = path.indexOf("!/"); //$NON-NLS-1$
+				if (separator == -1) {
+					return null;
+				}
+				file = new File(new URL(path.substring(0, separator)).toURI());
+			} else if ("file".equalsIgnoreCase(resolved.getProtocol())) { //$NON-NLS-1$
+				file = new File(resolved.toURI());
+			} else {
+				return null;
+			}
+			if (!file.exists()) {
+				return null;
+			}
+			return bundleName + '|' + bundle.getVersion() + '|' + modelBundle.getVersion() + '|'
+					+ file.getAbsolutePath() + '|' + file.lastModified() + '|' + file.length();
+		} catch (IOException | URISyntaxException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+}
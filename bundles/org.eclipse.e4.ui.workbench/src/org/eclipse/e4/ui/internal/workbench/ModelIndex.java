@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationElement;
+import org.eclipse.e4.ui.model.application.impl.ApplicationPackageImpl;
+import org.eclipse.e4.ui.model.application.ui.MUIElement;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
+import org.eclipse.e4.ui.model.application.ui.advanced.impl.AdvancedPackageImpl;
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+/**
+ * Indexes the elements contained in an {@link MApplication} by their element
+ * id and by their tags. The index is kept current by listening to the model as
+ * an {@link EContentAdapter}, and additionally tracks which elements are
+ * referenced by {@link MPlaceholder}s, since these can be reached by a search
+ * through more than one path.
+ */
+final class ModelIndex extends EContentAdapter {
+
+	private final MApplication application;
+
+	private final Map<String, Set<MApplicationElement>> elementsById = new HashMap<>();
+
+	private final Map<String, Set<MApplicationElement>> elementsByTag = new HashMap<>();
+
+	/** The id and tags each element is currently indexed under */
+	private final Map<MApplicationElement, IndexEntry> entries = new IdentityHashMap<>();
+
+	/** The placeholders referring to each element */
+	private final Map<MUIElement, List<MPlaceholder>> placeholders = new IdentityHashMap<>();
+
+	/** The elements referred to by placeholders which are not indexed */
+	private final Set<MUIElement> externalReferences = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	private ModelIndex(MApplication application) {
+		this.application = application;
+	}
+
+	/**
+	 * Returns the index of the given application, creating it on first access.
+	 *
+	 * @param application
+	 *            the application
+	 * @return the index
+	 */
+	static ModelIndex getIndex(MApplication application) {
+		for (Adapter adapter : ((Notifier) application).eAdapters()) {
+			if (adapter instanceof ModelIndex) {
+				return (ModelIndex) adapter;
+			}
+		}
+		ModelIndex index = new ModelIndex(application);
+		((Notifier) application).eAdapters().add(index);
+		return index;
+	}
+
+	/**
+	 * Returns the elements of the application which have the given id and all
+	 * the given tags.
+	 *
+	 * @param id
+	 *            the element id, or <code>null</code>
+	 * @param tags
+	 *            the tags, or <code>null</code>
+	 * @return the candidates, or <code>null</code> if neither an id nor a tag
+	 *         has been given or if placeholders refer to elements outside of
+	 *         the application, so that the index cannot be used
+	 */
+	Collection<MApplicationElement> getElements(String id, List<String> tags) {
+		if (!externalReferences.isEmpty()) {
+			return null;
+		}
+		Set<MApplicationElement> smallest = null;
+		if (id != null) {
+			smallest = getElements(elementsById, id);
+		}
+		if (tags != null) {
+			for (String tag : tags) {
+				Set<MApplicationElement> elements = getElements(elementsByTag, tag);
+				if (smallest == null || elements.size() < smallest.size()) {
+					smallest = elements;
+				}
+			}
+		}
+		return smallest == null ? null : new ArrayList<>(smallest);
+	}
+
+	/**
+	 * @param element
+	 *            an element
+	 * @return the placeholders of the application referring to the element
+	 */
+	List<MPlaceholder> getPlaceholders(MUIElement element) {
+		List<MPlaceholder> result = placeholders.get(element);
+		return result == null ? Collections.emptyList() : result;
+	}
+
+	/**
+	 * @param element
+	 *            an element
+	 * @return <code>true</code> if the element is contained in the indexed
+	 *         application
+	 */
+	boolean isIndexed(Object element) {
+		return element == application || entries.containsKey(element);
+	}
+
+	private static Set<MApplicationElement> getElements(Map<String, Set<MApplicationElement>> map, String key) {
+		Set<MApplicationElement> elements = map.get(key);
+		return elements == null ? Collections.emptySet() : elements;
+	}
+
+	@Override
+	public void notifyChanged(Notification notification) {
+		super.notifyChanged(notification);
+
+		if (notification.isTouch()) {
+			return;
+		}
+		Object feature = notification.getFeature();
+		Object notifier = notification.getNotifier();
+		if (feature == ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__ELEMENT_ID
+				|| feature == ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__TAGS) {
+			if (entries.containsKey(notifier)) {
+				MApplicationElement element = (MApplicationElement) notifier;
+				removeEntry(element);
+				addEntry(element);
+			}
+		} else if (feature == AdvancedPackageImpl.Literals.PLACEHOLDER__REF) {
+			if (entries.containsKey(notifier)) {
+				MPlaceholder placeholder = (MPlaceholder) notifier;
+				removeReference((MUIElement) notification.getOldValue(), placeholder);
+				addReference(placeholder.getRef(), placeholder);
+			}
+		}
+	}
+
+	@Override
+	protected void setTarget(EObject target) {
+		super.setTarget(target);
+		if (target instanceof MApplicationElement) {
+			addEntry((MApplicationElement) target);
+			externalReferences.remove(target);
+		}
+	}
+
+	@Override
+	protected void unsetTarget(EObject target) {
+		super.unsetTarget(target);
+		if (target instanceof MApplicationElement) {
+			removeEntry((MApplicationElement) target);
+			if (placeholders.containsKey(target)) {
+				externalReferences.add((MUIElement) target);
+			}
+		}
+	}
+
+	private void addEntry(MApplicationElement element) {
+		IndexEntry entry = new IndexEntry(element.getElementId(), new ArrayList<>(element.getTags()));
+		entries.put(element, entry);
+		if (entry.id != null) {
+			elementsById.computeIfAbsent(entry.id, key -> new LinkedHashSet<>()).add(element);
+		}
+		for (String tag : entry.tags) {
+			elementsByTag.computeIfAbsent(tag, key -> new LinkedHashSet<>()).add(element);
+		}
+		if (element instanceof MPlaceholder) {
+			MPlaceholder placeholder = (MPlaceholder) element;
+			addReference(placeholder.getRef(), placeholder);
+		}
+	}
+
+	private void removeEntry(MApplicationElement element) {
+		IndexEntry entry = entries.remove(element);
+		if (entry == null) {
+			return;
+		}
+		if (entry.id != null) {
+			remove(elementsById, entry.id, element);
+		}
+		for (String tag : entry.tags) {
+			remove(elementsByTag, tag, element);
+		}
+		if (element instanceof MPlaceholder) {
+			MPlaceholder placeholder = (MPlaceholder) element;
+			removeReference(placeholder.getRef(), placeholder);
+		}
+	}
+
+	private static void remove(Map<String, Set<MApplicationElement>> map, String key, MApplicationElement element) {
+		Set<MApplicationElement> elements = map.get(key);
+		if (elements != null && elements.remove(element) && elements.isEmpty()) {
+			map.remove(key);
+		}
+	}
+
+	private void addReference(MUIElement referenced, MPlaceholder placeholder) {
+		if (referenced != null) {
+			placeholders.computeIfAbsent(referenced, key -> new ArrayList<>(1)).add(placeholder);
+			if (!isIndexed(referenced)) {
+				externalReferences.add(referenced);
+			}
+		}
+	}
+
+	private void removeReference(MUIElement referenced, MPlaceholder placeholder) {
+		if (referenced == null) {
+			return;
+		}
+		List<MPlaceholder> list = placeholders.get(referenced);
+		if (list != null && list.remove(placeholder) && list.isEmpty()) {
+			placeholders.remove(referenced);
+			externalReferences.remove(referenced);
+		}
+	}
+
+	/**
+	 * @param element
+	 *            an element
+	 * @return the application containing the element, or <code>null</code>
+	 */
+	static MApplication getApplication(MApplicationElement element) {
+		EObject root = EcoreUtil.getRootContainer((EObject) element);
+		return root instanceof MApplication ? (MApplication) root : null;
+	}
+
+	private static final class IndexEntry {
+		final String id;
+		final List<String> tags;
+
+		IndexEntry(String id, List<String> tags) {
+			this.id = id;
+			this.tags = tags;
+		}
+	}
+}
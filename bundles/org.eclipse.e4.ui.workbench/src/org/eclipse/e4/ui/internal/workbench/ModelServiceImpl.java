@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2019 IBM Corporation and others.
+ * Copyright (c) 2010, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,7 +18,9 @@
 package org.eclipse.e4.ui.internal.workbench;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Dictionary;
 import java.util.Hashtable;
 import java.util.LinkedHashSet;
@@ -40,7 +42,9 @@ import org.eclipse.e4.ui.model.application.commands.MBindingTable;
 import org.eclipse.e4.ui.model.application.commands.MCommand;
 import org.eclipse.e4.ui.model.application.commands.MHandler;
 import org.eclipse.e4.ui.model.application.commands.MKeyBinding;
+import org.eclipse.e4.ui.model.application.commands.impl.CommandsPackageImpl;
 import org.eclipse.e4.ui.model.application.descriptor.basic.MPartDescriptor;
+import org.eclipse.e4.ui.model.application.impl.ApplicationPackageImpl;
 import org.eclipse.e4.ui.model.application.ui.MElementContainer;
 import org.eclipse.e4.ui.model.application.ui.MSnippetContainer;
 import org.eclipse.e4.ui.model.application.ui.MUIElement;
@@ -50,6 +54,7 @@ import org.eclipse.e4.ui.model.application.ui.advanced.MArea;
 import org.eclipse.e4.ui.model.application.ui.advanced.MPerspective;
 import org.eclipse.e4.ui.model.application.ui.advanced.MPerspectiveStack;
 import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
+import org.eclipse.e4.ui.model.application.ui.advanced.impl.AdvancedPackageImpl;
 import org.eclipse.e4.ui.model.application.ui.basic.MBasicFactory;
 import org.eclipse.e4.ui.model.application.ui.basic.MPart;
 import org.eclipse.e4.ui.model.application.ui.basic.MPartSashContainer;
@@ -60,6 +65,8 @@ import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
 import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
 import org.eclipse.e4.ui.model.application.ui.basic.MWindowElement;
 import org.eclipse.e4.ui.model.application.ui.basic.impl.BasicFactoryImpl;
+import org.eclipse.e4.ui.model.application.ui.basic.impl.BasicPackageImpl;
+import org.eclipse.e4.ui.model.application.ui.impl.UiPackageImpl;
 import org.eclipse.e4.ui.model.application.ui.menu.MMenu;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolBar;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolControl;
@@ -72,6 +79,7 @@ import org.eclipse.e4.ui.workbench.modeling.EPartService;
 import org.eclipse.e4.ui.workbench.modeling.EPlaceholderResolver;
 import org.eclipse.e4.ui.workbench.modeling.ElementMatcher;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
@@ -94,6 +102,36 @@ public class ModelServiceImpl implements EModelService {
 
 	private ServiceRegistration<?> handlerRegistration;
 
+	/** {@link #isReachable} results */
+	private static final int NOT_REACHABLE = 0;
+	private static final int REACHABLE = 1;
+	private static final int UNKNOWN = 2;
+
+	/** The number of nested placeholders which are followed through the index */
+	private static final int MAX_PLACEHOLDER_DEPTH = 8;
+
+	/**
+	 * The order in which {@link #findElementsRecursive} descends into the
+	 * containment features of an element, except for the handlers of an
+	 * application, which are searched first
+	 */
+	private static final List<EStructuralFeature> SEARCH_ORDER = Arrays.asList(
+			ApplicationPackageImpl.Literals.APPLICATION__COMMANDS,
+			CommandsPackageImpl.Literals.BINDINGS__BINDING_CONTEXTS,
+			CommandsPackageImpl.Literals.BINDING_TABLE_CONTAINER__BINDING_TABLES,
+			ApplicationPackageImpl.Literals.APPLICATION__ADDONS,
+			CommandsPackageImpl.Literals.BINDING_CONTEXT__CHILDREN,
+			CommandsPackageImpl.Literals.BINDING_TABLE__BINDINGS,
+			BasicPackageImpl.Literals.WINDOW__SHARED_ELEMENTS,
+			UiPackageImpl.Literals.ELEMENT_CONTAINER__CHILDREN,
+			BasicPackageImpl.Literals.TRIMMED_WINDOW__TRIM_BARS,
+			BasicPackageImpl.Literals.WINDOW__WINDOWS,
+			BasicPackageImpl.Literals.WINDOW__MAIN_MENU,
+			AdvancedPackageImpl.Literals.PERSPECTIVE__WINDOWS,
+			BasicPackageImpl.Literals.PART__MENUS,
+			BasicPackageImpl.Literals.PART__TOOLBAR,
+			CommandsPackageImpl.Literals.HANDLER_CONTAINER__HANDLERS);
+
 	/**
 	 * This is a singleton service. One instance is used throughout the running
 	 * application
@@ -182,27 +220,28 @@ public class ModelServiceImpl implements EModelService {
 			T element = (T) searchRoot;
 			elements.add(element);
 		}
-		if (searchRoot instanceof MApplication && (searchFlags == ANYWHERE)) {
+		if (searchRoot instanceof MApplication) {
 			MApplication app = (MApplication) searchRoot;
 
+			// only look for these if specifically asked
 			List<MApplicationElement> children = new ArrayList<>();
-			if (clazz != null) {
-				if (clazz.equals(MHandler.class)) {
-					children.addAll(app.getHandlers());
-				} else if (clazz.equals(MCommand.class)) {
-					children.addAll(app.getCommands());
-				} else if (clazz.equals(MBindingContext.class)) {
-					children.addAll(app.getBindingContexts());
-				} else if (clazz.equals(MBindingTable.class) || clazz.equals(MKeyBinding.class)) {
-					children.addAll(app.getBindingTables());
-				} else if (clazz.equals(MAddon.class)) {
-					children.addAll(app.getAddons());
-				}
-				// } else { only look for these if specifically asked.
-				// children.addAll(app.getHandlers());
-				// children.addAll(app.getCommands());
-				// children.addAll(app.getBindingContexts());
-				// children.addAll(app.getBindingTables());
+			if (isSearchedFeature(app, CommandsPackageImpl.Literals.HANDLER_CONTAINER__HANDLERS, clazz,
+					searchFlags)) {
+				children.addAll(app.getHandlers());
+			}
+			if (isSearchedFeature(app, ApplicationPackageImpl.Literals.APPLICATION__COMMANDS, clazz, searchFlags)) {
+				children.addAll(app.getCommands());
+			}
+			if (isSearchedFeature(app, CommandsPackageImpl.Literals.BINDINGS__BINDING_CONTEXTS, clazz,
+					searchFlags)) {
+				children.addAll(app.getBindingContexts());
+			}
+			if (isSearchedFeature(app, CommandsPackageImpl.Literals.BINDING_TABLE_CONTAINER__BINDING_TABLES, clazz,
+					searchFlags)) {
+				children.addAll(app.getBindingTables());
+			}
+			if (isSearchedFeature(app, ApplicationPackageImpl.Literals.APPLICATION__ADDONS, clazz, searchFlags)) {
+				children.addAll(app.getAddons());
 			}
 
 			for (MApplicationElement child : children) {
@@ -210,14 +249,16 @@ public class ModelServiceImpl implements EModelService {
 			}
 		}
 
-		if (searchRoot instanceof MBindingContext && (searchFlags == ANYWHERE)) {
+		if (searchRoot instanceof MBindingContext && isSearchedFeature(searchRoot,
+				CommandsPackageImpl.Literals.BINDING_CONTEXT__CHILDREN, clazz, searchFlags)) {
 			MBindingContext bindingContext = (MBindingContext) searchRoot;
 			for (MBindingContext child : bindingContext.getChildren()) {
 				findElementsRecursive(child, clazz, matcher, elements, searchFlags);
 			}
 		}
 
-		if (searchRoot instanceof MBindingTable) {
+		if (searchRoot instanceof MBindingTable && isSearchedFeature(searchRoot,
+				CommandsPackageImpl.Literals.BINDING_TABLE__BINDINGS, clazz, searchFlags)) {
 			MBindingTable bindingTable = (MBindingTable) searchRoot;
 			for (MKeyBinding child : bindingTable.getBindings()) {
 				findElementsRecursive(child, clazz, matcher, elements, searchFlags);
@@ -237,7 +278,8 @@ public class ModelServiceImpl implements EModelService {
 			MElementContainer<?> searchContainer = (MElementContainer<?>) searchRoot;
 			MPerspectiveStack primaryStack = null;
 			if (searchRoot instanceof MWindow ) {
-				if((searchFlags & IN_SHARED_ELEMENTS) != 0) {
+				if (isSearchedFeature(searchRoot, BasicPackageImpl.Literals.WINDOW__SHARED_ELEMENTS, clazz,
+						searchFlags)) {
 					List<MUIElement> sharedElements = ((MWindow) searchRoot).getSharedElements();
 					for (MUIElement muiElement : sharedElements) {
 						findElementsRecursive(muiElement, clazz, matcher, elements, searchFlags);
@@ -250,20 +292,18 @@ public class ModelServiceImpl implements EModelService {
 				}
 			}
 			if (searchContainer instanceof MPerspectiveStack) {
-				if ((searchFlags & IN_ANY_PERSPECTIVE) != 0) {
-					// Search *all* the perspectives
-					MElementContainer<? extends MUIElement> container = searchContainer;
-					List<? extends MUIElement> children = container.getChildren();
-					for (MUIElement child : children) {
+				MPerspectiveStack perspectiveStack = (MPerspectiveStack) searchContainer;
+				boolean searchAreas = false;
+				for (MPerspective child : perspectiveStack.getChildren()) {
+					int searched = isSearchedPerspective(perspectiveStack, child, searchFlags);
+					if (searched == REACHABLE) {
 						findElementsRecursive(child, clazz, matcher, elements, searchFlags);
+					} else if (searched == UNKNOWN) {
+						searchAreas = true;
+						break;
 					}
-				} else if ((searchFlags & IN_ACTIVE_PERSPECTIVE) != 0) {
-					// Only search the currently active perspective, if any
-					MPerspective active = ((MPerspectiveStack) searchContainer).getSelectedElement();
-					if (active != null) {
-						findElementsRecursive(active, clazz, matcher, elements, searchFlags);
-					}
-				} else if ((searchFlags & IN_SHARED_AREA) != 0) {
+				}
+				if (searchAreas) {
 					// Only recurse through the shared areas
 					List<MArea> areas = findElements(searchContainer, null, MArea.class);
 					for (MArea area : areas) {
@@ -281,7 +321,8 @@ public class ModelServiceImpl implements EModelService {
 		}
 
 		// Search Trim
-		if (searchRoot instanceof MTrimmedWindow && (searchFlags & IN_TRIM) != 0) {
+		if (searchRoot instanceof MTrimmedWindow && isSearchedFeature(searchRoot,
+				BasicPackageImpl.Literals.TRIMMED_WINDOW__TRIM_BARS, clazz, searchFlags)) {
 			MTrimmedWindow tw = (MTrimmedWindow) searchRoot;
 			List<MTrimBar> bars = tw.getTrimBars();
 			for (MTrimBar bar : bars) {
@@ -292,23 +333,28 @@ public class ModelServiceImpl implements EModelService {
 		// Search Detached Windows
 		if (searchRoot instanceof MWindow) {
 			MWindow window = (MWindow) searchRoot;
-			for (MWindow dw : window.getWindows()) {
-				findElementsRecursive(dw, clazz, matcher, elements, searchFlags);
+			if (isSearchedFeature(window, BasicPackageImpl.Literals.WINDOW__WINDOWS, clazz, searchFlags)) {
+				for (MWindow dw : window.getWindows()) {
+					findElementsRecursive(dw, clazz, matcher, elements, searchFlags);
+				}
 			}
 
 			MMenu menu = window.getMainMenu();
-			if (menu != null && (searchFlags & IN_MAIN_MENU) != 0) {
+			if (menu != null
+					&& isSearchedFeature(window, BasicPackageImpl.Literals.WINDOW__MAIN_MENU, clazz, searchFlags)) {
 				findElementsRecursive(menu, clazz, matcher, elements, searchFlags);
 			}
 			// Check for Handlers
-			if (searchFlags == ANYWHERE && MHandler.class.equals(clazz)) {
+			if (isSearchedFeature(window, CommandsPackageImpl.Literals.HANDLER_CONTAINER__HANDLERS, clazz,
+					searchFlags)) {
 				for (MHandler child : window.getHandlers()) {
 					findElementsRecursive(child, clazz, matcher, elements, searchFlags);
 				}
 			}
 		}
 
-		if (searchRoot instanceof MPerspective) {
+		if (searchRoot instanceof MPerspective && isSearchedFeature(searchRoot,
+				AdvancedPackageImpl.Literals.PERSPECTIVE__WINDOWS, clazz, searchFlags)) {
 			MPerspective persp = (MPerspective) searchRoot;
 			for (MWindow dw : persp.getWindows()) {
 				findElementsRecursive(dw, clazz, matcher, elements, searchFlags);
@@ -318,25 +364,27 @@ public class ModelServiceImpl implements EModelService {
 		if (searchRoot instanceof MPlaceholder) {
 			MPlaceholder ph = (MPlaceholder) searchRoot;
 
-			// Don't search in shared areas unless the flag is set
-			if (ph.getRef() != null
-					&& (!(ph.getRef() instanceof MArea) || (searchFlags & IN_SHARED_AREA) != 0)) {
+			if (ph.getRef() != null && isSearchedReference(ph.getRef(), searchFlags)) {
 				findElementsRecursive(ph.getRef(), clazz, matcher, elements, searchFlags);
 			}
 		}
 
-		if (searchRoot instanceof MPart && (searchFlags & IN_PART) != 0) {
+		if (searchRoot instanceof MPart) {
 			MPart part = (MPart) searchRoot;
 
-			for (MMenu menu : part.getMenus()) {
-				findElementsRecursive(menu, clazz, matcher, elements, searchFlags);
+			if (isSearchedFeature(part, BasicPackageImpl.Literals.PART__MENUS, clazz, searchFlags)) {
+				for (MMenu menu : part.getMenus()) {
+					findElementsRecursive(menu, clazz, matcher, elements, searchFlags);
+				}
 			}
 
 			MToolBar toolBar = part.getToolbar();
-			if (toolBar != null) {
+			if (toolBar != null
+					&& isSearchedFeature(part, BasicPackageImpl.Literals.PART__TOOLBAR, clazz, searchFlags)) {
 				findElementsRecursive(toolBar, clazz, matcher, elements, searchFlags);
 			}
-			if (MHandler.class.equals(clazz)) {
+			if (isSearchedFeature(part, CommandsPackageImpl.Literals.HANDLER_CONTAINER__HANDLERS, clazz,
+					searchFlags)) {
 				for (MHandler child : part.getHandlers()) {
 					findElementsRecursive(child, clazz, matcher, elements, searchFlags);
 				}
@@ -412,8 +460,7 @@ public class ModelServiceImpl implements EModelService {
 
 	@Override
 	public <T> List<T> findElements(MUIElement searchRoot, String id, Class<T> clazz, List<String> tagsToMatch) {
-		ElementMatcher matcher = new ElementMatcher(id, clazz, tagsToMatch);
-		return findElements(searchRoot, clazz, ANYWHERE, matcher);
+		return findElements(searchRoot, id, clazz, tagsToMatch, ANYWHERE);
 	}
 
 	@Override
@@ -425,9 +472,297 @@ public class ModelServiceImpl implements EModelService {
 	public <T> List<T> findElements(MUIElement searchRoot, String id, Class<T> clazz,
 			List<String> tagsToMatch, int searchFlags) {
 		ElementMatcher matcher = new ElementMatcher(id, clazz, tagsToMatch);
+		List<T> elements = findIndexedElements(searchRoot, id, clazz, tagsToMatch, searchFlags, matcher);
+		if (elements != null) {
+			return elements;
+		}
 		return findElements(searchRoot, clazz, searchFlags, matcher);
 	}
 
+	/**
+	 * Looks up the elements with the given id or tags in the index of the
+	 * application containing the search root, and keeps those which a search
+	 * through the model would find, in the order in which it would find them.
+	 *
+	 * @return the elements, or <code>null</code> if the model has to be
+	 *         searched because the index cannot be used
+	 */
+	private <T> List<T> findIndexedElements(MUIElement searchRoot, String id, Class<T> clazz,
+			List<String> tagsToMatch, int searchFlags, ElementMatcher matcher) {
+		if (searchRoot == null || searchFlags == 0 || (id == null && tagsToMatch == null)) {
+			return null;
+		}
+		MApplication application = ModelIndex.getApplication(searchRoot);
+		if (application == null) {
+			return null;
+		}
+		ModelIndex index = ModelIndex.getIndex(application);
+		Collection<MApplicationElement> candidates = index.getElements(id, tagsToMatch);
+		if (candidates == null) {
+			return null;
+		}
+		List<T> elements = new ArrayList<>(1);
+		for (MApplicationElement candidate : candidates) {
+			if (!matcher.select(candidate)) {
+				continue;
+			}
+			int reachable = isReachable(index, searchRoot, candidate, clazz, searchFlags, 0);
+			if (reachable == UNKNOWN) {
+				return null;
+			} else if (reachable == REACHABLE) {
+				@SuppressWarnings("unchecked")
+				T element = (T) candidate;
+				elements.add(element);
+			}
+		}
+		if (elements.size() > 1) {
+			return sortInSearchOrder(index, searchRoot, elements, clazz, searchFlags);
+		}
+		return elements;
+	}
+
+	/**
+	 * Sorts the given elements in the order in which
+	 * {@link #findElementsRecursive} visits them.
+	 *
+	 * @return the sorted elements, or <code>null</code> if an element may be
+	 *         reached through a placeholder, which makes its position depend
+	 *         on the search
+	 */
+	private <T> List<T> sortInSearchOrder(ModelIndex index, MUIElement searchRoot, List<T> elements,
+			Class<?> clazz, int searchFlags) {
+		List<List<EObject>> paths = new ArrayList<>(elements.size());
+		for (T element : elements) {
+			for (EObject ancestor = (EObject) element; ancestor != null; ancestor = ancestor.eContainer()) {
+				if (ancestor instanceof MUIElement && !index.getPlaceholders((MUIElement) ancestor).isEmpty()) {
+					return null;
+				}
+			}
+			if (isSearched(searchRoot, (MApplicationElement) element, clazz, searchFlags) != REACHABLE) {
+				return null;
+			}
+			List<EObject> path = new ArrayList<>();
+			for (EObject node = (EObject) element; node != searchRoot; node = node.eContainer()) {
+				path.add(node);
+			}
+			path.add(searchRoot);
+			Collections.reverse(path);
+			paths.add(path);
+		}
+		paths.sort(ModelServiceImpl::compareSearchOrder);
+
+		List<T> sorted = new ArrayList<>(paths.size());
+		for (List<EObject> path : paths) {
+			@SuppressWarnings("unchecked")
+			T element = (T) path.get(path.size() - 1);
+			sorted.add(element);
+		}
+		return sorted;
+	}
+
+	/**
+	 * Compares the containment paths of two elements below the same search
+	 * root in the order in which {@link #findElementsRecursive} visits them.
+	 */
+	private static int compareSearchOrder(List<EObject> path1, List<EObject> path2) {
+		int i = 0;
+		while (i < path1.size() && i < path2.size() && path1.get(i) == path2.get(i)) {
+			i++;
+		}
+		if (i == path1.size() || i == path2.size()) {
+			// an element is visited before its descendants
+			return Integer.compare(path1.size(), path2.size());
+		}
+		EObject parent = path1.get(i - 1);
+		EObject child1 = path1.get(i);
+		EObject child2 = path2.get(i);
+		EStructuralFeature feature1 = child1.eContainmentFeature();
+		EStructuralFeature feature2 = child2.eContainmentFeature();
+		if (feature1 != feature2) {
+			return Integer.compare(getSearchOrder(parent, feature1), getSearchOrder(parent, feature2));
+		}
+		List<?> siblings = (List<?>) parent.eGet(feature1);
+		return Integer.compare(siblings.indexOf(child1), siblings.indexOf(child2));
+	}
+
+	private static int getSearchOrder(EObject element, EStructuralFeature feature) {
+		if (element instanceof MApplication && feature == CommandsPackageImpl.Literals.HANDLER_CONTAINER__HANDLERS) {
+			return -1;
+		}
+		return SEARCH_ORDER.indexOf(feature);
+	}
+
+	/**
+	 * Determines whether {@link #findElementsRecursive} would visit the given
+	 * element when searching from the given root, either through the
+	 * containment hierarchy or through placeholders.
+	 *
+	 * @return one of {@link #REACHABLE}, {@link #NOT_REACHABLE} or
+	 *         {@link #UNKNOWN}
+	 */
+	private int isReachable(ModelIndex index, MApplicationElement searchRoot, MApplicationElement element,
+			Class<?> clazz, int searchFlags, int depth) {
+		if (depth > MAX_PLACEHOLDER_DEPTH) {
+			return UNKNOWN;
+		}
+		int result = NOT_REACHABLE;
+		for (EObject ancestor = (EObject) element; ancestor != null; ancestor = ancestor.eContainer()) {
+			if (ancestor == searchRoot) {
+				int searched = isSearched(searchRoot, element, clazz, searchFlags);
+				if (searched != NOT_REACHABLE) {
+					return searched;
+				}
+			}
+			if (!(ancestor instanceof MUIElement)) {
+				continue;
+			}
+			List<MPlaceholder> placeholders = index.getPlaceholders((MUIElement) ancestor);
+			if (placeholders.isEmpty() || !isSearchedReference((MUIElement) ancestor, searchFlags)) {
+				continue;
+			}
+			// placeholders restart the search at the element they refer to
+			int searched = isSearched((MUIElement) ancestor, element, clazz, searchFlags);
+			if (searched == NOT_REACHABLE) {
+				continue;
+			}
+			for (MPlaceholder placeholder : placeholders) {
+				int reachable = isReachable(index, searchRoot, placeholder, clazz, searchFlags, depth + 1);
+				if (reachable == REACHABLE && searched == REACHABLE) {
+					return REACHABLE;
+				} else if (reachable != NOT_REACHABLE) {
+					result = UNKNOWN;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Determines whether {@link #findElementsRecursive} would visit the given
+	 * element when searching from the given root along the containment
+	 * hierarchy alone.
+	 */
+	private int isSearched(MApplicationElement searchRoot, MApplicationElement element, Class<?> clazz,
+			int searchFlags) {
+		List<EObject> path = new ArrayList<>();
+		for (EObject node = (EObject) element; node != searchRoot; node = node.eContainer()) {
+			if (node == null) {
+				return NOT_REACHABLE;
+			}
+			path.add(node);
+		}
+		path.add((EObject) searchRoot);
+		Collections.reverse(path);
+
+		int i = 0;
+		while (i < path.size() - 1) {
+			EObject node = path.get(i);
+			EObject child = path.get(i + 1);
+			if (node instanceof MWindow && child.eContainmentFeature() == UiPackageImpl.Literals.ELEMENT_CONTAINER__CHILDREN
+					&& (searchFlags & OUTSIDE_PERSPECTIVE) == 0) {
+				MPerspectiveStack primaryStack = getPrimaryPerspectiveStack((MWindow) node);
+				if (primaryStack != null) {
+					// only the perspectives of the primary stack are searched
+					int stackIndex = path.indexOf(primaryStack);
+					if (stackIndex < 0 || stackIndex == path.size() - 1) {
+						return NOT_REACHABLE;
+					}
+					i = stackIndex;
+					continue;
+				}
+			}
+			int searched = isSearchedChild(node, child, clazz, searchFlags);
+			if (searched != REACHABLE) {
+				return searched;
+			}
+			i++;
+		}
+		return REACHABLE;
+	}
+
+	/**
+	 * Determines whether {@link #findElementsRecursive} descends from the given
+	 * element into the given child.
+	 */
+	private int isSearchedChild(EObject element, EObject child, Class<?> clazz, int searchFlags) {
+		EStructuralFeature feature = child.eContainmentFeature();
+		if (element instanceof MPerspectiveStack && feature == UiPackageImpl.Literals.ELEMENT_CONTAINER__CHILDREN) {
+			return isSearchedPerspective((MPerspectiveStack) element, (MPerspective) child, searchFlags);
+		}
+		return isSearchedFeature(element, feature, clazz, searchFlags) ? REACHABLE : NOT_REACHABLE;
+	}
+
+	/**
+	 * The rule deciding whether {@link #findElementsRecursive} descends from
+	 * the given element into the children it contains through the given
+	 * feature. The perspectives of a perspective stack are chosen by
+	 * {@link #isSearchedPerspective} instead.
+	 */
+	private static boolean isSearchedFeature(EObject element, EStructuralFeature feature, Class<?> clazz,
+			int searchFlags) {
+		if (feature == UiPackageImpl.Literals.ELEMENT_CONTAINER__CHILDREN
+				|| feature == BasicPackageImpl.Literals.WINDOW__WINDOWS
+				|| feature == AdvancedPackageImpl.Literals.PERSPECTIVE__WINDOWS
+				|| feature == CommandsPackageImpl.Literals.BINDING_TABLE__BINDINGS) {
+			return true;
+		} else if (feature == CommandsPackageImpl.Literals.HANDLER_CONTAINER__HANDLERS) {
+			if (element instanceof MApplication || element instanceof MWindow) {
+				return searchFlags == ANYWHERE && MHandler.class.equals(clazz);
+			}
+			return element instanceof MPart && (searchFlags & IN_PART) != 0 && MHandler.class.equals(clazz);
+		} else if (feature == ApplicationPackageImpl.Literals.APPLICATION__COMMANDS) {
+			return searchFlags == ANYWHERE && MCommand.class.equals(clazz);
+		} else if (feature == CommandsPackageImpl.Literals.BINDINGS__BINDING_CONTEXTS) {
+			return element instanceof MApplication && searchFlags == ANYWHERE
+					&& MBindingContext.class.equals(clazz);
+		} else if (feature == CommandsPackageImpl.Literals.BINDING_TABLE_CONTAINER__BINDING_TABLES) {
+			return searchFlags == ANYWHERE
+					&& (MBindingTable.class.equals(clazz) || MKeyBinding.class.equals(clazz));
+		} else if (feature == ApplicationPackageImpl.Literals.APPLICATION__ADDONS) {
+			return searchFlags == ANYWHERE && MAddon.class.equals(clazz);
+		} else if (feature == CommandsPackageImpl.Literals.BINDING_CONTEXT__CHILDREN) {
+			return searchFlags == ANYWHERE;
+		} else if (feature == BasicPackageImpl.Literals.WINDOW__SHARED_ELEMENTS) {
+			return (searchFlags & IN_SHARED_ELEMENTS) != 0;
+		} else if (feature == BasicPackageImpl.Literals.TRIMMED_WINDOW__TRIM_BARS) {
+			return (searchFlags & IN_TRIM) != 0;
+		} else if (feature == BasicPackageImpl.Literals.WINDOW__MAIN_MENU) {
+			return (searchFlags & IN_MAIN_MENU) != 0;
+		} else if (feature == BasicPackageImpl.Literals.PART__MENUS
+				|| feature == BasicPackageImpl.Literals.PART__TOOLBAR) {
+			return (searchFlags & IN_PART) != 0;
+		}
+		return false;
+	}
+
+	/**
+	 * The rule deciding whether {@link #findElementsRecursive} descends from
+	 * the given perspective stack into the given perspective.
+	 *
+	 * @return {@link #UNKNOWN} if only the shared areas below the stack are
+	 *         searched
+	 */
+	private static int isSearchedPerspective(MPerspectiveStack perspectiveStack, MPerspective perspective,
+			int searchFlags) {
+		if ((searchFlags & IN_ANY_PERSPECTIVE) != 0) {
+			return REACHABLE;
+		} else if ((searchFlags & IN_ACTIVE_PERSPECTIVE) != 0) {
+			return perspectiveStack.getSelectedElement() == perspective ? REACHABLE : NOT_REACHABLE;
+		} else if ((searchFlags & IN_SHARED_AREA) != 0) {
+			return UNKNOWN;
+		}
+		return NOT_REACHABLE;
+	}
+
+	/**
+	 * The rule deciding whether {@link #findElementsRecursive} follows a
+	 * placeholder to the given element: shared areas are only searched if the
+	 * flag is set.
+	 */
+	private static boolean isSearchedReference(MUIElement referenced, int searchFlags) {
+		return !(referenced instanceof MArea) || (searchFlags & IN_SHARED_AREA) != 0;
+	}
+
 	@Override
 	public <T> List<T> findElements(MApplicationElement searchRoot, Class<T> clazz,
 			int searchFlags, Selector matcher) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2016 IBM Corporation and others.
+ * Copyright (c) 2009, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,10 +20,17 @@
 package org.eclipse.e4.ui.internal.workbench;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -33,6 +40,7 @@ import javax.inject.Named;
 import org.eclipse.core.internal.runtime.PlatformURLPluginConnection;
 import org.eclipse.core.runtime.URIUtil;
 import org.eclipse.e4.core.contexts.ContextInjectionFactory;
+import org.eclipse.e4.core.contexts.EclipseContextFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.core.services.log.Logger;
@@ -54,6 +62,7 @@ import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.URIConverter;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.xmi.XMLResource;
 import org.eclipse.osgi.service.datalocation.Location;
 import org.osgi.framework.Bundle;
 
@@ -62,6 +71,17 @@ import org.osgi.framework.Bundle;
  */
 public class ResourceHandler implements IModelResourceHandler {
 
+	/**
+	 * The argument for whether the model should be saved as a binary snapshot
+	 * instead of XMI <br>
+	 *
+	 * The most recent of the saved XMI model and the binary snapshot is restored,
+	 * so that switching the format migrates the saved model. <br>
+	 * <br>
+	 * Value is: <code>binaryModelFormat</code>
+	 */
+	public static final String BINARY_MODEL_FORMAT = "binaryModelFormat"; //$NON-NLS-1$
+
 	private ResourceSet resourceSet;
 	private Resource resource;
 
@@ -90,6 +110,11 @@ public class ResourceHandler implements IModelResourceHandler {
 	@Named(IWorkbench.CLEAR_PERSISTED_STATE)
 	private boolean clearPersistedState;
 
+	@Inject
+	@Optional
+	@Named(BINARY_MODEL_FORMAT)
+	private boolean binaryModelFormat;
+
 	/**
 	 * Constructor.
 	 *
@@ -143,30 +168,45 @@ public class ResourceHandler implements IModelResourceHandler {
 	@Override
 	public Resource loadMostRecentModel() {
 		File workbenchData = null;
+		File workbenchSnapshot = null;
 		URI restoreLocation = null;
 
 		if (saveAndRestore) {
 			workbenchData = getWorkbenchSaveLocation();
+			workbenchSnapshot = getSnapshotLocation(workbenchData);
 			restoreLocation = URI.createFileURI(workbenchData.getAbsolutePath());
 		}
 
-		if (clearPersistedState && workbenchData != null && workbenchData.exists()) {
-			workbenchData.delete();
+		if (clearPersistedState && workbenchData != null) {
+			if (workbenchData.exists()) {
+				workbenchData.delete();
+			}
+			if (workbenchSnapshot.exists()) {
+				workbenchSnapshot.delete();
+			}
 		}
 
 		// last stored time-stamp
 		long restoreLastModified = restoreLocation == null ? 0L : new File(
 				restoreLocation.toFileString()).lastModified();
+		long snapshotLastModified = workbenchSnapshot == null ? 0L : workbenchSnapshot.lastModified();
 
 		// See bug 380663, bug 381219
 		// long lastApplicationModification = getLastApplicationModification();
 		// boolean restore = restoreLastModified > lastApplicationModification;
-		boolean restore = restoreLastModified > 0;
+		boolean restore = restoreLastModified > 0 || snapshotLastModified > 0;
 		boolean initialModel;
 
 		resource = null;
 		if (restore && saveAndRestore) {
-			resource = loadResource(restoreLocation);
+			// restore the most recently saved format, which migrates the model
+			// when the format was changed
+			if (snapshotLastModified > restoreLastModified) {
+				resource = loadSnapshot(workbenchSnapshot);
+			}
+			if (resource == null && restoreLastModified > 0) {
+				resource = loadResource(restoreLocation);
+			}
 			// If the saved model does not have any top-level windows, Eclipse will exit
 			// immediately, so throw out the persisted state and reinitialize with the defaults.
 			if (!hasTopLevelWindows(resource)) {
@@ -192,8 +232,13 @@ public class ResourceHandler implements IModelResourceHandler {
 		MApplication appElement = (MApplication) resource.getContents().get(0);
 
 		this.context.set(MApplication.class, appElement);
+		IEclipseContext assemblerContext = EclipseContextFactory.create();
+		if (saveAndRestore && instanceLocation != null) {
+			assemblerContext.set(ModelFragmentCache.class,
+					new ModelFragmentCache(new File(getBaseLocation(), "fragments"), logger)); //$NON-NLS-1$
+		}
 		ModelAssembler contribProcessor = ContextInjectionFactory.make(ModelAssembler.class,
-				context);
+				context, assemblerContext);
 		contribProcessor.processModel(initialModel);
 
 		if (!hasTopLevelWindows(resource) && logger != null) {
@@ -212,9 +257,82 @@ public class ResourceHandler implements IModelResourceHandler {
 	@Override
 	public void save() throws IOException {
 		if (saveAndRestore) {
-			Map<String, Object> options = new HashMap<>();
-			options.put(E4XMIResource.OPTION_FILTER_PERSIST_STATE, Boolean.TRUE);
-			resource.save(options);
+			save(resource);
+		}
+	}
+
+	/**
+	 * Saves the given resource holding the application model or a copy of it, in
+	 * the format of the saved model. A saved model in a local file is replaced
+	 * atomically, so that it is not corrupted if the application crashes while
+	 * saving. May be called outside of the UI thread for a copy of the model.
+	 *
+	 * @param res
+	 *            the resource to save
+	 * @throws IOException
+	 *             if the model cannot be saved
+	 */
+	public void save(Resource res) throws IOException {
+		URI uri = res.getURI();
+		if (!uri.isFile()) {
+			res.save(getSaveOptions());
+			return;
+		}
+		File file = new File(uri.toFileString());
+		File snapshot = getSnapshotLocation(file);
+		if (binaryModelFormat && res instanceof XMLResource) {
+			replace(snapshot, out -> BinaryModelSnapshot.save((XMLResource) res, out, true));
+			// the XMI model is outdated now
+			file.delete();
+		} else {
+			replace(file, out -> res.save(out, getSaveOptions()));
+			// the snapshot is outdated now
+			snapshot.delete();
+		}
+	}
+
+	private static Map<String, Object> getSaveOptions() {
+		Map<String, Object> options = new HashMap<>();
+		options.put(E4XMIResource.OPTION_FILTER_PERSIST_STATE, Boolean.TRUE);
+		return options;
+	}
+
+	private interface Writer {
+		void write(OutputStream out) throws IOException;
+	}
+
+	/**
+	 * Writes the given file to a temporary file first, which then replaces the
+	 * file.
+	 */
+	private static void replace(File file, Writer writer) throws IOException {
+		file.getParentFile().mkdirs();
+		File temp = File.createTempFile(file.getName(), ".tmp", file.getParentFile()); //$NON-NLS-1$
+		try {
+			try (OutputStream out = new FileOutputStream(temp)) {
+				writer.write(out);
+			}
+			try {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			temp.delete();
+		}
+	}
+
+	private Resource loadSnapshot(File snapshot) {
+		Resource res = createResource();
+		try (InputStream in = new FileInputStream(snapshot)) {
+			BinaryModelSnapshot.load((XMLResource) res, in);
+			return res;
+		} catch (IOException | RuntimeException e) {
+			logger.error(e, "Unable to load model snapshot " + snapshot); //$NON-NLS-1$
+			res.unload();
+			resourceSet.getResources().remove(res);
+			return null;
 		}
 	}
 
@@ -244,6 +362,15 @@ public class ResourceHandler implements IModelResourceHandler {
 		return new File(getBaseLocation(), "workbench.xmi"); //$NON-NLS-1$
 	}
 
+	private static File getSnapshotLocation(File workbenchData) {
+		String name = workbenchData.getName();
+		int dot = name.lastIndexOf('.');
+		if (dot > 0) {
+			name = name.substring(0, dot);
+		}
+		return new File(workbenchData.getParentFile(), name + '.' + BinaryModelSnapshot.FILE_EXTENSION);
+	}
+
 	private File getBaseLocation() {
 		File baseLocation;
 		try {
@@ -0,0 +1,390 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.jface.internal.InternalPolicy;
+import org.eclipse.jface.util.Policy;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+
+/**
+ * An on-disk cache of the image data decoded by {@link URLImageDescriptor}, so
+ * that the icons of the installed bundles are only decoded once, and not on
+ * every start.
+ * <p>
+ * An entry is keyed by the URL of the image, the zoom and a stamp of the jar
+ * file the image is loaded from, which changes whenever the bundle is updated,
+ * or of the image file itself for images loaded from directories. Entries of
+ * updated bundles and edited images are thus never read again.
+ * Images which could not be found are recorded as well, so that looking for
+ * missing high-resolution variants does not hit the jar again. Only images
+ * loaded from local jar files or directories are cached.
+ * </p>
+ * <p>
+ * The cache is turned off unless a location is set with
+ * {@link JFaceResources#setImageDataCacheLocation(File)}. The files of the
+ * cache may be deleted at any time.
+ * </p>
+ */
+final class ImageDataDiskCache {
+
+	private static final String DIGEST_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x4A464944; // "JFID"
+
+	private static final int FORMAT_VERSION = 1;
+
+	/** The width recorded for images which could not be found */
+	private static final int MISSING = -1;
+
+	/** The number of entries above which the cache is cleared when enabled */
+	private static final int MAX_ENTRIES = 16384;
+
+	/** Returned by {@link #get(URL, URL, int)} for images known to be missing */
+	static final ImageData MISSING_IMAGE_DATA = new ImageData(1, 1, 1, new PaletteData(new RGB(0, 0, 0)));
+
+	private static volatile File directory;
+
+	/** The stamps of the jar files, by location */
+	private static final Map<String, String> stamps = new ConcurrentHashMap<>();
+
+	/** The maximum number of entries waiting to be written */
+	private static final int MAX_PENDING_WRITES = 256;
+
+	/**
+	 * Writes the entries in the background. The writing blocks on I/O, so it does
+	 * not run in the common pool. Entries are dropped when too many are waiting,
+	 * they are written again the next time their image is decoded.
+	 */
+	private static final ExecutorService writer = createWriter();
+
+	private ImageDataDiskCache() {
+		// prevents instantiation
+	}
+
+	/**
+	 * Sets the directory of the cache, or turns the cache off.
+	 *
+	 * @param location the directory, or <code>null</code> to turn the cache off
+	 */
+	static void setLocation(File location) {
+		stamps.clear();
+		if (location == null) {
+			directory = null;
+			return;
+		}
+		File versioned = new File(location, "v" + FORMAT_VERSION); //$NON-NLS-1$
+		if (!versioned.isDirectory() && !versioned.mkdirs()) {
+			Policy.logException(new IOException("Cannot create image data cache: " + versioned)); //$NON-NLS-1$
+			directory = null;
+			return;
+		}
+		String[] names = versioned.list();
+		if (names != null && names.length > MAX_ENTRIES) {
+			// mostly entries of bundles which were updated since
+			for (String name : names) {
+				new File(versioned, name).delete();
+			}
+		}
+		directory = versioned;
+	}
+
+	/**
+	 * @return the directory of the cache, or <code>null</code> if the cache is
+	 *         turned off
+	 */
+	static File getLocation() {
+		File dir = directory;
+		return dir == null ? null : dir.getParentFile();
+	}
+
+	/**
+	 * @return whether the cache is turned on
+	 */
+	static boolean isEnabled() {
+		return directory != null;
+	}
+
+	/**
+	 * Returns the cached image data of the given image.
+	 *
+	 * @param baseURL the URL of the image at 100%, which tells the bundle it is
+	 *                loaded from
+	 * @param url     the URL of the image at the given zoom
+	 * @param zoom    the zoom
+	 * @return the image data, {@link #MISSING_IMAGE_DATA} if the image is known
+	 *         to be missing, or <code>null</code> if the image is not cached
+	 */
+	static ImageData get(URL baseURL, URL url, int zoom) {
+		File file = getFile(baseURL, url, zoom);
+		if (file == null || !file.isFile()) {
+			return null;
+		}
+		try {
+			// not memory mapped, as the entries are small and a mapped file
+			// cannot be replaced on Windows
+			return read(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+		} catch (IOException | RuntimeException e) {
+			// a corrupt or concurrently replaced entry is read again
+			file.delete();
+			return null;
+		}
+	}
+
+	/**
+	 * Caches the image data of the given image in the background.
+	 *
+	 * @param baseURL the URL of the image at 100%
+	 * @param url     the URL of the image at the given zoom
+	 * @param zoom    the zoom
+	 * @param data    the image data, or <code>null</code> if the image could not
+	 *                be found
+	 */
+	static void put(URL baseURL, URL url, int zoom, ImageData data) {
+		File file = getFile(baseURL, url, zoom);
+		if (file == null) {
+			return;
+		}
+		writer.execute(() -> {
+			try {
+				File temp = File.createTempFile(file.getName(), ".tmp", file.getParentFile()); //$NON-NLS-1$
+				try {
+					Files.write(temp.toPath(), write(data));
+					Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+							StandardCopyOption.ATOMIC_MOVE);
+				} finally {
+					temp.delete();
+				}
+			} catch (IOException e) {
+				// the image is decoded again next time
+			}
+		});
+	}
+
+	private static ExecutorService createWriter() {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(MAX_PENDING_WRITES), runnable -> {
+					Thread thread = new Thread(runnable, "JFace Image Data Cache Writer"); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.DiscardPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	private static File getFile(URL baseURL, URL url, int zoom) {
+		File dir = directory;
+		if (dir == null) {
+			return null;
+		}
+		String stamp = getStamp(baseURL, url);
+		if (stamp == null) {
+			return null;
+		}
+		String key = url.toExternalForm() + '|' + zoom + '|' + stamp;
+		try {
+			byte[] digest = MessageDigest.getInstance(DIGEST_ALGORITHM).digest(key.getBytes(StandardCharsets.UTF_8));
+			StringBuilder name = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				name.append(Character.forDigit((b >> 4) & 0xF, 16));
+				name.append(Character.forDigit(b & 0xF, 16));
+			}
+			return new File(dir, name.toString());
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform has to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Returns the stamp of the jar file the given image is loaded from, or of the
+	 * image file itself if it is loaded from a directory, or <code>null</code> if
+	 * it is not loaded from a local file.
+	 *
+	 * @param baseURL the URL of the image at 100%, which tells the jar file
+	 * @param url     the URL of the image at the zoom of the entry
+	 */
+	private static String getStamp(URL baseURL, URL url) {
+		try {
+			URL resolved = resolve(baseURL);
+			if ("jar".equalsIgnoreCase(resolved.getProtocol())) { //$NON-NLS-1$
+				String path = resolved.getPath();
+				int separator = path.indexOf("!/"); //$NON-NLS-1$
+				if (separator == -1) {
+					return null;
+				}
+				File jar = new File(new URL(path.substring(0, separator)).toURI());
+				String location = jar.getAbsolutePath();
+				String stamp = stamps.get(location);
+				if (stamp == null) {
+					stamp = location + '|' + jar.lastModified() + '|' + jar.length();
+					stamps.put(location, stamp);
+				}
+				return stamp;
+			}
+			if ("file".equalsIgnoreCase(resolved.getProtocol())) { //$NON-NLS-1$
+				// not remembered, so that images edited in place are read again;
+				// a missing image is stamped with 0 and replaced once added
+				URL resolvedURL = url == baseURL ? resolved : resolve(url);
+				if (!"file".equalsIgnoreCase(resolvedURL.getProtocol())) { //$NON-NLS-1$
+					return null;
+				}
+				File file = new File(resolvedURL.toURI());
+				return file.getAbsolutePath() + '|' + file.lastModified() + '|' + file.length();
+			}
+			return null;
+		} catch (IOException | URISyntaxException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static URL resolve(URL url) throws IOException {
+		return InternalPolicy.OSGI_AVAILABLE ? FileLocator.resolve(url) : url;
+	}
+
+	private static byte[] write(ImageData data) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+				data == null ? 16 : data.data.length + 256);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			if (data == null) {
+				out.writeInt(MISSING);
+				return bytes.toByteArray();
+			}
+			out.writeInt(data.width);
+			out.writeInt(data.height);
+			out.writeInt(data.depth);
+			out.writeInt(data.scanlinePad);
+			out.writeInt(data.bytesPerLine);
+			out.writeInt(data.transparentPixel);
+			out.writeInt(data.maskPad);
+			out.writeInt(data.alpha);
+			out.writeInt(data.type);
+			out.writeInt(data.x);
+			out.writeInt(data.y);
+			out.writeInt(data.disposalMethod);
+			out.writeInt(data.delayTime);
+			PaletteData palette = data.palette;
+			out.writeBoolean(palette.isDirect);
+			if (palette.isDirect) {
+				out.writeInt(palette.redMask);
+				out.writeInt(palette.greenMask);
+				out.writeInt(palette.blueMask);
+			} else {
+				out.writeInt(palette.colors.length);
+				for (RGB rgb : palette.colors) {
+					out.writeByte(rgb.red);
+					out.writeByte(rgb.green);
+					out.writeByte(rgb.blue);
+				}
+			}
+			writeBytes(out, data.data);
+			writeBytes(out, data.maskData);
+			writeBytes(out, data.alphaData);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+		if (bytes == null) {
+			out.writeInt(-1);
+		} else {
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private static ImageData read(ByteBuffer in) throws IOException {
+		try {
+			if (in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION) {
+				throw new IOException("Unknown image data cache entry"); //$NON-NLS-1$
+			}
+			int width = in.getInt();
+			if (width == MISSING) {
+				return MISSING_IMAGE_DATA;
+			}
+			int height = in.getInt();
+			int depth = in.getInt();
+			int scanlinePad = in.getInt();
+			int bytesPerLine = in.getInt();
+			int transparentPixel = in.getInt();
+			int maskPad = in.getInt();
+			int alpha = in.getInt();
+			int type = in.getInt();
+			int x = in.getInt();
+			int y = in.getInt();
+			int disposalMethod = in.getInt();
+			int delayTime = in.getInt();
+			PaletteData palette;
+			if (in.get() != 0) {
+				palette = new PaletteData(in.getInt(), in.getInt(), in.getInt());
+			} else {
+				RGB[] colors = new RGB[in.getInt()];
+				for (int i = 0; i < colors.length; i++) {
+					colors[i] = new RGB(in.get() & 0xFF, in.get() & 0xFF, in.get() & 0xFF);
+				}
+				palette = new PaletteData(colors);
+			}
+			byte[] pixels = readBytes(in);
+			ImageData data = new ImageData(width, height, depth, palette, scanlinePad, pixels);
+			data.bytesPerLine = bytesPerLine;
+			data.transparentPixel = transparentPixel;
+			data.maskPad = maskPad;
+			data.maskData = readBytes(in);
+			data.alpha = alpha;
+			data.alphaData = readBytes(in);
+			data.type = type;
+			data.x = x;
+			data.y = y;
+			data.disposalMethod = disposalMethod;
+			data.delayTime = delayTime;
+			return data;
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new IOException("Truncated image data cache entry", e); //$NON-NLS-1$
+		}
+	}
+
+	private static byte[] readBytes(ByteBuffer in) {
+		int length = in.getInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return bytes;
+	}
+}
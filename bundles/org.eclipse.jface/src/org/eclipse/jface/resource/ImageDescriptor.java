@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -387,6 +387,20 @@ public abstract class ImageDescriptor extends DeviceResourceDescriptor {
 		return getImageData(100);
 	}
 
+	/**
+	 * Returns a task loading the image data of this descriptor ahead of the
+	 * creation of its image, if this descriptor supports it. Called in the UI
+	 * thread by {@link ResourceManager#prefetchImages(java.util.Collection)},
+	 * which runs the task in a background thread.
+	 *
+	 * @param zoom the zoom the image is going to be created at
+	 * @return the task, or <code>null</code> if there is nothing to load ahead
+	 *         of time
+	 */
+	Runnable createPrefetch(int zoom) {
+		return null;
+	}
+
 	/**
 	 * Returns the shared image descriptor for a missing image.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,7 @@
  *******************************************************************************/
 package org.eclipse.jface.resource;
 
+import java.io.File;
 import java.net.URL;
 import java.text.MessageFormat;
 import java.util.HashMap;
@@ -576,6 +577,38 @@ public class JFaceResources {
 		fontRegistry = registry;
 	}
 
+	/**
+	 * Sets the directory of the on-disk cache of decoded image data, or turns
+	 * the cache off. When the cache is turned on, the images of image
+	 * descriptors created from URLs of local jar files or directories, like
+	 * the icons of the installed bundles, are only decoded once and read from
+	 * the cache afterwards, until the bundle they are loaded from is updated.
+	 * The cache is turned off by default.
+	 * <p>
+	 * This method should be called before any image is created.
+	 * </p>
+	 *
+	 * @param location
+	 *            the directory of the cache, or <code>null</code> to turn the
+	 *            cache off
+	 * @since 3.20
+	 */
+	public static void setImageDataCacheLocation(File location) {
+		ImageDataDiskCache.setLocation(location);
+	}
+
+	/**
+	 * Returns the directory of the on-disk cache of decoded image data.
+	 *
+	 * @return the directory of the cache, or <code>null</code> if the cache is
+	 *         turned off
+	 * @see #setImageDataCacheLocation(File)
+	 * @since 3.20
+	 */
+	public static File getImageDataCacheLocation() {
+		return ImageDataDiskCache.getLocation();
+	}
+
 	/**
 	 * Declare a private constructor to block instantiation.
 	 */
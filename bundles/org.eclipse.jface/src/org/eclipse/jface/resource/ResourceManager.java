@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,7 +14,12 @@
 package org.eclipse.jface.resource;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IStatus;
@@ -25,6 +30,9 @@ import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Device;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageDataProvider;
+import org.eclipse.swt.graphics.PaletteData;
 import org.eclipse.swt.graphics.RGB;
 
 /**
@@ -50,6 +58,17 @@ public abstract class ResourceManager {
 	 */
 	private List<Runnable> disposeExecs = null;
 
+	/**
+	 * Loads image data ahead of time. The loading blocks on I/O, so it does not
+	 * run in the common pool.
+	 */
+	private static final ExecutorService prefetchExecutor = createPrefetchExecutor();
+
+	/**
+	 * The zoom the images of the device are created at, 0 if not known yet
+	 */
+	private int prefetchZoom;
+
 	/**
 	 * Returns the Device for which this ResourceManager will create resources
 	 *
@@ -202,6 +221,68 @@ public abstract class ResourceManager {
 		}
 	}
 
+	/**
+	 * Loads the image data of the given image descriptors in background threads,
+	 * so that creating their images later on takes less time in the UI thread.
+	 * Returns immediately. The images are not created, and nothing has to be
+	 * disposed. Descriptors which cannot load their image data ahead of time are
+	 * ignored. Only the image data at the zoom of the device is loaded. Must be
+	 * called in the UI thread.
+	 *
+	 * @since 3.20
+	 *
+	 * @param descriptors descriptors of the images which are about to be created
+	 */
+	public void prefetchImages(Collection<? extends ImageDescriptor> descriptors) {
+		int zoom = 0;
+		for (ImageDescriptor descriptor : descriptors) {
+			if (descriptor != null && find(descriptor) == null) {
+				if (zoom == 0) {
+					zoom = getPrefetchZoom();
+				}
+				Runnable prefetch = descriptor.createPrefetch(zoom);
+				if (prefetch != null) {
+					prefetchExecutor.execute(prefetch);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the zoom SWT creates the images of the device at, by creating an
+	 * image whose provider records the zoom asked first.
+	 */
+	private int getPrefetchZoom() {
+		if (prefetchZoom == 0) {
+			int[] zoom = { 0 };
+			ImageData data = new ImageData(1, 1, 1, new PaletteData(new RGB(0, 0, 0)));
+			try {
+				Image probe = new Image(getDevice(), (ImageDataProvider) z -> {
+					if (zoom[0] == 0) {
+						zoom[0] = z;
+					}
+					return z == 100 ? data : null;
+				});
+				probe.dispose();
+			} catch (SWTException | IllegalArgumentException e) {
+				// use 100% below
+			}
+			prefetchZoom = zoom[0] == 0 ? 100 : zoom[0];
+		}
+		return prefetchZoom;
+	}
+
+	private static ExecutorService createPrefetchExecutor() {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 5, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(runnable, "JFace Image Prefetch"); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
 	/**
 	 * Returns the default image that will be returned in the event that the intended
 	 * image is missing.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IStatus;
@@ -74,7 +77,7 @@ class URLImageDescriptor extends ImageDescriptor {
 			if (tempURL != null) {
 				URL xUrl = getxURL(tempURL, zoom);
 				if (xUrl != null) {
-					return URLImageDescriptor.getImageData(xUrl);
+					return URLImageDescriptor.getImageData(tempURL, xUrl, zoom);
 				}
 			}
 			return null;
@@ -83,6 +86,97 @@ class URLImageDescriptor extends ImageDescriptor {
 
 	private static long cumulativeTime;
 
+	/**
+	 * Maximum number of prefetches waiting for their image to be created
+	 */
+	private static final int MAX_PREFETCHED = 512;
+
+	/**
+	 * The image data loaded ahead of time, by URL. The least recently used are
+	 * dropped when there are too many, so that the image data of images which
+	 * are never created is not kept forever.
+	 */
+	private static final Map<String, Prefetch> prefetched = Collections
+			.synchronizedMap(new LinkedHashMap<String, Prefetch>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Prefetch> eldest) {
+					return size() > MAX_PREFETCHED;
+				}
+			});
+
+	/**
+	 * The loading of the image data of a descriptor ahead of the creation of its
+	 * image. The image creation takes over a load which has not started yet, and
+	 * waits for one in progress, so that the image data is never loaded twice.
+	 */
+	private static final class Prefetch implements Runnable {
+		private final URLImageDescriptor descriptor;
+		private final int zoom;
+		private boolean started;
+		private boolean done;
+		private ImageData data;
+		private int dataZoom;
+
+		Prefetch(URLImageDescriptor descriptor, int zoom) {
+			this.descriptor = descriptor;
+			this.zoom = zoom;
+		}
+
+		@Override
+		public void run() {
+			synchronized (this) {
+				if (started) {
+					return;
+				}
+				started = true;
+			}
+			ImageData result = null;
+			int resultZoom = zoom;
+			try {
+				result = descriptor.getImageData(zoom);
+				if (result == null && zoom != 100) {
+					// the image is created from the 100% image data then
+					result = descriptor.getImageData(100);
+					resultZoom = 100;
+				}
+			} catch (SWTException e) {
+				// reported again when the image is created
+			} finally {
+				synchronized (this) {
+					data = result;
+					dataZoom = resultZoom;
+					done = true;
+					notifyAll();
+				}
+			}
+		}
+
+		/**
+		 * Returns the image data loaded ahead of time, waiting for a load in
+		 * progress. A load which has not started yet is cancelled.
+		 *
+		 * @return the image data, or <code>null</code> if it has to be loaded by
+		 *         the caller
+		 */
+		synchronized ImageData take() {
+			if (!started) {
+				started = true;
+				return null;
+			}
+			while (!done) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return null;
+				}
+			}
+			return data;
+		}
+	}
+
 	/**
 	 * Constant for the file protocol for optimized loading
 	 */
@@ -110,7 +204,8 @@ class URLImageDescriptor extends ImageDescriptor {
 	@Deprecated
 	@Override
 	public ImageData getImageData() {
-		return getImageData(getURL(url));
+		URL tempURL = getURL(url);
+		return tempURL == null ? null : getImageData(tempURL, tempURL, 100);
 	}
 
 	@Override
@@ -118,6 +213,26 @@ class URLImageDescriptor extends ImageDescriptor {
 		return new URLImageDataProvider(url).getImageData(zoom);
 	}
 
+	/**
+	 * Returns the image data of the given image at the given zoom, from the disk
+	 * cache if it is turned on.
+	 */
+	private static ImageData getImageData(URL baseURL, URL url, int zoom) {
+		if (!ImageDataDiskCache.isEnabled()) {
+			return getImageData(url);
+		}
+		ImageData cached = ImageDataDiskCache.get(baseURL, url, zoom);
+		if (cached != null) {
+			return cached == ImageDataDiskCache.MISSING_IMAGE_DATA ? null : cached;
+		}
+		ImageData result = getImageData(url);
+		if (result != null || zoom != 100) {
+			// only missing high-resolution variants are expected
+			ImageDataDiskCache.put(baseURL, url, zoom, result);
+		}
+		return result;
+	}
+
 	private static ImageData getImageData(URL url) {
 		ImageData result = null;
 		try (InputStream in = getStream(url)) {
@@ -248,6 +363,45 @@ class URLImageDescriptor extends ImageDescriptor {
 		}
 	}
 
+	@Override
+	Runnable createPrefetch(int zoom) {
+		// like createImage, only load high-resolution images if enabled
+		Prefetch prefetch = new Prefetch(this, InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_2x ? zoom : 100);
+		if (prefetched.putIfAbsent(url.toString(), prefetch) != null) {
+			return null;
+		}
+		return prefetch;
+	}
+
+	/**
+	 * Creates the image from the prefetched image data, if any.
+	 */
+	private Image createPrefetchedImage(Device device) {
+		Prefetch prefetch = prefetched.remove(url.toString());
+		if (prefetch == null) {
+			return null;
+		}
+		ImageData data = prefetch.take();
+		if (data == null) {
+			return null;
+		}
+		int dataZoom = prefetch.dataZoom;
+		try {
+			return new Image(device, (ImageDataProvider) zoom -> {
+				if (zoom == dataZoom) {
+					return data;
+				}
+				if (zoom == 100 || InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_2x) {
+					return getImageData(zoom);
+				}
+				return null;
+			});
+		} catch (SWTException | IllegalArgumentException e) {
+			// fall back to loading the image again
+			return null;
+		}
+	}
+
 	@Override
 	public Image createImage(boolean returnMissingImageOnError, Device device) {
 
@@ -256,9 +410,15 @@ class URLImageDescriptor extends ImageDescriptor {
 			start = System.nanoTime();
 		}
 		try {
+			if (!prefetched.isEmpty()) {
+				Image image = createPrefetchedImage(device);
+				if (image != null) {
+					return image;
+				}
+			}
 
 			if (InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_2x) {
-				if (!InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_DIRECTLY) {
+				if (!InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_DIRECTLY && !ImageDataDiskCache.isEnabled()) {
 					try {
 						return new Image(device, new URLImageFileNameProvider(url));
 					} catch (SWTException | IllegalArgumentException exception) {
@@ -286,7 +446,7 @@ class URLImageDescriptor extends ImageDescriptor {
 				return image;
 
 			}
-			if (InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_DIRECTLY) {
+			if (InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_DIRECTLY || ImageDataDiskCache.isEnabled()) {
 				return super.createImage(returnMissingImageOnError, device);
 			}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -669,22 +669,30 @@ public abstract class AbstractTableViewer extends ColumnViewer {
 
 		Object[] children = getSortedChildren(getRoot());
 		Item[] items = doGetItems();
-		int min = Math.min(children.length, items.length);
-		for (int i = 0; i < min; ++i) {
+
+		// the items at the start and at the end of the table which still
+		// show the same elements are kept in place, so that inserting or
+		// removing an element does not reset all items following it
+		int max = Math.min(children.length, items.length);
+		int prefix = 0;
+		while (prefix < max && equals(children[prefix], items[prefix].getData())) {
+			prefix++;
+		}
+		int suffix = 0;
+		while (suffix < max - prefix && equals(children[children.length - 1 - suffix],
+				items[items.length - 1 - suffix].getData())) {
+			suffix++;
+		}
+		int oldCount = items.length - prefix - suffix;
+		int newCount = children.length - prefix - suffix;
+		int min = prefix + Math.min(oldCount, newCount);
+
+		for (int i = prefix; i < min; ++i) {
 
 			Item item = items[i];
 
-			// if the element is unchanged, update its label if appropriate
-			if (equals(children[i], item.getData())) {
-				if (updateLabels) {
-					updateItem(item, children[i]);
-				} else {
-					// associate the new element, even if equal to the old
-					// one,
-					// to remove stale references (see bug 31314)
-					associate(children[i], item);
-				}
-			} else {
+			// if the element is unchanged, update its label below
+			if (!equals(children[i], item.getData())) {
 				// updateItem does an associate(...), which can mess up
 				// the associations if the order of elements has changed.
 				// E.g. (a, b) -> (b, a) first replaces a->0 with b->0, then
@@ -697,36 +705,45 @@ public abstract class AbstractTableViewer extends ColumnViewer {
 				doClear(i);
 			}
 		}
-		// dispose of all items beyond the end of the current elements
-		if (min < items.length) {
-			for (int i = items.length; --i >= min;) {
+		// dispose of the items of the removed elements
+		if (oldCount > newCount) {
+			for (int i = prefix + oldCount; --i >= min;) {
 
 				disassociate(items[i]);
 			}
-			if (virtualManager != null) {
-				virtualManager.removeIndicesFromTo(min, items.length - 1);
-			}
-			doRemove(min, items.length - 1);
+			doRemove(min, prefix + oldCount - 1);
 		}
 		// Workaround for 1GDGN4Q: ITPUI:WIN2000 - TableViewer icons get
 		// scrunched
 		if (doGetItemCount() == 0) {
 			doRemoveAll();
 		}
-		// Update items which were disassociated above
+		// Update items which were disassociated above, and the labels of
+		// the unchanged elements if appropriate
 		for (int i = 0; i < min; ++i) {
-
-			Item item = items[i];
-			if (item.getData() == null) {
-				updateItem(item, children[i]);
-			}
+			updateUnchangedOrDisassociatedItem(items[i], children[i], updateLabels);
+		}
+		for (int i = 0; i < suffix; ++i) {
+			updateUnchangedOrDisassociatedItem(items[items.length - 1 - i], children[children.length - 1 - i],
+					updateLabels);
 		}
 		// add any remaining elements
-		for (int i = min; i < children.length; ++i) {
+		for (int i = min; i < prefix + newCount; ++i) {
 			createItem(children[i], i);
 		}
 	}
 
+	private void updateUnchangedOrDisassociatedItem(Item item, Object element, boolean updateLabels) {
+		if (item.getData() == null || updateLabels) {
+			updateItem(item, element);
+		} else {
+			// associate the new element, even if equal to the old
+			// one,
+			// to remove stale references (see bug 31314)
+			associate(element, item);
+		}
+	}
+
 	/**
 	 * Removes the given elements from this table viewer.
 	 *
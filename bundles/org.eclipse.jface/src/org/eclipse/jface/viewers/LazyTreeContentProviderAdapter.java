@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.viewers;
+
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * A lazy tree content provider which adapts an {@link ITreeContentProvider}
+ * for a {@link TreeViewer} on a tree with the <code>SWT.VIRTUAL</code> style
+ * bit set, honoring the filters and the comparator of the viewer.
+ * <p>
+ * Tree items are only created for the elements which become visible. The
+ * children of an element are fetched, filtered and sorted once when the tree
+ * asks for them, and kept until the element is refreshed, so that revealing
+ * one child after another does not query the wrapped content provider again.
+ * The parent of every revealed element is remembered, so that
+ * {@link #getParent(Object)} does not depend on the wrapped content provider.
+ * The elements removed from the viewer, or no longer among the children of a
+ * refreshed element, are forgotten along with their descendants.
+ * For large trees, the viewer should also use hash lookup, see
+ * {@link StructuredViewer#setUseHashlookup(boolean)}.
+ * </p>
+ * <p>
+ * Changing the filters or the comparator of the viewer refreshes it, which
+ * sorts and filters the children again.
+ * </p>
+ *
+ * @since 3.20
+ */
+public class LazyTreeContentProviderAdapter implements ILazyTreeContentProvider {
+
+	private final ITreeContentProvider contentProvider;
+
+	private TreeViewer viewer;
+
+	private Object input;
+
+	/** The filtered and sorted children, by parent element */
+	private CustomHashtable children = new CustomHashtable();
+
+	/** The parents of the revealed elements */
+	private CustomHashtable parents = new CustomHashtable();
+
+	/**
+	 * Creates a lazy content provider for the given tree content provider.
+	 *
+	 * @param contentProvider the tree content provider to adapt
+	 */
+	public LazyTreeContentProviderAdapter(ITreeContentProvider contentProvider) {
+		Assert.isNotNull(contentProvider);
+		this.contentProvider = contentProvider;
+	}
+
+	/**
+	 * Returns the adapted tree content provider.
+	 *
+	 * @return the tree content provider
+	 */
+	public ITreeContentProvider getContentProvider() {
+		return contentProvider;
+	}
+
+	@Override
+	public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+		Assert.isTrue(viewer == null || viewer instanceof TreeViewer);
+		this.viewer = (TreeViewer) viewer;
+		this.input = newInput;
+		IElementComparer comparer = viewer == null ? null : this.viewer.getComparer();
+		children = new CustomHashtable(comparer);
+		parents = new CustomHashtable(comparer);
+		contentProvider.inputChanged(viewer, oldInput, newInput);
+	}
+
+	@Override
+	public void updateElement(Object parent, int index) {
+		Object[] elements = getChildren(parent);
+		if (index >= elements.length) {
+			return;
+		}
+		Object element = elements[index];
+		parents.put(element, parent);
+		viewer.replace(parent, index, element);
+		updateHasChildren(element);
+	}
+
+	@Override
+	public void updateChildCount(Object element, int currentChildCount) {
+		if (element == input || viewer.getExpandedState(element) || children.containsKey(element)) {
+			// the children are (or were) shown, so they are fetched again
+			Object[] oldElements = (Object[]) children.get(element);
+			Object[] elements = computeChildren(element);
+			if (oldElements != null) {
+				forgetRemoved(oldElements, elements);
+			}
+			if (elements.length != currentChildCount) {
+				viewer.setChildCount(element, elements.length);
+			}
+		} else {
+			updateHasChildren(element);
+		}
+	}
+
+	/**
+	 * Tells the viewer whether the given collapsed element has children,
+	 * without fetching them if possible.
+	 */
+	private void updateHasChildren(Object element) {
+		Object[] elements = (Object[]) children.get(element);
+		boolean hasChildren;
+		if (elements != null) {
+			hasChildren = elements.length > 0;
+		} else {
+			hasChildren = contentProvider.hasChildren(element);
+			if (hasChildren && viewer.getFilters().length > 0) {
+				// only the filtered children tell whether the element has any
+				hasChildren = getChildren(element).length > 0;
+			}
+		}
+		viewer.setHasChildren(element, hasChildren);
+	}
+
+	private Object[] getChildren(Object parent) {
+		Object[] elements = (Object[]) children.get(parent);
+		return elements != null ? elements : computeChildren(parent);
+	}
+
+	private Object[] computeChildren(Object parent) {
+		Object[] rawChildren = parent == input ? contentProvider.getElements(parent)
+				: contentProvider.getChildren(parent);
+		Object[] elements = rawChildren == null ? new Object[0] : rawChildren;
+		for (ViewerFilter filter : viewer.getFilters()) {
+			elements = filter.filter(viewer, parent, elements);
+		}
+		ViewerComparator comparator = viewer.getComparator();
+		if (comparator != null) {
+			if (elements == rawChildren) {
+				// do not sort the array of the content provider
+				elements = elements.clone();
+			}
+			comparator.sort(viewer, elements);
+		}
+		if (parent != null) {
+			children.put(parent, elements);
+		}
+		return elements;
+	}
+
+	/**
+	 * Forgets the children of the given element, which is refreshed, and their
+	 * descendants. The children are fetched again when the tree asks for them.
+	 *
+	 * @param element the refreshed element
+	 */
+	void elementRefreshed(Object element) {
+		Object[] elements = (Object[]) children.remove(element);
+		if (elements != null) {
+			for (Object child : elements) {
+				forget(child);
+			}
+		}
+	}
+
+	/**
+	 * Forgets the given elements, which have been removed from the viewer, and
+	 * the children of their parents, which are fetched again.
+	 *
+	 * @param parentOrTreePath    the parent of the elements, or <code>null</code>
+	 *                            if unknown
+	 * @param elementsOrTreePaths the removed elements or tree paths
+	 */
+	void elementsRemoved(Object parentOrTreePath, Object[] elementsOrTreePaths) {
+		Object parent = parentOrTreePath == null ? null : getElement(parentOrTreePath);
+		if (parent != null) {
+			children.remove(parent);
+		}
+		for (Object elementOrTreePath : elementsOrTreePaths) {
+			Object element = getElement(elementOrTreePath);
+			if (parent == null) {
+				Object elementParent = elementOrTreePath instanceof TreePath
+						? getElement(((TreePath) elementOrTreePath).getParentPath())
+						: parents.get(element);
+				if (elementParent != null) {
+					children.remove(elementParent);
+				}
+			}
+			forget(element);
+		}
+	}
+
+	private Object getElement(Object elementOrTreePath) {
+		if (elementOrTreePath instanceof TreePath) {
+			TreePath path = (TreePath) elementOrTreePath;
+			return path.getSegmentCount() == 0 ? input : path.getLastSegment();
+		}
+		return elementOrTreePath;
+	}
+
+	/**
+	 * Forgets the old children of a refreshed element which are no longer among
+	 * its children.
+	 */
+	private void forgetRemoved(Object[] oldElements, Object[] elements) {
+		CustomHashtable retained = new CustomHashtable(elements.length, viewer.getComparer());
+		for (Object element : elements) {
+			retained.put(element, element);
+		}
+		for (Object element : oldElements) {
+			if (!retained.containsKey(element)) {
+				forget(element);
+			}
+		}
+	}
+
+	/**
+	 * Forgets the parent of the given element, and its descendants.
+	 */
+	private void forget(Object element) {
+		parents.remove(element);
+		Object[] elements = (Object[]) children.remove(element);
+		if (elements != null) {
+			for (Object child : elements) {
+				forget(child);
+			}
+		}
+	}
+
+	@Override
+	public Object getParent(Object element) {
+		Object parent = parents.get(element);
+		return parent != null ? parent : contentProvider.getParent(element);
+	}
+
+	@Override
+	public void dispose() {
+		children = new CustomHashtable();
+		parents = new CustomHashtable();
+		contentProvider.dispose();
+	}
+}
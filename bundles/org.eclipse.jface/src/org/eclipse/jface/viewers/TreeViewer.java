@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2017 IBM Corporation and others.
+ * Copyright (c) 2004, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -651,6 +651,10 @@ public class TreeViewer extends AbstractTreeViewer {
 	protected void internalRefreshStruct(Widget widget, Object element,
 			boolean updateLabels) {
 		if (contentProviderIsLazy) {
+			LazyTreeContentProviderAdapter adapter = getLazyTreeContentProviderAdapter();
+			if (adapter != null && element != null) {
+				adapter.elementRefreshed(element);
+			}
 			// clear all starting with the given widget
 			if (widget instanceof Tree) {
 				((Tree) widget).clearAll(true);
@@ -845,6 +849,8 @@ public class TreeViewer extends AbstractTreeViewer {
 					}
 				}
 			}
+			lazyElementsRemoved(parentOrTreePath,
+					removedPath == null ? new Object[0] : new Object[] { removedPath });
 			if (removedPath != null) {
 				boolean removed = false;
 				for (Iterator<TreePath> it = oldSelection.iterator(); it.hasNext();) {
@@ -866,6 +872,34 @@ public class TreeViewer extends AbstractTreeViewer {
 		});
 	}
 
+	@Override
+	protected void internalRemove(Object[] elementsOrPaths) {
+		super.internalRemove(elementsOrPaths);
+		lazyElementsRemoved(null, elementsOrPaths);
+	}
+
+	@Override
+	protected void internalRemove(Object parent, Object[] elements) {
+		super.internalRemove(parent, elements);
+		lazyElementsRemoved(parent, elements);
+	}
+
+	/**
+	 * Lets a {@link LazyTreeContentProviderAdapter} forget the removed elements.
+	 */
+	private void lazyElementsRemoved(Object parentOrTreePath, Object[] elementsOrTreePaths) {
+		LazyTreeContentProviderAdapter adapter = getLazyTreeContentProviderAdapter();
+		if (adapter != null) {
+			adapter.elementsRemoved(parentOrTreePath, elementsOrTreePaths);
+		}
+	}
+
+	private LazyTreeContentProviderAdapter getLazyTreeContentProviderAdapter() {
+		IContentProvider provider = getContentProvider();
+		return provider instanceof LazyTreeContentProviderAdapter ? (LazyTreeContentProviderAdapter) provider
+				: null;
+	}
+
 	@Override
 	protected void handleTreeExpand(TreeEvent event) {
 		// Fix for Bug 271744 because windows expanding doesn't fire a focus lost
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,7 +13,9 @@
  *******************************************************************************/
 package org.eclipse.jface.viewers.deferred;
 
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.stream.IntStream;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -63,11 +65,28 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 	 */
 	private static final String SORTING = JFaceResources.getString("Sorting"); //$NON-NLS-1$
 
+	/**
+	 * Minimum number of elements for which the complete sort is done in
+	 * parallel, if enabled
+	 */
+	private static final int PARALLEL_SORT_THRESHOLD = 8192;
+
+	/**
+	 * Number of elements sorted or merged by each task of the parallel sort.
+	 * Cancellation is checked between the tasks.
+	 */
+	private static final int PARALLEL_RUN_SIZE = 2048;
+
 	/**
 	 * Table limit. -1 if unlimited
 	 */
 	private int limit = -1;
 
+	/**
+	 * True iff the complete sort may use several threads
+	 */
+	private volatile boolean parallelSorting = false;
+
 	/**
 	 * Model that is currently providing input to this content provider.
 	 */
@@ -196,6 +215,8 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 		}
 
 		boolean dirty = false;
+		// Result of the last complete parallel sort, kept until the collection changes
+		Object[] sortedItems = null;
 		int prevSize = knownObjects.length;
 		updator.setTotalItems(prevSize);
 
@@ -205,6 +226,7 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 			// the new comparator
 			if (order != sortOrder) {
 				dirty = true;
+				sortedItems = null;
 				order = sortOrder;
 				// Copy all elements from the old collection to the new one
 				LazySortedCollection newCollection = new LazySortedCollection(order);
@@ -227,6 +249,7 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 			// If the filter has changed
 			if (f != filter) {
 				dirty = true;
+				sortedItems = null;
 				f = filter;
 
 				Object[] items = collection.getItems(false);
@@ -245,6 +268,7 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 			// If there are pending changes, process one of them
 			if (!changeQueue.isEmpty()) {
 				dirty = true;
+				sortedItems = null;
 				ChangeQueue.Change next = changeQueue.dequeue();
 
 				switch(next.getType()) {
@@ -331,9 +355,20 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 					updator.replace(object, sortStart + i);
 				}
 
-				objectsOfInterest = new Object[collection.size()];
+				if (parallelSorting && collection.size() >= PARALLEL_SORT_THRESHOLD) {
+					// The visible range has been sent, so the rest of the elements
+					// are sorted on all cores. A pass that only follows the visible
+					// range reuses the previous result.
+					if (sortedItems == null || sortedItems.length != collection.size()) {
+						sortedItems = null;
+						sortedItems = parallelSort(collection.getItems(false), order, sortMon);
+					}
+					objectsOfInterest = sortedItems;
+				} else {
+					objectsOfInterest = new Object[collection.size()];
 
-				collection.getFirst(objectsOfInterest, true, sortMon);
+					collection.getFirst(objectsOfInterest, true, sortMon);
+				}
 
 				// Send the new elements to the table
 				for (int i = 0; i < totalElements; i++) {
@@ -351,6 +386,72 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 		mon.done();
 	}
 
+	/**
+	 * Sorts the given elements with a merge sort whose runs and merges are
+	 * spread over several threads. Cancellation is checked between the runs,
+	 * between the merge passes and while merging.
+	 *
+	 * @param items the elements to sort, used as a buffer by the sort
+	 * @param order the sort order, which is used by several threads concurrently
+	 * @param mon the progress reporter checked for cancellation
+	 * @return the sorted elements
+	 * @throws InterruptedException if the sort has been cancelled
+	 */
+	private static Object[] parallelSort(Object[] items, Comparator order, FastProgressReporter mon)
+			throws InterruptedException {
+		int length = items.length;
+		int runs = (length + PARALLEL_RUN_SIZE - 1) / PARALLEL_RUN_SIZE;
+		IntStream.range(0, runs).parallel().forEach(run -> {
+			if (!mon.isCanceled()) {
+				int start = run * PARALLEL_RUN_SIZE;
+				Arrays.sort(items, start, Math.min(length, start + PARALLEL_RUN_SIZE), order);
+			}
+		});
+
+		Object[] source = items;
+		Object[] target = new Object[length];
+		for (int width = PARALLEL_RUN_SIZE; width < length; width *= 2) {
+			if (mon.isCanceled()) {
+				throw new InterruptedException();
+			}
+			Object[] from = source;
+			Object[] to = target;
+			int runWidth = width;
+			int merges = (length + 2 * width - 1) / (2 * width);
+			IntStream.range(0, merges).parallel().forEach(merge -> {
+				int start = merge * 2 * runWidth;
+				merge(from, to, start, Math.min(length, start + runWidth), Math.min(length, start + 2 * runWidth),
+						order, mon);
+			});
+			source = to;
+			target = from;
+		}
+		if (mon.isCanceled()) {
+			throw new InterruptedException();
+		}
+		return source;
+	}
+
+	/**
+	 * Merges the sorted ranges [start, middle) and [middle, end) of one array
+	 * into the range [start, end) of another. Returns early if cancelled.
+	 */
+	private static void merge(Object[] from, Object[] to, int start, int middle, int end, Comparator order,
+			FastProgressReporter mon) {
+		int left = start;
+		int right = middle;
+		for (int i = start; i < end; i++) {
+			if ((i - start) % PARALLEL_RUN_SIZE == 0 && mon.isCanceled()) {
+				return;
+			}
+			if (right >= end || (left < middle && order.compare(from[left], from[right]) <= 0)) {
+				to[i] = from[left++];
+			} else {
+				to[i] = from[right++];
+			}
+		}
+	}
+
 	/**
 	 * @param collection
 	 * @param toAdd
@@ -404,6 +505,17 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 		refresh();
 	}
 
+	/**
+	 * Sets whether the complete sort of a large table may be done on several
+	 * threads once the visible range has been sorted. The comparator must then
+	 * support being used by several threads concurrently.
+	 *
+	 * @param parallelSorting true to sort on several threads
+	 */
+	public void setParallelSorting(boolean parallelSorting) {
+		this.parallelSorting = parallelSorting;
+	}
+
 	/**
 	 * Returns the maximum table size or -1 if unbounded
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -48,6 +48,7 @@ public class DeferredContentProvider implements ILazyContentProvider {
 	private BackgroundContentProvider provider;
 	private Comparator sortOrder;
 	private IFilter filter = AcceptAllFilter.getInstance();
+	private boolean parallelSorting = false;
 	private AbstractVirtualTable table;
 
 	private static final class TableViewerAdapter extends AbstractVirtualTable {
@@ -135,6 +136,7 @@ public class DeferredContentProvider implements ILazyContentProvider {
 		setProvider(newProvider);
 
 		newProvider.setLimit(limit);
+		newProvider.setParallelSorting(parallelSorting);
 		newProvider.setFilter(filter);
 	}
 
@@ -190,6 +192,35 @@ public class DeferredContentProvider implements ILazyContentProvider {
 		return limit;
 	}
 
+	/**
+	 * Sets whether the sort of large tables may use several threads. The
+	 * visible rows are always sorted first. Once they have been sent to the
+	 * table, the remaining rows are sorted in parallel on the common fork/join
+	 * pool instead of in the background thread alone. The parallel sort is
+	 * cancelled like the background sort when the visible range changes, and
+	 * its result is reused until the content changes. The sort order must
+	 * support being used by several threads concurrently.
+	 *
+	 * @param parallelSorting true to sort large tables on several threads
+	 * @since 3.20
+	 */
+	public void setParallelSorting(boolean parallelSorting) {
+		this.parallelSorting = parallelSorting;
+		if (provider != null) {
+			provider.setParallelSorting(parallelSorting);
+		}
+	}
+
+	/**
+	 * Returns whether the sort of large tables may use several threads.
+	 *
+	 * @return true if large tables are sorted on several threads
+	 * @since 3.20
+	 */
+	public boolean isParallelSorting() {
+		return parallelSorting;
+	}
+
 	@Override
 	public void updateElement(int element) {
 		if (provider != null) {
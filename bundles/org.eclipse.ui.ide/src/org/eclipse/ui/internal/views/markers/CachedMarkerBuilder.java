@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -52,7 +52,6 @@ public class CachedMarkerBuilder {
 	private Markers markers;
 	private Markers markersClone;
 
-	final Object MARKER_INCREMENTAL_UPDATE_FAMILY = new Object();
 	final Object CACHE_UPDATE_FAMILY = new Object();
 	final Object MARKERSVIEW_UPDATE_JOB_FAMILY;
 
@@ -131,10 +130,8 @@ public class CachedMarkerBuilder {
 			PlatformUI.getWorkbench().getWorkingSetManager().removePropertyChangeListener(getWorkingSetListener());
 		}
 
-		if (isIncremental()) {
-			if (incrementJob != null) {
-				incrementJob.clearEntries();
-			}
+		synchronized (pendingUpdateLock) {
+			pendingUpdate = new MarkerUpdate();
 		}
 	}
 
@@ -452,10 +449,6 @@ public class CachedMarkerBuilder {
 				// ensure cancellation before calling the method
 				// updateJob.cancel();
 			} else {
-				/*
-				 * updateJob = isIncremental() ? new IncrementUpdateJob(this):
-				 * new MarkerUpdateJob(this);
-				 */
 				updateJob = new MarkerUpdateJob(this);
 				updateJob.setPriority(Job.LONG);
 				updateJob.setSystem(true);
@@ -593,25 +586,34 @@ public class CachedMarkerBuilder {
 		if(markers.isInChange()){
 			return null;
 		}
-		markersClone =markers.getClone();
+		Markers clone = markers.getCloneForUpdate();
+		if (clone == null) {
+			return null;
+		}
+		markersClone = clone;
 		return markersClone;
 	}
 
 ///////	<Incremental update code>///////
-		private IncrementUpdateJob incrementJob;
 	/**
-	 * Checks whether the builder should perform incrementally Note : Incremental
-	 * updating method is NOT used and tested yet but left out for further
-	 * investigation(*).
+	 * The number of marker changes which are always applied incrementally.
+	 * Above that, all markers are gathered again if the changes outnumber half
+	 * of the markers shown.
+	 */
+	private static final int INCREMENTAL_LIMIT = 1000;
+
+	private final Object pendingUpdateLock = new Object();
+	private MarkerUpdate pendingUpdate = new MarkerUpdate();
+
+	/**
+	 * Checks whether the builder should perform incrementally. The marker
+	 * changes are queued and applied to the markers gathered before, see
+	 * {@link MarkerUpdateJob}.
 	 *
 	 * @return Returns true if we should collect markers incrementally.
 	 */
 	boolean isIncremental() {
-		/*
-		 * We do not update incrementally. We have
-		 * code for further investigation(*) for this anyway.
-		 */
-		return false;
+		return true;
 	}
 
 	/**
@@ -646,13 +648,58 @@ public class CachedMarkerBuilder {
 	 * @param update
 	 */
 	void incrementalUpdate(MarkerUpdate update) {
-		synchronized (getUpdateScheduler().getSchedulingLock()) {
-			if (incrementJob == null) {
-				scheduleUpdateJob(MarkerUpdateScheduler.SHORT_DELAY, true);
+		synchronized (pendingUpdateLock) {
+			pendingUpdate.addAll(update);
+			if (!isIncremental(pendingUpdate)) {
+				// do not keep collecting changes which will never be applied,
+				// e.g. while no update runs
+				pendingUpdate.overflow();
 			}
 		}
-		if (incrementJob != null) {
-			incrementJob.addUpdate(update);
+	}
+
+	/**
+	 * Check whether the changes are cheaper to apply than gathering all
+	 * markers again.
+	 *
+	 * @param update
+	 *            the queued marker changes
+	 * @return <code>true</code> if the changes should be applied incrementally
+	 */
+	boolean isIncremental(MarkerUpdate update) {
+		if (update.isOverflow()) {
+			return false;
+		}
+		int shown = markers.getMarkerEntryArray().length;
+		return update.size() <= Math.max(INCREMENTAL_LIMIT, shown / 2);
+	}
+
+	/**
+	 * Take the marker changes queued since the last call.
+	 *
+	 * @return the queued changes
+	 */
+	MarkerUpdate takePendingUpdate() {
+		synchronized (pendingUpdateLock) {
+			MarkerUpdate update = pendingUpdate;
+			pendingUpdate = new MarkerUpdate();
+			return update;
+		}
+	}
+
+	/**
+	 * Queue changes taken before again, as they could not be applied.
+	 *
+	 * @param update
+	 *            the changes, which precede the ones queued meanwhile
+	 */
+	void requeueUpdate(MarkerUpdate update) {
+		synchronized (pendingUpdateLock) {
+			update.addAll(pendingUpdate);
+			if (!isIncremental(update)) {
+				update.overflow();
+			}
+			pendingUpdate = update;
 		}
 	}
 ///////	</Incremental update code>///////
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2018 IBM Corporation and others.
+ * Copyright (c) 2007, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,7 +18,7 @@ import java.util.Objects;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.osgi.util.NLS;
-import org.eclipse.ui.views.markers.MarkerItem;
+import org.eclipse.ui.views.markers.internal.MarkerGroupingEntry;
 import org.eclipse.ui.views.markers.internal.MarkerMessages;
 
 class MarkerCategory extends MarkerSupportItem {
@@ -35,21 +35,32 @@ class MarkerCategory extends MarkerSupportItem {
 
 	private final Markers markers;
 
+	private final MarkerEntry[] entries;
+
+	private final MarkerGroupingEntry groupingEntry;
+
 	/**
 	 * Create a new instance of the receiver that has the markers between
 	 * startIndex and endIndex showing.
 	 *
 	 * @param markers
+	 * @param entries
+	 *            the array holding the children. It is kept, so that the
+	 *            receiver stays consistent when the markers are updated.
 	 * @param startIndex
 	 * @param endIndex
-	 *            the builder used to generate the children lazily.
+	 * @param categoryName
+	 * @param groupingEntry
+	 *            the grouping entry the children belong to
 	 */
-	MarkerCategory(Markers markers, int startIndex,
-			int endIndex, String categoryName) {
+	MarkerCategory(Markers markers, MarkerEntry[] entries, int startIndex,
+			int endIndex, String categoryName, MarkerGroupingEntry groupingEntry) {
 		this.markers = markers;
+		this.entries = entries;
 		start = startIndex;
 		end = endIndex;
 		name = categoryName;
+		this.groupingEntry = groupingEntry;
 	}
 
 	@Override
@@ -58,18 +69,9 @@ class MarkerCategory extends MarkerSupportItem {
 		if (myChildren != null) {
 			return myChildren;
 		}
-		MarkerItem[] allMarkers = markers.getMarkerEntryArray();
-		int markersLength = allMarkers.length;
-		if (start >= markersLength || end >= markersLength) {
-			// NB: the array can be changed after our creation via
-			// markers::updateWithNewMarkers so that the expected array size doesn't match
-			// anymore to our start/end values. Just return nothing in this case and let the
-			// "children" be null to avoid persistence of inconsistent data
-			return new MarkerEntry[0];
-		}
 		int totalSize = getChildrenCount();
 		myChildren = new MarkerEntry[totalSize];
-		System.arraycopy(allMarkers, start, myChildren, 0, totalSize);
+		System.arraycopy(entries, start, myChildren, 0, totalSize);
 		for (MarkerEntry markerEntry : myChildren) {
 			markerEntry.setCategory(this);
 		}
@@ -135,6 +137,13 @@ class MarkerCategory extends MarkerSupportItem {
 		return severity;
 	}
 
+	/**
+	 * @return the grouping entry the children belong to
+	 */
+	MarkerGroupingEntry getGroupingEntry() {
+		return groupingEntry;
+	}
+
 	/**
 	 * Return the name of the receiver.
 	 *
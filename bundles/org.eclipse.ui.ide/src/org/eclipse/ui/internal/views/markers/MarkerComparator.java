@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -126,6 +126,30 @@ class MarkerComparator implements Comparator<MarkerItem> {
 		return (o1, o2) -> compareFields(o1, o2);
 	}
 
+	/**
+	 * Return whether the fields compared by the receiver are all built-in fields
+	 * of the markers views, which may be compared by several threads at the same
+	 * time. Fields contributed by other plug-ins need not be thread safe.
+	 *
+	 * @param includeCategory whether the category field is compared as well
+	 * @return <code>true</code> if all compared fields are built-in
+	 */
+	boolean hasBuiltInFields(boolean includeCategory) {
+		if (includeCategory && category != null && !isBuiltIn(category)) {
+			return false;
+		}
+		for (MarkerField field : fields) {
+			if (!isBuiltIn(field)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isBuiltIn(MarkerField field) {
+		return field.getClass().getPackage() == MarkerComparator.class.getPackage();
+	}
+
 	/**
 	 * Switch the priority of the field from ascending to descending or vice
 	 * versa.
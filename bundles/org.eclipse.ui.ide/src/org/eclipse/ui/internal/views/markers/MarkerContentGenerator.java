@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -26,7 +26,9 @@ import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
+import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -73,6 +75,16 @@ public class MarkerContentGenerator {
 	private static final String TAG_MARKER_LIMIT = "markerLimit"; //$NON-NLS-1$
 	private static final String TAG_MARKER_LIMIT_ENABLED = "markerLimitEnabled"; //$NON-NLS-1$
 
+	/*
+	 * The number of parts per worker the resources are split into when
+	 * gathering concurrently, so that subtrees of different sizes balance out.
+	 */
+	private static final int GATHER_PARTS_PER_WORKER = 4;
+	/*
+	 * The number of levels of containers which are split into their members.
+	 */
+	private static final int MAX_SPLIT_DEPTH = 2;
+
 	/*Use this to indicate filter change rather than a null*/
 	private final Collection<MarkerFieldFilterGroup> FILTERS_CHANGED = Collections.emptySet();
 
@@ -1076,6 +1088,11 @@ public class MarkerContentGenerator {
 	 * A helper to the
 	 * {@link #gatherMarkers(String[], boolean, Collection, IProgressMonitor)}
 	 *
+	 * The resources are split into subtrees whose markers are found
+	 * concurrently when more than one processor is available. The markers are
+	 * filtered in the calling thread, as filters are not required to be thread
+	 * safe.
+	 *
 	 * @param resources
 	 * @param typeId
 	 * @param includeSubTypes
@@ -1090,40 +1107,135 @@ public class MarkerContentGenerator {
 		IResource[] selected = getSelectedResources();
 		Collection<MarkerFieldFilterGroup> enabled = getEnabledFilters();
 		boolean filtersAreANDed = andFilters();
-		Iterator<IResource> iterator = resources.iterator();
-		while (iterator.hasNext()) {
-			IMarker[] markers = null;
-			try {
-				IResource resource = iterator.next();
-				if (!resource.isAccessible()) {
-					continue;
+		int workerCount = MarkerSupportInternalUtilities.WORKER_COUNT;
+		if (workerCount > 1) {
+			List<GatherPart> parts = splitResources(resources, workerCount * GATHER_PARTS_PER_WORKER);
+			if (parts.size() > 1) {
+				List<Callable<IMarker[]>> tasks = new ArrayList<>(parts.size());
+				for (GatherPart part : parts) {
+					tasks.add(() -> findMarkers(part.resource, part.depth, typeId, includeSubTypes, monitor));
 				}
-				markers = resource.findMarkers(typeId, includeSubTypes, IResource.DEPTH_INFINITE);
-			} catch (CoreException e) {
-				MarkerSupportInternalUtilities.logViewError(e);
-			}
-			if (markers == null) {
-				continue;
+				// the results are in the order of the parts
+				List<IMarker[]> found = MarkerSupportInternalUtilities.invokeAll(tasks);
+				if (found == null || monitor.isCanceled()) {
+					return false;
+				}
+				for (IMarker[] markers : found) {
+					if (!selectMarkers(markers, selected, enabled, filtersAreANDed, result, monitor)) {
+						return false;
+					}
+				}
+				return true;
 			}
+		}
+		for (IResource resource : resources) {
+			IMarker[] markers = findMarkers(resource, IResource.DEPTH_INFINITE, typeId, includeSubTypes, monitor);
 			if (monitor.isCanceled()) {
 				return false;
 			}
-			MarkerEntry entry = null;
-			int lenght = markers.length;
-			for (int i = 0; i < lenght; i++) {
-				entry = new MarkerEntry(markers[i]);
-				if (select(entry, selected, enabled, filtersAreANDed)) {
-					result.add(entry);
+			if (!selectMarkers(markers, selected, enabled, filtersAreANDed, result, monitor)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Find the markers of the resource.
+	 *
+	 * @return the markers, empty if the resource is not accessible or if
+	 *         canceled
+	 */
+	private static IMarker[] findMarkers(IResource resource, int depth, String typeId, boolean includeSubTypes,
+			IProgressMonitor monitor) {
+		if (monitor.isCanceled() || !resource.isAccessible()) {
+			return new IMarker[0];
+		}
+		try {
+			return resource.findMarkers(typeId, includeSubTypes, depth);
+		} catch (CoreException e) {
+			MarkerSupportInternalUtilities.logViewError(e);
+			return new IMarker[0];
+		}
+	}
+
+	/**
+	 * Add the entries of the markers which match the filters to the result.
+	 *
+	 * @return <code>false</code> if canceled
+	 */
+	private static boolean selectMarkers(IMarker[] markers, IResource[] selected,
+			Collection<MarkerFieldFilterGroup> enabled, boolean filtersAreANDed, Collection<MarkerEntry> result,
+			IProgressMonitor monitor) {
+		MarkerEntry entry = null;
+		int lenght = markers.length;
+		for (int i = 0; i < lenght; i++) {
+			entry = new MarkerEntry(markers[i]);
+			if (select(entry, selected, enabled, filtersAreANDed)) {
+				result.add(entry);
+			}
+			entry.clearCache();
+			if (i % 500 == 0) {
+				if (monitor.isCanceled()) {
+					return false;
 				}
-				entry.clearCache();
-				if (i % 500 == 0) {
-					if (monitor.isCanceled()) {
-						return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Split the resources into parts to gather concurrently. Containers are
+	 * replaced by their members and the container itself, until there are
+	 * enough parts.
+	 *
+	 * @param resources
+	 *            the resources whose markers are gathered with an infinite
+	 *            depth
+	 * @param count
+	 *            the number of parts wanted
+	 * @return the parts
+	 */
+	private static List<GatherPart> splitResources(Collection<IResource> resources, int count) {
+		List<GatherPart> parts = new ArrayList<>(resources.size());
+		for (IResource resource : resources) {
+			parts.add(new GatherPart(resource, IResource.DEPTH_INFINITE));
+		}
+		for (int level = 0; level < MAX_SPLIT_DEPTH && parts.size() < count; level++) {
+			List<GatherPart> split = new ArrayList<>(count);
+			for (GatherPart part : parts) {
+				if (part.depth != IResource.DEPTH_INFINITE || !(part.resource instanceof IContainer)
+						|| !part.resource.isAccessible()) {
+					split.add(part);
+					continue;
+				}
+				try {
+					IResource[] members = ((IContainer) part.resource)
+							.members(IContainer.INCLUDE_HIDDEN | IContainer.INCLUDE_TEAM_PRIVATE_MEMBERS);
+					split.add(new GatherPart(part.resource, IResource.DEPTH_ZERO));
+					for (IResource member : members) {
+						split.add(new GatherPart(member, IResource.DEPTH_INFINITE));
 					}
+				} catch (CoreException e) {
+					split.add(part);
 				}
 			}
+			parts = split;
+		}
+		return parts;
+	}
+
+	/**
+	 * A resource and the depth to which its markers are gathered.
+	 */
+	private static final class GatherPart {
+		final IResource resource;
+		final int depth;
+
+		GatherPart(IResource resource, int depth) {
+			this.resource = resource;
+			this.depth = depth;
 		}
-		return true;
 	}
 
 	void dispose() {
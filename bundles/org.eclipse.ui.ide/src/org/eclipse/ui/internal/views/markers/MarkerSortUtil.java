@@ -28,8 +28,12 @@
 
 package org.eclipse.ui.internal.views.markers;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -64,6 +68,11 @@ public class MarkerSortUtil {
 	 */
 	private static float MERGE_OR_HEAP_SWITCH=1.5f;
 
+	/*
+	 * The minimum number of elements each run sorted concurrently has.
+	 */
+	private static final int PARALLEL_RUN_SIZE = 20000;
+
 	/**
 	 * Sorts [first,middle] in the array of [first,last] using a variant of
 	 * modified heapsort, such that {@literal
@@ -424,4 +433,98 @@ public class MarkerSortUtil {
 		sortStartingKElement(entries, comparator, from, entries.length - 1, k,monitor);
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Sorts <code>[from,first+k-1]</code> in the array of <code>[from,to]</code>
+	 * like
+	 * {@link #sortStartingKElement(MarkerEntry[], Comparator, int, int, int, IProgressMonitor)}
+	 * does. Large ranges are split into runs, whose first k elements are
+	 * sorted concurrently and merged afterwards.
+	 *
+	 * Note: the comparator is used by several threads at the same time, on
+	 * distinct elements, so it must be thread safe.
+	 *
+	 * @param entries
+	 * @param comparator
+	 * @param from
+	 * @param to
+	 * @param k
+	 * @param monitor
+	 */
+	public static void parallelSortStartingKElement(MarkerEntry[] entries,
+			Comparator<MarkerItem> comparator, int from, int to, int k, IProgressMonitor monitor) {
+		int runs = Math.min(MarkerSupportInternalUtilities.WORKER_COUNT, (to - from + 1) / PARALLEL_RUN_SIZE);
+		parallelSortStartingKElement(entries, comparator, from, to, k, runs, monitor);
+	}
+
+	/**
+	 * Sorts <code>[from,first+k-1]</code> in the array of <code>[from,to]</code>
+	 * by splitting it into the given number of runs, see
+	 * {@link #parallelSortStartingKElement(MarkerEntry[], Comparator, int, int, int, IProgressMonitor)}.
+	 *
+	 * @param entries
+	 * @param comparator
+	 * @param from
+	 * @param to
+	 * @param k
+	 * @param runs
+	 *            the number of runs sorted concurrently, the range is sorted
+	 *            sequentially if less than two
+	 * @param monitor
+	 */
+	public static void parallelSortStartingKElement(MarkerEntry[] entries, Comparator<MarkerItem> comparator,
+			int from, int to, int k, int runs, IProgressMonitor monitor) {
+		int n = to - from + 1;
+		int last = from + k - 1;
+		if (runs < 2 || n < runs || from < 0 || last < from || last > to || to > entries.length - 1) {
+			sortStartingKElement(entries, comparator, from, to, k, monitor);
+			return;
+		}
+		int[] starts = new int[runs + 1];
+		for (int run = 0; run <= runs; run++) {
+			starts[run] = from + (int) ((long) n * run / runs);
+		}
+		List<Callable<Object>> tasks = new ArrayList<>(runs);
+		for (int run = 0; run < runs; run++) {
+			int runFrom = starts[run];
+			int runTo = starts[run + 1] - 1;
+			tasks.add(() -> {
+				sortStartingKElement(entries, comparator, runFrom, runTo, Math.min(k, runTo - runFrom + 1), monitor);
+				return null;
+			});
+		}
+		if (MarkerSupportInternalUtilities.invokeAll(tasks) == null || monitor.isCanceled()) {
+			return;
+		}
+
+		// merge the sorted heads of the runs
+		int[] next = new int[runs];
+		int[] headEnds = new int[runs];
+		PriorityQueue<Integer> heads = new PriorityQueue<>(runs,
+				(run1, run2) -> comparator.compare(entries[next[run1]], entries[next[run2]]));
+		for (int run = 0; run < runs; run++) {
+			next[run] = starts[run];
+			headEnds[run] = Math.min(starts[run] + k, starts[run + 1]);
+			heads.add(Integer.valueOf(run));
+		}
+		MarkerEntry[] result = new MarkerEntry[n];
+		int count = 0;
+		while (count < k) {
+			int run = heads.poll().intValue();
+			result[count++] = entries[next[run]++];
+			if (next[run] < headEnds[run]) {
+				heads.add(Integer.valueOf(run));
+			}
+		}
+		// the remaining elements follow in no particular order
+		for (int run = 0; run < runs; run++) {
+			int length = starts[run + 1] - next[run];
+			System.arraycopy(entries, next[run], result, count, length);
+			count += length;
+		}
+		System.arraycopy(result, 0, entries, from, n);
+		for (int i = from; i <= last; i++) {
+			entries[i].clearCache();
+		}
+	}
+
+}
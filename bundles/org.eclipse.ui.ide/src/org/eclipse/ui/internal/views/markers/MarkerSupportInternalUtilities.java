@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2019 IBM Corporation and others.
+ * Copyright (c) 2007, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,6 +18,15 @@ package org.eclipse.ui.internal.views.markers;
 import java.net.URL;
 import java.text.CollationKey;
 import java.text.Collator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
@@ -139,6 +148,65 @@ public class MarkerSupportInternalUtilities {
 	 */
 	public static final Object VALUE_FALSE = "false"; //$NON-NLS-1$
 
+	/**
+	 * The number of threads finding and sorting markers concurrently.
+	 */
+	static final int WORKER_COUNT = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+	private static ExecutorService workers;
+
+	/**
+	 * Return the executor finding and sorting markers concurrently. It is not
+	 * the common fork-join pool, as finding markers may wait for the workspace
+	 * and the comparators are contributed by other plug-ins.
+	 *
+	 * @return the executor
+	 */
+	private static synchronized ExecutorService getWorkers() {
+		if (workers == null) {
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(WORKER_COUNT, WORKER_COUNT, 5, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), runnable -> {
+						Thread thread = new Thread(runnable, "Markers View Worker"); //$NON-NLS-1$
+						thread.setDaemon(true);
+						return thread;
+					});
+			executor.allowCoreThreadTimeOut(true);
+			workers = executor;
+		}
+		return workers;
+	}
+
+	/**
+	 * Run the tasks concurrently on the workers and wait for them to complete.
+	 *
+	 * @param tasks
+	 *            the tasks, which must not wait for each other
+	 * @return the results in the order of the tasks, or <code>null</code> if
+	 *         the calling thread was interrupted
+	 */
+	static <T> List<T> invokeAll(List<Callable<T>> tasks) {
+		try {
+			List<Future<T>> futures = getWorkers().invokeAll(tasks);
+			List<T> results = new ArrayList<>(futures.size());
+			for (Future<T> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
 	/**
 	 * Create the image at the supplied path.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 IBM Corporation and others.
+ * Copyright (c) 2015, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -31,13 +31,18 @@ import org.osgi.framework.Bundle;
  * Once the processing is complete it schedules an UI
  * update.
  *
+ * The markers are gathered all over again when a clean is requested, else
+ * the marker changes queued in the builder are applied to the markers
+ * gathered before.
+ *
  * @since 3.6
  *
  */
 class MarkerUpdateJob extends Job {
 
 	CachedMarkerBuilder builder;
-	private boolean clean;
+	// a clean is requested, initially as nothing has been gathered yet
+	private boolean clean = true;
 	private long lastUpdateTime = -1;
 
 	/**
@@ -69,18 +74,35 @@ class MarkerUpdateJob extends Job {
 		// builder.getUpdateScheduler().indicateStatus(
 		// MarkerMessages.MarkerView_searching_for_markers, false);
 
-		Collection<MarkerEntry> markerEntries = new LinkedList<>();
-		//this is not incremental clean every time
-		clean = !clean(markerEntries, monitor);
-		if (monitor.isCanceled()) {
-			return;
-		}
-		// builder.getUpdateScheduler().indicateStatus(
-		// MarkerMessages.MarkerView_processUpdates, false);
-
-		monitor.setTaskName(MarkerMessages.MarkerView_processUpdates);
-		if (!processMarkerEntries(markerEntries, monitor)) {
-			return;
+		// the changes queued until now are either contained in the markers
+		// gathered again or applied incrementally
+		MarkerUpdate update = builder.takePendingUpdate();
+		if (clean || !builder.isIncremental(update)) {
+			Collection<MarkerEntry> markerEntries = new LinkedList<>();
+			if (!clean(markerEntries, monitor) || monitor.isCanceled()) {
+				clean = true;
+				return;
+			}
+			// builder.getUpdateScheduler().indicateStatus(
+			// MarkerMessages.MarkerView_processUpdates, false);
+
+			monitor.setTaskName(MarkerMessages.MarkerView_processUpdates);
+			if (!processMarkerEntries(markerEntries, monitor)) {
+				clean = true;
+				return;
+			}
+			clean = false;
+		} else if (!update.isEmpty()) {
+			monitor.setTaskName(MarkerMessages.MarkerView_processUpdates);
+			if (!builder.getMarkers().applyUpdate(update, monitor)) {
+				if (monitor.isCanceled()) {
+					// keep the changes for the next update
+					builder.requeueUpdate(update);
+				} else {
+					clean = true;
+				}
+				return;
+			}
 		}
 		if (monitor.isCanceled()) {
 			return;
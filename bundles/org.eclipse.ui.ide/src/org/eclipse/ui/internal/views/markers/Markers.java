@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 IBM Corporation and others.
+ * Copyright (c) 2009, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,11 +21,14 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.CoreException;
@@ -62,6 +65,12 @@ class Markers {
 	private Map<IMarker, MarkerEntry> markerToEntryMap;
 	private Integer[] markerCounts;
 
+	// the names of the categories changed since the last clone for the UI was
+	// taken, or null if all elements have changed
+	private final AtomicReference<Set<String>> pendingChanges = new AtomicReference<>();
+	// the changes a clone for the UI was taken with
+	private Set<String> changedCategories;
+
 	Markers(CachedMarkerBuilder builder) {
 		this.builder = builder;
 	}
@@ -80,6 +89,7 @@ class Markers {
 		boolean initialVal = inChange;
 		try {
 			inChange = true;
+			markAllChanged();
 			if (markerToEntryMap != null) {
 				markerToEntryMap.clear();
 				markerToEntryMap = null;
@@ -154,8 +164,10 @@ class Markers {
 		MarkerCategory lastCategory = null;
 		try {
 			inChange = true;
+			markAllChanged();
 			if (builder.isShowingHierarchy()) {
 				Comparator<MarkerItem> comparator = markerComparator.getFieldsComparator();
+				boolean parallel = markerComparator.hasBuiltInFields(false);
 				for (MarkerCategory category : categories) {
 					if (monitor.isCanceled()) {
 						return false;
@@ -165,18 +177,29 @@ class Markers {
 					category.resetChildren(); // reset cached children
 					int avaliable = category.end - category.start + 1;
 					int effLimit = getShowingLimit(avaliable);
-					MarkerSortUtil.sortStartingKElement(markerEntryArray,
-							comparator, category.start, category.end, effLimit,
-							monitor);
+					if (parallel) {
+						MarkerSortUtil.parallelSortStartingKElement(markerEntryArray,
+								comparator, category.start, category.end, effLimit,
+								monitor);
+					} else {
+						MarkerSortUtil.sortStartingKElement(markerEntryArray,
+								comparator, category.start, category.end, effLimit,
+								monitor);
+					}
 				}
 			} else {
 				if (monitor.isCanceled()) {
 					return false;
 				}
-				int avaialble = markerEntryArray.length - 1;
-				int effLimit = getShowingLimit(avaialble);
-				MarkerSortUtil.sortStartingKElement(markerEntryArray,
-						markerComparator, effLimit, monitor);
+				int available = markerEntryArray.length - 1;
+				int effLimit = getShowingLimit(available);
+				if (markerComparator.hasBuiltInFields(true)) {
+					MarkerSortUtil.parallelSortStartingKElement(markerEntryArray,
+							markerComparator, 0, markerEntryArray.length - 1, effLimit, monitor);
+				} else {
+					MarkerSortUtil.sortStartingKElement(markerEntryArray,
+							markerComparator, 0, markerEntryArray.length - 1, effLimit, monitor);
+				}
 			}
 			if (monitor.isCanceled()) {
 				return false;
@@ -199,6 +222,196 @@ class Markers {
 		}
 	}
 
+	/**
+	 * Apply the marker changes to the markers gathered before. The changed
+	 * markers are removed and added again if they still match the filters, so
+	 * applying a change twice does no harm. Only the categories affected by the
+	 * changes are sorted again.
+	 *
+	 * @param update
+	 *            the marker changes
+	 * @param monitor
+	 * @return <code>false</code> if the update was canceled or failed, in
+	 *         which case the receiver is left unchanged
+	 */
+	synchronized boolean applyUpdate(MarkerUpdate update, IProgressMonitor monitor) {
+		boolean initialVal = inChange;
+		try {
+			inChange = true;
+			MarkerContentGenerator generator = builder.getGenerator();
+			List<MarkerEntry> added = new ArrayList<>();
+			for (MarkerEntry entry : update.getUpdatedEntries()) {
+				if (monitor.isCanceled()) {
+					return false;
+				}
+				if (generator.select(entry)) {
+					added.add(entry);
+				}
+			}
+			if (builder.isShowingHierarchy()) {
+				return applyToCategories(update, added, monitor);
+			}
+			List<MarkerEntry> entries = new ArrayList<>(markerEntryArray.length + added.size());
+			boolean removed = retainEntries(markerEntryArray, 0, markerEntryArray.length - 1, update, entries);
+			if (!removed && added.isEmpty()) {
+				return true;
+			}
+			entries.addAll(added);
+			MarkerEntry[] newEntries = entries.toArray(new MarkerEntry[entries.size()]);
+			MarkerComparator markerComparator = builder.getComparator();
+			int available = newEntries.length - 1;
+			MarkerSortUtil.sortStartingKElement(newEntries, markerComparator, getShowingLimit(available), monitor);
+			if (monitor.isCanceled()) {
+				return false;
+			}
+			publish(newEntries, EMPTY_CATEGORY_ARRAY, Collections.emptySet());
+			return true;
+		} catch (IllegalArgumentException e) {
+			MarkerComparator markerComparator = builder.getComparator();
+			IDEWorkbenchPlugin.log("Bug 371586: broken comparator. " + markerComparator.getCategory() //$NON-NLS-1$
+					+ ", fields: " + Arrays.toString(markerComparator.getFields()), e); //$NON-NLS-1$
+			return false;
+		} finally {
+			inChange = initialVal;
+		}
+	}
+
+	/**
+	 * Apply the marker changes to the categories. The entries of each category
+	 * are kept together, so only the categories with removed or added entries
+	 * have to be sorted again.
+	 */
+	private boolean applyToCategories(MarkerUpdate update, List<MarkerEntry> added, IProgressMonitor monitor) {
+		MarkerGroup group = builder.getCategoryGroup();
+		TreeMap<MarkerGroupingEntry, CategoryUpdate> categoryUpdates = new TreeMap<>(group.getEntriesComparator());
+		Set<String> changed = new HashSet<>();
+		MarkerEntry[] oldEntries = markerEntryArray;
+		for (MarkerCategory category : categories) {
+			if (monitor.isCanceled()) {
+				return false;
+			}
+			CategoryUpdate categoryUpdate = categoryUpdates.get(category.getGroupingEntry());
+			if (categoryUpdate == null) {
+				categoryUpdate = new CategoryUpdate(category.getChildrenCount());
+				categoryUpdates.put(category.getGroupingEntry(), categoryUpdate);
+			}
+			if (retainEntries(oldEntries, category.start, category.end, update, categoryUpdate.entries)) {
+				categoryUpdate.changed = true;
+				changed.add(category.getName());
+			}
+		}
+		for (MarkerEntry entry : added) {
+			IMarker marker = entry.getMarker();
+			MarkerGroupingEntry groupingEntry;
+			try {
+				groupingEntry = group.findGroupValue(marker.getType(), marker);
+			} catch (CoreException e) {
+				entry.checkIfMarkerStale();
+				continue;
+			}
+			CategoryUpdate categoryUpdate = categoryUpdates.get(groupingEntry);
+			if (categoryUpdate == null) {
+				categoryUpdate = new CategoryUpdate(1);
+				categoryUpdates.put(groupingEntry, categoryUpdate);
+			}
+			categoryUpdate.entries.add(entry);
+			categoryUpdate.changed = true;
+		}
+		if (changed.isEmpty() && added.isEmpty()) {
+			return true;
+		}
+
+		int size = 0;
+		for (CategoryUpdate categoryUpdate : categoryUpdates.values()) {
+			size += categoryUpdate.entries.size();
+		}
+		MarkerEntry[] newEntries = new MarkerEntry[size];
+		List<MarkerCategory> newCategories = new ArrayList<>(categoryUpdates.size());
+		Comparator<MarkerItem> comparator = builder.getComparator().getFieldsComparator();
+		int start = 0;
+		for (Entry<MarkerGroupingEntry, CategoryUpdate> mapEntry : categoryUpdates.entrySet()) {
+			if (monitor.isCanceled()) {
+				return false;
+			}
+			List<MarkerEntry> entries = mapEntry.getValue().entries;
+			if (entries.isEmpty()) {
+				continue;
+			}
+			int end = start + entries.size() - 1;
+			int i = start;
+			for (MarkerEntry entry : entries) {
+				newEntries[i++] = entry;
+			}
+			String name = group.getMarkerField().getValue(newEntries[start]);
+			if (mapEntry.getValue().changed) {
+				MarkerSortUtil.sortStartingKElement(newEntries, comparator, start, end,
+						getShowingLimit(entries.size()), monitor);
+				changed.add(name);
+			}
+			newCategories.add(new MarkerCategory(this, newEntries, start, end, name, mapEntry.getKey()));
+			start = end + 1;
+		}
+		if (monitor.isCanceled()) {
+			return false;
+		}
+		publish(newEntries, newCategories.toArray(new MarkerCategory[newCategories.size()]), changed);
+		return true;
+	}
+
+	/**
+	 * Copy the entries between start and end whose markers are not changed by
+	 * the update to the result.
+	 *
+	 * @return <code>true</code> if any entry was left out
+	 */
+	private static boolean retainEntries(MarkerEntry[] entries, int start, int end, MarkerUpdate update,
+			List<MarkerEntry> result) {
+		boolean removed = false;
+		for (int i = start; i <= end; i++) {
+			IMarker marker = entries[i].getMarker();
+			if (marker == null || update.affects(marker)) {
+				removed = true;
+			} else {
+				result.add(entries[i]);
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Replace the entries and the categories by the updated ones. The old
+	 * arrays are left unchanged, as clones and categories may still refer to
+	 * them.
+	 */
+	private void publish(MarkerEntry[] newEntries, MarkerCategory[] newCategories, Set<String> changed) {
+		if (markerToEntryMap != null) {
+			markerToEntryMap.clear();
+			markerToEntryMap = null;
+		}
+		markerCounts = null;
+		markerEntryArray = newEntries;
+		categories = newCategories;
+		addPendingChanges(changed);
+	}
+
+	/**
+	 * Record that all elements have to be refreshed.
+	 */
+	void markAllChanged() {
+		pendingChanges.set(null);
+	}
+
+	private void addPendingChanges(Set<String> changed) {
+		pendingChanges.updateAndGet(pending -> {
+			if (pending == null || changed == null) {
+				return null;
+			}
+			Set<String> result = new HashSet<>(pending);
+			result.addAll(changed);
+			return result;
+		});
+	}
+
 	/**
 	 * get marker limit to show, if any.
 	 *
@@ -234,9 +447,9 @@ class Markers {
 		int end = 0;
 		for (Entry<MarkerGroupingEntry, Integer> entry : boundaryInfoMap.entrySet()) {
 			end = entry.getValue();
-			markerCategories[i++] = new MarkerCategory(this, start, end,
+			markerCategories[i++] = new MarkerCategory(this, newMarkers, start, end,
 					builder.getCategoryGroup().getMarkerField()
-							.getValue(newMarkers[start]));
+							.getValue(newMarkers[start]), entry.getKey());
 			start = end + 1;
 		}
 		return markerCategories;
@@ -401,6 +614,35 @@ class Markers {
 		return markers;
 	}
 
+	/**
+	 * Create a clone for an update of the UI, which takes the changes made
+	 * since the last such clone. The method is non-blocking.
+	 *
+	 * @return the clone, or <code>null</code> if markers are changing
+	 * @see #getChangedCategories()
+	 */
+	Markers getCloneForUpdate() {
+		// take the changes before copying, so that changes made meanwhile
+		// are refreshed with the next update at the latest
+		Set<String> changes = pendingChanges.getAndSet(new HashSet<>());
+		if (inChange) {
+			addPendingChanges(changes);
+			return null;
+		}
+		Markers markers = getClone();
+		markers.changedCategories = changes;
+		return markers;
+	}
+
+	/**
+	 * @return the names of the categories changed since the previous clone for
+	 *         the UI, or <code>null</code> if all elements may have changed. Only
+	 *         available on clones created by {@link #getCloneForUpdate()}.
+	 */
+	Set<String> getChangedCategories() {
+		return changedCategories;
+	}
+
 	/**
 	 * @return Returns true if markers are changing.
 	 */
@@ -424,4 +666,16 @@ class Markers {
 		Markers other = (Markers) obj;
 		return Objects.equals(builder, other.builder);
 	}
+
+	/**
+	 * The entries of a category while an update is applied.
+	 */
+	private static final class CategoryUpdate {
+		final List<MarkerEntry> entries;
+		boolean changed;
+
+		CategoryUpdate(int size) {
+			entries = new ArrayList<>(size);
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 IBM Corporation and others.
+ * Copyright (c) 2015, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,7 +15,10 @@
 package org.eclipse.ui.internal.views.markers;
 
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IMarkerDelta;
@@ -181,10 +184,8 @@ class MarkersChangeListener implements IResourceChangeListener {
 	 * of the markers that were gathered initially, and keeps them synched at
 	 * any point with the markers of interest in Workspace. Unfortunately marker
 	 * operations cannot be locked so locking between gathering of markers and
-	 * marker deltas is not possible.
-	 *
-	 * Note : this method of updating is NOT used and tested yet and has holes
-	 * but left out SOLELY for further investigation(*).
+	 * marker deltas is not possible. Instead, the changes are queued before the
+	 * markers are gathered, and applying a change again does no harm.
 	 *
 	 * @param event
 	 */
@@ -193,7 +194,9 @@ class MarkersChangeListener implements IResourceChangeListener {
 		if (markerDeltas.length == 0) {
 			return;
 		}
-		Collection<MarkerEntry> removed = new LinkedList<>(), added = new LinkedList<>(), changed = new LinkedList<>();
+		MarkerUpdate update = new MarkerUpdate();
+		// {added,removed,changed}
+		boolean[] changeFlags = new boolean[3];
 		String[] types = listeningTypes;
 		for (IMarkerDelta markerDelta : markerDeltas) {
 			try {
@@ -202,18 +205,20 @@ class MarkersChangeListener implements IResourceChangeListener {
 					continue;
 				}
 				IMarker marker = markerDelta.getMarker();
-				MarkerEntry markerEntry = new MarkerEntry(marker);
 				switch (markerDelta.getKind()) {
 				case IResourceDelta.REMOVED: {
-					removed.add(markerEntry);
+					update.markerRemoved(marker);
+					changeFlags[1] = true;
 					break;
 				}
 				case IResourceDelta.ADDED: {
-					added.add(markerEntry);
+					update.markerUpdated(marker);
+					changeFlags[0] = true;
 					break;
 				}
 				case IResourceDelta.CHANGED: {
-					changed.add(markerEntry);
+					update.markerUpdated(marker);
+					changeFlags[2] = true;
 					break;
 				}
 				default:{
@@ -225,10 +230,9 @@ class MarkersChangeListener implements IResourceChangeListener {
 				MarkerSupportInternalUtilities.logViewError(e);
 			}
 		}
-		if (removed.size() > 0 || added.size() > 0 || changed.size() > 0) {
-			MarkerUpdate update = new MarkerUpdate(added, removed, changed);
+		if (!update.isEmpty()) {
 			builder.incrementalUpdate(update);
-			builder.getUpdateScheduler().scheduleUpdate();
+			builder.getUpdateScheduler().scheduleUpdate(changeFlags);
 		} else {
 			handleNoMarkerChange();
 		}
@@ -450,18 +454,107 @@ class MarkersChangeListener implements IResourceChangeListener {
 ///////////helpers/////////////
 
 /**
- * For Incremental updating
+ * For Incremental updating. Collects the markers added, changed or removed
+ * since the last update, a later change of a marker replacing an earlier one.
+ *
  * @since 3.6
  */
 class MarkerUpdate {
-	Collection<MarkerEntry> added;
-	Collection<MarkerEntry> removed;
-	Collection<MarkerEntry> changed;
+	// the added or changed markers, with new entries for them
+	private final Map<IMarker, MarkerEntry> updated = new LinkedHashMap<>();
+	// the removed markers
+	private final Set<IMarker> removed = new HashSet<>();
+	// set once there are too many changes to keep, all markers have to be
+	// gathered again then
+	private boolean overflow;
 
-	MarkerUpdate(Collection<MarkerEntry> added, Collection<MarkerEntry> removed, Collection<MarkerEntry> changed) {
-		this.added = added;
-		this.removed = removed;
-		this.changed = changed;
+	/**
+	 * Record that the marker was added or changed.
+	 *
+	 * @param marker
+	 */
+	void markerUpdated(IMarker marker) {
+		if (!overflow) {
+			updated.put(marker, new MarkerEntry(marker));
+		}
+	}
+
+	/**
+	 * Record that the marker was removed.
+	 *
+	 * @param marker
+	 */
+	void markerRemoved(IMarker marker) {
+		if (!overflow) {
+			updated.remove(marker);
+			removed.add(marker);
+		}
+	}
+
+	/**
+	 * Drop the changes, as there are too many of them to apply them
+	 * incrementally. Changes added later are dropped as well.
+	 */
+	void overflow() {
+		updated.clear();
+		removed.clear();
+		overflow = true;
+	}
+
+	/**
+	 * @return <code>true</code> if the changes were dropped and all markers
+	 *         have to be gathered again
+	 */
+	boolean isOverflow() {
+		return overflow;
+	}
+
+	/**
+	 * Add the changes made after the ones of the receiver.
+	 *
+	 * @param later
+	 */
+	void addAll(MarkerUpdate later) {
+		if (overflow) {
+			return;
+		}
+		if (later.overflow) {
+			overflow();
+			return;
+		}
+		for (IMarker marker : later.removed) {
+			markerRemoved(marker);
+		}
+		updated.putAll(later.updated);
+	}
+
+	/**
+	 * @return the entries of the added or changed markers
+	 */
+	Collection<MarkerEntry> getUpdatedEntries() {
+		return updated.values();
+	}
+
+	/**
+	 * @param marker
+	 * @return <code>true</code> if the marker was added, changed or removed
+	 */
+	boolean affects(IMarker marker) {
+		return removed.contains(marker) || updated.containsKey(marker);
+	}
+
+	/**
+	 * @return the number of changes
+	 */
+	int size() {
+		return updated.size() + removed.size();
+	}
+
+	/**
+	 * @return <code>true</code> if there are no changes
+	 */
+	boolean isEmpty() {
+		return !overflow && updated.isEmpty() && removed.isEmpty();
 	}
 }
 
@@ -541,6 +634,19 @@ class MarkerUpdateScheduler {
 		// updateTimer.reset();
 	}
 
+	/**
+	 * Schedule a marker update applying the queued marker changes, unless a
+	 * clean has been requested meanwhile.
+	 */
+	void scheduleIncrementalUpdate(long delay, boolean cancelPrevious) {
+		builder.setBuilding(true);
+		if (cancelPrevious) {
+			cancelQueuedUIUpdates();
+			cancelUpdate();
+		}
+		updateJob = builder.scheduleUpdateJob(delay, false);
+	}
+
 	/**
 	 * Schedule marker update.
 	 */
@@ -804,7 +910,11 @@ class MarkerUpdateScheduler {
 
 		private void go(long delay, boolean cancelPrevious) {
 			timeB4Update = System.currentTimeMillis() + delay;
-			scheduleUpdate(delay + AFTER_MARGIN, cancelPrevious);
+			if (builder.isIncremental()) {
+				scheduleIncrementalUpdate(delay + AFTER_MARGIN, cancelPrevious);
+			} else {
+				scheduleUpdate(delay + AFTER_MARGIN, cancelPrevious);
+			}
 		}
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 IBM Corporation and others.
+ * Copyright (c) 2009, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,10 @@
 
 package org.eclipse.ui.internal.views.markers;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -85,6 +89,7 @@ class UIUpdateJob extends WorkbenchJob {
 			 * as new input as we would offset the benefits of optimization in
 			 * TreeViewer.
 			 */
+			Markers previous = clone;
 			clone= view.createViewerInputClone();
 			if (clone == null) {
 				// do not update yet,we are changing
@@ -100,13 +105,23 @@ class UIUpdateJob extends WorkbenchJob {
 				contentProvider.inputChanged(viewer, view.getViewerInput(), clone);
 
 				viewer.getTree().setRedraw(false);
-				viewer.refresh(true);
+				MarkerCategory[] changedCategories = getChangedCategories(previous, clone);
+				if (changedCategories == null) {
+					viewer.refresh(true);
+				} else {
+					for (MarkerCategory category : changedCategories) {
+						viewer.refresh(category, true);
+					}
+				}
 				if (!monitor.isCanceled()) {
 					//do not expand if canceled
 					view.reexpandCategories();
 				}
 				// clear the pending change flags
 				view.getBuilder().resetChangeFlags();
+			} else {
+				// the changes taken with the clone are not shown yet
+				view.getBuilder().getMarkers().markAllChanged();
 			}
 
 			// show new counts
@@ -124,6 +139,40 @@ class UIUpdateJob extends WorkbenchJob {
 		return Status.OK_STATUS;
 	}
 
+	/**
+	 * Return the categories which have to be refreshed, if the categories
+	 * shown are still the same and only some of them have changed.
+	 *
+	 * @param previous
+	 *            the markers shown before
+	 * @param current
+	 *            the markers to show
+	 * @return the changed categories of the current markers, or
+	 *         <code>null</code> if the whole tree has to be refreshed
+	 */
+	private MarkerCategory[] getChangedCategories(Markers previous, Markers current) {
+		Set<String> changed = current.getChangedCategories();
+		if (changed == null || previous == null || !view.getBuilder().isShowingHierarchy()) {
+			return null;
+		}
+		MarkerCategory[] previousCategories = previous.getCategories();
+		MarkerCategory[] currentCategories = current.getCategories();
+		if (previousCategories.length != currentCategories.length) {
+			return null;
+		}
+		List<MarkerCategory> result = new ArrayList<>();
+		for (int i = 0; i < currentCategories.length; i++) {
+			String name = currentCategories[i].getName();
+			if (!name.equals(previousCategories[i].getName())) {
+				return null;
+			}
+			if (changed.contains(name)) {
+				result.add(currentCategories[i]);
+			}
+		}
+		return result.toArray(new MarkerCategory[result.size()]);
+	}
+
 	/**
 	 * @return Returns true if updating.
 	 */
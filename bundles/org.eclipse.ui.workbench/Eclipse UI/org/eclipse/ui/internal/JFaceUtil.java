@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,7 @@ import org.eclipse.core.runtime.preferences.IEclipsePreferences.NodeChangeEvent;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.jface.internal.InternalPolicy;
 import org.eclipse.jface.preference.JFacePreferences;
+import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.jface.util.Policy;
 import org.eclipse.jface.util.SafeRunnable;
 import org.eclipse.jface.util.StatusHandler;
@@ -35,6 +36,12 @@ import org.eclipse.ui.statushandlers.StatusManager;
  */
 final class JFaceUtil {
 
+	/**
+	 * The system property turning on the on-disk cache of decoded image data
+	 * when set to <code>true</code>.
+	 */
+	private static final String IMAGE_DATA_CACHE_PROPERTY = "org.eclipse.jface.imageDataCache"; //$NON-NLS-1$
+
 	private JFaceUtil() {
 		// prevents instantiation
 	}
@@ -65,6 +72,15 @@ final class JFaceUtil {
 			}
 		});
 
+		if (Boolean.getBoolean(IMAGE_DATA_CACHE_PROPERTY)) {
+			try {
+				JFaceResources.setImageDataCacheLocation(
+						WorkbenchPlugin.getDefault().getStateLocation().append("imageData").toFile()); //$NON-NLS-1$
+			} catch (IllegalStateException e) {
+				// no instance location, the images are decoded as usual
+			}
+		}
+
 		// Get all debug options from Platform
 		if ("true".equalsIgnoreCase(Platform.getDebugOption(Policy.JFACE + "/debug"))) { //$NON-NLS-1$ //$NON-NLS-2$
 			Policy.DEBUG_DIALOG_NO_PARENT = "true" //$NON-NLS-1$
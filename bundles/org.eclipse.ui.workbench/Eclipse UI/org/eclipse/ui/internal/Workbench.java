@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -87,6 +87,8 @@ import org.eclipse.e4.core.di.InjectionException;
 import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.internal.workbench.E4Workbench;
 import org.eclipse.e4.ui.internal.workbench.E4XMIResource;
+import org.eclipse.e4.ui.internal.workbench.IncrementalModelCopy;
+import org.eclipse.e4.ui.internal.workbench.ResourceHandler;
 import org.eclipse.e4.ui.internal.workbench.renderers.swt.IUpdateService;
 import org.eclipse.e4.ui.internal.workbench.swt.E4Application;
 import org.eclipse.e4.ui.internal.workbench.swt.IEventLoopAdvisor;
@@ -113,7 +115,6 @@ import org.eclipse.e4.ui.workbench.modeling.EPartService;
 import org.eclipse.e4.ui.workbench.modeling.ISaveHandler;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
-import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.equinox.app.IApplication;
 import org.eclipse.equinox.app.IApplicationContext;
 import org.eclipse.jface.action.ActionContributionItem;
@@ -438,6 +439,12 @@ public final class Workbench extends EventManager implements IWorkbench, org.ecl
 
 	private Job autoSaveJob;
 
+	/**
+	 * The copy of the application model saved by the auto-save, which is kept up
+	 * to date instead of copying the model on every auto-save
+	 */
+	private IncrementalModelCopy modelCopy;
+
 	private String id;
 	private ServiceRegistration<?> e4WorkbenchService;
 
@@ -1093,6 +1100,10 @@ public final class Workbench extends EventManager implements IWorkbench, org.ecl
 			autoSaveJob.cancel();
 			autoSaveJob = null;
 		}
+		if (modelCopy != null) {
+			modelCopy.dispose();
+			modelCopy = null;
+		}
 
 		boolean closeEditors = !force
 				&& PrefUtil.getAPIPreferenceStore().getBoolean(IWorkbenchPreferenceConstants.CLOSE_EDITORS_ON_EXIT);
@@ -1263,13 +1274,17 @@ public final class Workbench extends EventManager implements IWorkbench, org.ecl
 
 	/**
 	 * Copy the model, clean it up and write it out to workbench.xmi. Called as part
-	 * of persist(false) during auto-save.
+	 * of persist(false) during auto-save. The copy is only updated with the
+	 * changes of the model since the last auto-save, and saved in the background.
 	 */
 	private void persistWorkbenchModel() {
 		if (Job.getJobManager().find(WORKBENCH_AUTO_SAVE_JOB).length > 0) {
 			return;
 		}
-		final MApplication appCopy = (MApplication) EcoreUtil.copy((EObject) application);
+		if (modelCopy == null) {
+			modelCopy = new IncrementalModelCopy((EObject) application);
+		}
+		final MApplication appCopy = (MApplication) modelCopy.update();
 		if (detectWorkbenchCorruption(appCopy)) {
 			return;
 		}
@@ -1282,14 +1297,20 @@ public final class Workbench extends EventManager implements IWorkbench, org.ecl
 				cleanUpCopy(appCopy);
 				try {
 					if (!detectWorkbenchCorruption((MApplication) res.getContents().get(0))) {
-						Map<String, Object> options = new HashMap<>();
-						options.put(E4XMIResource.OPTION_FILTER_PERSIST_STATE, Boolean.TRUE);
-						res.save(options);
+						if (handler instanceof ResourceHandler) {
+							((ResourceHandler) handler).save(res);
+						} else {
+							Map<String, Object> options = new HashMap<>();
+							options.put(E4XMIResource.OPTION_FILTER_PERSIST_STATE, Boolean.TRUE);
+							res.save(options);
+						}
 					}
 				} catch (IOException e) {
 					// Just auto-save, we don't really care
 				} finally {
-					res.unload();
+					// the copy is updated and saved again, so it must not be
+					// unloaded
+					res.getContents().clear();
 					res.getResourceSet().getResources().remove(res);
 				}
 				return Status.OK_STATUS;
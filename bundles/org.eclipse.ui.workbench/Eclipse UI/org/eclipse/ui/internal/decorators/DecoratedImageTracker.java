@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.decorators;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import org.eclipse.jface.resource.DeviceResourceDescriptor;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.resource.LocalResourceManager;
+import org.eclipse.jface.resource.ResourceManager;
+import org.eclipse.swt.graphics.Device;
+import org.eclipse.swt.graphics.Image;
+
+/**
+ * The DecoratedImageTracker is the resource manager in which a label decorator
+ * composes the decorated images. It holds only the latest image composed for
+ * each element and base image, and releases the previous one as soon as the
+ * element is decorated again, so that the images are bounded by the number of
+ * decorated elements instead of the number of decorations ever shown.
+ * <p>
+ * Any other resources allocated in the receiver are kept until it is disposed.
+ * </p>
+ */
+final class DecoratedImageTracker extends ResourceManager {
+
+	private final ResourceManager parent;
+
+	private final LocalResourceManager others;
+
+	private final Map<Key, DeviceResourceDescriptor> images = new HashMap<>();
+
+	private boolean decorating;
+
+	private DeviceResourceDescriptor created;
+
+	private Image defaultImage;
+
+	/**
+	 * Create a new instance of the receiver composing the images in the given
+	 * resource manager.
+	 *
+	 * @param parent the resource manager allocating the resources
+	 */
+	DecoratedImageTracker(ResourceManager parent) {
+		this.parent = parent;
+		this.others = new LocalResourceManager(parent);
+	}
+
+	/**
+	 * Run the decoration of the image of an element, which composes the decorated
+	 * image in the receiver, and release the image composed by the previous
+	 * decoration of the element.
+	 *
+	 * @param image      the image being decorated
+	 * @param element    the element being decorated
+	 * @param decoration the decoration composing the image in the given resource
+	 *                   manager
+	 * @return the decorated image
+	 */
+	Image decorateImage(Image image, Object element, Function<ResourceManager, Image> decoration) {
+		decorating = true;
+		try {
+			return decoration.apply(this);
+		} finally {
+			decorating = false;
+			Key key = new Key(element, image);
+			DeviceResourceDescriptor previous = created == null ? images.remove(key) : images.put(key, created);
+			created = null;
+			if (previous != null) {
+				parent.destroy(previous);
+			}
+		}
+	}
+
+	@Override
+	public Device getDevice() {
+		return parent.getDevice();
+	}
+
+	@Override
+	public Object create(DeviceResourceDescriptor descriptor) {
+		if (!decorating || created != null) {
+			return others.create(descriptor);
+		}
+		Object result = parent.create(descriptor);
+		created = descriptor;
+		return result;
+	}
+
+	@Override
+	public void destroy(DeviceResourceDescriptor descriptor) {
+		others.destroy(descriptor);
+	}
+
+	@Override
+	public Object find(DeviceResourceDescriptor descriptor) {
+		return parent.find(descriptor);
+	}
+
+	@Override
+	protected Image getDefaultImage() {
+		if (defaultImage == null) {
+			defaultImage = others.createImage(ImageDescriptor.getMissingImageDescriptor());
+		}
+		return defaultImage;
+	}
+
+	@Override
+	public void dispose() {
+		super.dispose();
+		for (DeviceResourceDescriptor descriptor : images.values()) {
+			parent.destroy(descriptor);
+		}
+		images.clear();
+		others.dispose();
+		defaultImage = null;
+	}
+
+	private static final class Key {
+		private final Object element;
+		private final Image image;
+
+		Key(Object element, Image image) {
+			this.element = element;
+			this.image = image;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(element) * 31 + Objects.hashCode(image);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return Objects.equals(element, other.element) && Objects.equals(image, other.image);
+		}
+	}
+}
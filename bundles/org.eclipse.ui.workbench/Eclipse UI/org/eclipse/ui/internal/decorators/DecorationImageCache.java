@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.decorators;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.eclipse.jface.resource.DeviceResourceDescriptor;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.resource.ResourceManager;
+import org.eclipse.jface.viewers.DecorationOverlayIcon;
+import org.eclipse.swt.graphics.Device;
+import org.eclipse.swt.graphics.Image;
+
+/**
+ * The DecorationImageCache is the resource manager shared by all decorated
+ * viewers for the images composed of a base image and the overlays of the
+ * lightweight decorators.
+ * <p>
+ * The composed images are reference counted like in any other resource
+ * manager. When the last reference to an image is released, the image is not
+ * disposed right away, but kept for other viewers showing the same
+ * decorations. The images which are no longer referenced are disposed in least
+ * recently used order once there are more of them than the limit, which may be
+ * set with the system property {@value #LIMIT_PROPERTY}.
+ * </p>
+ * <p>
+ * All other resources are passed through to the parent resource manager. Like
+ * all resource managers, the cache must only be used in the UI thread.
+ * </p>
+ */
+public final class DecorationImageCache extends ResourceManager {
+
+	/**
+	 * The system property holding the number of images which are kept after they
+	 * are no longer referenced.
+	 */
+	public static final String LIMIT_PROPERTY = "org.eclipse.ui.decorators.imageCacheSize"; //$NON-NLS-1$
+
+	private static final int DEFAULT_LIMIT = 128;
+
+	private final ResourceManager parent;
+
+	private final int limit;
+
+	private final Map<DecorationOverlayIcon, CacheEntry> entries = new HashMap<>();
+
+	/** The entries which are no longer referenced, least recently used first */
+	private final LinkedHashMap<DecorationOverlayIcon, CacheEntry> unreferenced = new LinkedHashMap<>();
+
+	private Image defaultImage;
+
+	/**
+	 * Create a new instance of the receiver allocating the images in the given
+	 * resource manager, keeping the number of unreferenced images given by the
+	 * system property {@value #LIMIT_PROPERTY}.
+	 *
+	 * @param parent the resource manager allocating the resources
+	 */
+	public DecorationImageCache(ResourceManager parent) {
+		this(parent, getDefaultLimit());
+	}
+
+	/**
+	 * Create a new instance of the receiver allocating the images in the given
+	 * resource manager.
+	 *
+	 * @param parent the resource manager allocating the resources
+	 * @param limit  the number of images which are kept after they are no longer
+	 *               referenced
+	 */
+	public DecorationImageCache(ResourceManager parent, int limit) {
+		this.parent = parent;
+		this.limit = limit;
+	}
+
+	private static int getDefaultLimit() {
+		String value = System.getProperty(LIMIT_PROPERTY);
+		if (value != null) {
+			try {
+				return Integer.parseInt(value.trim());
+			} catch (NumberFormatException e) {
+				// use the default
+			}
+		}
+		return DEFAULT_LIMIT;
+	}
+
+	@Override
+	public Device getDevice() {
+		return parent.getDevice();
+	}
+
+	@Override
+	public Object create(DeviceResourceDescriptor descriptor) {
+		if (!(descriptor instanceof DecorationOverlayIcon)) {
+			return parent.create(descriptor);
+		}
+		CacheEntry entry = entries.get(descriptor);
+		if (entry != null) {
+			if (entry.references++ == 0) {
+				unreferenced.remove(descriptor);
+			}
+			return entry.image;
+		}
+		Image image = (Image) parent.create(descriptor);
+		entries.put((DecorationOverlayIcon) descriptor, new CacheEntry(image));
+		return image;
+	}
+
+	@Override
+	public void destroy(DeviceResourceDescriptor descriptor) {
+		if (!(descriptor instanceof DecorationOverlayIcon)) {
+			parent.destroy(descriptor);
+			return;
+		}
+		CacheEntry entry = entries.get(descriptor);
+		if (entry == null || entry.references == 0) {
+			return;
+		}
+		if (--entry.references == 0) {
+			unreferenced.put((DecorationOverlayIcon) descriptor, entry);
+			evict(limit);
+		}
+	}
+
+	@Override
+	public Object find(DeviceResourceDescriptor descriptor) {
+		if (!(descriptor instanceof DecorationOverlayIcon)) {
+			return parent.find(descriptor);
+		}
+		CacheEntry entry = entries.get(descriptor);
+		return entry == null ? null : entry.image;
+	}
+
+	@Override
+	protected Image getDefaultImage() {
+		if (defaultImage == null) {
+			defaultImage = parent.createImage(ImageDescriptor.getMissingImageDescriptor());
+		}
+		return defaultImage;
+	}
+
+	/**
+	 * Dispose the images which are no longer referenced, least recently used
+	 * first, until no more than the given number of them is left.
+	 *
+	 * @param maximum the number of unreferenced images to keep
+	 */
+	private void evict(int maximum) {
+		Iterator<DecorationOverlayIcon> iterator = unreferenced.keySet().iterator();
+		while (unreferenced.size() > maximum && iterator.hasNext()) {
+			DecorationOverlayIcon next = iterator.next();
+			iterator.remove();
+			entries.remove(next);
+			parent.destroy(next);
+		}
+	}
+
+	/**
+	 * Dispose all images which are no longer referenced.
+	 */
+	public void clear() {
+		evict(0);
+	}
+
+	@Override
+	public void dispose() {
+		super.dispose();
+		for (DecorationOverlayIcon descriptor : entries.keySet()) {
+			parent.destroy(descriptor);
+		}
+		entries.clear();
+		unreferenced.clear();
+		if (defaultImage != null) {
+			parent.destroyImage(ImageDescriptor.getMissingImageDescriptor());
+			defaultImage = null;
+		}
+	}
+
+	private static final class CacheEntry {
+		final Image image;
+		int references = 1;
+
+		CacheEntry(Image image) {
+			this.image = image;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2016, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -60,19 +60,24 @@ import org.eclipse.ui.progress.WorkbenchJob;
  * the <code>element</code> into <code>awaitingDecoration</code> and an
  * associated <code>DecorationReference</code> into
  * <code>awaitingDecorationValues</code> and schedules the
- * <code>decorationJob</code> to be executed asynchonously.</li>
+ * <code>decorationJobs</code> to be executed asynchonously.</li>
  *
- * <li>The <code>decorationJob</code> processes the list of elements in
- * <code>awaitingDecoration</code> one by one. For each element, it calls
- * <code>ensureResultCached</code>, which in turn calls the actual lightweight
- * decorator(s) for the element and stores the decoration result in the
- * <code>resultCache</code> and adds the element to the
+ * <li>The <code>decorationJobs</code> take the elements in
+ * <code>awaitingDecoration</code> one by one, so that up to
+ * <code>WORKER_COUNT</code> elements are decorated at the same time. Each
+ * decorator only decorates one element at a time, see
+ * {@link LightweightDecoratorManager#getDecorations(Object, DecorationBuilder)}.
+ * For each element, a job calls <code>ensureResultCached</code>, which in turn
+ * calls the actual lightweight decorator(s) for the element and stores the
+ * decoration result in the <code>resultCache</code> and adds the element to the
  * <code>pendingUpdate</code> collection to remember that it needs to be updated
  * in the UI.</li>
  *
- * <li>When the <code>decorationJob</code> has finished processing all elements
- * in <code>awaitingDecoration</code>, it finally schedules the
- * <code>updateJob</code>.</li>
+ * <li>When the <code>decorationJobs</code> have finished processing all
+ * elements in <code>awaitingDecoration</code>, or when the results have not
+ * been delivered for <code>UPDATE_DELAY</code> milliseconds, they schedule the
+ * <code>updateJob</code>, so that the results computed so far are shown while
+ * the remaining elements are decorated.</li>
  *
  * <li>
  * <p>
@@ -102,7 +107,7 @@ import org.eclipse.ui.progress.WorkbenchJob;
  * </ol>
  *
  * So, in summary, a decoration is first enqueued, then calculated
- * asynchronously by the <code>decorationJob</code> and enqueued for UI-update,
+ * asynchronously by the <code>decorationJobs</code> and enqueued for UI-update,
  * and finally, the <code>updateJob</code> fires events which cause the viewers
  * to update the UI using the now available decoration results.
  */
@@ -129,7 +134,14 @@ public class DecorationScheduler {
 
 	private boolean shutdown = false;
 
-	private Job decorationJob;
+	/**
+	 * The number of jobs decorating elements in parallel. One processor is left
+	 * to the UI thread.
+	 */
+	private static final int WORKER_COUNT = Math.max(1,
+			Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+	private Job[] decorationJobs;
 
 	private UIJob updateJob;
 
@@ -149,6 +161,9 @@ public class DecorationScheduler {
 	 */
 	private boolean isUpdateJobRunning = false;
 
+	/** The time at which the results have last been delivered to the UI */
+	private long lastDelivery;
+
 	/**
 	 * Return a new instance of the receiver configured for the supplied
 	 * DecoratorManager.
@@ -157,7 +172,7 @@ public class DecorationScheduler {
 	 */
 	DecorationScheduler(DecoratorManager manager) {
 		decoratorManager = manager;
-		createDecorationJob();
+		createDecorationJobs();
 	}
 
 	/**
@@ -213,7 +228,12 @@ public class DecorationScheduler {
 			if (shutdown) {
 				return;
 			}
-			decorationJob.schedule();
+			// start another worker for each of the first elements, the
+			// workers then keep taking elements until the queue is empty
+			int queued = awaitingDecoration.size();
+			if (queued <= decorationJobs.length) {
+				decorationJobs[queued - 1].schedule();
+			}
 		}
 
 	}
@@ -297,6 +317,22 @@ public class DecorationScheduler {
 
 		// Give it a bit of a lag for other updates to occur
 		updateJob.schedule(UPDATE_DELAY);
+		lastDelivery = System.currentTimeMillis();
+	}
+
+	/**
+	 * Notify the listeners of the results computed by a decoration job, if either
+	 * all queued elements have been decorated, or if the last notification was
+	 * long enough ago that the user would notice the delay. The results are
+	 * combined into one label update per {@link #UPDATE_DELAY}.
+	 */
+	private synchronized void resultsComputed() {
+		if (awaitingDecoration.isEmpty()) {
+			decorated();
+		} else if (System.currentTimeMillis() - lastDelivery >= UPDATE_DELAY && !hasPendingUpdates()
+				&& !updatesPending()) {
+			decorated();
+		}
 	}
 
 	/**
@@ -304,6 +340,18 @@ public class DecorationScheduler {
 	 */
 	synchronized void shutdown() {
 		shutdown = true;
+		for (Job job : decorationJobs) {
+			job.cancel();
+		}
+	}
+
+	/**
+	 * Discard the elements waiting for decoration, as nobody is listening for
+	 * their results anymore.
+	 */
+	private synchronized void cancelPendingDecorations() {
+		awaitingDecoration.clear();
+		awaitingDecorationValues.clear();
 	}
 
 	/**
@@ -322,10 +370,25 @@ public class DecorationScheduler {
 	}
 
 	/**
-	 * Create the Thread used for running decoration.
+	 * Create the jobs used for running decoration.
 	 */
-	private void createDecorationJob() {
-		decorationJob = new Job(WorkbenchMessages.DecorationScheduler_CalculationJobName) {
+	private void createDecorationJobs() {
+		decorationJobs = new Job[WORKER_COUNT];
+		for (int i = 0; i < decorationJobs.length; i++) {
+			decorationJobs[i] = createDecorationJob();
+		}
+		// The first job starts right away, the others are scheduled when
+		// elements are queued
+		decorationJobs[0].schedule();
+	}
+
+	/**
+	 * Create a job decorating the queued elements.
+	 *
+	 * @return the job
+	 */
+	private Job createDecorationJob() {
+		Job decorationJob = new Job(WorkbenchMessages.DecorationScheduler_CalculationJobName) {
 			@Override
 			public IStatus run(IProgressMonitor monitor) {
 
@@ -351,8 +414,9 @@ public class DecorationScheduler {
 				// will block if there are no resources to be decorated
 				DecorationReference reference;
 
-				while ((reference = nextElement()) != null) {
-
+				// check for cancellation before taking an element off the
+				// queue, so that it is still decorated by the next run
+				while (!monitor.isCanceled() && (reference = nextElement()) != null) {
 					SubMonitor loopMonitor = subMonitor.setWorkRemaining(100).split(1);
 					Object element = reference.getElement();
 					boolean force = reference.shouldForceUpdate();
@@ -363,14 +427,11 @@ public class DecorationScheduler {
 						loopMonitor.split(1);
 					}
 					// Only notify listeners when we have exhausted the
-					// queue of decoration requests.
-					synchronized (DecorationScheduler.this) {
-						if (awaitingDecoration.isEmpty()) {
-							decorated();
-						}
-					}
+					// queue of decoration requests, or when the results
+					// have been waiting long enough.
+					resultsComputed();
 				}
-				return Status.OK_STATUS;
+				return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
 			}
 
 			/**
@@ -423,7 +484,7 @@ public class DecorationScheduler {
 
 		decorationJob.setSystem(true);
 		decorationJob.setPriority(Job.DECORATE);
-		decorationJob.schedule();
+		return decorationJob;
 	}
 
 	/**
@@ -560,8 +621,9 @@ public class DecorationScheduler {
 				removedListeners.clear();
 				// Other decoration requests may have occurred due to
 				// updates or we may have timed out updating listeners.
-				// Only clear the results if there are none pending.
-				if (awaitingDecoration.isEmpty()) {
+				// Only clear the results if there are none pending, and
+				// if no other job has computed results in the meantime.
+				if (awaitingDecoration.isEmpty() && hasPendingUpdates()) {
 					resultCache.clear();
 				}
 			}
@@ -691,7 +753,10 @@ public class DecorationScheduler {
 		if (!updatesPending()) {
 			removedListeners.remove(listener);
 		}
-
+		// The last viewer is gone, so the queued results would not be shown
+		if (decoratorManager.getListeners().length == 0) {
+			cancelPendingDecorations();
+		}
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -33,7 +33,6 @@ import org.eclipse.core.runtime.dynamichelpers.ExtensionTracker;
 import org.eclipse.core.runtime.dynamichelpers.IExtensionChangeHandler;
 import org.eclipse.core.runtime.dynamichelpers.IExtensionTracker;
 import org.eclipse.jface.resource.JFaceResources;
-import org.eclipse.jface.resource.LocalResourceManager;
 import org.eclipse.jface.resource.ResourceManager;
 import org.eclipse.jface.util.SafeRunnable;
 import org.eclipse.jface.viewers.DecorationContext;
@@ -103,7 +102,9 @@ public class DecoratorManager implements ILabelProviderListener, IDecoratorManag
 
 	private final String P_FALSE = "false"; //$NON-NLS-1$
 
-	private LocalResourceManager resourceManager;
+	private DecoratedImageTracker decoratedImages;
+
+	private DecorationImageCache imageCache;
 
 	/**
 	 * ManagedWorkbenchLabelDecorator is the internal LabelDecorator passed as
@@ -116,7 +117,7 @@ public class DecoratorManager implements ILabelProviderListener, IDecoratorManag
 			implements ILabelDecorator, IDelayedLabelDecorator, IColorDecorator, IFontDecorator {
 
 		private final DecoratorManager decoratorManager;
-		private LocalResourceManager resourceManager;
+		private DecoratedImageTracker decoratedImages;
 
 		/**
 		 * Create a new instance of the receiver that supports decoratorManager
@@ -125,24 +126,25 @@ public class DecoratorManager implements ILabelProviderListener, IDecoratorManag
 		 */
 		public ManagedWorkbenchLabelDecorator(DecoratorManager decoratorManager) {
 			this.decoratorManager = decoratorManager;
-			this.resourceManager = null;
+			this.decoratedImages = null;
 		}
 
 		/**
-		 * Return a resource manager local to the receiver.
+		 * Return the tracker of the images decorated by the receiver.
 		 *
-		 * @return {@link LocalResourceManager}
+		 * @return {@link DecoratedImageTracker}
 		 */
-		private LocalResourceManager getResourceManager() {
-			if (resourceManager == null) {
-				resourceManager = new LocalResourceManager(decoratorManager.getResourceManager());
+		private DecoratedImageTracker getDecoratedImages() {
+			if (decoratedImages == null) {
+				decoratedImages = new DecoratedImageTracker(decoratorManager.getImageCache());
 			}
-			return resourceManager;
+			return decoratedImages;
 		}
 
 		@Override
 		public Image decorateImage(Image image, Object element, IDecorationContext context) {
-			return decoratorManager.decorateImage(image, element, context, getResourceManager());
+			return getDecoratedImages().decorateImage(image, element,
+					manager -> decoratorManager.decorateImage(image, element, context, manager));
 		}
 
 		@Override
@@ -192,9 +194,9 @@ public class DecoratorManager implements ILabelProviderListener, IDecoratorManag
 
 		@Override
 		public void dispose() {
-			if (resourceManager != null) {
-				resourceManager.dispose();
-				resourceManager = null;
+			if (decoratedImages != null) {
+				decoratedImages.dispose();
+				decoratedImages = null;
 			}
 		}
 
@@ -502,7 +504,8 @@ public class DecoratorManager implements ILabelProviderListener, IDecoratorManag
 
 	@Override
 	public Image decorateImage(Image image, Object element) {
-		return decorateImage(image, element, DecorationContext.DEFAULT_CONTEXT, getResourceManager());
+		return getDecoratedImages().decorateImage(image, element,
+				manager -> decorateImage(image, element, DecorationContext.DEFAULT_CONTEXT, manager));
 	}
 
 	/**
@@ -632,7 +635,6 @@ public class DecoratorManager implements ILabelProviderListener, IDecoratorManag
 	 * occur due to changes in enablement.
 	 */
 	public void clearCaches() {
-		getLightweightManager().reset();
 		fullTextRunnable.clearReferences();
 		fullImageRunnable.clearReferences();
 	}
@@ -776,6 +778,14 @@ public class DecoratorManager implements ILabelProviderListener, IDecoratorManag
 			getLightweightManager().shutdown();
 		}
 		scheduler.shutdown();
+		if (decoratedImages != null) {
+			decoratedImages.dispose();
+			decoratedImages = null;
+		}
+		if (imageCache != null) {
+			imageCache.dispose();
+			imageCache = null;
+		}
 		dispose();
 	}
 
@@ -797,17 +807,28 @@ public class DecoratorManager implements ILabelProviderListener, IDecoratorManag
 	}
 
 	/**
-	 * Returns the resource manager used to created images for the light weight
-	 * decorator.
+	 * Returns the tracker of the images decorated by the receiver itself.
+	 *
+	 * @return the tracker
+	 */
+	private DecoratedImageTracker getDecoratedImages() {
+		if (decoratedImages == null) {
+			decoratedImages = new DecoratedImageTracker(getImageCache());
+		}
+		return decoratedImages;
+	}
+
+	/**
+	 * Returns the cache of the images composed of a base image and the overlays
+	 * of the lightweight decorators, which is shared by all decorated viewers.
 	 *
-	 * @return the resource manager
+	 * @return the image cache
 	 */
-	public ResourceManager getResourceManager() {
-		if (resourceManager == null) {
-			resourceManager = new LocalResourceManager(
-					JFaceResources.getResources(PlatformUI.getWorkbench().getDisplay()));
+	public DecorationImageCache getImageCache() {
+		if (imageCache == null) {
+			imageCache = new DecorationImageCache(JFaceResources.getResources(PlatformUI.getWorkbench().getDisplay()));
 		}
-		return resourceManager;
+		return imageCache;
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -86,6 +86,12 @@ class LightweightDecoratorDefinition extends DecoratorDefinition implements IObj
 	 */
 	private ILightweightLabelDecorator decorator;
 
+	/**
+	 * Held while the decorator decorates an element. Lightweight decorators are
+	 * not required to be thread safe, but the decoration jobs run in parallel.
+	 */
+	private final Object decorationLock = new Object();
+
 	private int quadrant;
 
 	private boolean hasReadQuadrant;
@@ -239,16 +245,18 @@ class LightweightDecoratorDefinition extends DecoratorDefinition implements IObj
 				return;
 			}
 
-			if (isAdaptable()) {
-				String[] classes = getObjectClasses();
-				for (String className : classes) {
-					Object adapted = LegacyResourceSupport.getAdapter(element, className);
-					if (adapted != null) {
-						currentDecorator.decorate(adapted, decoration);
+			synchronized (decorationLock) {
+				if (isAdaptable()) {
+					String[] classes = getObjectClasses();
+					for (String className : classes) {
+						Object adapted = LegacyResourceSupport.getAdapter(element, className);
+						if (adapted != null) {
+							currentDecorator.decorate(adapted, decoration);
+						}
 					}
+				} else if (element != null) {
+					currentDecorator.decorate(element, decoration);
 				}
-			} else if (element != null) {
-				currentDecorator.decorate(element, decoration);
 			}
 		} catch (CoreException exception) {
 			handleCoreException(exception);
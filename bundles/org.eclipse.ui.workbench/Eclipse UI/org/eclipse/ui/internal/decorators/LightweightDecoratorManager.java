@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -117,8 +117,6 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 		}
 	}
 
-	private LightweightRunnable runnable = new LightweightRunnable();
-
 	// The lightweight definitions read from the registry
 	private LightweightDecoratorDefinition[] lightweightDefinitions;
 
@@ -158,7 +156,7 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 	 * @return whether the definition was added
 	 * @since 3.0
 	 */
-	public boolean addDecorator(LightweightDecoratorDefinition decorator) {
+	public synchronized boolean addDecorator(LightweightDecoratorDefinition decorator) {
 		if (getLightweightDecoratorDefinition(decorator.getId()) == null) {
 			LightweightDecoratorDefinition[] oldDefs = lightweightDefinitions;
 			lightweightDefinitions = new LightweightDecoratorDefinition[lightweightDefinitions.length + 1];
@@ -191,7 +189,7 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 	 * @return whether the definition was removed
 	 * @since 3.1
 	 */
-	public boolean removeDecorator(LightweightDecoratorDefinition decorator) {
+	public synchronized boolean removeDecorator(LightweightDecoratorDefinition decorator) {
 		int idx = getLightweightDecoratorDefinitionIdx(decorator.getId());
 		if (idx != -1) {
 			LightweightDecoratorDefinition[] oldDefs = lightweightDefinitions;
@@ -271,13 +269,6 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 		return false;
 	}
 
-	/**
-	 * Reset any cached values.
-	 */
-	void reset() {
-		runnable.clearReferences();
-	}
-
 	/**
 	 * Shutdown the decorator manager by disabling all of the decorators so that
 	 * dispose() will be called on them.
@@ -309,9 +300,11 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 	}
 
 	/**
-	 * Get the lightweight registered for elements of this type.
+	 * Get the lightweight registered for elements of this type. The lookup is
+	 * synchronized as the contributors are cached, and the decoration jobs look
+	 * them up concurrently.
 	 */
-	LightweightDecoratorDefinition[] getDecoratorsFor(Object element) {
+	synchronized LightweightDecoratorDefinition[] getDecoratorsFor(Object element) {
 
 		if (element == null) {
 			return EMPTY_LIGHTWEIGHT_DEF;
@@ -335,15 +328,23 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 
 	/**
 	 * Fill the decoration with all of the results of the decorators.
+	 * <p>
+	 * This method may be called by several decoration jobs at the same time.
+	 * Lightweight decorators are not required to be thread safe, so each
+	 * decorator only decorates one element at a time, see
+	 * {@link LightweightDecoratorDefinition#decorate(Object, org.eclipse.jface.viewers.IDecoration)},
+	 * while different decorators run in parallel for different elements.
+	 * </p>
 	 *
 	 * @param element    The source element
 	 * @param decoration The DecorationResult we are working on. where adaptable is
 	 *                   true.
 	 */
 	public void getDecorations(Object element, DecorationBuilder decoration) {
+		LightweightRunnable runnable = new LightweightRunnable();
 		for (LightweightDecoratorDefinition decorator : getDecoratorsFor(element)) {
 			decoration.setCurrentDefinition(decorator);
-			decorate(element, decoration, decorator);
+			decorate(element, decoration, decorator, runnable);
 		}
 	}
 
@@ -353,8 +354,10 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 	 * @param element    The Object to be decorated
 	 * @param decoration The object building decorations.
 	 * @param decorator  The decorator being applied.
+	 * @param runnable   The runnable of the calling thread.
 	 */
-	private void decorate(Object element, DecorationBuilder decoration, LightweightDecoratorDefinition decorator) {
+	private void decorate(Object element, DecorationBuilder decoration, LightweightDecoratorDefinition decorator,
+			LightweightRunnable runnable) {
 
 		runnable.setValues(element, decoration, decorator);
 		SafeRunner.run(runnable);
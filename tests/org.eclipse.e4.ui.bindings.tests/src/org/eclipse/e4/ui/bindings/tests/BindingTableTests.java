@@ -189,6 +189,30 @@ public class BindingTableTests {
 		assertFalse(table.isPartialMatch(ctrl8));
 	}
 
+	@Test
+	public void testPartialMatchAfterRemove() throws Exception {
+		BindingTable table = loadTable(ID_DIALOG_AND_WINDOW);
+		Binding about = getTestBinding(ABOUT_ID);
+		Command cmd = commandManager.getCommand(REFRESH_ID);
+		Binding longBinding = new KeyBinding(KeySequence.getInstance("CTRL+5 B C"),
+				new ParameterizedCommand(cmd, null), "org.eclipse.ui.defaultAcceleratorConfiguration",
+				ID_DIALOG_AND_WINDOW, null, null, null, Binding.SYSTEM);
+		table.addBinding(longBinding);
+
+		KeySequence ctrl5 = KeySequence.getInstance("CTRL+5");
+		KeySequence ctrl5B = KeySequence.getInstance("CTRL+5 B");
+		assertEquals(2, table.getPartialMatches(ctrl5).size());
+		assertTrue(table.isPartialMatch(ctrl5B));
+		assertFalse(table.isPartialMatch(KeySequence.getInstance("CTRL+5 B C")));
+
+		table.removeBinding(longBinding);
+		assertFalse(table.isPartialMatch(ctrl5B));
+		assertEquals(1, table.getPartialMatches(ctrl5).size());
+
+		table.removeBinding(about);
+		assertFalse(table.isPartialMatch(ctrl5));
+	}
+
 	@Test
 	public void testContextSet() {
 		BindingTableManager manager = ContextInjectionFactory.make(BindingTableManager.class, workbenchContext);
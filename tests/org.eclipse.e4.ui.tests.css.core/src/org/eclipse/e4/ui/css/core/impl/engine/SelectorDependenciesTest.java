@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.eclipse.e4.ui.css.core.impl.dom.DocumentCSSImpl;
+import org.eclipse.e4.ui.css.core.impl.engine.SelectorDependencies.Dependents;
+import org.eclipse.e4.ui.tests.css.core.util.ParserTestUtil;
+import org.eclipse.e4.ui.tests.css.core.util.TestElement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SelectorDependenciesTest {
+
+	private static class TestCSSEngine extends CSSEngineImpl {
+		@Override
+		public void reapply() {
+		}
+	}
+
+	private TestCSSEngine engine;
+
+	private DocumentCSSImpl docCss;
+
+	private SelectorDependencies dependencies;
+
+	@BeforeEach
+	public void setUp() {
+		engine = new TestCSSEngine();
+		docCss = new DocumentCSSImpl();
+		dependencies = new SelectorDependencies(docCss);
+	}
+
+	private void addStyleSheet(String css) throws IOException {
+		docCss.addStyleSheet(ParserTestUtil.parseCss(css));
+	}
+
+	@Test
+	public void testChangedTokens() {
+		assertEquals(new HashSet<>(Arrays.asList(".active", ".minimized")),
+				SelectorDependencies.getChangedTokens("MPartStack active", "MPartStack  minimized", "a", "a"));
+		assertEquals(new HashSet<>(Arrays.asList("#a", "#b")),
+				SelectorDependencies.getChangedTokens("MPart", "MPart", "a", "b"));
+		assertEquals(Collections.singleton("#b"), SelectorDependencies.getChangedTokens(null, null, null, "b"));
+	}
+
+	@Test
+	public void testAncestorClass() throws Exception {
+		addStyleSheet(".MPartStack.active CTabFolder Canvas { color: red; }\n"
+				+ ".MPartStack.active .MPart Form { color: blue; }\n");
+
+		Dependents dependents = dependencies.getDependents(Collections.singleton(".active"));
+		assertTrue(dependents.hasDescendants());
+		assertFalse(dependents.hasSiblings());
+		assertTrue(dependents.affects(new TestElement("Canvas", engine)));
+		assertTrue(dependents.affects(new TestElement("Form", engine)));
+		assertFalse(dependents.affects(new TestElement("Label", engine)));
+	}
+
+	@Test
+	public void testSubjectClass() throws Exception {
+		addStyleSheet(".MPartStack.active { color: red; }\n" + "CTabFolder .MPart { color: blue; }\n");
+
+		Dependents dependents = dependencies.getDependents(Collections.singleton(".active"));
+		assertFalse(dependents.hasDescendants());
+		assertFalse(dependents.affects(new TestElement("Canvas", engine)));
+	}
+
+	@Test
+	public void testSubjectRequiresClass() throws Exception {
+		addStyleSheet("#main .flat { color: red; }\n");
+
+		Dependents dependents = dependencies.getDependents(Collections.singleton("#main"));
+		assertTrue(dependents.hasDescendants());
+		TestElement flat = new TestElement("Button", engine);
+		flat.setClass("big flat");
+		assertTrue(dependents.affects(flat));
+		assertFalse(dependents.affects(new TestElement("Button", engine)));
+	}
+
+	@Test
+	public void testSiblingClass() throws Exception {
+		addStyleSheet("Label.title + Text { color: red; }\n");
+
+		Dependents dependents = dependencies.getDependents(Collections.singleton(".title"));
+		assertFalse(dependents.hasDescendants());
+		assertTrue(dependents.hasSiblings());
+		assertTrue(dependents.affects(new TestElement("Text", engine)));
+		assertFalse(dependents.affects(new TestElement("Label", engine)));
+	}
+
+	@Test
+	public void testSiblingClassInAncestor() throws Exception {
+		addStyleSheet(".title + Composite Text { color: red; }\n");
+
+		// the subject is a descendant of a following sibling of the changed element
+		Dependents dependents = dependencies.getDependents(Collections.singleton(".title"));
+		assertTrue(dependents.hasSiblings());
+		assertFalse(dependents.hasDescendants());
+		assertTrue(dependents.affects(new TestElement("Text", engine)));
+		assertFalse(dependents.affects(new TestElement("Composite", engine)));
+	}
+
+	@Test
+	public void testAncestorClassInSibling() throws Exception {
+		addStyleSheet(".active Label + Text { color: red; }\n");
+
+		// the subject is a descendant of the changed element
+		Dependents dependents = dependencies.getDependents(Collections.singleton(".active"));
+		assertTrue(dependents.hasDescendants());
+		assertFalse(dependents.hasSiblings());
+		assertTrue(dependents.affects(new TestElement("Text", engine)));
+		assertFalse(dependents.affects(new TestElement("Label", engine)));
+	}
+
+	@Test
+	public void testInheritAffectsAllDescendants() throws Exception {
+		addStyleSheet(".active { color: red; }\n" + "Label { color: inherit; }\n");
+
+		Dependents dependents = dependencies.getDependents(Collections.singleton(".active"));
+		assertTrue(dependents.hasDescendants());
+		assertTrue(dependents.affects(new TestElement("Canvas", engine)));
+	}
+
+	@Test
+	public void testStyleSheetAdded() throws Exception {
+		addStyleSheet("Label { color: red; }\n");
+		assertFalse(dependencies.getDependents(Collections.singleton(".active")).hasDescendants());
+
+		addStyleSheet(".active Label { color: blue; }\n");
+		assertTrue(dependencies.getDependents(Collections.singleton(".active")).hasDescendants());
+	}
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+
+import org.eclipse.e4.ui.css.core.impl.dom.DocumentCSSImpl;
+import org.eclipse.e4.ui.css.core.impl.dom.ViewCSSImpl;
+import org.eclipse.e4.ui.tests.css.core.util.ParserTestUtil;
+import org.eclipse.e4.ui.tests.css.core.util.TestElement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.css.CSSStyleDeclaration;
+
+public class StyleSharingCacheTest {
+
+	private static class TestCSSEngine extends CSSEngineImpl {
+		@Override
+		public void reapply() {
+		}
+	}
+
+	private TestCSSEngine engine;
+
+	private DocumentCSSImpl docCss;
+
+	private StyleSharingCache cache;
+
+	@BeforeEach
+	public void setUp() {
+		engine = new TestCSSEngine();
+		docCss = new DocumentCSSImpl();
+		cache = new StyleSharingCache(docCss, new ViewCSSImpl(docCss));
+	}
+
+	private void addStyleSheet(String css) throws IOException {
+		docCss.addStyleSheet(ParserTestUtil.parseCss(css));
+	}
+
+	@Test
+	public void testStyleIsShared() throws Exception {
+		addStyleSheet("Button { color: blue; }\n" + "Button.flat { font-weight: bold; }\n");
+
+		TestElement first = new TestElement("Button", engine);
+		first.setClass("flat");
+		TestElement second = new TestElement("Button", engine);
+		second.setClass("flat");
+		CSSStyleDeclaration style = cache.getComputedStyle(first, null);
+		assertNotNull(style);
+		assertSame(style, cache.getComputedStyle(second, null));
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+
+		TestElement third = new TestElement("Button", engine);
+		CSSStyleDeclaration otherStyle = cache.getComputedStyle(third, null);
+		assertNotSame(style, otherStyle);
+		assertEquals("color: blue;", otherStyle.getCssText());
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	public void testMissingStyleIsShared() throws Exception {
+		addStyleSheet("Button { color: blue; }\n");
+
+		assertNull(cache.getComputedStyle(new TestElement("Label", engine), null));
+		assertNull(cache.getComputedStyle(new TestElement("Label", engine), null));
+		assertEquals(1, cache.getHits());
+	}
+
+	@Test
+	public void testAttributeChange() throws Exception {
+		addStyleSheet("Button[a='B'] { color: blue; }\n");
+
+		TestElement button = new TestElement("Button", engine);
+		assertNull(cache.getComputedStyle(button, null));
+		button.setAttribute("a", "B");
+		CSSStyleDeclaration style = cache.getComputedStyle(button, null);
+		assertNotNull(style);
+		assertEquals("color: blue;", style.getCssText());
+		assertEquals(0, cache.getHits());
+	}
+
+	@Test
+	public void testAncestors() throws Exception {
+		addStyleSheet("Shell Button { color: blue; }\n");
+
+		TestElement shell = new TestElement("Shell", engine);
+		TestElement composite = new TestElement("Composite", engine);
+		assertNotNull(cache.getComputedStyle(new TestElement("Button", shell, engine), null));
+		assertNull(cache.getComputedStyle(new TestElement("Button", composite, engine), null));
+		assertNotNull(cache.getComputedStyle(new TestElement("Button", shell, engine), null));
+		assertEquals(1, cache.getHits());
+	}
+
+	@Test
+	public void testStyleSheetAdded() throws Exception {
+		addStyleSheet("Button { color: blue; }\n");
+		assertNull(cache.getComputedStyle(new TestElement("Label", engine), null));
+
+		addStyleSheet("Label { color: red; }\n");
+		assertEquals(0, cache.size());
+		CSSStyleDeclaration style = cache.getComputedStyle(new TestElement("Label", engine), null);
+		assertNotNull(style);
+		assertEquals("color: red;", style.getCssText());
+	}
+
+	@Test
+	public void testSiblingSelectorBypassesCache() throws Exception {
+		addStyleSheet("Label + Button { color: blue; }\n");
+
+		cache.getComputedStyle(new TestElement("Button", engine), null);
+		cache.getComputedStyle(new TestElement("Button", engine), null);
+		assertEquals(2, cache.getBypasses());
+		assertEquals(0, cache.size());
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 IBM Corporation and others.
+ * Copyright (c) 2013, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,6 +16,8 @@
 package org.eclipse.e4.ui.tests.css.core;
 
 import org.eclipse.e4.ui.css.core.impl.engine.AbstractCSSEngineTest;
+import org.eclipse.e4.ui.css.core.impl.engine.SelectorDependenciesTest;
+import org.eclipse.e4.ui.css.core.impl.engine.StyleSharingCacheTest;
 import org.eclipse.e4.ui.tests.css.core.dom.CSSPropertyHandlerProviderTest;
 import org.eclipse.e4.ui.tests.css.core.parser.CascadeTest;
 import org.eclipse.e4.ui.tests.css.core.parser.FontFaceRulesTest;
@@ -45,6 +47,8 @@ import org.junit.runner.RunWith;
 	ImportTest.class,
 	InheritTest.class,
 	AbstractCSSEngineTest.class,
+	StyleSharingCacheTest.class,
+	SelectorDependenciesTest.class,
 	CSSPropertyHandlerProviderTest.class
 })
 public class CssCoreTestSuite {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 EclipseSource and others.
+ * Copyright (c) 2009, 2020 EclipseSource and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -120,6 +120,66 @@ public class ViewCSSTest {
 		assertEquals("color: blue;", buttonStyle.getCssText());
 	}
 
+	@Test
+	public void testGetComputedStyleByIdAndClass() throws Exception {
+		// rules indexed by id, class, element name and universal rules keep
+		// their order in the stylesheet
+		String css = "#main { color: red; }\n" + ".important { color: blue; }\n" + "Button { color: green; }\n"
+				+ "* { color: black; }\n" + "Button.other { color: yellow; }\n";
+		ViewCSS viewCSS = createViewCss(css);
+
+		TestElement label = new TestElement("Label", engine);
+		CSSStyleDeclaration labelStyle = viewCSS.getComputedStyle(label, null);
+		assertNotNull(labelStyle);
+		assertEquals("color: black;", labelStyle.getCssText());
+
+		TestElement button = new TestElement("Button", engine);
+		button.setId("main");
+		CSSStyleDeclaration buttonStyle = viewCSS.getComputedStyle(button, null);
+		assertNotNull(buttonStyle);
+		assertEquals("red", buttonStyle.getPropertyCSSValue("color").getCssText());
+
+		TestElement otherButton = new TestElement("Button", engine);
+		otherButton.setClass("important  other");
+		CSSStyleDeclaration otherButtonStyle = viewCSS.getComputedStyle(otherButton, null);
+		assertNotNull(otherButtonStyle);
+		assertEquals("yellow", otherButtonStyle.getPropertyCSSValue("color").getCssText());
+
+		TestElement importantLabel = new TestElement("Label", engine);
+		importantLabel.setClass("important");
+		CSSStyleDeclaration importantLabelStyle = viewCSS.getComputedStyle(importantLabel, null);
+		assertNotNull(importantLabelStyle);
+		assertEquals("blue", importantLabelStyle.getPropertyCSSValue("color").getCssText());
+	}
+
+	@Test
+	public void testGetComputedStyleByClassPrefix() throws Exception {
+		String css = ".important { color: blue; }\n";
+		ViewCSS viewCSS = createViewCss(css);
+
+		TestElement label = new TestElement("Label", engine);
+		label.setClass("importantly");
+		assertNull(viewCSS.getComputedStyle(label, null));
+	}
+
+	@Test
+	public void testSelectorIndexFlushed() throws Exception {
+		CSSStyleSheet styleSheet = ParserTestUtil.parseCss("Button { color: blue; }\n");
+		DocumentCSSImpl docCss = new DocumentCSSImpl();
+		docCss.addStyleSheet(styleSheet);
+		ViewCSSImpl viewCSS = new ViewCSSImpl(docCss);
+
+		TestElement label = new TestElement("Label", engine);
+		label.setId("main");
+		assertNull(viewCSS.getComputedStyle(label, null));
+
+		// add a new stylesheet => the new rules are indexed
+		docCss.addStyleSheet(ParserTestUtil.parseCss("#main { color: red; }\n"));
+		CSSStyleDeclaration labelStyle = viewCSS.getComputedStyle(label, null);
+		assertNotNull(labelStyle);
+		assertEquals("color: red;", labelStyle.getCssText());
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void testRuleCaching() throws Exception {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2016 IBM Corporation and others.
+ * Copyright (c) 2008, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -32,6 +32,7 @@ import org.eclipse.e4.ui.tests.css.swt.Bug419482Test;
 import org.eclipse.e4.ui.tests.css.swt.Bug459961Test;
 import org.eclipse.e4.ui.tests.css.swt.ButtonTest;
 import org.eclipse.e4.ui.tests.css.swt.ButtonTextTransformTest;
+import org.eclipse.e4.ui.tests.css.swt.CSSSWTRestylerTest;
 import org.eclipse.e4.ui.tests.css.swt.CSSSWTWidgetTest;
 import org.eclipse.e4.ui.tests.css.swt.CTabFolderTest;
 import org.eclipse.e4.ui.tests.css.swt.CTabItemTest;
@@ -49,6 +50,7 @@ import org.eclipse.e4.ui.tests.css.swt.LinkTest;
 import org.eclipse.e4.ui.tests.css.swt.MarginTest;
 import org.eclipse.e4.ui.tests.css.swt.ShellActiveTest;
 import org.eclipse.e4.ui.tests.css.swt.ShellTest;
+import org.eclipse.e4.ui.tests.css.swt.StyleSheetCacheTest;
 import org.eclipse.e4.ui.tests.css.swt.TableTest;
 import org.eclipse.e4.ui.tests.css.swt.TextTextTransformTest;
 import org.eclipse.e4.ui.tests.css.swt.ThemeTest;
@@ -87,7 +89,9 @@ import org.junit.runners.Suite;
 	LabelTextTransformTest.class,
 	TextTextTransformTest.class,
 	DescendentTest.class,
+	CSSSWTRestylerTest.class,
 	ThemeTest.class,
+	StyleSheetCacheTest.class,
 	Bug459961Test.class,
 	Bug419482Test.class,
 	ShellActiveTest.class,
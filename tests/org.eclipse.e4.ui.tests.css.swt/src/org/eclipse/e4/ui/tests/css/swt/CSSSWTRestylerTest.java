@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.tests.css.swt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.e4.ui.css.swt.dom.WidgetElement;
+import org.eclipse.e4.ui.css.swt.engine.CSSSWTEngineImpl;
+import org.eclipse.e4.ui.css.swt.engine.CSSSWTRestyler;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+import org.junit.Test;
+
+public class CSSSWTRestylerTest extends CSSSWTTestCase {
+
+	private Composite panel;
+
+	private Label label;
+
+	private Label other;
+
+	private CSSSWTRestyler createRestyler(String styleSheet) {
+		engine = createEngine(styleSheet, display);
+
+		Shell shell = new Shell(display, SWT.SHELL_TRIM);
+		shell.setLayout(new FillLayout());
+
+		panel = new Composite(shell, SWT.NONE);
+		panel.setLayout(new FillLayout());
+		WidgetElement.setCSSClass(panel, "first");
+
+		label = new Label(panel, SWT.NONE);
+		other = new Label(panel, SWT.NONE);
+		WidgetElement.setCSSClass(other, "other");
+
+		engine.applyStyles(shell, true);
+		shell.pack();
+		return ((CSSSWTEngineImpl) engine).getRestyler();
+	}
+
+	@Test
+	public void testRestyleIsSynchronous() {
+		CSSSWTRestyler restyler = createRestyler(".first Label { color: #FF0000 }\n"
+				+ ".second Label { color: #00FF00 }\n" + ".second { background-color: #0000FF }");
+		assertEquals(RED, label.getForeground().getRGB());
+
+		WidgetElement.setCSSClass(panel, "second");
+		assertTrue(restyler.restyle(panel, "first", null));
+
+		// the new styles are applied when restyle returns
+		assertEquals(BLUE, panel.getBackground().getRGB());
+		assertEquals(GREEN, label.getForeground().getRGB());
+		assertEquals(GREEN, other.getForeground().getRGB());
+	}
+
+	@Test
+	public void testRestyleOnlyAffectedDescendants() {
+		CSSSWTRestyler restyler = createRestyler(".second .other { color: #00FF00 }");
+
+		long restyled = restyler.getRestyledElements();
+		WidgetElement.setCSSClass(panel, "second");
+		assertTrue(restyler.restyle(panel, "first", null));
+
+		// the panel and the label with the other class, not the plain label
+		assertEquals(restyled + 2, restyler.getRestyledElements());
+		assertEquals(GREEN, other.getForeground().getRGB());
+	}
+
+	@Test
+	public void testRestyleId() {
+		CSSSWTRestyler restyler = createRestyler("#main Label { color: #0000FF }");
+
+		WidgetElement.setID(panel, "main");
+		assertTrue(restyler.restyle(panel, "first", null));
+		assertEquals(BLUE, label.getForeground().getRGB());
+	}
+
+	@Test
+	public void testFirstStyling() {
+		CSSSWTRestyler restyler = createRestyler("Label { color: #FF0000 }");
+
+		long restyled = restyler.getRestyledElements();
+		WidgetElement.setCSSClass(label, "new");
+		assertFalse(restyler.restyle(label, null, null));
+		assertEquals(restyled, restyler.getRestyledElements());
+	}
+}
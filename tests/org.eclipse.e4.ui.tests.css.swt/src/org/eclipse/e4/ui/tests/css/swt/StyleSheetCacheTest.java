@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.tests.css.swt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.eclipse.e4.ui.css.swt.internal.theme.StyleSheetCache;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.stylesheets.StyleSheet;
+
+public class StyleSheetCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private StyleSheetCache cache;
+
+	private File main;
+
+	private File imported;
+
+	@Before
+	public void setUp() throws IOException {
+		cache = new StyleSheetCache();
+		main = write("main.css", "@import url(\"imported.css\");\nLabel { color: red; }");
+		imported = write("imported.css", "Button { color: blue; }");
+	}
+
+	@Test
+	public void testHit() throws IOException {
+		StyleSheet styleSheet = mock(StyleSheet.class);
+		assertNull(get(main));
+		put(main, styleSheet);
+
+		assertSame(styleSheet, get(main));
+		assertSame(styleSheet, get(main));
+		assertEquals(2, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void testMissForOtherStyleSheet() throws IOException {
+		put(main, mock(StyleSheet.class));
+
+		assertNull(get(imported));
+		assertEquals(0, cache.getHits());
+	}
+
+	@Test
+	public void testInvalidatedByChangedContent() throws IOException {
+		put(main, mock(StyleSheet.class));
+
+		write("main.css", "@import url(\"imported.css\");\nLabel { color: green; }");
+		assertNull(get(main));
+	}
+
+	@Test
+	public void testInvalidatedByChangedImport() throws IOException {
+		put(main, mock(StyleSheet.class));
+		// records the digest of the imports
+		assertNotNull(get(main));
+
+		write("imported.css", "Button { color: green; }");
+		assertNull(get(main));
+
+		StyleSheet styleSheet = mock(StyleSheet.class);
+		put(main, styleSheet);
+		assertSame(styleSheet, get(main));
+	}
+
+	@Test
+	public void testInvalidatedByChangedNestedImport() throws IOException {
+		write("imported.css", "@import 'nested.css';\nButton { color: blue; }");
+		write("nested.css", "Text { color: blue; }");
+		put(main, mock(StyleSheet.class));
+		assertNotNull(get(main));
+
+		write("nested.css", "Text { color: green; }");
+		assertNull(get(main));
+	}
+
+	@Test
+	public void testCyclicImports() throws IOException {
+		write("imported.css", "@import url(main.css);\nButton { color: blue; }");
+		assertNotNull(StyleSheetCache.digest(toURL(main), StyleSheetCache.read(toURL(main))));
+	}
+
+	@Test
+	public void testMissingImportNotCached() throws IOException {
+		write("imported.css", "@import url(missing.css);\nButton { color: blue; }");
+		URL url = toURL(main);
+		assertNull(StyleSheetCache.digest(url, StyleSheetCache.read(url)));
+
+		put(main, mock(StyleSheet.class));
+		assertNull(get(main));
+	}
+
+	private StyleSheet get(File file) throws IOException {
+		URL url = toURL(file);
+		return cache.get(url, StyleSheetCache.read(url));
+	}
+
+	private void put(File file, StyleSheet styleSheet) throws IOException {
+		URL url = toURL(file);
+		cache.put(url, StyleSheetCache.read(url), styleSheet);
+	}
+
+	private File write(String name, String content) throws IOException {
+		File file = new File(folder.getRoot(), name);
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private static URL toURL(File file) throws IOException {
+		return file.toURI().toURL();
+	}
+}
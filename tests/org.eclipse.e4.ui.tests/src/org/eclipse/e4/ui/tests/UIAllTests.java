@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2019 IBM Corporation and others.
+ * Copyright (c) 2009, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,6 +20,7 @@ import org.eclipse.e4.ui.tests.application.Bug299755Test;
 import org.eclipse.e4.ui.tests.application.Bug308220Test;
 import org.eclipse.e4.ui.tests.application.Bug320857Test;
 import org.eclipse.e4.ui.tests.application.E4ResourceTest;
+import org.eclipse.e4.ui.tests.application.IncrementalModelCopyTest;
 import org.eclipse.e4.ui.tests.application.ModelElementTest;
 import org.eclipse.e4.ui.tests.application.ModelRobustnessTest;
 import org.eclipse.e4.ui.tests.application.ResourceHandlerTest;
@@ -87,6 +88,7 @@ import org.junit.runners.Suite;
 		Bug308317Test.class,
 		ModelRobustnessTest.class,
 		ResourceHandlerTest.class,
+		IncrementalModelCopyTest.class,
 		InjectionEventTest.class,
 		PartFocusTest.class,
 		ModelElementTest.class,
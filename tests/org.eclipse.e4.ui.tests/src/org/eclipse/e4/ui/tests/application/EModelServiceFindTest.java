@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 IBM Corporation and others.
+ * Copyright (c) 2009, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,6 +21,7 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.ui.internal.workbench.swt.E4Application;
@@ -39,6 +40,8 @@ import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
 import org.eclipse.e4.ui.model.application.ui.basic.MPart;
 import org.eclipse.e4.ui.model.application.ui.basic.MPartSashContainer;
 import org.eclipse.e4.ui.model.application.ui.basic.MPartStack;
+import org.eclipse.e4.ui.model.application.ui.basic.MTrimBar;
+import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
 import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
 import org.eclipse.e4.ui.model.application.ui.menu.MMenu;
 import org.eclipse.e4.ui.model.application.ui.menu.MMenuElement;
@@ -46,6 +49,7 @@ import org.eclipse.e4.ui.model.application.ui.menu.MToolBar;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolBarElement;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolControl;
 import org.eclipse.e4.ui.workbench.modeling.EModelService;
+import org.eclipse.e4.ui.workbench.modeling.ElementMatcher;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -431,4 +435,149 @@ public class EModelServiceFindTest {
 		assertEquals(1, elements.size());
 		assertEquals(part, elements.get(0));
 	}
+
+	@Test
+	public void testFindElementsAfterIdAndTagChanges() {
+		MApplication application = createApplication();
+		EModelService modelService = application.getContext().get(EModelService.class);
+
+		MPart part = modelService.findElements(application, null, MPart.class, Collections.singletonList("secondTag")).get(0);
+		part.setElementId("changedId");
+		assertEquals(1, modelService.findElements(application, "changedId", MPart.class).size());
+
+		part.setElementId("otherId");
+		assertEquals(0, modelService.findElements(application, "changedId", MPart.class).size());
+		assertEquals(part, modelService.find("otherId", application));
+
+		part.getTags().remove("secondTag");
+		assertEquals(0, modelService.findElements(application, null, null, Collections.singletonList("secondTag")).size());
+		part.getTags().add("thirdTag");
+		assertEquals(1, modelService.findElements(application, null, null, Collections.singletonList("thirdTag")).size());
+	}
+
+	@Test
+	public void testFindApplication() {
+		MApplication application = createApplication();
+		EModelService modelService = application.getContext().get(EModelService.class);
+
+		application.setElementId("applicationId");
+		application.getTags().add("applicationTag");
+		assertEquals(Collections.singletonList(application),
+				modelService.findElements(application, "applicationId", MApplication.class));
+		assertEquals(Collections.singletonList(application),
+				modelService.findElements(application, null, null, Collections.singletonList("applicationTag")));
+	}
+
+	@Test
+	public void testFindElementsAfterRemoval() {
+		MApplication application = createApplication();
+		EModelService modelService = application.getContext().get(EModelService.class);
+
+		MPart part = modelService.createModelElement(MPart.class);
+		part.setElementId("removedId");
+		MPartStack stack = modelService.findElements(application, null, MPartStack.class).get(0);
+		stack.getChildren().add(part);
+		assertEquals(part, modelService.find("removedId", application));
+
+		stack.getChildren().remove(part);
+		assertNull(modelService.find("removedId", application));
+
+		stack.getChildren().add(part);
+		assertEquals(part, modelService.find("removedId", application));
+	}
+
+	@Test
+	public void testFindSharedElementThroughPlaceholder() {
+		MApplication application = createApplication();
+		EModelService modelService = application.getContext().get(EModelService.class);
+
+		MWindow window = modelService.createModelElement(MWindow.class);
+		application.getChildren().add(window);
+
+		MPerspectiveStack perspectiveStack = modelService.createModelElement(MPerspectiveStack.class);
+		window.getChildren().add(perspectiveStack);
+
+		MPerspective perspectiveA = modelService.createModelElement(MPerspective.class);
+		perspectiveStack.getChildren().add(perspectiveA);
+		perspectiveStack.setSelectedElement(perspectiveA);
+
+		MPerspective perspectiveB = modelService.createModelElement(MPerspective.class);
+		perspectiveStack.getChildren().add(perspectiveB);
+
+		MPart part = modelService.createModelElement(MPart.class);
+		part.setElementId("sharedPartId");
+		window.getSharedElements().add(part);
+		assertNull(modelService.find("sharedPartId", window));
+
+		MPlaceholder placeholder = modelService.createModelElement(MPlaceholder.class);
+		placeholder.setRef(part);
+		perspectiveB.getChildren().add(placeholder);
+		assertEquals(part, modelService.find("sharedPartId", window));
+		assertEquals(0, modelService.findElements(window, "sharedPartId", MPart.class, null,
+				EModelService.PRESENTATION).size());
+
+		perspectiveStack.setSelectedElement(perspectiveB);
+		assertEquals(1, modelService.findElements(window, "sharedPartId", MPart.class, null,
+				EModelService.PRESENTATION).size());
+
+		perspectiveB.getChildren().remove(placeholder);
+		assertNull(modelService.find("sharedPartId", window));
+	}
+
+	@Test
+	public void testFindElementsWithTagInSearchOrder() {
+		MApplication application = createApplication();
+		EModelService modelService = application.getContext().get(EModelService.class);
+		MWindow window = application.getChildren().get(0);
+		MPartStack stack = modelService.findElements(application, null, MPartStack.class).get(0);
+
+		// tag the elements in an order unrelated to their position in the model
+		MTrimmedWindow trimmedWindow = modelService.createModelElement(MTrimmedWindow.class);
+		trimmedWindow.getTags().add("orderTag");
+		application.getChildren().add(trimmedWindow);
+
+		MTrimBar trimBar = modelService.createModelElement(MTrimBar.class);
+		trimBar.getTags().add("orderTag");
+		trimmedWindow.getTrimBars().add(trimBar);
+
+		MPart lastPart = modelService.createModelElement(MPart.class);
+		lastPart.getTags().add("orderTag");
+		stack.getChildren().add(lastPart);
+
+		MPart firstPart = modelService.createModelElement(MPart.class);
+		firstPart.getTags().add("orderTag");
+		stack.getChildren().add(0, firstPart);
+
+		MWindow detachedWindow = modelService.createModelElement(MWindow.class);
+		detachedWindow.getTags().add("orderTag");
+		window.getWindows().add(detachedWindow);
+
+		window.getMainMenu().getTags().add("orderTag");
+		modelService.findElements(application, "menuId", MMenu.class).get(0).getTags().add("orderTag");
+		modelService.findElements(application, "toolBarId", MToolBar.class).get(0).getTags().add("orderTag");
+		window.getTags().add("orderTag");
+
+		MHandler windowHandler = modelService.createModelElement(MHandler.class);
+		windowHandler.getTags().add("orderTag");
+		window.getHandlers().add(windowHandler);
+
+		MHandler applicationHandler = modelService.createModelElement(MHandler.class);
+		applicationHandler.getTags().add("orderTag");
+		application.getHandlers().add(applicationHandler);
+
+		List<String> tags = Collections.singletonList("orderTag");
+		int[] searchFlags = { EModelService.ANYWHERE, EModelService.PRESENTATION, EModelService.IN_PART,
+				EModelService.IN_TRIM, EModelService.IN_MAIN_MENU, EModelService.OUTSIDE_PERSPECTIVE };
+		for (MUIElement searchRoot : new MUIElement[] { application, window, stack }) {
+			for (int flags : searchFlags) {
+				for (Class<?> clazz : new Class<?>[] { null, MPart.class, MWindow.class, MHandler.class }) {
+					List<?> expected = modelService.findElements(searchRoot, clazz, flags,
+							new ElementMatcher(null, clazz, tags));
+					assertEquals(expected, modelService.findElements(searchRoot, null, clazz, tags, flags));
+				}
+			}
+		}
+		assertEquals(2, modelService.findElements(application, null, MHandler.class, tags).size());
+		assertEquals(applicationHandler, modelService.findElements(application, null, MHandler.class, tags).get(0));
+	}
 }
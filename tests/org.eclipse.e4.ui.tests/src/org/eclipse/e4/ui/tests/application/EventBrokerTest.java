@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2015 Brian de Alwis and others.
+ * Copyright (c) 2012, 2020 Brian de Alwis and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -31,6 +31,8 @@ import org.osgi.service.event.EventHandler;
 public class EventBrokerTest extends UITest {
 	private static final String TEST_TOPIC = "test/EventBrokerTest";
 
+	private static final String UI_TEST_TOPIC = "org/eclipse/e4/ui/test/EventBrokerTest";
+
 	private AtomicInteger seen;
 	private IEclipseContext context;
 
@@ -111,4 +113,52 @@ public class EventBrokerTest extends UITest {
 		assertEquals("subscription was not removed", 2, seen.get());
 	}
 
+	@Test
+	public void testUITopicSubscriptions() {
+		IEventBroker eb = context.get(IEventBroker.class);
+		assertNotNull(eb);
+		AtomicInteger wildcardSeen = new AtomicInteger(0);
+		EventHandler handler = event -> seen.incrementAndGet();
+		EventHandler wildcardHandler = event -> wildcardSeen.incrementAndGet();
+
+		eb.subscribe(UI_TEST_TOPIC + "/SET", handler);
+		eb.subscribe(UI_TEST_TOPIC + "/*", wildcardHandler);
+		eb.send(UI_TEST_TOPIC + "/SET", new Object());
+		eb.send(UI_TEST_TOPIC + "/ADD", new Object());
+		eb.send(UI_TEST_TOPIC, new Object());
+		assertEquals(1, seen.get());
+		assertEquals(2, wildcardSeen.get());
+
+		eb.unsubscribe(handler);
+		eb.send(UI_TEST_TOPIC + "/SET", new Object());
+		assertEquals("subscription was not removed", 1, seen.get());
+		assertEquals(3, wildcardSeen.get());
+	}
+
+	@Test
+	public void testUITopicUnsubscribeDuringDispatch() {
+		IEventBroker eb = context.get(IEventBroker.class);
+		assertNotNull(eb);
+		EventHandler second = event -> seen.incrementAndGet();
+		EventHandler first = event -> eb.unsubscribe(second);
+
+		eb.subscribe(UI_TEST_TOPIC, first);
+		eb.subscribe(UI_TEST_TOPIC, second);
+		eb.send(UI_TEST_TOPIC, new Object());
+		assertEquals("handler unsubscribed during the dispatch was called", 0, seen.get());
+
+		eb.unsubscribe(first);
+	}
+
+	@Test
+	public void testUITopicFilter() {
+		IEventBroker eb = context.get(IEventBroker.class);
+		assertNotNull(eb);
+		eb.subscribe(UI_TEST_TOPIC, "(" + IEventBroker.DATA + "=match)", event -> seen.incrementAndGet(), true);
+
+		eb.send(UI_TEST_TOPIC, "match");
+		eb.send(UI_TEST_TOPIC, "other");
+		assertEquals(1, seen.get());
+	}
+
 }
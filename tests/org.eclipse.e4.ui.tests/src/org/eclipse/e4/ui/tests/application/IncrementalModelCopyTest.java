@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.tests.application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.e4.ui.internal.workbench.IncrementalModelCopy;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MBasicFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartStack;
+import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IncrementalModelCopyTest {
+
+	private MApplication application;
+
+	private MTrimmedWindow window;
+
+	private MPartStack stack;
+
+	private MPart part;
+
+	private IncrementalModelCopy modelCopy;
+
+	@Before
+	public void setUp() {
+		application = MApplicationFactory.INSTANCE.createApplication();
+		window = MBasicFactory.INSTANCE.createTrimmedWindow();
+		application.getChildren().add(window);
+		stack = MBasicFactory.INSTANCE.createPartStack();
+		window.getChildren().add(stack);
+		part = MBasicFactory.INSTANCE.createPart();
+		part.setLabel("part");
+		stack.getChildren().add(part);
+		stack.setSelectedElement(part);
+		modelCopy = new IncrementalModelCopy((EObject) application);
+	}
+
+	@After
+	public void tearDown() {
+		modelCopy.dispose();
+	}
+
+	@Test
+	public void testInitialCopy() {
+		EObject copy = modelCopy.update();
+		assertNotSame(application, copy);
+		assertFalse(modelCopy.isChanged());
+		assertTrue(EcoreUtil.equals((EObject) application, copy));
+	}
+
+	@Test
+	public void testUpdateAttributes() {
+		EObject copy = modelCopy.update();
+		part.setLabel("renamed");
+		part.getPersistedState().put("key", "value");
+		part.getTags().add("tag");
+		assertTrue(modelCopy.isChanged());
+
+		assertSame(copy, modelCopy.update());
+		assertFalse(modelCopy.isChanged());
+		assertTrue(EcoreUtil.equals((EObject) application, copy));
+	}
+
+	@Test
+	public void testUpdateContainments() {
+		EObject copy = modelCopy.update();
+		MPart added = MBasicFactory.INSTANCE.createPart();
+		added.setLabel("added");
+		stack.getChildren().add(0, added);
+		MPartStack other = MBasicFactory.INSTANCE.createPartStack();
+		window.getChildren().add(other);
+		other.getChildren().add(part);
+		other.setSelectedElement(part);
+		stack.setSelectedElement(added);
+
+		modelCopy.update();
+		assertTrue(EcoreUtil.equals((EObject) application, copy));
+
+		window.getChildren().remove(other);
+		part.setLabel("removed");
+		modelCopy.update();
+		assertTrue(EcoreUtil.equals((EObject) application, copy));
+		assertEquals(1, ((MApplication) copy).getChildren().get(0).getChildren().size());
+	}
+
+	@Test
+	public void testUpdateReferences() {
+		EObject copy = modelCopy.update();
+		MPart second = MBasicFactory.INSTANCE.createPart();
+		stack.getChildren().add(second);
+		stack.setSelectedElement(second);
+		window.setSelectedElement(stack);
+
+		modelCopy.update();
+		assertTrue(EcoreUtil.equals((EObject) application, copy));
+		MPartStack stackCopy = (MPartStack) ((MApplication) copy).getChildren().get(0).getChildren().get(0);
+		assertSame(stackCopy.getChildren().get(1), stackCopy.getSelectedElement());
+
+		stack.setSelectedElement(null);
+		modelCopy.update();
+		assertTrue(EcoreUtil.equals((EObject) application, copy));
+	}
+
+	@Test
+	public void testDispose() {
+		EObject copy = modelCopy.update();
+		modelCopy.dispose();
+		part.setLabel("renamed");
+		assertFalse(modelCopy.isChanged());
+		assertFalse(EcoreUtil.equals((EObject) application, copy));
+	}
+}
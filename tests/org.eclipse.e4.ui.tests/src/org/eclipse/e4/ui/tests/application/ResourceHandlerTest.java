@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2017 IBM Corporation and others.
+ * Copyright (c) 2010, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,12 +19,16 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.ui.internal.workbench.BinaryModelSnapshot;
 import org.eclipse.e4.ui.internal.workbench.E4Workbench;
 import org.eclipse.e4.ui.internal.workbench.E4XMIResource;
 import org.eclipse.e4.ui.internal.workbench.ResourceHandler;
@@ -74,11 +78,16 @@ public class ResourceHandlerTest {
 	}
 
 	private ResourceHandler createHandler(URI uri) {
+		return createHandler(uri, false);
+	}
+
+	private ResourceHandler createHandler(URI uri, boolean binaryModelFormat) {
 		IEclipseContext appContext = E4Application.createDefaultContext();
 		IEclipseContext localContext = appContext.createChild();
 		localContext.set(E4Workbench.INSTANCE_LOCATION, getInstanceLocation());
 		localContext.set(IWorkbench.PERSIST_STATE, Boolean.TRUE);
 		localContext.set(IWorkbench.CLEAR_PERSISTED_STATE, Boolean.TRUE);
+		localContext.set(ResourceHandler.BINARY_MODEL_FORMAT, Boolean.valueOf(binaryModelFormat));
 
 		localContext.set(E4Workbench.INITIAL_WORKBENCH_MODEL_URI, uri);
 
@@ -229,4 +238,85 @@ public class ResourceHandlerTest {
 		MApplication unchangedApplication = (MApplication) verifyResource.getContents().get(0);
 		assertEquals(2, unchangedApplication.getChildren().size());
 	}
+
+	@Test
+	public void testBinaryModelSnapshot() throws IOException {
+		URI uri = URI.createPlatformPluginURI("org.eclipse.e4.ui.tests/xmi/modelprocessor/base.e4xmi", true);
+
+		ResourceHandler handler = createHandler(uri, true);
+		Resource resource = handler.loadMostRecentModel();
+		MApplication application = (MApplication) resource.getContents().get(0);
+
+		MWindow dynamicWindow = MBasicFactory.INSTANCE.createWindow();
+		dynamicWindow.getPersistedState().put(IWorkbench.PERSIST_STATE, "false");
+		application.getChildren().add(dynamicWindow);
+
+		Path output = Files.createTempFile(null, ".xmi");
+		Files.delete(output);
+		resource.setURI(URI.createFileURI(output.toString()));
+		handler.save();
+
+		String name = output.getFileName().toString();
+		File snapshot = new File(output.getParent().toFile(),
+				name.substring(0, name.length() - ".xmi".length()) + '.' + BinaryModelSnapshot.FILE_EXTENSION);
+		snapshot.deleteOnExit();
+		assertTrue("Snapshot was not written", snapshot.exists());
+		assertTrue("XMI should not be written", !output.toFile().exists());
+
+		E4XMIResource restored = new E4XMIResource(resource.getURI());
+		try (InputStream in = new FileInputStream(snapshot)) {
+			BinaryModelSnapshot.load(restored, in);
+		}
+		MApplication restoredApplication = (MApplication) restored.getContents().get(0);
+		assertEquals(2, restoredApplication.getChildren().size());
+
+		// the IDs of the XMI model are preserved
+		MWindow mWindow2 = restoredApplication.getChildren().get(1);
+		assertEquals("fragment.contributedWindow", mWindow2.getElementId());
+		assertEquals("_w4fQ8HVHEd-aXt9fFntEtw", restored.getID((EObject) mWindow2));
+		assertEquals("_rdlLgJQUEd-6X_lmWgGEDA", restored.getID((EObject) mWindow2.getChildren().get(0)));
+		assertEquals(application.getCommands().size(), restoredApplication.getCommands().size());
+	}
+
+	@Test
+	public void testBinaryModelSnapshotWithTransientData() throws IOException {
+		URI uri = URI.createPlatformPluginURI("org.eclipse.e4.ui.tests/xmi/modelprocessor/base.e4xmi", true);
+
+		ResourceHandler handler = createHandler(uri, true);
+		Resource resource = handler.loadMostRecentModel();
+		MApplication application = (MApplication) resource.getContents().get(0);
+		MWindow window = application.getChildren().get(1);
+		application.getTransientData().put("application", "value");
+		window.getTransientData().put("window", "value");
+		window.getChildren().get(0).getTransientData().put("child", Boolean.TRUE);
+
+		Path output = Files.createTempFile(null, ".xmi");
+		Files.delete(output);
+		resource.setURI(URI.createFileURI(output.toString()));
+		handler.save();
+
+		String name = output.getFileName().toString();
+		File snapshot = new File(output.getParent().toFile(),
+				name.substring(0, name.length() - ".xmi".length()) + '.' + BinaryModelSnapshot.FILE_EXTENSION);
+		snapshot.deleteOnExit();
+
+		E4XMIResource restored = new E4XMIResource(resource.getURI());
+		try (InputStream in = new FileInputStream(snapshot)) {
+			BinaryModelSnapshot.load(restored, in);
+		}
+		MApplication restoredApplication = (MApplication) restored.getContents().get(0);
+		MWindow restoredWindow = restoredApplication.getChildren().get(1);
+
+		// the transient data is not written, and the IDs still match their elements
+		assertTrue(restoredApplication.getTransientData().isEmpty());
+		assertTrue(restoredWindow.getTransientData().isEmpty());
+		assertEquals("fragment.contributedWindow", restoredWindow.getElementId());
+		assertEquals("_w4fQ8HVHEd-aXt9fFntEtw", restored.getID((EObject) restoredWindow));
+		assertEquals("_rdlLgJQUEd-6X_lmWgGEDA", restored.getID((EObject) restoredWindow.getChildren().get(0)));
+		assertEquals(((E4XMIResource) resource).getID((EObject) application.getCommands().get(0)),
+				restored.getID((EObject) restoredApplication.getCommands().get(0)));
+
+		// the model itself keeps its transient data
+		assertEquals("value", window.getTransientData().get("window"));
+	}
 }
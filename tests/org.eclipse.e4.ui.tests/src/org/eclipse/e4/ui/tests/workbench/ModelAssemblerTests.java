@@ -17,13 +17,20 @@
 package org.eclipse.e4.ui.tests.workbench;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import org.eclipse.core.internal.registry.ExtensionRegistry;
@@ -40,6 +47,7 @@ import org.eclipse.e4.ui.internal.workbench.E4XMIResource;
 import org.eclipse.e4.ui.internal.workbench.E4XMIResourceFactory;
 import org.eclipse.e4.ui.internal.workbench.ExtensionsSort;
 import org.eclipse.e4.ui.internal.workbench.ModelAssembler;
+import org.eclipse.e4.ui.internal.workbench.ModelFragmentCache;
 import org.eclipse.e4.ui.internal.workbench.swt.E4Application;
 import org.eclipse.e4.ui.model.application.MApplication;
 import org.eclipse.e4.ui.model.application.MApplicationElement;
@@ -60,6 +68,7 @@ import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.URIConverter;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -344,6 +353,69 @@ public class ModelAssemblerTests {
 		verifyZeroInteractions(logger);
 	}
 
+	/**
+	 * Tests that the fragments of several fragment files, which are read
+	 * concurrently, are all contributed to the application model.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testFragments_severalFragments() throws Exception {
+		processFragments("org.eclipse.e4.ui.tests/data/ModelAssembler/severalFragments.xml");
+
+		assertContributedWindow("severalFragments-window1");
+		assertContributedWindow("severalFragments-window2");
+		verifyZeroInteractions(logger);
+	}
+
+	/**
+	 * Tests that a fragment file which cannot be read is reported, and does not
+	 * prevent the other fragments from being contributed.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testFragments_failingFragment() throws Exception {
+		processFragments("org.eclipse.e4.ui.tests/data/ModelAssembler/failingFragment.xml");
+
+		verify(logger).warn(any(Throwable.class), anyString());
+		assertContributedWindow("severalFragments-window1");
+	}
+
+	/**
+	 * Tests that a fragment file referenced by two configuration elements is read
+	 * once, and its fragments are contributed once.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testFragments_sharedURI() throws Exception {
+		processFragments("org.eclipse.e4.ui.tests/data/ModelAssembler/sharedFragment.xml");
+
+		assertContributedWindow("severalFragments-window1");
+		int count = 0;
+		for (Resource resource : resourceSet.getResources()) {
+			if (resource.getURI().toString().endsWith("severalFragments-fragment1.e4xmi")) {
+				count++;
+			}
+		}
+		assertEquals(1, count);
+		verifyZeroInteractions(logger);
+	}
+
+	private void processFragments(String filePath) throws Exception {
+		IContributor contributor = ContributorFactorySimple.createContributor(BUNDLE_SYMBOLIC_NAME);
+		IExtensionRegistry registry = createTestExtensionRegistry();
+		registry.addContribution(getContentsAsInputStream(filePath), contributor, false, null, null, null);
+		assembler.processModel(true);
+	}
+
+	private void assertContributedWindow(String elementId) {
+		List<MWindow> windows = modelService.findElements(application, elementId, MWindow.class);
+		assertEquals(1, windows.size());
+		assertSame(application, windows.get(0).getParent());
+	}
+
 	/**
 	 * Tests that pre-processors running from a non-persisted state that are
 	 * marked as "always" are executed.
@@ -501,6 +573,44 @@ public class ModelAssemblerTests {
 		assertEquals("simpleprocessor.post", application.getDescriptors().get(0).getElementId());
 	}
 
+	/**
+	 * Tests that a fragment read from the cache equals the fragment read from XMI,
+	 * including the IDs of its elements.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testModelFragmentCache() throws Exception {
+		Path directory = Files.createTempDirectory("fragmentCache");
+		try {
+			ModelFragmentCache cache = new ModelFragmentCache(directory.toFile(), logger);
+			URI uri = URI.createPlatformPluginURI(
+					"org.eclipse.e4.ui.tests/data/ModelAssembler/modelProcessingOrder-fragment.e4xmi", true);
+
+			E4XMIResource parsed = (E4XMIResource) factory.createResource(uri);
+			cache.load(parsed, BUNDLE_SYMBOLIC_NAME, null);
+			assertEquals(1, directory.toFile().list().length);
+			EObject parsedRoot = parsed.getContents().get(0);
+			cache.load(parsed, BUNDLE_SYMBOLIC_NAME, null);
+			assertSame(parsedRoot, parsed.getContents().get(0));
+
+			E4XMIResource cached = (E4XMIResource) factory.createResource(uri);
+			cache.load(cached, BUNDLE_SYMBOLIC_NAME, null);
+			assertNotSame(parsed, cached);
+			assertTrue(EcoreUtil.equals(parsed.getContents(), cached.getContents()));
+			MModelFragments fragments = (MModelFragments) cached.getContents().get(0);
+			MPlaceholder placeholder = (MPlaceholder) fragments.getFragments().get(0).getElements().get(0);
+			assertEquals("_ltfLANscEeWEUpR9iKVK6Q", cached.getInternalId((EObject) placeholder));
+			assertSame(fragments.getImports().get(0), placeholder.getRef());
+			verifyZeroInteractions(logger);
+		} finally {
+			for (File file : directory.toFile().listFiles()) {
+				file.delete();
+			}
+			Files.delete(directory);
+		}
+	}
+
 	private void testProcessor(String filePath, boolean initial, boolean afterFragments) throws Exception {
 		IContributor contributor = ContributorFactorySimple.createContributor(BUNDLE_SYMBOLIC_NAME);
 		IExtensionRegistry registry = createTestExtensionRegistry();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2019 IBM Corporation and others.
+ * Copyright (c) 2009, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -30,7 +30,10 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.statusreporter.StatusReporter;
+import org.eclipse.e4.ui.css.core.engine.CSSEngine;
+import org.eclipse.e4.ui.css.swt.dom.WidgetElement;
 import org.eclipse.e4.ui.internal.workbench.swt.IEventLoopAdvisor;
+import org.eclipse.e4.ui.internal.workbench.swt.PartRenderingEngine;
 import org.eclipse.e4.ui.model.application.MApplication;
 import org.eclipse.e4.ui.model.application.descriptor.basic.MPartDescriptor;
 import org.eclipse.e4.ui.model.application.ui.advanced.MArea;
@@ -47,7 +50,9 @@ import org.eclipse.e4.ui.model.application.ui.menu.MDirectMenuItem;
 import org.eclipse.e4.ui.model.application.ui.menu.MMenu;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolBar;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolControl;
+import org.eclipse.e4.ui.services.IStylingEngine;
 import org.eclipse.e4.ui.tests.rules.WorkbenchContextRule;
+import org.eclipse.e4.ui.workbench.IWorkbench;
 import org.eclipse.e4.ui.workbench.IPresentationEngine;
 import org.eclipse.e4.ui.workbench.addons.cleanupaddon.CleanupAddon;
 import org.eclipse.e4.ui.workbench.modeling.EModelService;
@@ -57,9 +62,11 @@ import org.eclipse.e4.ui.workbench.renderers.swt.StackRenderer;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.CTabFolder;
 import org.eclipse.swt.custom.CTabItem;
+import org.eclipse.swt.graphics.RGB;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.ToolBar;
 import org.eclipse.swt.widgets.Widget;
@@ -1599,6 +1606,78 @@ public class PartRenderingEngineTests {
 		contextRule.createAndRunWorkbench(window);
 	}
 
+	@Test
+	public void testStylingEngineRestylesSynchronously() {
+		Display display = Display.getDefault();
+		CSSEngine previousEngine = WidgetElement.getEngine(display);
+		IEclipseContext stylingContext = appContext.createChild();
+		stylingContext.set(IWorkbench.CSS_URI_ARG, "platform:/plugin/org.eclipse.e4.ui.tests/data/css/restyle.css");
+		Shell shell = new Shell(display);
+		try {
+			PartRenderingEngine.initializeStyling(display, stylingContext);
+			IStylingEngine stylingEngine = stylingContext.get(IStylingEngine.class);
+
+			Composite composite = new Composite(shell, SWT.NONE);
+			Label label = new Label(composite, SWT.NONE);
+			stylingEngine.setClassname(composite, "first");
+			assertEquals(new RGB(255, 0, 0), label.getForeground().getRGB());
+
+			// the styles of the class change can be read right away
+			stylingEngine.setClassname(composite, "second");
+			assertEquals(new RGB(0, 255, 0), label.getForeground().getRGB());
+		} finally {
+			shell.dispose();
+			CSSEngine engine = WidgetElement.getEngine(display);
+			if (engine != previousEngine) {
+				engine.dispose();
+			}
+			WidgetElement.setEngine(display, previousEngine);
+			stylingContext.dispose();
+		}
+	}
+
+	@Test
+	public void testDeferredCreationOfInvisiblePart() {
+		MWindow window = ems.createModelElement(MWindow.class);
+		application.getChildren().add(window);
+		application.setSelectedElement(window);
+
+		MPartSashContainer container = ems.createModelElement(MPartSashContainer.class);
+		window.getChildren().add(container);
+		window.setSelectedElement(container);
+
+		MPart partA = ems.createModelElement(MPart.class);
+		partA.setContributionURI("bundleclass://org.eclipse.e4.ui.tests/org.eclipse.e4.ui.tests.workbench.SampleView");
+		container.getChildren().add(partA);
+
+		MPart partB = ems.createModelElement(MPart.class);
+		partB.setContributionURI("bundleclass://org.eclipse.e4.ui.tests/org.eclipse.e4.ui.tests.workbench.SampleView");
+		partB.setVisible(false);
+		container.getChildren().add(partB);
+
+		contextRule.createAndRunWorkbench(window);
+
+		assertNotNull(partA.getWidget());
+		assertNotNull(partA.getObject());
+		assertNull(partB.getWidget());
+		assertNull(partB.getObject());
+
+		partB.setVisible(true);
+		assertNotNull(partB.getWidget());
+		assertNotNull(partB.getObject());
+		assertEquals(container.getWidget(), ((Control) partB.getWidget()).getParent());
+
+		MPart partC = ems.createModelElement(MPart.class);
+		partC.setContributionURI("bundleclass://org.eclipse.e4.ui.tests/org.eclipse.e4.ui.tests.workbench.SampleView");
+		partC.setVisible(false);
+		container.getChildren().add(partC);
+		assertNull(partC.getWidget());
+
+		partC.setVisible(true);
+		assertNotNull(partC.getWidget());
+		checkLog();
+	}
+
 	@Test
 	public void testRemoveGui_Bug332163() {
 		MWindow window = ems.createModelElement(MWindow.class);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2018 Brad Reynolds and others.
+ * Copyright (c) 2006, 2020 Brad Reynolds and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,8 +15,23 @@
 package org.eclipse.core.tests.databinding.observable;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.eclipse.core.databinding.observable.Realm;
+import org.eclipse.core.databinding.observable.list.ListChangeEvent;
+import org.eclipse.core.databinding.observable.list.WritableList;
+import org.eclipse.core.databinding.observable.map.MapChangeEvent;
+import org.eclipse.core.databinding.observable.map.WritableMap;
+import org.eclipse.core.databinding.observable.set.SetChangeEvent;
+import org.eclipse.core.databinding.observable.set.WritableSet;
+import org.eclipse.core.databinding.observable.value.ComputedValue;
+import org.eclipse.core.databinding.observable.value.ValueChangeEvent;
+import org.eclipse.core.databinding.observable.value.WritableValue;
 import org.eclipse.jface.databinding.conformance.util.CurrentRealm;
 import org.eclipse.jface.databinding.conformance.util.RealmTester;
 import org.junit.Test;
@@ -35,4 +50,186 @@ public class RealmTest {
 
 		assertEquals("old realm should have been restored", oldRealm, Realm.getDefault());
 	}
+
+	@Test
+	public void testRunBatchedMergesListChanges() {
+		Realm realm = new CurrentRealm(true);
+		WritableList<String> list = new WritableList<>(realm);
+		List<ListChangeEvent<? extends String>> events = new ArrayList<>();
+		list.addListChangeListener(events::add);
+
+		realm.runBatched(() -> {
+			list.add("a");
+			list.add("b");
+			list.add(0, "c");
+			list.remove("a");
+			assertEquals("listeners should not be notified during the batch", 0, events.size());
+		});
+
+		assertEquals(1, events.size());
+		List<String> simulated = new ArrayList<>();
+		events.get(0).diff.applyTo(simulated);
+		assertEquals(Arrays.asList("c", "b"), simulated);
+	}
+
+	@Test
+	public void testRunBatchedMergesSetChanges() {
+		Realm realm = new CurrentRealm(true);
+		WritableSet<String> set = new WritableSet<>(realm);
+		set.add("a");
+		List<SetChangeEvent<? extends String>> events = new ArrayList<>();
+		set.addSetChangeListener(events::add);
+
+		realm.runBatched(() -> {
+			set.add("b");
+			set.remove("a");
+			set.remove("b");
+			set.add("c");
+		});
+
+		assertEquals(1, events.size());
+		assertEquals(Collections.singleton("c"), events.get(0).diff.getAdditions());
+		assertEquals(Collections.singleton("a"), events.get(0).diff.getRemovals());
+	}
+
+	@Test
+	public void testRunBatchedMergesMapChanges() {
+		Realm realm = new CurrentRealm(true);
+		WritableMap<String, String> map = new WritableMap<>(realm);
+		map.put("changed", "old");
+		map.put("removed", "old");
+		List<MapChangeEvent<? extends String, ? extends String>> events = new ArrayList<>();
+		map.addMapChangeListener(events::add);
+
+		realm.runBatched(() -> {
+			map.put("changed", "intermediate");
+			map.put("changed", "new");
+			map.remove("removed");
+			map.put("added", "new");
+			map.put("transient", "new");
+			map.remove("transient");
+		});
+
+		assertEquals(1, events.size());
+		MapChangeEvent<? extends String, ? extends String> event = events.get(0);
+		assertEquals(Collections.singleton("added"), event.diff.getAddedKeys());
+		assertEquals(Collections.singleton("removed"), event.diff.getRemovedKeys());
+		assertEquals(Collections.singleton("changed"), event.diff.getChangedKeys());
+		assertEquals("old", event.diff.getOldValue("changed"));
+		assertEquals("new", event.diff.getNewValue("changed"));
+	}
+
+	@Test
+	public void testRunBatchedDropsRevertedValueChange() {
+		Realm realm = new CurrentRealm(true);
+		WritableValue<String> value = new WritableValue<>(realm, "a", String.class);
+		List<ValueChangeEvent<? extends String>> events = new ArrayList<>();
+		value.addValueChangeListener(events::add);
+
+		realm.runBatched(() -> {
+			value.setValue("b");
+			value.setValue("a");
+		});
+
+		assertTrue("a batch reverting the value should not fire", events.isEmpty());
+	}
+
+	@Test
+	public void testRunBatchedRecomputesOnce() {
+		Realm realm = new CurrentRealm(true);
+		WritableValue<Integer> first = new WritableValue<>(realm, 0, Integer.class);
+		WritableValue<Integer> second = new WritableValue<>(realm, 0, Integer.class);
+		int[] computations = new int[1];
+		ComputedValue<Integer> sum = new ComputedValue<Integer>(realm) {
+			@Override
+			protected Integer calculate() {
+				computations[0]++;
+				return first.getValue() + second.getValue();
+			}
+		};
+		List<ValueChangeEvent<? extends Integer>> events = new ArrayList<>();
+		sum.addValueChangeListener(event -> {
+			events.add(event);
+			event.diff.getNewValue();
+		});
+		computations[0] = 0;
+
+		realm.runBatched(() -> {
+			for (int i = 1; i <= 10; i++) {
+				first.setValue(i);
+				second.setValue(i);
+			}
+		});
+
+		assertEquals(1, events.size());
+		assertEquals(1, computations[0]);
+		assertEquals(Integer.valueOf(20), sum.getValue());
+	}
+
+	@Test
+	public void testRunBatchedComputedValueUpToDate() {
+		Realm realm = new CurrentRealm(true);
+		WritableValue<Integer> first = new WritableValue<>(realm, 0, Integer.class);
+		WritableValue<Integer> second = new WritableValue<>(realm, 0, Integer.class);
+		ComputedValue<Integer> sum = new ComputedValue<Integer>(realm) {
+			@Override
+			protected Integer calculate() {
+				return first.getValue() + second.getValue();
+			}
+		};
+		List<ValueChangeEvent<? extends Integer>> events = new ArrayList<>();
+		sum.addValueChangeListener(events::add);
+
+		realm.runBatched(() -> {
+			first.setValue(1);
+			assertEquals(Integer.valueOf(1), sum.getValue());
+			second.setValue(2);
+			assertEquals(Integer.valueOf(3), sum.getValue());
+			assertTrue("listeners should not be notified during the batch", events.isEmpty());
+		});
+
+		assertEquals(1, events.size());
+		assertEquals(Integer.valueOf(0), events.get(0).diff.getOldValue());
+		assertEquals(Integer.valueOf(3), events.get(0).diff.getNewValue());
+	}
+
+	@Test
+	public void testRunBatchedEventOrder() {
+		Realm realm = new CurrentRealm(true);
+		WritableValue<String> first = new WritableValue<>(realm, "a", String.class);
+		WritableValue<String> second = new WritableValue<>(realm, "a", String.class);
+		List<String> notifications = new ArrayList<>();
+		first.addChangeListener(event -> notifications.add("first change"));
+		first.addValueChangeListener(event -> notifications.add("first value"));
+		second.addValueChangeListener(event -> notifications.add("second value"));
+
+		realm.runBatched(() -> {
+			second.setValue("b");
+			first.setValue("b");
+			second.setValue("c");
+			assertEquals("generic change events should be dispatched immediately",
+					Collections.singletonList("first change"), notifications);
+		});
+
+		assertEquals(Arrays.asList("first change", "second value", "first value"), notifications);
+	}
+
+	@Test
+	public void testRunBatchedNested() {
+		Realm realm = new CurrentRealm(true);
+		WritableValue<String> value = new WritableValue<>(realm, "a", String.class);
+		List<ValueChangeEvent<? extends String>> events = new ArrayList<>();
+		value.addValueChangeListener(events::add);
+
+		realm.runBatched(() -> {
+			value.setValue("b");
+			realm.runBatched(() -> value.setValue("c"));
+			assertTrue("nested batch should not flush", events.isEmpty());
+			value.setValue("d");
+		});
+
+		assertEquals(1, events.size());
+		assertEquals("a", events.get(0).diff.getOldValue());
+		assertEquals("d", events.get(0).diff.getNewValue());
+	}
 }
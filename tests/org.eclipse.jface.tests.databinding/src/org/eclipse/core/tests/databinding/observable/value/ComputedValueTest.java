@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2007 IBM Corporation and others.
+ * Copyright (c) 2006, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -26,7 +26,9 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import org.eclipse.core.databinding.observable.IChangeListener;
 import org.eclipse.core.databinding.observable.value.ComputedValue;
+import org.eclipse.core.databinding.observable.value.IObservableValue;
 import org.eclipse.core.databinding.observable.value.WritableValue;
 import org.eclipse.jface.tests.databinding.AbstractDefaultRealmTestCase;
 import org.junit.Test;
@@ -138,6 +140,53 @@ public class ComputedValueTest extends AbstractDefaultRealmTestCase {
 		assertFalse("because value2 is not a part of the calculation the listeners should have been removed", value2.hasListeners());
 	}
 
+	@Test
+	public void testDiamondDependencyIsCalculatedOnce() throws Exception {
+		final WritableValue<Integer> source = new WritableValue<>(Integer.valueOf(1), Integer.TYPE);
+		final IObservableValue<Integer> left = ComputedValue.create(() -> Integer.valueOf(source.getValue().intValue() + 1));
+		final IObservableValue<Integer> right = ComputedValue.create(() -> Integer.valueOf(source.getValue().intValue() * 2));
+		final int[] calculations = new int[1];
+		final IObservableValue<Integer> sum = ComputedValue.create(() -> {
+			calculations[0]++;
+			return Integer.valueOf(left.getValue().intValue() + right.getValue().intValue());
+		});
+		final List<Integer> notified = new ArrayList<>();
+		sum.addValueChangeListener(event -> notified.add(event.diff.getNewValue()));
+		assertEquals(1, calculations[0]);
+
+		source.setValue(Integer.valueOf(2));
+		source.setValue(Integer.valueOf(3));
+
+		// the listener never observes a sum of a new and a stale operand
+		assertEquals(2, notified.size());
+		assertEquals(Integer.valueOf(7), notified.get(0));
+		assertEquals(Integer.valueOf(10), notified.get(1));
+		assertEquals(3, calculations[0]);
+	}
+
+	@Test
+	public void testUnchangedDependenciesAreNotRegisteredAgain() throws Exception {
+		final int[] registrations = new int[1];
+		final WritableValue<Integer> value = new WritableValue<Integer>(Integer.valueOf(1), Integer.TYPE) {
+			@Override
+			public synchronized void addChangeListener(IChangeListener listener) {
+				registrations[0]++;
+				super.addChangeListener(listener);
+			}
+		};
+		IObservableValue<Integer> cv = ComputedValue.create(value::getValue);
+		cv.addChangeListener(event -> {
+		});
+		cv.getValue();
+		assertEquals(1, registrations[0]);
+
+		value.setValue(Integer.valueOf(2));
+		assertEquals(Integer.valueOf(2), cv.getValue());
+		value.setValue(Integer.valueOf(3));
+		assertEquals(Integer.valueOf(3), cv.getValue());
+		assertEquals(1, registrations[0]);
+	}
+
 	@Test
 	public void testSetValueUnsupportedOperationException() throws Exception {
 		ComputedValue cv = new ComputedValue() {
@@ -0,0 +1,269 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.tests.internal.databinding.observable;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.databinding.observable.list.ListDiff;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+import org.eclipse.core.databinding.observable.list.ListDiffVisitor;
+import org.eclipse.core.internal.databinding.observable.ListDifferenceAnalyzer;
+import org.junit.Test;
+
+/**
+ * Tests the indexed list diff algorithm for conformance with the linear scan
+ * algorithm.
+ */
+public class ListDifferenceAnalyzerTest {
+
+	private static final long SEED = 20200407L;
+
+	@Test
+	public void testEmptyLists() {
+		assertEquals(0, indexedDiff(Collections.emptyList(), Collections.emptyList()).getDifferences().length);
+	}
+
+	@Test
+	public void testEqualLists() {
+		List<String> list = Arrays.asList("a", "b", "c", "d");
+		assertEquals(0, indexedDiff(list, new ArrayList<>(list)).getDifferences().length);
+	}
+
+	@Test
+	public void testReplaceIsReportedAsReplace() {
+		ListDiff<String> diff = indexedDiff(Arrays.asList("a", "b", "c"), Arrays.asList("a", "x", "c"));
+		RecordingVisitor visitor = new RecordingVisitor();
+		diff.accept(visitor);
+		assertEquals(Collections.singletonList("replace(1,b,x)"), visitor.events);
+	}
+
+	@Test
+	public void testMoveIsReportedAsMove() {
+		ListDiff<String> diff = indexedDiff(Arrays.asList("a", "b", "c", "d"), Arrays.asList("b", "c", "d", "a"));
+		RecordingVisitor visitor = new RecordingVisitor();
+		diff.accept(visitor);
+		assertEquals(Collections.singletonList("move(0,3,a)"), visitor.events);
+	}
+
+	@Test
+	public void testDiffAboveLinearScanThreshold() {
+		List<String> oldList = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			oldList.add("e" + i);
+		}
+		List<String> newList = new ArrayList<>(oldList);
+		newList.add(newList.remove(0));
+		newList.set(20, "x");
+		newList.add(10, "y");
+		newList.remove("e30");
+
+		ListDiff<String> diff = Diffs.computeListDiff(oldList, newList);
+		RecordingVisitor visitor = new RecordingVisitor();
+		diff.accept(visitor);
+		assertEquals(Arrays.asList("move(0,39,e0)", "add(10,y)", "replace(21,e21,x)", "remove(30,e30)"),
+				visitor.events);
+	}
+
+	@Test
+	public void testNullElements() {
+		checkConformance(Arrays.asList(null, "a", null), Arrays.asList("a", null, "b", null));
+	}
+
+	@Test
+	public void testRandomLists() {
+		Random random = new Random(SEED);
+		for (int i = 0; i < 2000; i++) {
+			int alphabet = 1 + random.nextInt(20);
+			checkConformance(randomList(random, random.nextInt(40), alphabet),
+					randomList(random, random.nextInt(40), alphabet));
+		}
+	}
+
+	@Test
+	public void testRandomPermutations() {
+		Random random = new Random(SEED);
+		for (int i = 0; i < 500; i++) {
+			List<Integer> oldList = randomList(random, random.nextInt(60), 1000);
+			List<Integer> newList = new ArrayList<>(oldList);
+			Collections.shuffle(newList, random);
+			checkConformance(oldList, newList);
+		}
+	}
+
+	@Test
+	public void testRandomLocalEdits() {
+		Random random = new Random(SEED);
+		for (int i = 0; i < 500; i++) {
+			List<Integer> oldList = randomList(random, 100 + random.nextInt(100), 50);
+			List<Integer> newList = new ArrayList<>(oldList);
+			for (int edits = random.nextInt(5); edits >= 0; edits--) {
+				switch (random.nextInt(4)) {
+				case 0:
+					newList.add(random.nextInt(newList.size() + 1), Integer.valueOf(random.nextInt(50)));
+					break;
+				case 1:
+					if (!newList.isEmpty()) {
+						newList.remove(random.nextInt(newList.size()));
+					}
+					break;
+				case 2:
+					if (!newList.isEmpty()) {
+						newList.set(random.nextInt(newList.size()), Integer.valueOf(random.nextInt(50)));
+					}
+					break;
+				default:
+					if (!newList.isEmpty()) {
+						Integer moved = newList.remove(random.nextInt(newList.size()));
+						newList.add(random.nextInt(newList.size() + 1), moved);
+					}
+				}
+			}
+			checkConformance(oldList, newList);
+		}
+	}
+
+	@Test
+	public void testLargeListsUseIndexedAlgorithm() {
+		List<Integer> oldList = randomList(new Random(SEED), 50000, Integer.MAX_VALUE);
+		List<Integer> newList = new ArrayList<>(oldList);
+		Collections.reverse(newList);
+		ListDiff<Integer> diff = Diffs.computeListDiff(oldList, newList);
+		List<Integer> list = new ArrayList<>(oldList);
+		diff.applyTo(list);
+		assertEquals(newList, list);
+	}
+
+	private static <E> void checkConformance(List<E> oldList, List<E> newList) {
+		List<ListDiffEntry<E>> linearScan = ListDifferenceAnalyzer.computeLinearScanDifferences(oldList, newList);
+		List<ListDiffEntry<E>> indexed = ListDifferenceAnalyzer.computeIndexedDifferences(oldList, newList);
+
+		String message = oldList + " -> " + newList;
+		assertEquals(message, newList, applyEntries(oldList, linearScan));
+		assertEquals(message, newList, applyEntries(oldList, indexed));
+
+		CountingVisitor<E> indexedCounts = new CountingVisitor<>(oldList);
+		Diffs.createListDiff(indexed).accept(indexedCounts);
+		assertEquals(message, newList, indexedCounts.list);
+
+		// every element which can be matched is kept or moved, so only the
+		// surplus new elements are inserted
+		assertEquals(message, newList.size() - commonElementCount(oldList, newList), indexedCounts.insertions);
+	}
+
+	private static int commonElementCount(List<?> oldList, List<?> newList) {
+		Map<Object, Integer> counts = new HashMap<>();
+		for (Object element : oldList) {
+			counts.merge(element, 1, Integer::sum);
+		}
+		int common = 0;
+		for (Object element : newList) {
+			Integer count = counts.get(element);
+			if (count != null && count.intValue() > 0) {
+				counts.put(element, count.intValue() - 1);
+				common++;
+			}
+		}
+		return common;
+	}
+
+	private static <E> List<E> applyEntries(List<E> oldList, List<ListDiffEntry<E>> entries) {
+		List<E> list = new ArrayList<>(oldList);
+		for (ListDiffEntry<E> entry : entries) {
+			if (entry.isAddition()) {
+				list.add(entry.getPosition(), entry.getElement());
+			} else {
+				assertEquals(entry.getElement(), list.remove(entry.getPosition()));
+			}
+		}
+		return list;
+	}
+
+	private static <E> ListDiff<E> indexedDiff(List<E> oldList, List<E> newList) {
+		return Diffs.createListDiff(ListDifferenceAnalyzer.computeIndexedDifferences(oldList, newList));
+	}
+
+	private static List<Integer> randomList(Random random, int size, int alphabet) {
+		List<Integer> list = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			list.add(random.nextInt(10) == 0 ? null : Integer.valueOf(random.nextInt(alphabet)));
+		}
+		return list;
+	}
+
+	private static class CountingVisitor<E> extends ListDiffVisitor<E> {
+		final List<E> list;
+		int insertions;
+
+		CountingVisitor(List<E> oldList) {
+			list = new ArrayList<>(oldList);
+		}
+
+		@Override
+		public void handleAdd(int index, E element) {
+			list.add(index, element);
+			insertions++;
+		}
+
+		@Override
+		public void handleRemove(int index, E element) {
+			assertEquals(element, list.remove(index));
+		}
+
+		@Override
+		public void handleReplace(int index, E oldElement, E newElement) {
+			assertEquals(oldElement, list.set(index, newElement));
+			insertions++;
+		}
+
+		@Override
+		public void handleMove(int oldIndex, int newIndex, E element) {
+			assertEquals(element, list.remove(oldIndex));
+			list.add(newIndex, element);
+		}
+	}
+
+	private static class RecordingVisitor extends ListDiffVisitor<String> {
+		final List<String> events = new ArrayList<>();
+
+		@Override
+		public void handleAdd(int index, String element) {
+			events.add("add(" + index + "," + element + ")");
+		}
+
+		@Override
+		public void handleRemove(int index, String element) {
+			events.add("remove(" + index + "," + element + ")");
+		}
+
+		@Override
+		public void handleReplace(int index, String oldElement, String newElement) {
+			events.add("replace(" + index + "," + oldElement + "," + newElement + ")");
+		}
+
+		@Override
+		public void handleMove(int oldIndex, int newIndex, String element) {
+			events.add("move(" + oldIndex + "," + newIndex + "," + element + ")");
+		}
+	}
+}
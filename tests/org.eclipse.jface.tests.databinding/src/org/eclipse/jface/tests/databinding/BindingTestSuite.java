@@ -125,6 +125,7 @@ import org.eclipse.core.tests.internal.databinding.conversion.StringToNumberPars
 import org.eclipse.core.tests.internal.databinding.conversion.StringToShortConverterTest;
 import org.eclipse.core.tests.internal.databinding.observable.ConstantObservableValueTest;
 import org.eclipse.core.tests.internal.databinding.observable.DelayedObservableValueTest;
+import org.eclipse.core.tests.internal.databinding.observable.ListDifferenceAnalyzerTest;
 import org.eclipse.core.tests.internal.databinding.observable.MapEntryObservableValueTest;
 import org.eclipse.core.tests.internal.databinding.observable.UnmodifiableObservableListTest;
 import org.eclipse.core.tests.internal.databinding.observable.UnmodifiableObservableSetTest;
@@ -246,7 +247,7 @@ import org.junit.runners.Suite.SuiteClasses;
 		JavaBeanObservableArrayBasedSetTest.class, JavaBeanObservableListTest.class, JavaBeanObservableMapTest.class,
 		JavaBeanObservableSetTest.class, JavaBeanObservableValueTest.class, JavaBeanPropertyObservableMapTest.class,
 		LabelObservableValueTest.class, ListBindingTest.class, ListDetailValueObservableListTest.class,
-		ListDiffTest.class, ListDiffVisitorTest.class, ListSimpleValueObservableListTest.class,
+		ListDifferenceAnalyzerTest.class, ListDiffTest.class, ListDiffVisitorTest.class, ListSimpleValueObservableListTest.class,
 		ListSingleSelectionObservableValueTest.class, MapDetailValueObservableMapTest.class,
 		MapEntryObservableValueTest.class, MapSimpleValueObservableMapTest.class, MultiListTest.class,
 		MultiValidatorTest.class, NumberToBigDecimalTest.class, NumberToBigIntegerConverterTest.class,
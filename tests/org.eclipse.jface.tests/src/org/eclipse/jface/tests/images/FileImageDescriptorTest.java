@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 IBM Corporation and others.
+ * Copyright (c) 2008, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,16 +16,23 @@
 
 package org.eclipse.jface.tests.images;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.Iterator;
 
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.FrameworkUtil;
 
@@ -129,4 +136,118 @@ public class FileImageDescriptorTest extends TestCase {
 		assertTrue("Did not find default image", image != null);
 	}
 
+	/**
+	 * Test that the decoded image data is read back from the disk cache.
+	 */
+	public void testImageDataCache() throws Exception {
+		File location = Files.createTempDirectory("imageData").toFile();
+		JFaceResources.setImageDataCacheLocation(location);
+		try {
+			URL url = FrameworkUtil.getBundle(FileImageDescriptorTest.class).getEntry("/icons/anything.gif");
+			ImageData decoded = ImageDescriptor.createFromURL(url).getImageData(100);
+			assertNotNull("Could not decode image", decoded);
+			assertNull("Found a missing high-resolution image", ImageDescriptor.createFromURL(url).getImageData(200));
+
+			File entries = new File(location, "v1");
+			long timeout = System.currentTimeMillis() + 10000;
+			while (countEntries(entries) < 2 && System.currentTimeMillis() < timeout) {
+				Thread.sleep(10);
+			}
+			assertEquals("Image data was not cached", 2, countEntries(entries));
+
+			ImageData cached = ImageDescriptor.createFromURL(url).getImageData(100);
+			assertEquals(decoded.width, cached.width);
+			assertEquals(decoded.height, cached.height);
+			assertEquals(decoded.depth, cached.depth);
+			assertEquals(decoded.transparentPixel, cached.transparentPixel);
+			assertTrue("Cached pixels differ", Arrays.equals(decoded.data, cached.data));
+			assertNull("Found a missing high-resolution image", ImageDescriptor.createFromURL(url).getImageData(200));
+
+			Image image = ImageDescriptor.createFromURL(url).createImage();
+			assertNotNull("Could not create image from cached image data", image);
+			image.dispose();
+		} finally {
+			JFaceResources.setImageDataCacheLocation(null);
+			File entries = new File(location, "v1");
+			for (File entry : entries.listFiles()) {
+				entry.delete();
+			}
+			entries.delete();
+			location.delete();
+		}
+	}
+
+	/**
+	 * Test that an image loaded from a file is read from the disk cache until
+	 * the file changes.
+	 */
+	public void testImageDataCacheStampsImageFile() throws Exception {
+		File location = Files.createTempDirectory("imageData").toFile();
+		File images = Files.createTempDirectory("images").toFile();
+		File imageFile = new File(images, "image.gif");
+		Bundle bundle = FrameworkUtil.getBundle(FileImageDescriptorTest.class);
+		byte[] anything = readEntry(bundle, "/icons/anything.gif");
+		byte[] view = readEntry(bundle, "/icons/view.gif");
+		Files.write(imageFile.toPath(), anything);
+		JFaceResources.setImageDataCacheLocation(location);
+		try {
+			URL url = imageFile.toURI().toURL();
+			ImageData decoded = ImageDescriptor.createFromURL(url).getImageData(100);
+			assertNotNull("Could not decode image", decoded);
+
+			File entries = new File(location, "v1");
+			long timeout = System.currentTimeMillis() + 10000;
+			while (countEntries(entries) < 1 && System.currentTimeMillis() < timeout) {
+				Thread.sleep(10);
+			}
+			assertEquals("Image data was not cached", 1, countEntries(entries));
+
+			// garbage of the same size and time stamp cannot be decoded, so the
+			// image data has to come from the cache
+			long lastModified = imageFile.lastModified();
+			Files.write(imageFile.toPath(), new byte[anything.length]);
+			assertTrue(imageFile.setLastModified(lastModified));
+			ImageData cached = ImageDescriptor.createFromURL(url).getImageData(100);
+			assertNotNull("Image data was not read from the cache", cached);
+			assertTrue("Cached pixels differ", Arrays.equals(decoded.data, cached.data));
+
+			// editing the image invalidates the entry
+			Files.write(imageFile.toPath(), view);
+			assertTrue(imageFile.setLastModified(lastModified + 2000));
+			ImageData edited = ImageDescriptor.createFromURL(url).getImageData(100);
+			ImageData expected = ImageDescriptor.createFromURL(bundle.getEntry("/icons/view.gif")).getImageData(100);
+			assertNotNull("Could not decode edited image", edited);
+			assertEquals(expected.width, edited.width);
+			assertEquals(expected.height, edited.height);
+			assertTrue("Stale image data was read from the cache", Arrays.equals(expected.data, edited.data));
+		} finally {
+			JFaceResources.setImageDataCacheLocation(null);
+			File entries = new File(location, "v1");
+			for (File entry : entries.listFiles()) {
+				entry.delete();
+			}
+			entries.delete();
+			location.delete();
+			imageFile.delete();
+			images.delete();
+		}
+	}
+
+	private static byte[] readEntry(Bundle bundle, String path) throws IOException {
+		try (InputStream in = bundle.getEntry(path).openStream()) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		}
+	}
+
+	private static int countEntries(File directory) {
+		// entries being written are moved in place once complete
+		return directory.list((dir, name) -> !name.endsWith(".tmp")).length;
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2019 IBM Corporation and others.
+ * Copyright (c) 2004, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,7 @@
  *******************************************************************************/
 package org.eclipse.jface.tests.images;
 
+import java.util.Collections;
 import java.util.Objects;
 
 import org.eclipse.jface.resource.ColorDescriptor;
@@ -314,6 +315,18 @@ public class ResourceManagerTest extends TestCase {
 		globalResourceManager.destroy(descriptor);
 	}
 
+	public void testCreatePrefetchedImage() throws Exception {
+		ImageDescriptor descriptor = getImage("icons/mockeditorpart1.gif");
+		globalResourceManager.prefetchImages(Collections.singletonList(descriptor));
+
+		// joins the prefetch, or takes it over if it has not started yet
+		Image image = globalResourceManager.createImage(descriptor);
+		validateResource(image);
+		assertSame("Created image should be found", image, globalResourceManager.find(descriptor));
+
+		globalResourceManager.destroyImage(descriptor);
+	}
+
 	/**
 	 * ImageDataProvider to identify identical ImageData by the given ID.
 	 */
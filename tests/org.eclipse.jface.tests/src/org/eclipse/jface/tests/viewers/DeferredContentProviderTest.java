@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.deferred.DeferredContentProvider;
+import org.eclipse.jface.viewers.deferred.SetModel;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Table;
+
+/**
+ * Tests the rows sent to a virtual table by a {@link DeferredContentProvider},
+ * with and without parallel sorting.
+ */
+public class DeferredContentProviderTest extends ViewerTestCase {
+
+	private static final Comparator<Object> ASCENDING = (o1, o2) -> ((Integer) o1).compareTo((Integer) o2);
+
+	private static final Comparator<Object> DESCENDING = (o1, o2) -> ((Integer) o2).compareTo((Integer) o1);
+
+	private static final long TIMEOUT = 10000;
+
+	private DeferredContentProvider contentProvider;
+
+	private final Set<Integer> replacedRows = new HashSet<>();
+
+	private int replaceCount;
+
+	private int clearCount;
+
+	public DeferredContentProviderTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Composite parent) {
+		TableViewer viewer = new TableViewer(parent, SWT.VIRTUAL) {
+			@Override
+			public void replace(Object element, int index) {
+				replacedRows.add(index);
+				replaceCount++;
+				super.replace(element, index);
+			}
+
+			@Override
+			public void clear(int index) {
+				clearCount++;
+				super.clear(index);
+			}
+		};
+		contentProvider = new DeferredContentProvider(ASCENDING);
+		viewer.setContentProvider(contentProvider);
+		viewer.setLabelProvider(new LabelProvider());
+		return viewer;
+	}
+
+	@Override
+	protected void setInput() {
+		// each test sets its own model
+	}
+
+	private Table getTable() {
+		return ((TableViewer) fViewer).getTable();
+	}
+
+	public void testParallelSortingProperty() {
+		assertFalse(contentProvider.isParallelSorting());
+		contentProvider.setParallelSorting(true);
+		assertTrue(contentProvider.isParallelSorting());
+
+		// kept for the providers of later inputs
+		fViewer.setInput(createModel(10));
+		assertTrue(contentProvider.isParallelSorting());
+		contentProvider.setParallelSorting(false);
+		assertFalse(contentProvider.isParallelSorting());
+	}
+
+	public void testParallelSort() {
+		int size = 20000;
+		contentProvider.setParallelSorting(true);
+		fViewer.setInput(createModel(size));
+
+		assertRow(0, 0);
+		assertRow(size / 2, size / 2);
+		assertRow(size - 1, size - 1);
+
+		contentProvider.setSortOrder(DESCENDING);
+		assertRow(0, size - 1);
+		assertRow(size - 1, 0);
+	}
+
+	public void testParallelSortAfterChanges() {
+		int size = 20000;
+		contentProvider.setParallelSorting(true);
+		SetModel model = createModel(size);
+		fViewer.setInput(model);
+		assertRow(size - 1, size - 1);
+
+		model.removeAll(new Object[] { Integer.valueOf(size - 1) });
+		model.addAll(new Object[] { Integer.valueOf(-1) });
+		assertRow(0, -1);
+		assertRow(size - 1, size - 2);
+	}
+
+	public void testVisibleRowsNotResent() {
+		int size = 1000;
+		SetModel model = createModel(size);
+		fViewer.setInput(model);
+		assertRow(size / 2, size / 2);
+
+		// growing the table keeps the rows which have already been sent
+		replaceCount = 0;
+		model.addAll(new Object[] { Integer.valueOf(size) });
+		waitFor(() -> getTable().getItemCount() == size + 1);
+		assertEquals(size + 1, getTable().getItemCount());
+		processEvents();
+		assertEquals("Visible rows were sent again", 0, replaceCount);
+	}
+
+	public void testManyClears() {
+		int size = 1000;
+		int changed = 200;
+		SetModel model = createModel(size);
+		fViewer.setInput(model);
+		for (int row = 0; row < changed; row++) {
+			if (!replacedRows.contains(row)) {
+				assertRow(row, row);
+			}
+		}
+
+		// more rows to clear than the initial capacity of the clear buffer
+		clearCount = 0;
+		Object[] toChange = new Object[changed];
+		for (int i = 0; i < changed; i++) {
+			toChange[i] = Integer.valueOf(i);
+		}
+		model.changeAll(toChange);
+		waitFor(() -> clearCount >= changed);
+		assertTrue("Not all changed rows were cleared: " + clearCount, clearCount >= changed);
+		assertRow(0, 0);
+	}
+
+	private SetModel createModel(int size) {
+		List<Object> elements = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			elements.add(Integer.valueOf(i));
+		}
+		Collections.shuffle(elements, new Random(size));
+		SetModel model = new SetModel();
+		model.addAll(elements);
+		return model;
+	}
+
+	/**
+	 * Scrolls to the given row and waits until the expected element has been
+	 * sent to it.
+	 */
+	private void assertRow(int row, int expected) {
+		Integer element = Integer.valueOf(expected);
+		waitFor(() -> {
+			if (getTable().getItemCount() <= row) {
+				return false;
+			}
+			getTable().setTopIndex(row);
+			// requests the row from the content provider
+			getTable().getItem(row).getText();
+			return element.equals(getTable().getItem(row).getData());
+		});
+		assertEquals(element, getTable().getItem(row).getData());
+	}
+
+	private void waitFor(BooleanSupplier condition) {
+		long start = System.currentTimeMillis();
+		while (!condition.getAsBoolean() && System.currentTimeMillis() - start < TIMEOUT) {
+			processEvents();
+			sleep(10);
+		}
+		processEvents();
+	}
+}
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.LazyTreeContentProviderAdapter;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TreePath;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerComparator;
+import org.eclipse.jface.viewers.ViewerFilter;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Tree;
+
+/**
+ * Tests TreeViewer's VIRTUAL support with a tree content provider adapted by
+ * {@link LazyTreeContentProviderAdapter}.
+ */
+public class LazyTreeContentProviderAdapterTest extends ViewerTestCase {
+	private static final int NUM_ROOTS = 100;
+	private static final int NUM_CHILDREN = 10;
+
+	private int getChildrenCallCount = 0;
+
+	private int leafGetChildrenCallCount = 0;
+
+	private final Set<String> removedElements = new HashSet<>();
+
+	private class StringTreeContentProvider implements ITreeContentProvider {
+		@Override
+		public Object[] getElements(Object inputElement) {
+			return createChildren((String) inputElement, NUM_ROOTS);
+		}
+
+		@Override
+		public Object[] getChildren(Object parentElement) {
+			getChildrenCallCount++;
+			if (!hasChildren(parentElement)) {
+				leafGetChildrenCallCount++;
+			}
+			return createChildren((String) parentElement, NUM_CHILDREN);
+		}
+
+		private Object[] createChildren(String parent, int count) {
+			List<Object> children = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				String child = parent + "-" + i;
+				if (!removedElements.contains(child)) {
+					children.add(child);
+				}
+			}
+			return children.toArray();
+		}
+
+		@Override
+		public Object getParent(Object element) {
+			return null;
+		}
+
+		@Override
+		public boolean hasChildren(Object element) {
+			return ((String) element).length() < 6;
+		}
+	}
+
+	public LazyTreeContentProviderAdapterTest(String name) {
+		super(name);
+	}
+
+	public TreeViewer getTreeViewer() {
+		return (TreeViewer) fViewer;
+	}
+
+	@Override
+	protected void setInput() {
+		getTreeViewer().setInput("R");
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Composite parent) {
+		Tree tree = new Tree(fShell, SWT.VIRTUAL | SWT.MULTI);
+		TreeViewer treeViewer = new TreeViewer(tree);
+		treeViewer.setContentProvider(new LazyTreeContentProviderAdapter(new StringTreeContentProvider()));
+		return treeViewer;
+	}
+
+	public void testCreation() {
+		processEvents();
+		assertEquals(NUM_ROOTS, getTreeViewer().getTree().getItemCount());
+		if (disableTestsBug347491) {
+			System.out.println(getName() + " disabled due to Bug 347491");
+			return;
+		}
+		assertEquals("R-0", getTreeViewer().getTree().getItem(0).getText());
+		assertEquals("children are only fetched when expanding", 0, getChildrenCallCount);
+	}
+
+	public void testExpand() {
+		processEvents();
+		getTreeViewer().expandToLevel("R-1", 1);
+		processEvents();
+		assertEquals(NUM_CHILDREN, getTreeViewer().getTree().getItem(1).getItemCount());
+		assertEquals(1, getChildrenCallCount);
+		LazyTreeContentProviderAdapter contentProvider = (LazyTreeContentProviderAdapter) getTreeViewer()
+				.getContentProvider();
+		assertEquals("R", contentProvider.getParent("R-1"));
+	}
+
+	public void testComparator() {
+		getTreeViewer().setComparator(new ViewerComparator() {
+			@Override
+			public int compare(Viewer viewer, Object e1, Object e2) {
+				return ((String) e2).compareTo((String) e1);
+			}
+		});
+		processEvents();
+		assertEquals(NUM_ROOTS, getTreeViewer().getTree().getItemCount());
+		if (disableTestsBug347491) {
+			System.out.println(getName() + " disabled due to Bug 347491");
+			return;
+		}
+		assertEquals("R-99", getTreeViewer().getTree().getItem(0).getText());
+	}
+
+	public void testFilter() {
+		getTreeViewer().addFilter(new ViewerFilter() {
+			@Override
+			public boolean select(Viewer viewer, Object parentElement, Object element) {
+				return ((String) element).endsWith("0");
+			}
+		});
+		processEvents();
+		assertEquals(NUM_ROOTS / 10, getTreeViewer().getTree().getItemCount());
+		if (disableTestsBug347491) {
+			System.out.println(getName() + " disabled due to Bug 347491");
+			return;
+		}
+		assertEquals("R-10", getTreeViewer().getTree().getItem(1).getText());
+	}
+
+	public void testRemove() {
+		processEvents();
+		getTreeViewer().expandToLevel("R-1", 1);
+		processEvents();
+		if (disableTestsBug347491) {
+			System.out.println(getName() + " disabled due to Bug 347491");
+			return;
+		}
+		assertEquals("R-1-0", getTreeViewer().getTree().getItem(1).getItem(0).getText());
+		LazyTreeContentProviderAdapter contentProvider = getContentProvider();
+		assertEquals("R-1", contentProvider.getParent("R-1-0"));
+
+		removedElements.add("R-1");
+		getTreeViewer().remove("R-1");
+		processEvents();
+		assertEquals(NUM_ROOTS - 1, getTreeViewer().getTree().getItemCount());
+		assertEquals("R-2", getTreeViewer().getTree().getItem(1).getText());
+		assertNull("removed elements are forgotten", contentProvider.getParent("R-1"));
+		assertNull("descendants of removed elements are forgotten", contentProvider.getParent("R-1-0"));
+	}
+
+	public void testRefresh() {
+		processEvents();
+		getTreeViewer().expandToLevel("R-1", 1);
+		processEvents();
+		if (disableTestsBug347491) {
+			System.out.println(getName() + " disabled due to Bug 347491");
+			return;
+		}
+		assertEquals("R-1-0", getTreeViewer().getTree().getItem(1).getItem(0).getText());
+		assertEquals("R-1-1", getTreeViewer().getTree().getItem(1).getItem(1).getText());
+
+		removedElements.add("R-1-0");
+		getTreeViewer().refresh("R-1");
+		processEvents();
+		assertEquals(NUM_CHILDREN - 1, getTreeViewer().getTree().getItem(1).getItemCount());
+		assertEquals("R-1-1", getTreeViewer().getTree().getItem(1).getItem(0).getText());
+		LazyTreeContentProviderAdapter contentProvider = getContentProvider();
+		assertNull("elements no longer in the tree are forgotten", contentProvider.getParent("R-1-0"));
+		assertEquals("R-1", contentProvider.getParent("R-1-1"));
+	}
+
+	public void testHasChildrenWithFilter() {
+		getTreeViewer().addFilter(new ViewerFilter() {
+			@Override
+			public boolean select(Viewer viewer, Object parentElement, Object element) {
+				return true;
+			}
+		});
+		processEvents();
+		getTreeViewer().expandToLevel("R-1", 1);
+		getTreeViewer().expandToLevel(new TreePath(new Object[] { "R-1", "R-1-0" }), 1);
+		processEvents();
+		if (disableTestsBug347491) {
+			System.out.println(getName() + " disabled due to Bug 347491");
+			return;
+		}
+		assertEquals("R-1-0-0", getTreeViewer().getTree().getItem(1).getItem(0).getItem(0).getText());
+		assertEquals("the children of leaves are not fetched", 0, leafGetChildrenCallCount);
+	}
+
+	private LazyTreeContentProviderAdapter getContentProvider() {
+		return (LazyTreeContentProviderAdapter) getTreeViewer().getContentProvider();
+	}
+}
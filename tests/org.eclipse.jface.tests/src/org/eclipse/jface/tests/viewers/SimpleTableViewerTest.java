@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006 IBM Corporation and others.
+ * Copyright (c) 2006, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,11 @@
 
 package org.eclipse.jface.tests.viewers;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jface.viewers.ArrayContentProvider;
 import org.eclipse.jface.viewers.ColumnLabelProvider;
 import org.eclipse.jface.viewers.ILabelProvider;
 import org.eclipse.jface.viewers.ILabelProviderListener;
@@ -27,6 +32,7 @@ import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
 import org.eclipse.ui.tests.harness.util.Mocks;
 
 /**
@@ -177,4 +183,33 @@ public class SimpleTableViewerTest extends ViewerTestCase {
 		tableViewer.getTable().dispose();
 		assertEquals(1, disposeCounter[0]);
 	}
+
+	public void testRefreshKeepsFollowingItems() {
+		List<String> elements = new ArrayList<>(Arrays.asList("a", "b", "c", "d"));
+		tableViewer.setContentProvider(ArrayContentProvider.getInstance());
+		tableViewer.setLabelProvider(new LabelProvider());
+		tableViewer.setInput(elements);
+		Table table = tableViewer.getTable();
+		TableItem lastItem = table.getItem(3);
+
+		elements.add(1, "x");
+		tableViewer.refresh(false);
+		assertEquals(5, table.getItemCount());
+		assertSame(lastItem, table.getItem(4));
+		assertEquals("x", table.getItem(1).getText());
+		assertEquals("b", table.getItem(2).getText());
+
+		elements.remove("b");
+		tableViewer.refresh(false);
+		assertEquals(4, table.getItemCount());
+		assertSame(lastItem, table.getItem(3));
+		assertEquals("x", table.getItem(1).getText());
+		assertEquals("c", table.getItem(2).getText());
+		assertEquals("d", lastItem.getText());
+
+		elements.set(2, "y");
+		tableViewer.refresh(false);
+		assertEquals("y", table.getItem(2).getText());
+		assertSame(lastItem, table.getItem(3));
+	}
 }
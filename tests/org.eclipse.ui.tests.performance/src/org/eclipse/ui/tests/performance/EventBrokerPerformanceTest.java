@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.e4.core.services.events.IEventBroker;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.osgi.service.event.EventHandler;
+
+/**
+ * Measures the throughput of {@link IEventBroker#send(String, Object)} for
+ * topics below <code>org/eclipse/e4/ui/</code>, which the broker dispatches
+ * itself, compared to other topics, which are dispatched by the EventAdmin.
+ * The subscriptions mimic those of the renderers: a few handlers per
+ * attribute, and wildcard handlers for whole model classes.
+ */
+@RunWith(Parameterized.class)
+public class EventBrokerPerformanceTest extends BasicPerformanceTest {
+
+	private static final int ATTRIBUTES = 50;
+
+	private static final int HANDLERS_PER_ATTRIBUTE = 4;
+
+	private static final int EVENTS = 20000;
+
+	private final String topicBase;
+
+	@Parameters
+	public static Collection<Object[]> data() {
+		return Arrays.asList(new Object[][] { { "org/eclipse/e4/ui/tests/performance" },
+				{ "org/eclipse/ui/tests/performance" } });
+	}
+
+	public EventBrokerPerformanceTest(String topicBase) {
+		super("testSend:" + topicBase);
+		this.topicBase = topicBase;
+	}
+
+	@Test
+	public void test() throws Throwable {
+		IEventBroker eventBroker = fWorkbench.getService(IEventBroker.class);
+		int[] received = new int[1];
+		EventHandler handler = event -> received[0]++;
+
+		String[] topics = new String[ATTRIBUTES];
+		for (int i = 0; i < ATTRIBUTES; i++) {
+			String attribute = topicBase + "/Element" + (i % 10) + "/attribute" + i;
+			topics[i] = attribute + "/SET";
+			for (int j = 0; j < HANDLERS_PER_ATTRIBUTE; j++) {
+				eventBroker.subscribe(attribute + "/*", null, handler, true);
+			}
+			eventBroker.subscribe(topicBase + "/Element" + (i % 10) + "/*", null, handler, true);
+		}
+
+		try {
+			exercise(() -> {
+				Map<String, Object> data = new HashMap<>();
+				data.put(IEventBroker.DATA, this);
+				startMeasuring();
+				for (int i = 0; i < EVENTS; i++) {
+					eventBroker.send(topics[i % ATTRIBUTES], data);
+				}
+				stopMeasuring();
+			});
+		} finally {
+			eventBroker.unsubscribe(handler);
+		}
+		assertTrue(received[0] > 0);
+		commitMeasurements();
+		assertPerformance();
+	}
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import org.eclipse.e4.ui.internal.workbench.BinaryModelSnapshot;
+import org.eclipse.e4.ui.internal.workbench.E4XMIResource;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Measures saving and restoring the application model of the running
+ * workbench as XMI, like on every shutdown and startup, compared to saving and
+ * restoring it as a binary snapshot.
+ */
+@RunWith(Parameterized.class)
+public class ModelPersistencePerformanceTest extends BasicPerformanceTest {
+
+	private static final int ITERATIONS = 20;
+
+	private static final Map<String, Object> SAVE_OPTIONS = Collections
+			.singletonMap(E4XMIResource.OPTION_FILTER_PERSIST_STATE, Boolean.TRUE);
+
+	private final boolean binary;
+
+	@Parameters
+	public static Collection<Object[]> data() {
+		return Arrays.asList(new Object[][] { { Boolean.FALSE }, { Boolean.TRUE } });
+	}
+
+	public ModelPersistencePerformanceTest(Boolean binary) {
+		super("testSaveAndRestore:" + (binary.booleanValue() ? "binary" : "xmi"));
+		this.binary = binary.booleanValue();
+	}
+
+	@Test
+	public void test() throws Throwable {
+		MApplication application = fWorkbench.getService(MApplication.class);
+		E4XMIResource resource = new E4XMIResource(URI.createURI("workbench.xmi"));
+		resource.getContents().add(EcoreUtil.copy((EObject) application));
+
+		int[] windows = new int[1];
+		exercise(() -> {
+			startMeasuring();
+			for (int i = 0; i < ITERATIONS; i++) {
+				E4XMIResource restored = new E4XMIResource(resource.getURI());
+				try {
+					ByteArrayOutputStream out = new ByteArrayOutputStream();
+					if (binary) {
+						BinaryModelSnapshot.save(resource, out, true);
+						BinaryModelSnapshot.load(restored, new ByteArrayInputStream(out.toByteArray()));
+					} else {
+						resource.save(out, SAVE_OPTIONS);
+						restored.load(new ByteArrayInputStream(out.toByteArray()), null);
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				windows[0] = ((MApplication) restored.getContents().get(0)).getChildren().size();
+			}
+			stopMeasuring();
+		});
+		assertEquals(application.getChildren().size(), windows[0]);
+		commitMeasurements();
+		assertPerformance();
+	}
+}
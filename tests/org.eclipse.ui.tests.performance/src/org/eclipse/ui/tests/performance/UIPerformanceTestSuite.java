@@ -43,6 +43,8 @@ public class UIPerformanceTestSuite extends FilteredTestSuite {
 		addTest(new JUnit4TestAdapter(OpenMultipleEditorTest.class));
 		addTest(new JUnit4TestAdapter(EditorSwitchTest.class));
 		addTestSuite(CommandsPerformanceTest.class);
+		addTest(new JUnit4TestAdapter(EventBrokerPerformanceTest.class));
+		addTest(new JUnit4TestAdapter(ModelPersistencePerformanceTest.class));
 		addTest(new JUnit4TestAdapter(LabelProviderTest.class));
 		addTestSuite(ProgressReportingTest.class);
 		addTestSuite(OpenProjectExplorerFolderTest.class);
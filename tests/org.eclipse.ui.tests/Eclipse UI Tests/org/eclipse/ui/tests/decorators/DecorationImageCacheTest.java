@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.decorators;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.jface.viewers.DecorationOverlayIcon;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.internal.decorators.DecorationImageCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the reference counting and the eviction of the
+ * {@link DecorationImageCache}.
+ */
+public class DecorationImageCacheTest {
+
+	private static final int SIZE = 16;
+
+	private Display display;
+
+	private Image firstBase;
+
+	private Image secondBase;
+
+	private DecorationImageCache cache;
+
+	@Before
+	public void setUp() {
+		display = Display.getDefault();
+		firstBase = new Image(display, SIZE, SIZE);
+		secondBase = new Image(display, SIZE, SIZE);
+		// room for one image which is no longer referenced
+		cache = new DecorationImageCache(JFaceResources.getResources(display), 1);
+	}
+
+	@After
+	public void tearDown() {
+		cache.dispose();
+		firstBase.dispose();
+		secondBase.dispose();
+	}
+
+	private DecorationOverlayIcon createIcon(Image base) {
+		return new DecorationOverlayIcon(base,
+				new ImageDescriptor[] { ImageDescriptor.getMissingImageDescriptor(), null, null, null, null },
+				new Point(SIZE, SIZE));
+	}
+
+	@Test
+	public void testImagesAreShared() {
+		Image image = cache.createImage(createIcon(firstBase));
+		assertSame(image, cache.createImage(createIcon(firstBase)));
+		assertSame(image, cache.find(createIcon(firstBase)));
+	}
+
+	@Test
+	public void testUnreferencedImageIsKept() {
+		Image image = cache.createImage(createIcon(firstBase));
+		cache.createImage(createIcon(firstBase));
+		cache.destroyImage(createIcon(firstBase));
+		cache.destroyImage(createIcon(firstBase));
+		assertFalse(image.isDisposed());
+		assertSame(image, cache.createImage(createIcon(firstBase)));
+
+		// referenced again, so it is not evicted by the next unreferenced image
+		cache.createImage(createIcon(secondBase));
+		cache.destroyImage(createIcon(secondBase));
+		assertFalse(image.isDisposed());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedImageIsEvicted() {
+		Image first = cache.createImage(createIcon(firstBase));
+		Image second = cache.createImage(createIcon(secondBase));
+		cache.destroyImage(createIcon(firstBase));
+		cache.destroyImage(createIcon(secondBase));
+
+		assertNull(cache.find(createIcon(firstBase)));
+		assertNotNull(cache.find(createIcon(secondBase)));
+		assertFalse(second.isDisposed());
+		assertTrue(first.isDisposed());
+	}
+
+	@Test
+	public void testClearDisposesUnreferencedImages() {
+		Image image = cache.createImage(createIcon(firstBase));
+		Image referenced = cache.createImage(createIcon(secondBase));
+		cache.destroyImage(createIcon(firstBase));
+
+		cache.clear();
+		assertNull(cache.find(createIcon(firstBase)));
+		assertTrue(image.isDisposed());
+		assertFalse(referenced.isDisposed());
+	}
+}
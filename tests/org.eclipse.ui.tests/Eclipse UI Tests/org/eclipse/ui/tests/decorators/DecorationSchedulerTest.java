@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.decorators;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.jface.viewers.ILabelProviderListener;
+import org.eclipse.jface.viewers.LabelProviderChangedEvent;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.decorators.DecoratorDefinition;
+import org.eclipse.ui.internal.decorators.DecoratorManager;
+import org.eclipse.ui.tests.harness.util.DisplayHelper;
+import org.eclipse.ui.tests.navigator.AbstractNavigatorTest;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests that the results of the decoration jobs are delivered in batches.
+ */
+@RunWith(JUnit4.class)
+public class DecorationSchedulerTest extends AbstractNavigatorTest implements ILabelProviderListener {
+
+	private static final int FILE_COUNT = 200;
+
+	private static final String LIGHTWEIGHT_DECORATOR = "org.eclipse.ui.tests.decorators.lightweightdecorator";
+
+	private final List<IFile> files = new ArrayList<>();
+
+	// the decorated text of the files, as seen by the listener
+	private final Map<Object, String> decoratedTexts = new HashMap<>();
+
+	// the number of label updates containing any of the files
+	private int updateCount;
+
+	private DecoratorDefinition definition;
+
+	private boolean enabled;
+
+	public DecorationSchedulerTest() {
+		super(DecorationSchedulerTest.class.getSimpleName());
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		createTestFolder();
+		ResourcesPlugin.getWorkspace().run(monitor -> {
+			for (int i = 0; i < FILE_COUNT; i++) {
+				IFile file = testFolder.getFile("file" + i + ".txt");
+				file.create(new ByteArrayInputStream(new byte[0]), false, null);
+				files.add(file);
+			}
+		}, null);
+
+		for (DecoratorDefinition candidate : getDecoratorManager().getAllDecoratorDefinitions()) {
+			if (candidate.getId().equals(LIGHTWEIGHT_DECORATOR)) {
+				definition = candidate;
+			}
+		}
+		enabled = definition.isEnabled();
+		getDecoratorManager().clearCaches();
+		definition.setEnabled(true);
+		getDecoratorManager().updateForEnablementChange();
+		getDecoratorManager().addListener(this);
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		getDecoratorManager().removeListener(this);
+		getDecoratorManager().clearCaches();
+		definition.setEnabled(enabled);
+		getDecoratorManager().updateForEnablementChange();
+		super.doTearDown();
+	}
+
+	private DecoratorManager getDecoratorManager() {
+		return WorkbenchPlugin.getDefault().getDecoratorManager();
+	}
+
+	@Test
+	public void testResultsDeliveredInBatches() {
+		for (IFile file : files) {
+			// not decorated yet, queues the file for decoration
+			getDecoratorManager().decorateText(file.getName(), file);
+		}
+
+		DisplayHelper.waitForCondition(Display.getCurrent(), 10000,
+				() -> decoratedTexts.size() == files.size());
+		assertEquals("Not all files were decorated", files.size(), decoratedTexts.size());
+		for (IFile file : files) {
+			String text = decoratedTexts.get(file);
+			assertTrue("Missing prefix: " + text, text.contains(TestLightweightDecoratorContributor.DECORATOR_PREFIX));
+			assertTrue("Missing suffix: " + text, text.contains(TestLightweightDecoratorContributor.DECORATOR_SUFFIX));
+		}
+		assertTrue("Each result was delivered on its own: " + updateCount, updateCount < files.size());
+	}
+
+	@Override
+	public void labelProviderChanged(LabelProviderChangedEvent event) {
+		Object[] elements = event.getElements();
+		if (elements == null) {
+			return;
+		}
+		boolean found = false;
+		for (Object element : elements) {
+			if (files.contains(element)) {
+				// the result is available while the listeners are notified
+				decoratedTexts.put(element,
+						getDecoratorManager().decorateText(((IFile) element).getName(), element));
+				found = true;
+			}
+		}
+		if (found) {
+			updateCount++;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,6 +27,8 @@ import org.junit.runners.Suite;
 	DecoratorTableTest.class,
 	DecoratorAdaptableTests.class,
 	DecoratorCacheTest.class,
+	DecorationImageCacheTest.class,
+	DecorationSchedulerTest.class,
 })
 public class DecoratorsTestSuite {
 }
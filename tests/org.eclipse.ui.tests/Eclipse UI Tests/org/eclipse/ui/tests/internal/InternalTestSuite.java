@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,6 +24,7 @@ import org.eclipse.ui.tests.markers.MarkerSortUtilTest;
 import org.eclipse.ui.tests.markers.MarkerSupportRegistryTests;
 import org.eclipse.ui.tests.markers.MarkerTesterTest;
 import org.eclipse.ui.tests.markers.MarkerViewTests;
+import org.eclipse.ui.tests.markers.MarkerViewUpdateTest;
 import org.eclipse.ui.tests.markers.MarkerViewUtilTest;
 import org.eclipse.ui.tests.markers.ResourceMappingMarkersTest;
 import org.junit.runner.RunWith;
@@ -44,6 +45,7 @@ import org.junit.runners.Suite;
 	MarkerSupportRegistryTests.class,
 	MarkerSortUtilTest.class,
 	MarkerViewTests.class,
+	MarkerViewUpdateTest.class,
 	MarkerViewUtilTest.class,
 	MarkerHelpRegistryTest.class,
 	MarkerHelpRegistryReaderTest.class,
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 IBM Corporation and others.
+ * Copyright (c) 2008, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,7 @@ package org.eclipse.ui.tests.markers;
 import java.util.Arrays;
 import java.util.Comparator;
 
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.ui.internal.views.markers.MarkerSortUtil;
 import org.eclipse.ui.internal.views.markers.MockMarkerEntry;
 import org.eclipse.ui.tests.harness.util.UITestCase;
@@ -54,6 +55,26 @@ public class MarkerSortUtilTest extends UITestCase {
 	public void testCompleteSort() {
 		sortToLimit(ARRAYSIZE,ARRAYSIZE);
 	}
+	@Test
+	public void testParallelPartialSort() {
+		parallelSortToLimit(ARRAYSIZE, ARRAYSIZE / 2, 4);
+	}
+
+	@Test
+	public void testParallelCompleteSort() {
+		parallelSortToLimit(ARRAYSIZE, ARRAYSIZE, 4);
+	}
+
+	@Test
+	public void testParallelSortUnevenRuns() {
+		parallelSortToLimit(ARRAYSIZE + 7, ARRAYSIZE / 3, 3);
+	}
+
+	@Test
+	public void testParallelSortDefaultRuns() {
+		parallelSortToLimit(ARRAYSIZE, ARRAYSIZE / 2, -1);
+	}
+
 	/**
 	 *
 	 */
@@ -73,6 +94,38 @@ public class MarkerSortUtilTest extends UITestCase {
 	}
 
 
+	/**
+	 * @param runs the number of runs sorted concurrently, or <code>-1</code> to
+	 *             let the number of processors decide
+	 */
+	private void parallelSortToLimit(int arraySize, int limit, int runs) {
+		MockMarkerEntry[] fArray1 = generateArray(arraySize);
+		MockMarkerEntry[] fArray2 = fArray1.clone();
+		Comparator<MarkerItem> comparator = (o1, o2) -> ((MockMarkerEntry) o1).name
+				.compareTo(((MockMarkerEntry) o2).name);
+		if (runs < 0) {
+			MarkerSortUtil.parallelSortStartingKElement(fArray1, comparator, 0, fArray1.length - 1, limit,
+					new NullProgressMonitor());
+		} else {
+			MarkerSortUtil.parallelSortStartingKElement(fArray1, comparator, 0, fArray1.length - 1, limit, runs,
+					new NullProgressMonitor());
+		}
+		Arrays.sort(fArray2, comparator);
+
+		for (int i = 0; i < limit; i++) {
+			if (!fArray1[i].equals(fArray2[i])) {
+				fail("Incorrect sorting by MarkerSortUtil.parallelSortStartingKElement(...)");
+			}
+		}
+		// the remaining elements are kept
+		Arrays.sort(fArray1, comparator);
+		for (int i = 0; i < arraySize; i++) {
+			if (!fArray1[i].equals(fArray2[i])) {
+				fail("Elements lost by MarkerSortUtil.parallelSortStartingKElement(...)");
+			}
+		}
+	}
+
 	/**
 	 * Generate a large sized array for sorting
 	 */
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2020 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.markers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.internal.views.markers.MarkerContentGenerator;
+import org.eclipse.ui.tests.harness.util.DisplayHelper;
+import org.eclipse.ui.tests.harness.util.FileUtil;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests that the markers view follows added, removed and changed markers,
+ * which are applied incrementally unless there are too many of them.
+ */
+@RunWith(JUnit4.class)
+public class MarkerViewUpdateTest extends UITestCase {
+
+	private static final String ERRORS_FILTER = "org.eclipse.ui.ide.errorsFilter";
+
+	// an update may be delayed by up to ten seconds after a change
+	private static final long TIMEOUT = 30000;
+
+	private IProject project;
+
+	private IFile file;
+
+	private MarkersTestMarkersView view;
+
+	private boolean limitsEnabled;
+
+	public MarkerViewUpdateTest() {
+		super(MarkerViewUpdateTest.class.getSimpleName());
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		project = FileUtil.createProject("MarkerViewUpdateTest");
+		file = FileUtil.createFile("test.txt", project);
+		view = (MarkersTestMarkersView) openTestWindow().getActivePage().showView("org.eclipse.ui.tests.markerTests");
+		MarkerContentGenerator generator = view.getContentGenerator();
+		limitsEnabled = generator.isMarkerLimitsEnabled();
+		generator.setMarkerLimitsEnabled(false);
+		view.enableFilter(null);
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		try {
+			view.enableFilter(null);
+			view.getContentGenerator().setMarkerLimitsEnabled(limitsEnabled);
+			FileUtil.deleteProject(project);
+		} finally {
+			super.doTearDown();
+		}
+	}
+
+	@Test
+	public void testAddedMarkers() throws CoreException {
+		IMarker error = createProblem(IMarker.SEVERITY_ERROR, "error");
+		IMarker warning = createProblem(IMarker.SEVERITY_WARNING, "warning");
+		assertShown(error, warning);
+
+		IMarker info = createProblem(IMarker.SEVERITY_INFO, "info");
+		assertShown(error, warning, info);
+	}
+
+	@Test
+	public void testRemovedMarkers() throws CoreException {
+		IMarker error = createProblem(IMarker.SEVERITY_ERROR, "error");
+		IMarker warning = createProblem(IMarker.SEVERITY_WARNING, "warning");
+		assertShown(error, warning);
+
+		error.delete();
+		assertShown(warning);
+
+		warning.delete();
+		assertShown();
+	}
+
+	@Test
+	public void testChangedMarkers() throws CoreException {
+		IMarker first = createProblem(IMarker.SEVERITY_ERROR, "first");
+		IMarker second = createProblem(IMarker.SEVERITY_ERROR, "second");
+		assertShown(first, second);
+
+		// moves the marker to another category
+		first.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
+		second.setAttribute(IMarker.MESSAGE, "changed");
+		assertShown(first, second);
+
+		// changed and removed before the update
+		first.setAttribute(IMarker.MESSAGE, "changed");
+		first.delete();
+		assertShown(second);
+	}
+
+	@Test
+	public void testChangesWithFilter() throws Exception {
+		view.enableFilter(ERRORS_FILTER);
+		IMarker error = createProblem(IMarker.SEVERITY_ERROR, "error");
+		IMarker warning = createProblem(IMarker.SEVERITY_WARNING, "warning");
+		assertShown(error);
+
+		warning.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
+		assertShown(error, warning);
+
+		error.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
+		assertShown(warning);
+
+		warning.delete();
+		assertShown();
+
+		view.enableFilter(null);
+		assertShown(error);
+	}
+
+	@Test
+	public void testManyChanges() throws CoreException {
+		IMarker kept = createProblem(IMarker.SEVERITY_ERROR, "kept");
+		assertShown(kept);
+
+		// more changes than are applied incrementally
+		List<IMarker> markers = new ArrayList<>();
+		ResourcesPlugin.getWorkspace().run(monitor -> {
+			for (int i = 0; i < 1500; i++) {
+				markers.add(createProblem(IMarker.SEVERITY_WARNING, "warning " + i));
+			}
+		}, null);
+		markers.add(kept);
+		assertShown(markers.toArray(new IMarker[markers.size()]));
+
+		ResourcesPlugin.getWorkspace().run(monitor -> {
+			for (IMarker marker : markers) {
+				if (marker != kept) {
+					marker.delete();
+				}
+			}
+		}, null);
+		assertShown(kept);
+	}
+
+	private IMarker createProblem(int severity, String message) throws CoreException {
+		IMarker marker = file.createMarker(IMarker.PROBLEM);
+		marker.setAttribute(IMarker.SEVERITY, severity);
+		marker.setAttribute(IMarker.MESSAGE, message);
+		return marker;
+	}
+
+	private void assertShown(IMarker... expected) {
+		Set<IMarker> markers = new HashSet<>(Arrays.asList(expected));
+		DisplayHelper.waitForCondition(Display.getCurrent(), TIMEOUT, () -> markers.equals(getShownMarkers()));
+		assertEquals(markers, getShownMarkers());
+	}
+
+	/**
+	 * @return the markers of the test project shown by the view
+	 */
+	private Set<IMarker> getShownMarkers() {
+		Set<IMarker> markers = new HashSet<>();
+		for (IMarker marker : view.getCurrentMarkers()) {
+			if (project.equals(marker.getResource().getProject())) {
+				markers.add(marker);
+			}
+		}
+		return markers;
+	}
+}
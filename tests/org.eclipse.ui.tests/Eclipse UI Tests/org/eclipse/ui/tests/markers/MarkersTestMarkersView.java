@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2018 IBM Corporation and others.
+ * Copyright (c) 2007, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,8 @@ package org.eclipse.ui.tests.markers;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.NoSuchElementException;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.jobs.IJobChangeListener;
@@ -25,6 +27,7 @@ import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Tree;
 import org.eclipse.swt.widgets.TreeColumn;
 import org.eclipse.ui.internal.views.markers.ExtendedMarkersView;
+import org.eclipse.ui.internal.views.markers.MarkerContentGenerator;
 import org.eclipse.ui.views.markers.MarkerSupportView;
 import org.eclipse.ui.views.markers.internal.MarkerSupportRegistry;
 
@@ -105,6 +108,52 @@ public class MarkersTestMarkersView extends MarkerSupportView {
 
 	}
 
+	/**
+	 * Return the content generator of the receiver.
+	 *
+	 * @return the generator
+	 * @throws ReflectiveOperationException
+	 */
+	public MarkerContentGenerator getContentGenerator() throws ReflectiveOperationException {
+		Method method = ExtendedMarkersView.class.getDeclaredMethod("getGenerator");
+		method.setAccessible(true);
+		return (MarkerContentGenerator) method.invoke(this);
+	}
+
+	/**
+	 * Enable only the filter with the given id, or no filter at all.
+	 *
+	 * @param filterId
+	 *            the id of the filter, or <code>null</code> to disable all
+	 *            filters
+	 * @throws ReflectiveOperationException
+	 */
+	public void enableFilter(String filterId) throws ReflectiveOperationException {
+		MarkerContentGenerator generator = getContentGenerator();
+		Method disableAll = MarkerContentGenerator.class.getDeclaredMethod("disableAllFilters");
+		disableAll.setAccessible(true);
+		disableAll.invoke(generator);
+		if (filterId == null) {
+			return;
+		}
+		Method getAllFilters = MarkerContentGenerator.class.getDeclaredMethod("getAllFilters");
+		getAllFilters.setAccessible(true);
+		for (Object group : (Collection<?>) getAllFilters.invoke(generator)) {
+			Method getID = group.getClass().getMethod("getID");
+			getID.setAccessible(true);
+			if (filterId.equals(getID.invoke(group))) {
+				for (Method method : MarkerContentGenerator.class.getDeclaredMethods()) {
+					if (method.getName().equals("toggleFilter")) {
+						method.setAccessible(true);
+						method.invoke(generator, group);
+						return;
+					}
+				}
+			}
+		}
+		throw new NoSuchElementException(filterId);
+	}
+
 	/**
 	 * Set the width of all of the columns.
 	 * @param width